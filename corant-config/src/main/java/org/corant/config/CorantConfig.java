@@ -50,16 +50,16 @@ public class CorantConfig implements Config, Serializable {
   public static final String MP_CONFIG_SOURCE_BASE_NAME_PREFIX = MP_CONFIG_SOURCE_BASE_NAME + "-";
 
   final CorantConfigConversion configConversion;
-  final AtomicReference<CorantConfigSources> configSources;
+  final AtomicReference<CorantConfigSnapshot> configSnapshot;
 
   public CorantConfig(CorantConfigConversion conversion, CorantConfigSources sources) {
     configConversion = conversion;
-    configSources = new AtomicReference<>(sources);
+    configSnapshot = new AtomicReference<>(new CorantConfigSnapshot(sources, conversion));
   }
 
   @Override
   public Iterable<ConfigSource> getConfigSources() {
-    return forceCast(configSources.get().getSources());
+    return forceCast(configSnapshot.get().getSources().getSources());
   }
 
   @Override
@@ -68,7 +68,7 @@ public class CorantConfig implements Config, Serializable {
   }
 
   public ConfigValue getConfigValue(String propertyName, String defaultValue) {
-    return configSources.get().getConfigValue(propertyName, defaultValue);
+    return configSnapshot.get().getSources().getConfigValue(propertyName, defaultValue);
   }
 
   public CorantConfigConversion getConversion() {
@@ -82,7 +82,7 @@ public class CorantConfig implements Config, Serializable {
 
   public Object getConvertedValue(String propertyName, Type type, String defaultRawValue,
       String unconfiguredValue) {
-    Object result = configConversion.convert(configSources.get().getValue(propertyName), type);
+    Object result = configSnapshot.get().getConvertedValue(propertyName, type);
     if (result == null && defaultRawValue != null && !defaultRawValue.equals(unconfiguredValue)) {
       result = configConversion.convert(defaultRawValue, type);
     }
@@ -96,27 +96,27 @@ public class CorantConfig implements Config, Serializable {
   }
 
   public CorantConfigSources getCorantConfigSources() {
-    return configSources.get();
+    return configSnapshot.get().getSources();
   }
 
   @Override
   public <T> Optional<T> getOptionalValue(String propertyName, Class<T> propertyType) {
     logger.finer(() -> String.format("Retrieve optional config property key [%s] type [%s]",
         propertyName, propertyType.getName()));
-    return Optional.ofNullable(forceCast(
-        configConversion.convert(configSources.get().getValue(propertyName), propertyType)));
+    return Optional
+        .ofNullable(forceCast(configSnapshot.get().getConvertedValue(propertyName, propertyType)));
   }
 
   public <T> Optional<T> getOptionalValue(String propertyName,
       javax.enterprise.util.TypeLiteral<T> propertyType) {
-    T value = forceCast(configConversion.convert(configSources.get().getValue(propertyName),
-        propertyType.getType()));
+    T value =
+        forceCast(configSnapshot.get().getConvertedValue(propertyName, propertyType.getType()));
     return Optional.ofNullable(value);
   }
 
   public <T> Optional<T> getOptionalValue(String propertyName, TypeLiteral<T> propertyType) {
-    T value = forceCast(configConversion.convert(configSources.get().getValue(propertyName),
-        propertyType.getType()));
+    T value =
+        forceCast(configSnapshot.get().getConvertedValue(propertyName, propertyType.getType()));
     return Optional.ofNullable(value);
   }
 
@@ -130,15 +130,14 @@ public class CorantConfig implements Config, Serializable {
 
   @Override
   public Iterable<String> getPropertyNames() {
-    return configSources.get().getPropertyNames();
+    return configSnapshot.get().getSources().getPropertyNames();
   }
 
   @Override
   public <T> T getValue(String propertyName, Class<T> propertyType) {
     logger.fine(() -> String.format("Retrieve config property key [%s] type [%s]", propertyName,
         propertyType.getName()));
-    T value = forceCast(
-        configConversion.convert(configSources.get().getValue(propertyName), propertyType));
+    T value = forceCast(configSnapshot.get().getConvertedValue(propertyName, propertyType));
     if (value == null) {
       throw new NoSuchElementException(
           String.format("Config property name [%s] type [%s] not found! %n [%s]", propertyName,
@@ -148,8 +147,8 @@ public class CorantConfig implements Config, Serializable {
   }
 
   public <T> T getValue(String propertyName, TypeLiteral<T> propertyType) {
-    T value = forceCast(configConversion.convert(configSources.get().getValue(propertyName),
-        propertyType.getType()));
+    T value =
+        forceCast(configSnapshot.get().getConvertedValue(propertyName, propertyType.getType()));
     if (value == null) {
       throw new NoSuchElementException(
           String.format("Config property name [%s] type [%s] not found! %n [%s]", propertyName,
@@ -166,14 +165,16 @@ public class CorantConfig implements Config, Serializable {
     return Arrays.asList(getValue(propertyName, arrayType));
   }
 
+  /**
+   * Resets the config sources, the resolved value snapshot of the previous sources is discarded
+   * atomically together with the sources.
+   *
+   * @param sources the new config sources
+   * @param classLoader the class loader used to resolve the profiled sources
+   */
   public void reset(List<ConfigSource> sources, ClassLoader classLoader) {
-    CorantConfigSources configSources = CorantConfigSources.of(sources, classLoader);
-    for (;;) {
-      CorantConfigSources oldConfigSources = this.configSources.get();
-      if (this.configSources.compareAndSet(oldConfigSources, configSources)) {
-        return;
-      }
-    }
+    configSnapshot.set(
+        new CorantConfigSnapshot(CorantConfigSources.of(sources, classLoader), configConversion));
   }
 
   @Override
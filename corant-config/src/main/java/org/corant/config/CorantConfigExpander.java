@@ -32,6 +32,10 @@ import org.corant.shared.util.Strings;
 /**
  * corant-config
  *
+ * <p>
+ * The regular expression based config value expander, the config values are expanded by
+ * {@link CorantConfigTemplate} by default.
+ *
  * @author bingo 下午12:57:49
  *
  */
@@ -73,7 +77,6 @@ public class CorantConfigExpander {
         && (value.contains(MACRO_EXP_PREFIX) || value.contains(MACRO_VAR_PREFIX));
   }
 
-  // TODO Use AST?
   static String resolve(String template, CorantConfigRawValueProvider provider,
       Collection<String> stacks) {
     int[] position = resolvePosition(template);
@@ -160,7 +160,7 @@ public class CorantConfigResolver {
    * @return the expanded value or the original given value if it can't expand
    */
   public static String resolveValue(String configValue, CorantConfigRawValueProvider provider) {
-    return CorantConfigExpander.expand(configValue, provider);
+    return CorantConfigTemplate.expand(configValue, provider);
   }
 
   public static String[] splitKey(String text) {
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.config;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import org.corant.config.CorantConfigSources.Probe;
+import org.corant.config.CorantConfigSources.ResolvingTrace;
+
+/**
+ * corant-config
+ *
+ * <p>
+ * The resolved value snapshot of a {@link CorantConfigSources}, caches the profiled and expanded
+ * property values and the converted values keyed by the property name and the target type, so that
+ * the repeated retrievals don't go through the profile lookup, the expansion and the conversion
+ * again. A snapshot is bound to one config sources instance and is replaced together with it when
+ * the config is reset.
+ *
+ * <p>
+ * Note: The values that read from the dynamic config sources (specified by
+ * 'corant.config.dynamic-sources', default 'System.properties') are revalidated against those
+ * sources on each retrieval; the values that evaluated EL expressions are never cached since the
+ * expressions may not be idempotent; the converted values are only cached when they are immutable.
+ * The snapshot can be disabled by 'corant.config.snapshot.enable=false'.
+ *
+ * @author bingo 下午3:36:52
+ *
+ */
+class CorantConfigSnapshot {
+
+  static final int MAX_SIZE = 4096;
+  static final Object NULL = new Object();
+
+  final CorantConfigSources sources;
+  final CorantConfigConversion conversion;
+  final Map<String, Resolved> resolveds = new ConcurrentHashMap<>();
+
+  CorantConfigSnapshot(CorantConfigSources sources, CorantConfigConversion conversion) {
+    this.sources = sources;
+    this.conversion = conversion;
+  }
+
+  static boolean isImmutable(Object value) {
+    if (value == null || value instanceof String || value instanceof Boolean
+        || value instanceof Character || value instanceof Enum || value instanceof Class
+        || value instanceof OptionalInt || value instanceof OptionalLong
+        || value instanceof OptionalDouble || value instanceof BigDecimal
+        || value instanceof BigInteger || value instanceof Locale || value instanceof Currency
+        || value instanceof Charset || value instanceof UUID || value instanceof URI
+        || value instanceof URL || value instanceof Pattern) {
+      return true;
+    }
+    if (value instanceof Number) {
+      return value.getClass().getName().startsWith("java.lang.");
+    }
+    if (value instanceof Optional) {
+      return isImmutable(((Optional<?>) value).orElse(null));
+    }
+    return value.getClass().getName().startsWith("java.time.");
+  }
+
+  /**
+   * Returns the converted value of the given property name and type, returns null if the property
+   * doesn't exist.
+   *
+   * @param propertyName the property name
+   * @param type the target type
+   */
+  Object getConvertedValue(String propertyName, Type type) {
+    if (!sources.isSnapshotEnabled()) {
+      return conversion.convert(sources.getValue(propertyName), type);
+    }
+    Resolved resolved = resolve(propertyName);
+    if (!resolved.cacheable) {
+      return conversion.convert(resolved.value, type);
+    }
+    Object converted = resolved.converteds.get(type);
+    if (converted == null) {
+      converted = conversion.convert(resolved.value, type);
+      if (isImmutable(converted)) {
+        resolved.converteds.putIfAbsent(type, converted == null ? NULL : converted);
+      }
+      return converted;
+    }
+    return converted == NULL ? null : converted;
+  }
+
+  CorantConfigSources getSources() {
+    return sources;
+  }
+
+  Resolved resolve(String propertyName) {
+    Resolved resolved = resolveds.get(propertyName);
+    if (resolved != null && resolved.isUnchanged()) {
+      return resolved;
+    }
+    ResolvingTrace trace = new ResolvingTrace();
+    Resolved fresh = new Resolved(sources.getValue(propertyName, trace), trace);
+    if (!fresh.cacheable) {
+      if (resolved != null) {
+        resolveds.remove(propertyName, resolved);
+      }
+    } else if (resolved != null) {
+      resolveds.replace(propertyName, resolved, fresh);
+    } else if (resolveds.size() < MAX_SIZE) {
+      resolveds.putIfAbsent(propertyName, fresh);
+    }
+    return fresh;
+  }
+
+  /**
+   * corant-config
+   *
+   * @author bingo 下午3:36:52
+   *
+   */
+  static class Resolved {
+    static final Probe[] EMPTY_PROBES = {};
+    final String value;
+    final Probe[] probes;
+    final boolean cacheable;
+    final Map<Type, Object> converteds = new ConcurrentHashMap<>();
+
+    Resolved(String value, ResolvingTrace trace) {
+      this.value = value;
+      probes = trace.probes.isEmpty() ? EMPTY_PROBES : trace.probes.toArray(EMPTY_PROBES);
+      cacheable = !trace.evaluated;
+    }
+
+    boolean isUnchanged() {
+      for (Probe probe : probes) {
+        if (!probe.isUnchanged()) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
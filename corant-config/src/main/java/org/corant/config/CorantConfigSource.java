@@ -21,6 +21,10 @@ import org.eclipse.microprofile.config.spi.ConfigSource;
 /**
  * corant-config
  *
+ * <p>
+ * The profiled config source wrapper, a dynamic config source means that its values may be changed
+ * at runtime, the values resolved from it are revalidated on each retrieval.
+ *
  * @author bingo 下午5:18:52
  *
  */
@@ -28,10 +32,16 @@ public class CorantConfigSource implements ConfigSource, AutoCloseable {
 
   final ConfigSource delegate;
   final String sourceProfile;
+  final boolean dynamic;
 
   public CorantConfigSource(ConfigSource delegate, String sourceProfile) {
+    this(delegate, sourceProfile, false);
+  }
+
+  public CorantConfigSource(ConfigSource delegate, String sourceProfile, boolean dynamic) {
     this.delegate = delegate;
     this.sourceProfile = sourceProfile;
+    this.dynamic = dynamic;
   }
 
   @Override
@@ -74,6 +84,10 @@ public class CorantConfigSource implements ConfigSource, AutoCloseable {
     return delegate.getValue(propertyName);
   }
 
+  public boolean isDynamic() {
+    return dynamic;
+  }
+
   public <T extends ConfigSource> T unwrap(Class<T> type) {
     if (CorantConfigSource.class.isAssignableFrom(type)) {
       return type.cast(this);
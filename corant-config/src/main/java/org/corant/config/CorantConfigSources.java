@@ -55,6 +55,7 @@ import org.eclipse.microprofile.config.spi.ConfigSource;
 public class CorantConfigSources {
 
   public static final char PROFILE_SPECIFIC_PREFIX = '%';
+  public static final String DEFAULT_DYNAMIC_SOURCES = "System.properties";
 
   public static final Comparator<ConfigSource> CONFIG_SOURCE_COMPARATOR = (o1, o2) -> {
     int res = Long.signum((long) o2.getOrdinal() - (long) o1.getOrdinal());
@@ -66,6 +67,7 @@ public class CorantConfigSources {
   protected final String[] profilePrefixs;
   protected final ConfigELProcessor elProcessor;
   protected final boolean expressionsEnabled;
+  protected final boolean snapshotEnabled;
 
   /**
    * Build an instance
@@ -76,9 +78,23 @@ public class CorantConfigSources {
    */
   protected CorantConfigSources(List<CorantConfigSource> sources, boolean expressionsEnabled,
       String[] profiles) {
+    this(sources, expressionsEnabled, true, profiles);
+  }
+
+  /**
+   * Build an instance
+   *
+   * @param sources the processed configuration resources.
+   * @param expressionsEnabled whether to enable the el expression.
+   * @param snapshotEnabled whether to enable the resolved value snapshot.
+   * @param profiles the parsed profiles.
+   */
+  protected CorantConfigSources(List<CorantConfigSource> sources, boolean expressionsEnabled,
+      boolean snapshotEnabled, String[] profiles) {
     this.sources = sources;
     this.profiles = defaultObject(profiles, Strings.EMPTY_ARRAY);
     this.expressionsEnabled = expressionsEnabled;
+    this.snapshotEnabled = snapshotEnabled;
     if (isNotEmpty(profiles)) {
       String[] cps = new String[profiles.length];
       Arrays.setAll(cps, i -> PROFILE_SPECIFIC_PREFIX + profiles[i] + Names.NAME_SPACE_SEPARATOR);
@@ -100,6 +116,9 @@ public class CorantConfigSources {
     shouldNotNull(originalSources, "The config sources can not null!");
     MutableObject<String[]> profiles = new MutableObject<>(Strings.EMPTY_ARRAY);
     MutableBoolean enableExpressions = MutableBoolean.of(true);
+    MutableBoolean enableSnapshot = MutableBoolean.of(true);
+    MutableObject<String[]> dynamicSources =
+        new MutableObject<>(CorantConfigResolver.splitValue(DEFAULT_DYNAMIC_SOURCES));
     List<Pair<String, ConfigSource>> profileSources = new ArrayList<>(originalSources.size());
     // collect the profile and source
     originalSources.stream().sorted(CONFIG_SOURCE_COMPARATOR.reversed()).forEachOrdered(cs -> {
@@ -116,6 +135,14 @@ public class CorantConfigSources {
       if (expressionEnabled != null) {
         enableExpressions.set(toBoolean(expressionEnabled));
       }
+      String snapshotEnabled = cs.getValue(ConfigNames.CFG_SNAPSHOT_ENABLE);
+      if (snapshotEnabled != null) {
+        enableSnapshot.set(toBoolean(snapshotEnabled));
+      }
+      String dynamicSourceNames = cs.getValue(ConfigNames.CFG_DYNAMIC_SOURCES);
+      if (dynamicSourceNames != null) {
+        dynamicSources.set(CorantConfigResolver.splitValue(dynamicSourceNames));
+      }
     });
     final ConfigAdjuster configAdjuster = ConfigAdjuster.resolve(classLoader);
     List<CorantConfigSource> sources = new ArrayList<>(originalSources.size());
@@ -123,7 +150,8 @@ public class CorantConfigSources {
       if (ps.getLeft() == null || Arrays.binarySearch(profiles.get(), ps.getLeft()) != -1) {
         ConfigSource adjustedSource = configAdjuster.apply(ps.getRight());
         if (adjustedSource != null) {
-          sources.add(new CorantConfigSource(adjustedSource, ps.getLeft()));
+          sources.add(new CorantConfigSource(adjustedSource, ps.getLeft(),
+              Arrays.asList(dynamicSources.get()).contains(adjustedSource.getName())));
         }
       }
     });
@@ -135,7 +163,8 @@ public class CorantConfigSources {
           if (mps != null) {
             ConfigSource adjustedSource = configAdjuster.apply(mps);
             if (adjustedSource != null) {
-              sources.add(new CorantConfigSource(adjustedSource, profile));
+              sources.add(new CorantConfigSource(adjustedSource, profile,
+                  Arrays.asList(dynamicSources.get()).contains(adjustedSource.getName())));
             }
           }
         }
@@ -143,7 +172,8 @@ public class CorantConfigSources {
     }
     // sorting the collected sources
     sources.sort(CONFIG_SOURCE_COMPARATOR);
-    return new CorantConfigSources(sources, enableExpressions.get(), profiles.get());
+    return new CorantConfigSources(sources, enableExpressions.get(), enableSnapshot.get(),
+        profiles.get());
   }
 
   static String resolveSourceProfile(String sourceName) {
@@ -202,10 +232,43 @@ public class CorantConfigSources {
     return expressionsEnabled;
   }
 
+  /**
+   *
+   * @return the snapshotEnabled
+   */
+  public boolean isSnapshotEnabled() {
+    return snapshotEnabled;
+  }
+
+  /**
+   * Returns the profiled and expanded value, the values read from the dynamic config sources and
+   * the EL expression evaluation during the resolution are recorded into the given trace.
+   *
+   * @param propertyName the config property name
+   * @param trace the resolving trace to record
+   */
+  String getValue(String propertyName, ResolvingTrace trace) {
+    ResolvingTrace previous = ResolvingTrace.current.get();
+    ResolvingTrace.current.set(trace);
+    try {
+      return getValue(propertyName);
+    } finally {
+      if (previous == null) {
+        ResolvingTrace.current.remove();
+      } else {
+        ResolvingTrace.current.set(previous);
+      }
+    }
+  }
+
   /**
    * Returns the processed value of the EL expression
    */
   protected String evaluateValue(String value) {
+    ResolvingTrace trace = ResolvingTrace.current.get();
+    if (trace != null) {
+      trace.evaluated = true;
+    }
     return elProcessor.evalValue(value);
   }
 
@@ -228,9 +291,9 @@ public class CorantConfigSources {
       String key = profilePrefixs[i] + propertyName;
       for (CorantConfigSource cs : sources) {
         if (areEqual(cs.getSourceProfile(), profiles[i])) {
-          value = cs.getValue(propertyName);
+          value = getSourceValue(cs, propertyName);
         } else {
-          value = defaultString(cs.getValue(key), cs.getValue(propertyName));
+          value = defaultString(getSourceValue(cs, key), getSourceValue(cs, propertyName));
         }
         if (value != null) {
           return Pair.of(cs, value);
@@ -238,7 +301,7 @@ public class CorantConfigSources {
       }
     }
     for (CorantConfigSource cs : sources) {
-      String value = cs.getValue(propertyName);
+      String value = getSourceValue(cs, propertyName);
       if (value != null) {
         return Pair.of(cs, value);
       }
@@ -246,6 +309,21 @@ public class CorantConfigSources {
     return Pair.empty();
   }
 
+  /**
+   * Returns the value of the given config source, if the source is dynamic and the value is being
+   * resolved with a trace, the read value is recorded.
+   */
+  protected String getSourceValue(CorantConfigSource source, String key) {
+    String value = source.getValue(key);
+    if (source.isDynamic()) {
+      ResolvingTrace trace = ResolvingTrace.current.get();
+      if (trace != null) {
+        trace.probes.add(new Probe(source, key, value));
+      }
+    }
+    return value;
+  }
+
   protected String normalizeName(final String name) {
     int i = profilePrefixs.length;
     while (--i >= 0) {
@@ -273,4 +351,45 @@ public class CorantConfigSources {
   protected String retrieveValue(String propertyName) {
     return getSourceAndValue(propertyName).getValue();
   }
+
+  /**
+   * corant-config
+   *
+   * <p>
+   * A value read from a dynamic config source, used to check whether the source has been changed.
+   *
+   * @author bingo 下午6:04:42
+   *
+   */
+  static class Probe {
+    final CorantConfigSource source;
+    final String key;
+    final String value;
+
+    Probe(CorantConfigSource source, String key, String value) {
+      this.source = source;
+      this.key = key;
+      this.value = value;
+    }
+
+    boolean isUnchanged() {
+      return areEqual(source.getValue(key), value);
+    }
+  }
+
+  /**
+   * corant-config
+   *
+   * <p>
+   * Records the values read from the dynamic config sources and whether an EL expression was
+   * evaluated during a value resolution.
+   *
+   * @author bingo 下午6:04:42
+   *
+   */
+  static class ResolvingTrace {
+    static final ThreadLocal<ResolvingTrace> current = new ThreadLocal<>();
+    final List<Probe> probes = new ArrayList<>();
+    boolean evaluated;
+  }
 }
@@ -0,0 +1,380 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.config;
+
+import static org.corant.config.CorantConfigExpander.ESCAPE;
+import static org.corant.config.CorantConfigExpander.MACRO_DEFAULT;
+import static org.corant.config.CorantConfigExpander.MACRO_EXP_PREFIX;
+import static org.corant.config.CorantConfigExpander.MACRO_PREFIX_LENGTH;
+import static org.corant.config.CorantConfigExpander.MACRO_SUFFIX;
+import static org.corant.config.CorantConfigExpander.containsMacro;
+import static org.corant.shared.util.Strings.isBlank;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import org.corant.config.CorantConfigExpander.CorantConfigRawValueProvider;
+
+/**
+ * corant-config
+ *
+ * <p>
+ * The parsed config value template. A raw config value is tokenized once into literal nodes and
+ * macro nodes, the variable macro <b>${key:default}</b> and the expression macro
+ * <b>#{expression}</b>, the nested macros in the keys, the default values and the expressions are
+ * parsed into child nodes. The expansion evaluates the nodes against the raw value provider and
+ * appends the results into one builder, each referenced value is expanded with its own template,
+ * and the circular references are detected exactly through the current resolving path.
+ *
+ * <p>
+ * Note: Unlike {@link CorantConfigExpander}, the expanded text of a macro is not re-scanned together
+ * with the surrounding text, there is no expansion depth limit, and the default value of a variable
+ * macro is only expanded when it is used. The parsed templates are cached by the raw values.
+ *
+ * @author bingo 下午2:18:36
+ *
+ */
+public class CorantConfigTemplate {
+
+  public static final int CACHE_LIMITED = 8192;
+
+  static final Map<String, CorantConfigTemplate> templates = new ConcurrentHashMap<>();
+
+  final Node[] nodes;
+
+  CorantConfigTemplate(Node[] nodes) {
+    this.nodes = nodes;
+  }
+
+  /**
+   * Returns the expanded value if the given config value contains macros, otherwise returns the
+   * given config value directly.
+   *
+   * @param configValue the config value to expand
+   * @param provider the raw config value provider
+   * @return the expanded value
+   */
+  public static String expand(String configValue, CorantConfigRawValueProvider provider) {
+    if (containsMacro(configValue) && provider != null) {
+      StringBuilder builder = new StringBuilder(configValue.length() << 1);
+      of(configValue).evaluate(provider, new ArrayList<>(), builder);
+      return builder.toString();
+    }
+    return configValue;
+  }
+
+  /**
+   * Returns the parsed template of the given raw value.
+   *
+   * @param value the raw value to parse
+   */
+  public static CorantConfigTemplate of(String value) {
+    CorantConfigTemplate template = templates.get(value);
+    if (template == null) {
+      template = new CorantConfigTemplate(new Parser(value).parse());
+      if (templates.size() < CACHE_LIMITED) {
+        templates.putIfAbsent(value, template);
+      }
+    }
+    return template;
+  }
+
+  static void evaluate(Node[] nodes, CorantConfigRawValueProvider provider, List<String> path,
+      StringBuilder builder) {
+    for (Node node : nodes) {
+      node.evaluate(provider, path, builder);
+    }
+  }
+
+  static void evaluateValue(String value, CorantConfigRawValueProvider provider, List<String> path,
+      StringBuilder builder) {
+    if (containsMacro(value) || value.contains(ESCAPE)) {
+      of(value).evaluate(provider, path, builder);
+    } else {
+      builder.append(value);
+    }
+  }
+
+  static String evaluateText(Node[] nodes, CorantConfigRawValueProvider provider,
+      List<String> path) {
+    if (nodes.length == 1 && nodes[0] instanceof Literal) {
+      return ((Literal) nodes[0]).text;
+    }
+    StringBuilder builder = new StringBuilder();
+    evaluate(nodes, provider, path, builder);
+    return builder.toString();
+  }
+
+  static void push(List<String> path, String key) {
+    if (path.contains(key)) {
+      path.add(key);
+      throw new IllegalArgumentException(String.format(
+          "Can not expanded the variable value, circular reference found, the expanded path [%s].",
+          String.join(" -> ", path)));
+    }
+    path.add(key);
+  }
+
+  /**
+   * Appends the expanded value of this template into the given builder
+   *
+   * @param provider the raw config value provider
+   * @param path the current resolving path, used to detect the circular references
+   * @param builder the builder to append
+   */
+  public void evaluate(CorantConfigRawValueProvider provider, List<String> path,
+      StringBuilder builder) {
+    evaluate(nodes, provider, path, builder);
+  }
+
+  /**
+   * corant-config
+   *
+   * <p>
+   * The expression macro node, the text of the expression is kept as it is, including the escapes.
+   *
+   * @author bingo 下午2:18:36
+   *
+   */
+  static class Expression implements Node {
+    final Node[] expression;
+    final boolean emptyIfAbsent;
+
+    Expression(Node[] expression, boolean emptyIfAbsent) {
+      this.expression = expression;
+      this.emptyIfAbsent = emptyIfAbsent;
+    }
+
+    @Override
+    public void evaluate(CorantConfigRawValueProvider provider, List<String> path,
+        StringBuilder builder) {
+      String text = evaluateText(expression, provider, path);
+      if (isBlank(text)) {
+        builder.append(text);
+        return;
+      }
+      push(path, MACRO_EXP_PREFIX + text + MACRO_SUFFIX);
+      String value = provider.get(true, text);
+      if (value != null) {
+        evaluateValue(value, provider, path, builder);
+      } else if (!emptyIfAbsent) {
+        throw new NoSuchElementException(String.format(
+            "Can not expanded the variable value, the extracted not found, the expanded path [%s].",
+            String.join(" -> ", path)));
+      }
+      path.remove(path.size() - 1);
+    }
+  }
+
+  /**
+   * corant-config
+   *
+   * @author bingo 下午2:18:36
+   *
+   */
+  static class Literal implements Node {
+    final String text;
+
+    Literal(String text) {
+      this.text = text;
+    }
+
+    @Override
+    public void evaluate(CorantConfigRawValueProvider provider, List<String> path,
+        StringBuilder builder) {
+      builder.append(text);
+    }
+  }
+
+  /**
+   * corant-config
+   *
+   * @author bingo 下午2:18:36
+   *
+   */
+  interface Node {
+    void evaluate(CorantConfigRawValueProvider provider, List<String> path, StringBuilder builder);
+  }
+
+  /**
+   * corant-config
+   *
+   * <p>
+   * A single pass tokenizer, the macro prefixes that have no matching suffix are resolved in
+   * advance and are treated as literal text.
+   *
+   * @author bingo 下午2:18:36
+   *
+   */
+  static class Parser {
+    static final Node[] EMPTY_NODES = {};
+    final String text;
+    final int length;
+    final boolean[] closed;
+    int pos;
+
+    Parser(String text) {
+      this.text = text;
+      length = text.length();
+      closed = new boolean[length];
+      int[] stack = new int[8];
+      int top = 0;
+      int i = 0;
+      while (i < length) {
+        char c = text.charAt(i);
+        if (c == '\\' && isEscape(i)) {
+          i += escapeLength(i);
+        } else if (isPrefix(i)) {
+          if (top == stack.length) {
+            stack = Arrays.copyOf(stack, top << 1);
+          }
+          stack[top++] = i;
+          i += MACRO_PREFIX_LENGTH;
+        } else {
+          if (c == '}' && top > 0) {
+            closed[stack[--top]] = true;
+          }
+          i++;
+        }
+      }
+    }
+
+    Node[] parse() {
+      return parse(false, false, null);
+    }
+
+    void flush(StringBuilder literal, List<Node> nodes) {
+      if (literal.length() > 0) {
+        nodes.add(new Literal(literal.toString()));
+        literal.setLength(0);
+      }
+    }
+
+    int escapeLength(int i) {
+      char n = text.charAt(i + 1);
+      return n == '$' || n == '#' ? 3 : 2;
+    }
+
+    boolean isEscape(int i) {
+      if (i + 1 < length) {
+        char n = text.charAt(i + 1);
+        return n == '}' || n == ':' || (n == '$' || n == '#') && text.startsWith("{", i + 2);
+      }
+      return false;
+    }
+
+    boolean isPrefix(int i) {
+      char c = text.charAt(i);
+      return (c == '$' || c == '#') && i + 1 < length && text.charAt(i + 1) == '{';
+    }
+
+    Node parseMacro() {
+      final int start = pos;
+      final boolean eval = text.charAt(start) == '#';
+      pos += MACRO_PREFIX_LENGTH;
+      if (eval) {
+        Node[] expression = parse(true, true, null);
+        String body = text.substring(start + MACRO_PREFIX_LENGTH, pos - 1);
+        return new Expression(expression, body.endsWith(MACRO_DEFAULT) && body.length() > 1);
+      }
+      int[] split = {-1};
+      Node[] body = parse(true, false, split);
+      if (split[0] < 0) {
+        String raw = text.substring(start + MACRO_PREFIX_LENGTH, pos - 1);
+        // the escaped default separator at the end, compatible with the legacy expander
+        return new Variable(body,
+            raw.endsWith(MACRO_DEFAULT) && raw.length() > 1 ? EMPTY_NODES : null);
+      }
+      Node[] key = Arrays.copyOfRange(body, 0, split[0]);
+      Node[] defaults = Arrays.copyOfRange(body, split[0], body.length);
+      return new Variable(key, defaults);
+    }
+
+    Node[] parse(boolean nested, boolean raw, int[] split) {
+      StringBuilder literal = new StringBuilder();
+      List<Node> nodes = new ArrayList<>();
+      while (pos < length) {
+        char c = text.charAt(pos);
+        if (c == '\\' && isEscape(pos)) {
+          int escapeLength = escapeLength(pos);
+          literal.append(text, raw ? pos : pos + 1, pos + escapeLength);
+          pos += escapeLength;
+        } else if (isPrefix(pos) && closed[pos]) {
+          flush(literal, nodes);
+          nodes.add(parseMacro());
+        } else if (c == '}' && nested) {
+          pos++;
+          break;
+        } else if (c == ':' && split != null && split[0] < 0) {
+          flush(literal, nodes);
+          split[0] = nodes.size();
+          pos++;
+        } else {
+          literal.append(c);
+          pos++;
+        }
+      }
+      flush(literal, nodes);
+      if (split != null && split[0] == nodes.size()) {
+        nodes.add(new Literal(""));// empty default value
+      }
+      return nodes.isEmpty() ? EMPTY_NODES : nodes.toArray(EMPTY_NODES);
+    }
+  }
+
+  /**
+   * corant-config
+   *
+   * <p>
+   * The variable macro node, if the default value nodes is null means that the variable has no
+   * default value.
+   *
+   * @author bingo 下午2:18:36
+   *
+   */
+  static class Variable implements Node {
+    final Node[] key;
+    final Node[] defaults;
+
+    Variable(Node[] key, Node[] defaults) {
+      this.key = key;
+      this.defaults = defaults;
+    }
+
+    @Override
+    public void evaluate(CorantConfigRawValueProvider provider, List<String> path,
+        StringBuilder builder) {
+      String text = evaluateText(key, provider, path);
+      if (defaults == null && isBlank(text)) {
+        builder.append(text);
+        return;
+      }
+      push(path, text);
+      String value = provider.get(false, text);
+      if (value != null) {
+        evaluateValue(value, provider, path, builder);
+        path.remove(path.size() - 1);
+      } else if (defaults != null) {
+        path.remove(path.size() - 1);
+        CorantConfigTemplate.evaluate(defaults, provider, path, builder);
+      } else {
+        throw new NoSuchElementException(String.format(
+            "Can not expanded the variable value, the extracted not found, the expanded path [%s].",
+            String.join(" -> ", path)));
+      }
+    }
+  }
+}
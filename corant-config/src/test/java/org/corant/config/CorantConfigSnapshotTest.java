@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.config;
+
+import static org.corant.shared.util.Lists.listOf;
+import static org.corant.shared.util.Maps.mapOf;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.corant.config.source.SystemPropertiesConfigSource;
+import org.corant.shared.normal.Names.ConfigNames;
+import org.eclipse.microprofile.config.spi.ConfigSource;
+import org.junit.Test;
+import junit.framework.TestCase;
+
+/**
+ * corant-config
+ *
+ * @author bingo 下午3:36:52
+ *
+ */
+public class CorantConfigSnapshotTest extends TestCase {
+
+  static final String SYS_KEY = "corant.test.snapshot.name";
+
+  static CorantConfig config(List<ConfigSource> sources) {
+    ClassLoader classLoader = CorantConfigSnapshotTest.class.getClassLoader();
+    return new CorantConfig(
+        new CorantConfigConversion(new ArrayList<>(CorantConfigConversion.BUILT_IN_CONVERTERS)),
+        CorantConfigSources.of(sources, classLoader));
+  }
+
+  @Test
+  public void testConvertedValueCache() {
+    CorantConfig config =
+        config(listOf(new MapConfigSource(mapOf("port", "8080", "names", "a,b"))));
+    assertSame(config.getValue("port", Integer.class), config.getValue("port", Integer.class));
+    CorantConfigSnapshot snapshot = config.configSnapshot.get();
+    assertTrue(snapshot.resolveds.get("port").converteds.containsKey(Integer.class));
+    // the mutable converted values are not cached
+    String[] names = config.getValue("names", String[].class);
+    assertNotSame(names, config.getValue("names", String[].class));
+    assertFalse(snapshot.resolveds.get("names").converteds.containsKey(String[].class));
+  }
+
+  @Test
+  public void testDynamicSource() {
+    System.setProperty(SYS_KEY, "a");
+    try {
+      CorantConfig config = config(listOf(new SystemPropertiesConfigSource(),
+          new MapConfigSource(mapOf("greeting", "hello ${" + SYS_KEY + "}"))));
+      assertEquals("hello a", config.getValue("greeting", String.class));
+      assertEquals("a", config.getValue(SYS_KEY, String.class));
+      assertTrue(config.configSnapshot.get().resolveds.containsKey("greeting"));
+      System.setProperty(SYS_KEY, "b");
+      assertEquals("hello b", config.getValue("greeting", String.class));
+      assertEquals("b", config.getValue(SYS_KEY, String.class));
+      System.clearProperty(SYS_KEY);
+      assertFalse(config.getOptionalValue(SYS_KEY, String.class).isPresent());
+    } finally {
+      System.clearProperty(SYS_KEY);
+    }
+  }
+
+  @Test
+  public void testExpressionNotCached() {
+    CorantConfig config =
+        config(listOf(new MapConfigSource(mapOf("uuid", "#{UUID.randomUUID().toString()}"))));
+    String uuid = config.getValue("uuid", String.class);
+    assertFalse(uuid.equals(config.getValue("uuid", String.class)));
+    assertFalse(config.configSnapshot.get().resolveds.containsKey("uuid"));
+  }
+
+  @Test
+  public void testReset() {
+    MapConfigSource source = new MapConfigSource(mapOf("key", "1"));
+    CorantConfig config = config(listOf(source));
+    assertEquals(Integer.valueOf(1), config.getValue("key", Integer.class));
+    // the static sources are cached until the config is reset
+    source.properties.put("key", "2");
+    assertEquals(Integer.valueOf(1), config.getValue("key", Integer.class));
+    CorantConfigSnapshot snapshot = config.configSnapshot.get();
+    config.reset(listOf(new MapConfigSource(mapOf("key", "3"))),
+        CorantConfigSnapshotTest.class.getClassLoader());
+    assertNotSame(snapshot, config.configSnapshot.get());
+    assertEquals(Integer.valueOf(3), config.getValue("key", Integer.class));
+  }
+
+  @Test
+  public void testSnapshotDisabled() {
+    MapConfigSource source =
+        new MapConfigSource(mapOf(ConfigNames.CFG_SNAPSHOT_ENABLE, "false", "key", "1"));
+    CorantConfig config = config(listOf(source));
+    assertEquals("1", config.getValue("key", String.class));
+    source.properties.put("key", "2");
+    assertEquals("2", config.getValue("key", String.class));
+    assertTrue(config.configSnapshot.get().resolveds.isEmpty());
+  }
+
+  /**
+   * corant-config
+   *
+   * @author bingo 下午3:36:52
+   *
+   */
+  static class MapConfigSource implements ConfigSource {
+    final Map<String, String> properties;
+
+    MapConfigSource(Map<String, String> properties) {
+      this.properties = new HashMap<>(properties);
+    }
+
+    @Override
+    public String getName() {
+      return "test.map";
+    }
+
+    @Override
+    public int getOrdinal() {
+      return 100;
+    }
+
+    @Override
+    public Map<String, String> getProperties() {
+      return properties;
+    }
+
+    @Override
+    public Set<String> getPropertyNames() {
+      return properties.keySet();
+    }
+
+    @Override
+    public String getValue(String propertyName) {
+      return properties.get(propertyName);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.corant.config.CorantConfigExpander.CorantConfigRawValueProvider;
+
+/**
+ * corant-config
+ *
+ * <p>
+ * Compares the regex based expander and the template based expander on a generated config of about
+ * 15k properties. This isn't a unit test and isn't run by the build, run the main method manually.
+ *
+ * @author bingo 下午2:18:36
+ *
+ */
+public class CorantConfigTemplateBenchmark {
+
+  public static void main(String... args) {
+    Map<String, String> map = CorantConfigTemplateTest.generate(50, 100);
+    CorantConfigRawValueProvider provider = CorantConfigTemplateTest.provider(map);
+    List<String> keys = new ArrayList<>(map.keySet());
+    for (int round = 0; round < 3; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < 10; i++) {
+        for (String key : keys) {
+          CorantConfigExpander.expand(map.get(key), provider);
+        }
+      }
+      long regex = System.nanoTime() - start;
+      start = System.nanoTime();
+      for (int i = 0; i < 10; i++) {
+        for (String key : keys) {
+          CorantConfigTemplate.expand(map.get(key), provider);
+        }
+      }
+      long template = System.nanoTime() - start;
+      System.out.printf("properties: %d, regex expander: %d ms, template expander: %d ms%n",
+          keys.size(), regex / 1000000, template / 1000000);
+    }
+  }
+}
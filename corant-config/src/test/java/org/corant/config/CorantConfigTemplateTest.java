@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.config;
+
+import static org.corant.shared.util.Maps.linkedHashMapOf;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.corant.config.CorantConfigExpander.CorantConfigRawValueProvider;
+import org.junit.Test;
+import org.yaml.snakeyaml.Yaml;
+import junit.framework.TestCase;
+
+/**
+ * corant-config
+ *
+ * @author bingo 下午2:18:36
+ *
+ */
+public class CorantConfigTemplateTest extends TestCase {
+
+  static CorantConfigRawValueProvider provider(Map<String, String> map) {
+    return (x, y) -> {
+      String val = map.get(y);
+      if (x && val != null) {
+        val = val.concat("[EL]");
+      }
+      return val;
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  static void flatten(String prefix, Map<String, Object> yaml, Map<String, String> map) {
+    yaml.forEach((k, v) -> {
+      String key = prefix.isEmpty() ? k : prefix + "." + k;
+      if (v instanceof Map) {
+        flatten(key, (Map<String, Object>) v, map);
+      } else {
+        map.put(key, String.valueOf(v));
+      }
+    });
+  }
+
+  /**
+   * Returns the flattened properties of a generated YAML config of the given size, the values
+   * reference each other and use the default values.
+   */
+  static Map<String, String> generate(int modules, int services) {
+    StringBuilder yaml = new StringBuilder("app:\n  default:\n    port: 8080\n");
+    for (int m = 0; m < modules; m++) {
+      yaml.append("  module").append(m).append(":\n");
+      yaml.append("    name: m").append(m).append('\n');
+      for (int s = 0; s < services; s++) {
+        String prev = "app.module" + m + ".service" + (s - 1);
+        String self = "app.module" + m + ".service" + s;
+        yaml.append("    service").append(s).append(":\n");
+        yaml.append("      host: '")
+            .append(s % 8 == 0 ? "host" + s + ".example.com" : "${" + prev + ".host}")
+            .append("'\n");
+        yaml.append("      port: '${app.default.port:80}'\n");
+        yaml.append("      url: 'http://${").append(self).append(".host}:${").append(self)
+            .append(".port}/api/${app.module").append(m).append(".name}/${").append(self)
+            .append(".path:v1}'\n");
+      }
+    }
+    Map<String, String> map = new HashMap<>();
+    flatten("", new Yaml().load(yaml.toString()), map);
+    return map;
+  }
+
+  @Test
+  public void testCircularReference() {
+    Map<String, String> map = linkedHashMapOf("a", "${b}", "b", "x${c}", "c", "${a}", "d", "${e}",
+        "e", "${a.b:#{f}}", "f", "${d}");
+    try {
+      CorantConfigTemplate.expand(map.get("a"), provider(map));
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("b -> c -> a -> b"));
+    }
+    try {
+      CorantConfigTemplate.expand(map.get("d"), provider(map));
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("e -> #{f} -> d -> e"));
+    }
+  }
+
+  @Test
+  public void testEquivalence() {
+    Map<String, String> map = generate(50, 100);
+    CorantConfigRawValueProvider provider = provider(map);
+    map.forEach((k, v) -> assertEquals(CorantConfigExpander.expand(v, provider),
+        CorantConfigTemplate.expand(v, provider)));
+  }
+
+  @Test
+  public void testExpand() {
+    Map<String, String> map = linkedHashMapOf("a.b", "1234", "c.d", "${a.b}", "e.f",
+        "5\\${}6${c.d}", "g.h", "56${c.d}.\\${", "i.j", "${c.e:8080}", "k.l", "b", "m.n",
+        "mn${a.${k.l}}", "o.p", "${\\}", "r.s", "\\${}", "t.w",
+        "#{a.b} ${g.h} \\${} ${c.d} m${a.${k.l}} ${a.${k.l}}n  x${a.#{k.l}:*}y ", "u.v",
+        "x${unclosed", "w.x", "${a${k.l}", "y.z", "${a.b:}${none:}z${ }${}a\\:b\\}");
+    CorantConfigRawValueProvider provider = provider(map);
+    map.forEach((k, v) -> assertEquals(CorantConfigExpander.expand(v, provider),
+        CorantConfigTemplate.expand(v, provider)));
+    assertEquals("1234[EL] 561234.${ ${} 1234 m1234 1234n  x*y ",
+        CorantConfigTemplate.expand(map.get("t.w"), provider));
+    assertEquals("x${unclosed", CorantConfigTemplate.expand(map.get("u.v"), provider));
+    assertEquals("1234z a:b}", CorantConfigTemplate.expand(map.get("y.z"), provider));
+  }
+
+  @Test
+  public void testUnfoundReference() {
+    Map<String, String> map = linkedHashMapOf("a", "${b}", "b", "${c}");
+    try {
+      CorantConfigTemplate.expand(map.get("a"), provider(map));
+      fail();
+    } catch (NoSuchElementException e) {
+      assertTrue(e.getMessage().contains("b -> c"));
+    }
+  }
+}
@@ -14,13 +14,16 @@
 package org.corant.context;
 
 import static org.corant.shared.util.Classes.getUserClass;
+import static org.corant.shared.util.Objects.forceCast;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Target;
+import java.lang.reflect.Member;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Function;
 import javax.enterprise.inject.Intercepted;
 import javax.enterprise.inject.spi.AnnotatedConstructor;
 import javax.enterprise.inject.spi.AnnotatedMethod;
@@ -57,6 +60,39 @@ public abstract class AbstractInterceptor {
     throw new NotSupportedException();
   }
 
+  /**
+   * Returns the intercepted bean class of the given invocation context, used to key the interceptor
+   * metadata.
+   *
+   * @param ic the invocation context
+   */
+  protected Class<?> getInterceptedClass(InvocationContext ic) {
+    if (interceptedBean != null) {
+      return interceptedBean.getBeanClass();
+    } else if (ic.getTarget() != null) {
+      return getUserClass(ic.getTarget());
+    } else if (ic.getMethod() != null) {
+      return ic.getMethod().getDeclaringClass();
+    } else if (ic.getConstructor() != null) {
+      return ic.getConstructor().getDeclaringClass();
+    }
+    throw new NotSupportedException();
+  }
+
+  /**
+   * Returns the interceptor annotation of the given invocation context, the annotation is resolved
+   * once per intercepted bean class and member.
+   *
+   * @param <T> the interceptor annotation type
+   * @param ic the invocation context
+   * @param interceptorAnnotationType the interceptor annotation type
+   * @param metadatas the registry that holds the resolved annotations
+   */
+  protected <T extends Annotation> T getInterceptorAnnotation(InvocationContext ic,
+      Class<T> interceptorAnnotationType, InterceptorMetadatas<T> metadatas) {
+    return getInterceptorMetadata(ic, interceptorAnnotationType, metadatas, Function.identity());
+  }
+
   @SuppressWarnings("unchecked")
   protected <T extends Annotation> T getInterceptorAnnotation(InvocationContext ic,
       Class<T> interceptorAnnotationType) {
@@ -156,6 +192,35 @@ public abstract class AbstractInterceptor {
         annotationsOnMember.toArray(new Annotation[0]));
   }
 
+  /**
+   * Returns the interceptor metadata of the given invocation context from the given registry, the
+   * metadata is computed by the given resolver with the interceptor annotation once per intercepted
+   * bean class and member, the subsequent invocations only look up the registry.
+   *
+   * @param <T> the interceptor annotation type
+   * @param <M> the metadata type
+   * @param ic the invocation context
+   * @param interceptorAnnotationType the interceptor annotation type
+   * @param metadatas the registry that holds the metadata
+   * @param resolver the metadata resolver, the argument may be null if the interceptor annotation
+   *        can't be found
+   */
+  protected <T extends Annotation, M> M getInterceptorMetadata(InvocationContext ic,
+      Class<T> interceptorAnnotationType, InterceptorMetadatas<M> metadatas,
+      Function<? super T, ? extends M> resolver) {
+    Member member = ic.getMethod() != null ? ic.getMethod() : ic.getConstructor();
+    if (member == null) {
+      return resolver.apply(getInterceptorAnnotation(ic, interceptorAnnotationType));
+    }
+    Class<?> interceptedClass = getInterceptedClass(ic);
+    Object metadata = metadatas.lookup(interceptedClass, member);
+    if (metadata != null) {
+      return metadata == InterceptorMetadatas.NULL ? null : forceCast(metadata);
+    }
+    return metadatas.get(interceptedClass, member,
+        m -> resolver.apply(getInterceptorAnnotation(ic, interceptorAnnotationType)));
+  }
+
   protected Set<ElementType> getTarget(Class<?> interceptorAnnotationType) {
     Set<ElementType> targets = EnumSet.noneOf(ElementType.class);
     for (Target t : interceptorAnnotationType.getAnnotationsByType(Target.class)) {
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.context;
+
+import static org.corant.config.Configs.getValue;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import javax.annotation.Priority;
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.spi.AfterDeploymentValidation;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.BeforeShutdown;
+import javax.enterprise.inject.spi.CDI;
+import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.util.TypeLiteral;
+import javax.inject.Singleton;
+import org.corant.shared.normal.Priorities;
+
+/**
+ * corant-context
+ *
+ * <p>
+ * The cached bean resolution facility, caches the selected {@link Instance} handles keyed by the
+ * bean type and the qualifiers, and the contextual references of the resolvable normal scoped and
+ * {@link Singleton} beans, so that the repeated lookups don't go through the container resolution
+ * again. The {@code @Dependent} beans are never cached, each retrieval creates a new instance as
+ * usual.
+ *
+ * <p>
+ * Note: The caching is only active after the deployment validation and all cached handles are
+ * discarded before the container shutdown, it can be disabled by
+ * 'corant.context.bean-resolution-cache.enable=false'.
+ *
+ * @author bingo 下午4:12:05
+ *
+ */
+public class BeanResolutions implements Extension {
+
+  static final boolean ENABLED =
+      getValue("corant.context.bean-resolution-cache.enable", Boolean.class, Boolean.TRUE);
+
+  private static final Logger logger = Logger.getLogger(BeanResolutions.class.getName());
+  static final Map<Object, Handle<?>> handles = new ConcurrentHashMap<>();
+  static volatile BeanManager beanManager;
+
+  /**
+   * Discards all cached handles.
+   */
+  public static void clear() {
+    handles.clear();
+  }
+
+  /**
+   * Returns whether a container is running and the resolution cache is active.
+   */
+  public static boolean isActive() {
+    return beanManager != null;
+  }
+
+  /**
+   * Returns the cached handle that matches the given instance class and qualifiers, if the cache
+   * isn't active then returns an uncached handle.
+   *
+   * @param <T> the bean type to be selected
+   * @param instanceClass the bean instance class to be selected
+   * @param qualifiers the bean qualifiers to be selected
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> Handle<T> select(Class<T> instanceClass, Annotation... qualifiers) {
+    final BeanManager bm = beanManager;
+    if (bm == null) {
+      return new Handle<>(CDI.current().select(instanceClass, qualifiers), null, instanceClass,
+          qualifiers);
+    }
+    Object key = qualifiers.length == 0 ? instanceClass : new Key(instanceClass, qualifiers);
+    Handle<T> handle = (Handle<T>) handles.get(key);
+    if (handle == null) {
+      handle = new Handle<>(CDI.current().select(instanceClass, qualifiers), bm, instanceClass,
+          qualifiers);
+      cache(key, handle, bm);
+    }
+    return handle;
+  }
+
+  /**
+   * Returns the cached handle that matches the given instance type and qualifiers, if the cache
+   * isn't active then returns an uncached handle.
+   *
+   * @param <T> the bean type to be selected
+   * @param <U> the bean type to be selected
+   * @param subtype the required type
+   * @param qualifiers the bean qualifiers to be selected
+   */
+  @SuppressWarnings("unchecked")
+  public static <T, U extends T> Handle<U> select(TypeLiteral<U> subtype,
+      Annotation... qualifiers) {
+    final BeanManager bm = beanManager;
+    if (bm == null) {
+      return new Handle<>(CDI.current().select(subtype, qualifiers), null, subtype.getType(),
+          qualifiers);
+    }
+    Object key = new Key(subtype.getType(), qualifiers);
+    Handle<U> handle = (Handle<U>) handles.get(key);
+    if (handle == null) {
+      handle = new Handle<>(CDI.current().select(subtype, qualifiers), bm, subtype.getType(),
+          qualifiers);
+      cache(key, handle, bm);
+    }
+    return handle;
+  }
+
+  static void cache(Object key, Handle<?> handle, BeanManager bm) {
+    // the container may be shutting down
+    if (beanManager == bm) {
+      handles.putIfAbsent(key, handle);
+    }
+  }
+
+  synchronized void onAfterDeploymentValidation(
+      @Observes @Priority(Priorities.FRAMEWORK_LOWER) AfterDeploymentValidation adv,
+      BeanManager bm) {
+    handles.clear();
+    if (ENABLED) {
+      beanManager = bm;
+      logger.fine(() -> "The bean resolution cache is activated.");
+    }
+  }
+
+  synchronized void onBeforeShutdown(
+      @Observes @Priority(Priorities.FRAMEWORK_HIGHER) BeforeShutdown bs) {
+    beanManager = null;
+    handles.clear();
+    logger.fine(() -> "Clear bean resolution cache.");
+  }
+
+  /**
+   * corant-context
+   *
+   * <p>
+   * A selected instance handle. If the handle is created when the cache is active, the
+   * resolvability is resolved once, and the contextual reference is cached if the resolved bean is
+   * normal scoped or {@link Singleton}; otherwise the handle delegates to the selected instance.
+   *
+   * @author bingo 下午4:12:05
+   *
+   */
+  public static class Handle<T> {
+    final Instance<T> instance;
+    final boolean resolved;
+    final boolean resolvable;
+    final boolean unsatisfied;
+    final boolean cacheable;
+    volatile T reference;
+
+    Handle(Instance<T> instance, BeanManager bm, Type type, Annotation... qualifiers) {
+      this.instance = instance;
+      resolved = bm != null;
+      resolvable = resolved && instance.isResolvable();
+      unsatisfied = resolved && !resolvable && instance.isUnsatisfied();
+      if (resolvable) {
+        Bean<?> bean = bm.resolve(bm.getBeans(type, qualifiers));
+        cacheable = bean != null && (bm.isNormalScope(bean.getScope())
+            || Singleton.class.equals(bean.getScope()));
+      } else {
+        cacheable = false;
+      }
+    }
+
+    /**
+     * Returns the bean instance or throws exception if can't resolve, the contextual reference of
+     * the normal scoped or {@link Singleton} bean is retrieved once.
+     */
+    public T get() {
+      if (!cacheable) {
+        return instance.get();
+      }
+      T useReference = reference;
+      if (useReference == null) {
+        reference = useReference = instance.get();
+      }
+      return useReference;
+    }
+
+    /**
+     * Returns the selected instance
+     */
+    public Instance<T> getInstance() {
+      return instance;
+    }
+
+    public boolean isCacheable() {
+      return cacheable;
+    }
+
+    public boolean isResolvable() {
+      return resolved ? resolvable : instance.isResolvable();
+    }
+
+    public boolean isUnsatisfied() {
+      return resolved ? unsatisfied : instance.isUnsatisfied();
+    }
+  }
+
+  /**
+   * corant-context
+   *
+   * @author bingo 下午4:12:05
+   *
+   */
+  static class Key {
+    final Type type;
+    final Annotation[] qualifiers;
+    final int hash;
+
+    Key(Type type, Annotation[] qualifiers) {
+      this.type = type;
+      this.qualifiers = qualifiers.clone();
+      hash = 31 * type.hashCode() + Arrays.hashCode(this.qualifiers);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return type.equals(other.type) && Arrays.equals(qualifiers, other.qualifiers);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -32,6 +32,7 @@ import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.enterprise.inject.spi.CDI;
 import javax.enterprise.util.TypeLiteral;
+import org.corant.context.BeanResolutions.Handle;
 import org.corant.context.qualifier.Qualifiers;
 import org.corant.context.qualifier.Unnamed;
 import org.corant.shared.exception.CorantRuntimeException;
@@ -81,9 +82,9 @@ public class Beans {
    * @param qualifiers the bean qualifiers that use to resolve
    */
   public static <T> Optional<T> find(Class<T> instanceClass, Annotation... qualifiers) {
-    Instance<T> inst = select(instanceClass, qualifiers);
-    if (inst.isResolvable()) {
-      return Optional.of(inst.get());
+    Handle<T> handle = selectHandle(instanceClass, qualifiers);
+    if (handle.isResolvable()) {
+      return Optional.of(handle.get());
     } else {
       return Optional.empty();
     }
@@ -100,9 +101,9 @@ public class Beans {
    * @param qualifiers the bean qualifiers that use to resolve
    */
   public static <T> Optional<T> find(TypeLiteral<T> instanceType, Annotation... qualifiers) {
-    Instance<T> inst = select(instanceType, qualifiers);
-    if (inst.isResolvable()) {
-      return Optional.of(inst.get());
+    Handle<T> handle = selectHandle(instanceType, qualifiers);
+    if (handle.isResolvable()) {
+      return Optional.of(handle.get());
     } else {
       return Optional.empty();
     }
@@ -124,12 +125,12 @@ public class Beans {
    * @see #findService(Class)
    */
   public static <T> Optional<T> findAnyway(Class<T> instanceClass, Annotation... qualifiers) {
-    Instance<T> inst = select(instanceClass, qualifiers);
-    if (inst.isResolvable()) {
-      return Optional.of(inst.get());
-    } else if (!inst.isUnsatisfied() && Sortable.class.isAssignableFrom(instanceClass)) {
-      return forceCast(
-          inst.stream().map(Sortable.class::cast).sorted(Sortable::compare).findFirst());
+    Handle<T> handle = selectHandle(instanceClass, qualifiers);
+    if (handle.isResolvable()) {
+      return Optional.of(handle.get());
+    } else if (!handle.isUnsatisfied() && Sortable.class.isAssignableFrom(instanceClass)) {
+      return forceCast(handle.getInstance().stream().map(Sortable.class::cast)
+          .sorted(Sortable::compare).findFirst());
     } else {
       return isEmpty(qualifiers) ? findService(instanceClass) : Optional.empty();
     }
@@ -225,7 +226,7 @@ public class Beans {
    * @param qualifiers the bean qualifiers that use to resolve
    */
   public static <T> T resolve(Class<T> instanceClass, Annotation... qualifiers) {
-    return select(instanceClass, qualifiers).get();
+    return selectHandle(instanceClass, qualifiers).get();
   }
 
   /**
@@ -238,7 +239,7 @@ public class Beans {
    * @param qualifiers the bean qualifiers that use to resolve
    */
   public static <T> T resolve(TypeLiteral<T> instanceType, Annotation... qualifiers) {
-    return select(instanceType, qualifiers).get();
+    return selectHandle(instanceType, qualifiers).get();
   }
 
   /**
@@ -301,10 +302,7 @@ public class Beans {
    * @param qualifiers the qualifiers to be selected
    */
   public static <T> Instance<T> select(Class<T> instanceClass, Annotation... qualifiers) {
-    if (!CDIs.isEnabled()) {
-      throw new IllegalStateException("Unable to access CDI, the CDI container may be closed.");
-    }
-    return CDI.current().select(shouldNotNull(instanceClass), qualifiers);
+    return selectHandle(instanceClass, qualifiers).getInstance();
   }
 
   /**
@@ -318,10 +316,43 @@ public class Beans {
    */
   public static <T, U extends T> Instance<U> select(TypeLiteral<U> subtype,
       Annotation... qualifiers) {
+    return selectHandle(subtype, qualifiers).getInstance();
+  }
+
+  /**
+   * Returns a cached instance handle that matches the given instance class and qualifiers or throws
+   * an exception if CDI is disabled.
+   *
+   * @param <T> the instance type to be selected
+   * @param instanceClass the instance class to be selected
+   * @param qualifiers the qualifiers to be selected
+   *
+   * @see BeanResolutions
+   */
+  public static <T> Handle<T> selectHandle(Class<T> instanceClass, Annotation... qualifiers) {
+    if (!CDIs.isEnabled()) {
+      throw new IllegalStateException("Unable to access CDI, the CDI container may be closed.");
+    }
+    return BeanResolutions.select(shouldNotNull(instanceClass), qualifiers);
+  }
+
+  /**
+   * Returns a cached instance handle that matches the given instance type and qualifiers or throws
+   * an exception if CDI is disabled.
+   *
+   * @param <T> the instance type to be selected
+   * @param <U> the instance type to be selected
+   * @param subtype the required type
+   * @param qualifiers the qualifiers to be selected
+   *
+   * @see BeanResolutions
+   */
+  public static <T, U extends T> Handle<U> selectHandle(TypeLiteral<U> subtype,
+      Annotation... qualifiers) {
     if (!CDIs.isEnabled()) {
       throw new IllegalStateException("Unable to access CDI, the CDI container may be closed.");
     }
-    return CDI.current().select(shouldNotNull(subtype), qualifiers);
+    return BeanResolutions.select(shouldNotNull(subtype), qualifiers);
   }
 
   /**
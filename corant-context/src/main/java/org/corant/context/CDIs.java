@@ -83,6 +83,9 @@ public abstract class CDIs {
   }
 
   public static boolean isEnabled() {
+    if (BeanResolutions.isActive()) {
+      return true;
+    }
     try {
       return CDI.current() != null;
     } catch (IllegalStateException e) {
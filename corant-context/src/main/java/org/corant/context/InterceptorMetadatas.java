@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.context;
+
+import java.lang.reflect.Member;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * corant-context
+ *
+ * <p>
+ * The interceptor metadata registry, holds the metadata (for example the resolved interceptor
+ * binding annotation, the parsed policy and the keyed resources) of one interceptor type, the
+ * metadata is computed once per intercepted bean class and intercepted member (method or
+ * constructor), so that an interceptor invocation only does a lookup to retrieve it.
+ *
+ * <p>
+ * Note: The per bean class holders are associated with the classes through {@link ClassValue}, so
+ * the registry doesn't prevent the bean classes from being unloaded. The metadata should be
+ * immutable or thread safe, it may be shared by concurrent invocations.
+ *
+ * @param <M> the metadata type
+ *
+ * @author bingo 上午10:26:17
+ *
+ */
+public class InterceptorMetadatas<M> {
+
+  static final Object NULL = new Object();
+
+  protected final ClassValue<Map<Member, Object>> metadatas = new ClassValue<>() {
+    @Override
+    protected Map<Member, Object> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<>();
+    }
+  };
+
+  /**
+   * Returns the metadata of the given bean class and member, if the metadata doesn't exist, it is
+   * computed by the given resolver and cached.
+   *
+   * @param beanClass the intercepted bean class
+   * @param member the intercepted method or constructor
+   * @param resolver the metadata resolver, the returned metadata can be null
+   */
+  @SuppressWarnings("unchecked")
+  public M get(Class<?> beanClass, Member member, Function<Member, M> resolver) {
+    Map<Member, Object> holder = metadatas.get(beanClass);
+    Object metadata = holder.get(member);
+    if (metadata == null) {
+      metadata = resolver.apply(member);
+      Object existing = holder.putIfAbsent(member, metadata == null ? NULL : metadata);
+      if (existing != null) {
+        metadata = existing;
+      }
+    }
+    return metadata == NULL ? null : (M) metadata;
+  }
+
+  /**
+   * Returns the cached metadata holder value of the given bean class and member, returns null if
+   * the metadata hasn't been computed, returns {@link #NULL} if the computed metadata is null.
+   */
+  Object lookup(Class<?> beanClass, Member member) {
+    return metadatas.get(beanClass).get(member);
+  }
+
+  /**
+   * Removes the metadata of the given bean class.
+   *
+   * @param beanClass the bean class
+   */
+  public void remove(Class<?> beanClass) {
+    metadatas.remove(beanClass);
+  }
+}
@@ -27,6 +27,7 @@ import javax.interceptor.AroundInvoke;
 import javax.interceptor.Interceptor;
 import javax.interceptor.InvocationContext;
 import org.corant.context.AbstractInterceptor;
+import org.corant.context.InterceptorMetadatas;
 import org.corant.context.concurrent.AsynchronousConfig;
 import org.corant.context.concurrent.ConcurrentExtension;
 import org.corant.context.concurrent.annotation.Asynchronous;
@@ -50,12 +51,14 @@ public class AsynchronousInterceptor extends AbstractInterceptor {
   protected static final Logger logger =
       Logger.getLogger(AsynchronousInterceptor.class.getCanonicalName());
 
+  static final InterceptorMetadatas<Asynchronous> ANNOTATIONS = new InterceptorMetadatas<>();
+
   @Inject
   ConcurrentExtension extension;
 
   @AroundInvoke
   public Object asynchronousInvocation(final InvocationContext ctx) throws Exception {
-    final Asynchronous async = getInterceptorAnnotation(ctx, Asynchronous.class);
+    final Asynchronous async = getInterceptorAnnotation(ctx, Asynchronous.class, ANNOTATIONS);
     final AsynchronousConfig config = extension.getAsynchronousConfig(async);
     if (config.isRetry()) {
       return execute(createCallable(ctx),
@@ -14,8 +14,6 @@
 package org.corant.context.concurrent.interceptor;
 
 import static org.corant.context.concurrent.ConcurrentExtension.ENABLE_CONCURRENT_THROTTLE_INTERCEPTOR_CFG;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
 import javax.annotation.Priority;
 import javax.interceptor.AroundConstruct;
@@ -23,15 +21,19 @@ import javax.interceptor.AroundInvoke;
 import javax.interceptor.Interceptor;
 import javax.interceptor.InvocationContext;
 import org.corant.context.AbstractInterceptor;
+import org.corant.context.InterceptorMetadatas;
 import org.corant.context.concurrent.annotation.ConcurrencyThrottle;
 import org.corant.shared.exception.CorantRuntimeException;
 import org.corant.shared.service.RequiredConfiguration;
 import org.corant.shared.service.RequiredConfiguration.ValuePredicate;
-import org.corant.shared.util.Methods.MethodSignature;
 
 /**
  * corant-context
  *
+ * <p>
+ * Limits the concurrency of the intercepted methods, each intercepted bean class and method has its
+ * own semaphore that is created once with the resolved {@link ConcurrencyThrottle} annotation.
+ *
  * @author bingo 上午9:50:43
  *
  */
@@ -42,16 +44,17 @@ import org.corant.shared.util.Methods.MethodSignature;
     predicate = ValuePredicate.EQ, type = Boolean.class, value = "true")
 public class ConcurrencyThrottleInterceptor extends AbstractInterceptor {
 
-  static final Map<MethodSignature, Semaphore> THROTTLES = new ConcurrentHashMap<>();
+  static final InterceptorMetadatas<Semaphore> THROTTLES = new InterceptorMetadatas<>();
+
+  static Semaphore createThrottle(ConcurrencyThrottle ann) {
+    return new Semaphore(Integer.max(ann.max(), ConcurrencyThrottle.DFLT_THRON), ann.fair());
+  }
 
   @AroundInvoke
   @AroundConstruct
   public Object concurrencyThrottleInvocation(final InvocationContext ctx) throws Exception {
-    ConcurrencyThrottle ann = getInterceptorAnnotation(ctx, ConcurrencyThrottle.class);
-    final int max = Integer.max(ann.max(), ConcurrencyThrottle.DFLT_THRON);
-    final boolean fair = ann.fair();
-    Semaphore counting = ConcurrencyThrottleInterceptor.THROTTLES
-        .computeIfAbsent(new MethodSignature(ctx.getMethod()), k -> new Semaphore(max, fair));
+    Semaphore counting = getInterceptorMetadata(ctx, ConcurrencyThrottle.class, THROTTLES,
+        ConcurrencyThrottleInterceptor::createThrottle);
     boolean acquireSuccess = false;
     try {
       counting.acquire();
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.arrow;
+
+import java.io.IOException;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+/**
+ * corant-modules-arrow
+ *
+ * <p>
+ * The Arrow record batch consumer, the batches are only valid in the
+ * {@link #accept(VectorSchemaRoot)} invocation, they are closed after the invocation returns, the
+ * consumer that needs to keep the data must transfer or copy it.
+ *
+ * @author bingo 下午4:05:26
+ *
+ */
+@FunctionalInterface
+public interface ArrowBatchConsumer {
+
+  /**
+   * Consume a record batch.
+   *
+   * @param batch the record batch
+   * @throws IOException if an I/O error occurs
+   */
+  void accept(VectorSchemaRoot batch) throws IOException;
+
+  /**
+   * Called after all record batches are consumed.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  default void end() throws IOException {}
+
+  /**
+   * Called before consuming the record batches, the schema is resolved from the result set
+   * metadata, this method is called even if the result set is empty.
+   *
+   * @param schema the record batch schema
+   * @throws IOException if an I/O error occurs
+   */
+  default void start(Schema schema) throws IOException {}
+}
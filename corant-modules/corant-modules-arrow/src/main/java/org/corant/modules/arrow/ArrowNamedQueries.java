@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.arrow;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.corant.modules.query.NamedQueryService;
+import org.corant.modules.query.sql.AbstractSqlNamedQueryService;
+import org.corant.shared.exception.NotSupportedException;
+
+/**
+ * corant-modules-arrow
+ *
+ * <p>
+ * The columnar query utilities, execute the SQL named queries and read the results into Arrow
+ * record batches. Only the named query services that extend {@link AbstractSqlNamedQueryService}
+ * are supported, the fetch queries and the result hints of the query are not applied.
+ *
+ * @author bingo 下午4:05:26
+ *
+ */
+public class ArrowNamedQueries {
+
+  private ArrowNamedQueries() {}
+
+  /**
+   * Execute the named query and pass the Arrow record batches to the given consumer.
+   *
+   * @param service the SQL named query service
+   * @param queryName the query name
+   * @param parameter the query parameter
+   * @param allocator the buffer allocator used to allocate the record batches
+   * @param batchSize the maximum number of rows of each record batch
+   * @param consumer the record batch consumer
+   * @return the number of rows
+   */
+  public static long query(NamedQueryService service, String queryName, Object parameter,
+      BufferAllocator allocator, int batchSize, ArrowBatchConsumer consumer) {
+    return resolveService(service).query(queryName, parameter,
+        new ArrowResultSetHandler(allocator, batchSize, consumer));
+  }
+
+  /**
+   * Returns a JAX-RS streaming output that writes the results of the named query in Arrow IPC
+   * streaming format.
+   *
+   * @param service the SQL named query service
+   * @param queryName the query name
+   * @param parameter the query parameter
+   * @param batchSize the maximum number of rows of each record batch
+   *
+   * @see ArrowStreamingOutput
+   */
+  public static ArrowStreamingOutput streamingOutput(NamedQueryService service, String queryName,
+      Object parameter, int batchSize) {
+    return new ArrowStreamingOutput(resolveService(service), queryName, parameter, batchSize);
+  }
+
+  static AbstractSqlNamedQueryService resolveService(NamedQueryService service) {
+    if (service instanceof AbstractSqlNamedQueryService) {
+      return (AbstractSqlNamedQueryService) service;
+    }
+    throw new NotSupportedException("The named query service %s doesn't support Arrow results.",
+        service);
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.arrow;
+
+import static org.corant.shared.util.Assertions.shouldNotNull;
+import static org.corant.shared.util.Objects.max;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import org.apache.arrow.adapter.jdbc.ArrowVectorIterator;
+import org.apache.arrow.adapter.jdbc.JdbcToArrow;
+import org.apache.arrow.adapter.jdbc.JdbcToArrowConfig;
+import org.apache.arrow.adapter.jdbc.JdbcToArrowConfigBuilder;
+import org.apache.arrow.adapter.jdbc.JdbcToArrowUtils;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.commons.dbutils.ResultSetHandler;
+import org.corant.shared.exception.CorantRuntimeException;
+
+/**
+ * corant-modules-arrow
+ *
+ * <p>
+ * A result set handler that reads the rows of the result set into Arrow record batches directly
+ * and passes each batch to the given consumer, the rows are never materialized as Java maps. The
+ * handler returns the number of the handled rows.
+ *
+ * <pre>
+ * try (BufferAllocator allocator = new RootAllocator()) {
+ *   long rows = service.query("Query.name", parameter,
+ *       new ArrowResultSetHandler(allocator, 4096, batch -&gt; { ... }));
+ * }
+ * </pre>
+ *
+ * @author bingo 下午4:05:26
+ *
+ */
+public class ArrowResultSetHandler implements ResultSetHandler<Long> {
+
+  public static final int DEFAULT_BATCH_SIZE = JdbcToArrowConfig.DEFAULT_TARGET_BATCH_SIZE;
+
+  protected final BufferAllocator allocator;
+  protected final int batchSize;
+  protected final ArrowBatchConsumer consumer;
+
+  /**
+   * Create a result set handler
+   *
+   * @param allocator the buffer allocator used to allocate the record batches
+   * @param batchSize the maximum number of rows of each record batch
+   * @param consumer the record batch consumer
+   */
+  public ArrowResultSetHandler(BufferAllocator allocator, int batchSize,
+      ArrowBatchConsumer consumer) {
+    this.allocator = shouldNotNull(allocator);
+    this.batchSize = max(batchSize, 1);
+    this.consumer = shouldNotNull(consumer);
+  }
+
+  public ArrowResultSetHandler(BufferAllocator allocator, ArrowBatchConsumer consumer) {
+    this(allocator, DEFAULT_BATCH_SIZE, consumer);
+  }
+
+  @Override
+  public Long handle(ResultSet rs) throws SQLException {
+    JdbcToArrowConfig config = resolveConfig();
+    long rows = 0;
+    try {
+      consumer.start(JdbcToArrowUtils.jdbcToArrowSchema(rs.getMetaData(), config));
+      try (ArrowVectorIterator it = JdbcToArrow.sqlToArrowVectorIterator(rs, config)) {
+        while (it.hasNext()) {
+          try (VectorSchemaRoot batch = it.next()) {
+            rows += batch.getRowCount();
+            consumer.accept(batch);
+          }
+        }
+      }
+      consumer.end();
+    } catch (IOException e) {
+      throw new CorantRuntimeException(e);
+    }
+    return rows;
+  }
+
+  protected JdbcToArrowConfig resolveConfig() {
+    return new JdbcToArrowConfigBuilder(allocator, JdbcToArrowUtils.getUtcCalendar())
+        .setTargetBatchSize(batchSize).build();
+  }
+}
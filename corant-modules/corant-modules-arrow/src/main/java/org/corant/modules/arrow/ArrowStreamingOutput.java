@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.arrow;
+
+import static org.corant.shared.util.Assertions.shouldNotNull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorLoader;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.corant.modules.jaxrs.shared.StreamOutputBuilder;
+import org.corant.modules.query.sql.AbstractSqlNamedQueryService;
+
+/**
+ * corant-modules-arrow
+ *
+ * <p>
+ * A JAX-RS streaming output that executes the SQL named query while writing and writes the results
+ * in Arrow IPC streaming format, the rows are read from the result set into record batches and
+ * written to the output batch by batch, so the whole results never exist in memory.
+ *
+ * <pre>
+ * &#64;GET
+ * public Response export(...) {
+ *   return ArrowNamedQueries.streamingOutput(service, "Query.name", parameter, 4096)
+ *       .toResponse("export.arrows");
+ * }
+ * </pre>
+ *
+ * @author bingo 下午4:05:26
+ *
+ */
+public class ArrowStreamingOutput implements StreamingOutput {
+
+  public static final String CONTENT_TYPE = "application/vnd.apache.arrow.stream";
+
+  protected final AbstractSqlNamedQueryService service;
+  protected final String queryName;
+  protected final Object parameter;
+  protected final int batchSize;
+  protected long allocationLimit = Long.MAX_VALUE;
+
+  public ArrowStreamingOutput(AbstractSqlNamedQueryService service, String queryName,
+      Object parameter, int batchSize) {
+    this.service = shouldNotNull(service);
+    this.queryName = shouldNotNull(queryName);
+    this.parameter = parameter;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Set the maximum bytes that can be allocated while writing, default is unlimited.
+   *
+   * @param allocationLimit the allocation limit in bytes
+   */
+  public ArrowStreamingOutput allocationLimit(long allocationLimit) {
+    this.allocationLimit = allocationLimit;
+    return this;
+  }
+
+  /**
+   * Returns a JAX-RS response that writes this output as an attachment with the given file name.
+   *
+   * @param fileName the attachment file name
+   */
+  public Response toResponse(String fileName) {
+    return StreamOutputBuilder.of(this).fileName(fileName).name(fileName).contentType(CONTENT_TYPE)
+        .build();
+  }
+
+  @Override
+  public void write(OutputStream output) throws IOException {
+    try (BufferAllocator allocator = new RootAllocator(allocationLimit);
+        IpcWriter writer = new IpcWriter(allocator, output)) {
+      service.query(queryName, parameter, new ArrowResultSetHandler(allocator, batchSize, writer));
+    }
+  }
+
+  /**
+   * corant-modules-arrow
+   *
+   * <p>
+   * Writes the record batches to the output, each batch is unloaded and loaded into the writer's
+   * own vector schema root, the buffers are transferred and not copied.
+   *
+   * @author bingo 下午4:05:26
+   *
+   */
+  protected static class IpcWriter implements ArrowBatchConsumer, AutoCloseable {
+    final BufferAllocator allocator;
+    final OutputStream output;
+    VectorSchemaRoot root;
+    ArrowStreamWriter writer;
+
+    IpcWriter(BufferAllocator allocator, OutputStream output) {
+      this.allocator = allocator;
+      this.output = output;
+    }
+
+    @Override
+    public void accept(VectorSchemaRoot batch) throws IOException {
+      try (ArrowRecordBatch recordBatch = new VectorUnloader(batch).getRecordBatch()) {
+        new VectorLoader(root).load(recordBatch);
+      }
+      writer.writeBatch();
+    }
+
+    @Override
+    public void close() {
+      try {
+        if (writer != null) {
+          writer.close();
+        }
+      } finally {
+        if (root != null) {
+          root.close();
+        }
+      }
+    }
+
+    @Override
+    public void end() throws IOException {
+      writer.end();
+    }
+
+    @Override
+    public void start(Schema schema) throws IOException {
+      root = VectorSchemaRoot.create(schema, allocator);
+      writer = new ArrowStreamWriter(root, null, Channels.newChannel(output));
+      writer.start();
+    }
+  }
+}
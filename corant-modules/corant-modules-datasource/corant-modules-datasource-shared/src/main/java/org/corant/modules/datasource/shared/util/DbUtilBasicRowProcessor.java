@@ -13,9 +13,11 @@
  */
 package org.corant.modules.datasource.shared.util;
 
+import java.lang.ref.WeakReference;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -23,6 +25,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.apache.commons.dbutils.BasicRowProcessor;
+import org.corant.modules.datasource.shared.util.DbUtilRowMap.Columns;
 import org.corant.shared.ubiquity.Sortable;
 import org.corant.shared.util.Services;
 
@@ -32,6 +35,12 @@ import org.corant.shared.util.Services;
  * This class hack {@link BasicRowProcessor} to supports some additional field conversion, if there
  * is infringement, please inform me(finesoft@gmail.com).
  *
+ * <p>
+ * The column labels, types and field processors are resolved once per result set into a
+ * {@link RowMappingPlan}, the rows are emitted as {@link DbUtilRowMap} that share the column index
+ * of the plan. The last plan is cached per thread and reused while the same result set is being
+ * processed.
+ *
  * @author bingo 上午12:24:17
  *
  */
@@ -43,32 +52,92 @@ public class DbUtilBasicRowProcessor extends BasicRowProcessor {
       Services.select(DbUtilBasicFieldProcessor.class).sorted(Sortable::compare)
           .collect(Collectors.toList());
 
+  static final ThreadLocal<RowMappingPlan> lastPlans = new ThreadLocal<>();
+
   @Override
   public Map<String, Object> toMap(ResultSet rs) throws SQLException {
-    Map<String, Object> result = new CaseInsensitiveHashMap();
-    ResultSetMetaData rsmd = rs.getMetaData();
-    int cols = rsmd.getColumnCount();
-
-    for (int i = 1; i <= cols; i++) {
-      String columnName = rsmd.getColumnLabel(i);
-      int type = rsmd.getColumnType(cols);
-      if (null == columnName || 0 == columnName.length()) {
-        columnName = rsmd.getColumnName(i);
-      }
-      boolean converted = false;
-      for (DbUtilBasicFieldProcessor fp : FIELD_PROCESSORS) {
-        if (fp.supports(columnName, type)) {
-          result.put(columnName, fp.convert(rs, i));
-          converted = true;
-          break;
+    return resolvePlan(rs).toMap(rs);
+  }
+
+  /**
+   * Returns the row mapping plan of the given result set, the plan is built from the result set
+   * meta data and reused for the subsequent rows of the same result set in the current thread.
+   *
+   * @param rs the result set
+   * @return the row mapping plan
+   * @throws SQLException if a database access error occurs
+   */
+  public RowMappingPlan resolvePlan(ResultSet rs) throws SQLException {
+    RowMappingPlan plan = lastPlans.get();
+    if (plan == null || plan.resultSet.get() != rs) {
+      plan = new RowMappingPlan(rs, rs.getMetaData());
+      lastPlans.set(plan);
+    }
+    return plan;
+  }
+
+  /**
+   * corant-modules-datasource-shared
+   * <p>
+   * The row mapping plan of a result set, contains the column labels, the column slots in the row
+   * map and the field processors.
+   *
+   * @author bingo 上午12:24:17
+   *
+   */
+  public static class RowMappingPlan {
+
+    final WeakReference<ResultSet> resultSet;
+    final Columns columns;
+    final int[] slots;
+    final DbUtilBasicFieldProcessor[] processors;
+
+    protected RowMappingPlan(ResultSet rs, ResultSetMetaData rsmd) throws SQLException {
+      resultSet = new WeakReference<>(rs);
+      int cols = rsmd.getColumnCount();
+      slots = new int[cols + 1];
+      processors = new DbUtilBasicFieldProcessor[cols + 1];
+      // lower case label -> label, the duplicate label replaces the previous one
+      Map<String, String> labels = new LinkedHashMap<>(cols << 1);
+      String[] columnNames = new String[cols + 1];
+      for (int i = 1; i <= cols; i++) {
+        String columnName = rsmd.getColumnLabel(i);
+        int type = rsmd.getColumnType(i);
+        if (null == columnName || 0 == columnName.length()) {
+          columnName = rsmd.getColumnName(i);
+        }
+        for (DbUtilBasicFieldProcessor fp : FIELD_PROCESSORS) {
+          if (fp.supports(columnName, type)) {
+            processors[i] = fp;
+            break;
+          }
         }
+        String lowerName = columnName.toLowerCase(Locale.ENGLISH);
+        labels.remove(lowerName);
+        labels.put(lowerName, columnName);
+        columnNames[i] = lowerName;
+      }
+      List<String> keys = new ArrayList<>(labels.values());
+      Map<String, Integer> lowerSlots = new HashMap<>(keys.size() << 1);
+      int slot = 0;
+      for (String lowerName : labels.keySet()) {
+        lowerSlots.put(lowerName, slot++);
       }
-      if (!converted) {
-        result.put(columnName, rs.getObject(i));
+      for (int i = 1; i <= cols; i++) {
+        slots[i] = lowerSlots.get(columnNames[i]);
       }
+      columns = new Columns(keys);
     }
 
-    return result;
+    public Map<String, Object> toMap(ResultSet rs) throws SQLException {
+      DbUtilRowMap result = new DbUtilRowMap(columns);
+      final Object[] values = result.values;
+      for (int i = 1; i < slots.length; i++) {
+        DbUtilBasicFieldProcessor fp = processors[i];
+        values[slots[i]] = fp != null ? fp.convert(rs, i) : rs.getObject(i);
+      }
+      return result;
+    }
   }
 
   /**
@@ -88,7 +157,7 @@ public class DbUtilBasicRowProcessor extends BasicRowProcessor {
    * key.toString().toLowerCase()
    * </pre>
    */
-  private static class CaseInsensitiveHashMap extends LinkedHashMap<String, Object> {
+  static class CaseInsensitiveHashMap extends LinkedHashMap<String, Object> {
     /**
      * Required for serialization support.
      *
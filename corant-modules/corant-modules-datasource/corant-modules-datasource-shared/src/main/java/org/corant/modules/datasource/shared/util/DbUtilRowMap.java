@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.datasource.shared.util;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.corant.modules.datasource.shared.util.DbUtilBasicRowProcessor.CaseInsensitiveHashMap;
+
+/**
+ * corant-modules-datasource-shared
+ * <p>
+ * A compact case insensitive row map, the column values are stored in an array and the column
+ * labels and the case insensitive label index are shared by all rows of a result set. The keys
+ * that are not column labels are stored in an additional case insensitive map that created on
+ * demand.
+ *
+ * <p>
+ * Note: Unlike {@link CaseInsensitiveHashMap}, putting a value with a column label doesn't change
+ * the key and the iteration order of the column.
+ *
+ * @author bingo 下午2:36:17
+ *
+ */
+public class DbUtilRowMap extends AbstractMap<String, Object> implements Serializable {
+
+  private static final long serialVersionUID = -1693496346409125263L;
+
+  final Columns columns;
+  final Object[] values;
+  BitSet removed;
+  int removedCount;
+  CaseInsensitiveHashMap extras;
+
+  DbUtilRowMap(Columns columns) {
+    this.columns = columns;
+    values = new Object[columns.keys.length];
+  }
+
+  @Override
+  public void clear() {
+    if (removed == null) {
+      removed = new BitSet(values.length);
+    }
+    removed.set(0, values.length);
+    removedCount = values.length;
+    extras = null;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    int slot = columns.slot(key);
+    if (slot >= 0 && isPresent(slot)) {
+      return true;
+    }
+    return extras != null && extras.containsKey(key);
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return new EntrySet();
+  }
+
+  @Override
+  public Object get(Object key) {
+    int slot = columns.slot(key);
+    if (slot >= 0 && isPresent(slot)) {
+      return values[slot];
+    }
+    return extras != null ? extras.get(key) : null;
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    int slot = columns.slot(key);
+    if (slot >= 0) {
+      Object old = null;
+      if (isPresent(slot)) {
+        old = values[slot];
+      } else {
+        removed.clear(slot);
+        removedCount--;
+      }
+      values[slot] = value;
+      return old;
+    }
+    if (extras == null) {
+      extras = new CaseInsensitiveHashMap();
+    }
+    return extras.put(key, value);
+  }
+
+  @Override
+  public Object remove(Object key) {
+    int slot = columns.slot(key);
+    if (slot >= 0) {
+      if (isPresent(slot)) {
+        return removeSlot(slot);
+      }
+      return null;
+    }
+    return extras != null ? extras.remove(key) : null;
+  }
+
+  @Override
+  public int size() {
+    return values.length - removedCount + (extras != null ? extras.size() : 0);
+  }
+
+  boolean isPresent(int slot) {
+    return removed == null || !removed.get(slot);
+  }
+
+  Object removeSlot(int slot) {
+    if (removed == null) {
+      removed = new BitSet(values.length);
+    }
+    removed.set(slot);
+    removedCount++;
+    Object old = values[slot];
+    values[slot] = null;
+    return old;
+  }
+
+  /**
+   * corant-modules-datasource-shared
+   * <p>
+   * The column labels and the case insensitive label index, shared by all rows of a result set.
+   * The duplicate labels (case insensitive) share one slot, the last label wins.
+   *
+   * @author bingo 下午2:36:17
+   *
+   */
+  static class Columns implements Serializable {
+
+    private static final long serialVersionUID = -4051624011082087335L;
+
+    final String[] keys;
+    final Map<String, Integer> index;
+
+    Columns(List<String> keys) {
+      this.keys = keys.toArray(new String[keys.size()]);
+      index = new HashMap<>(this.keys.length << 2);
+      for (int i = 0; i < this.keys.length; i++) {
+        index.put(this.keys[i], i);
+      }
+      for (int i = 0; i < this.keys.length; i++) {
+        index.putIfAbsent(this.keys[i].toLowerCase(Locale.ENGLISH), i);
+      }
+    }
+
+    int slot(Object key) {
+      if (key == null) {
+        return -1;
+      }
+      Integer slot = index.get(key);
+      if (slot == null) {
+        slot = index.get(key.toString().toLowerCase(Locale.ENGLISH));
+      }
+      return slot == null ? -1 : slot;
+    }
+  }
+
+  /**
+   * corant-modules-datasource-shared
+   *
+   * @author bingo 下午2:36:17
+   *
+   */
+  class ColumnEntry implements Entry<String, Object> {
+    final int slot;
+
+    ColumnEntry(int slot) {
+      this.slot = slot;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> e = (Entry<?, ?>) o;
+      return eq(getKey(), e.getKey()) && eq(getValue(), e.getValue());
+    }
+
+    @Override
+    public String getKey() {
+      return columns.keys[slot];
+    }
+
+    @Override
+    public Object getValue() {
+      return values[slot];
+    }
+
+    @Override
+    public int hashCode() {
+      Object value = getValue();
+      return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      Object old = values[slot];
+      values[slot] = value;
+      return old;
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+
+    boolean eq(Object o1, Object o2) {
+      return o1 == null ? o2 == null : o1.equals(o2);
+    }
+  }
+
+  /**
+   * corant-modules-datasource-shared
+   *
+   * @author bingo 下午2:36:17
+   *
+   */
+  class EntryIterator implements Iterator<Entry<String, Object>> {
+    int next = advance(0);
+    int last = -1;
+    boolean lastExtra;
+    Iterator<Entry<String, Object>> extraIterator;
+
+    @Override
+    public boolean hasNext() {
+      if (next < values.length) {
+        return true;
+      }
+      if (extraIterator == null && extras != null) {
+        extraIterator = extras.entrySet().iterator();
+      }
+      return extraIterator != null && extraIterator.hasNext();
+    }
+
+    @Override
+    public Entry<String, Object> next() {
+      if (next < values.length) {
+        last = next;
+        lastExtra = false;
+        next = advance(next + 1);
+        return new ColumnEntry(last);
+      }
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      last = -1;
+      lastExtra = true;
+      return extraIterator.next();
+    }
+
+    @Override
+    public void remove() {
+      if (last >= 0) {
+        removeSlot(last);
+        last = -1;
+      } else if (lastExtra) {
+        extraIterator.remove();
+        lastExtra = false;
+      } else {
+        throw new IllegalStateException();
+      }
+    }
+
+    int advance(int from) {
+      int slot = from;
+      while (slot < values.length && !isPresent(slot)) {
+        slot++;
+      }
+      return slot;
+    }
+  }
+
+  /**
+   * corant-modules-datasource-shared
+   *
+   * @author bingo 下午2:36:17
+   *
+   */
+  class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+    @Override
+    public void clear() {
+      DbUtilRowMap.this.clear();
+    }
+
+    @Override
+    public Iterator<Entry<String, Object>> iterator() {
+      return new EntryIterator();
+    }
+
+    @Override
+    public int size() {
+      return DbUtilRowMap.this.size();
+    }
+  }
+}
@@ -20,6 +20,12 @@ import org.corant.modules.ddd.annotation.InfrastructureServices;
 /**
  * corant-modules-ddd-api
  *
+ * <p>
+ * The message storage, stores the messages of the unit of work before the transaction is committed.
+ * The message returned by {@code apply} is dispatched after the transaction is successfully
+ * committed, if the storage takes charge of the dispatching (e.g. transactional outbox) it should
+ * return null.
+ *
  * @author bingo 下午6:19:12
  *
  */
@@ -41,5 +47,12 @@ public interface MessageStorage extends UnaryOperator<Message> {
     return DUMMY_INST;
   }
 
+  /**
+   * Invoked after the unit of work which stored messages through this storage is completed.
+   *
+   * @param success whether the transaction is successfully committed
+   */
+  default void complete(boolean success) {}
+
   default void prepare() {}
 }
@@ -0,0 +1,436 @@
+/*
+ * Copyright (c) 2013-2018, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.ddd.shared.message;
+
+import static org.corant.context.Beans.find;
+import static org.corant.context.Beans.resolve;
+import static org.corant.shared.util.Objects.forceCast;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import org.corant.context.ContainerEvents.PostContainerStartedEvent;
+import org.corant.modules.ddd.AbstractAggregateMessage;
+import org.corant.modules.ddd.Aggregate.AggregateIdentifier;
+import org.corant.modules.ddd.Message;
+import org.corant.modules.ddd.MessageDispatcher;
+import org.corant.modules.ddd.MessageStorage;
+import org.corant.modules.ddd.shared.model.SnowflakeIdentifierGenerator;
+import org.corant.modules.datasource.shared.DataSourceService;
+import org.corant.shared.exception.CorantRuntimeException;
+import org.corant.shared.retry.BackoffStrategy;
+import org.corant.shared.retry.BackoffStrategy.BackoffAlgorithm;
+import org.corant.shared.retry.BackoffStrategy.BackoffStrategyBuilder;
+import org.corant.shared.service.RequiredConfiguration;
+import org.corant.shared.service.RequiredConfiguration.ValuePredicate;
+import org.corant.shared.util.Serializations;
+import org.corant.shared.util.Threads;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * corant-modules-ddd-shared
+ *
+ * <p>
+ * The JDBC transactional outbox message storage, use with the JTA local resource unit of work
+ * (corant.ddd.unitofwork.use-xa=false). The messages are written into the outbox table in the same
+ * data source transaction as the aggregates, and are published by a background relay after the
+ * transaction is committed, so that the message broker is not involved in the command transaction
+ * and XA is not required.
+ *
+ * <p>
+ * The relay reads the outbox rows in batches, the rows of the same aggregate are published in
+ * order, if the publishing fails the remaining rows of the aggregate are held back until the
+ * failed row is retried, the retry interval is computed by the {@link BackoffStrategy}. The
+ * published rows are deleted. The delivery is at least once, the consumers should be idempotent.
+ *
+ * <p>
+ * The relay can run on several instances. Before publishing, the relay claims each due row by a
+ * conditional update that moves the row's next attempt time to the end of a lease, only the
+ * instance whose update succeeds publishes the row. A claimed row also holds back the later rows of
+ * its group on the other instances, so the per group order is kept. If an instance can't publish a
+ * claimed row within the lease, the row becomes due again and may be published twice.
+ *
+ * <p>
+ * Configuration:
+ * <ul>
+ * <li>corant.ddd.message.outbox.enable: enable the outbox, default false</li>
+ * <li>corant.ddd.message.outbox.data-source: the data source name, must be the data source of the
+ * aggregates persistence unit</li>
+ * <li>corant.ddd.message.outbox.table: the outbox table name, default CT_DDD_MSG_OUTBOX</li>
+ * <li>corant.ddd.message.outbox.relay-enable: whether to run the relay in this instance, default
+ * true</li>
+ * <li>corant.ddd.message.outbox.relay-interval: the relay polling interval, default PT5S</li>
+ * <li>corant.ddd.message.outbox.relay-batch-size: the maximum number of rows read each time,
+ * default 128</li>
+ * <li>corant.ddd.message.outbox.relay-lease: how long a claimed row is reserved for the claiming
+ * instance, should be longer than the publishing of a batch takes, default PT1M</li>
+ * <li>corant.ddd.message.outbox.backoff-algorithm, backoff-base-duration, backoff-max-duration:
+ * the retry backoff, default EXPO_EQUAL_JITTER, PT1S, PT5M</li>
+ * </ul>
+ *
+ * <pre>
+ * CREATE TABLE CT_DDD_MSG_OUTBOX (
+ *   ID BIGINT NOT NULL PRIMARY KEY,
+ *   GROUP_KEY VARCHAR(255) NOT NULL,
+ *   PAYLOAD BLOB NOT NULL,
+ *   CREATED_TIME BIGINT NOT NULL,
+ *   ATTEMPTS INT NOT NULL,
+ *   NEXT_ATTEMPT_TIME BIGINT NOT NULL
+ * );
+ * CREATE INDEX IX_DDD_MSG_OUTBOX_GROUP ON CT_DDD_MSG_OUTBOX (GROUP_KEY, ID);
+ * </pre>
+ *
+ * @author bingo 下午3:36:18
+ *
+ */
+@ApplicationScoped
+@RequiredConfiguration(key = "corant.ddd.message.outbox.enable", predicate = ValuePredicate.EQ,
+    type = Boolean.class, value = "true")
+public class JDBCOutboxMessageStorage implements MessageStorage {
+
+  protected final Logger logger = Logger.getLogger(this.getClass().getName());
+
+  protected final AtomicBoolean triggered = new AtomicBoolean();
+
+  @Inject
+  protected SnowflakeIdentifierGenerator identifierGenerator;
+
+  @Inject
+  @ConfigProperty(name = "corant.ddd.message.outbox.data-source", defaultValue = "")
+  protected String dataSourceName;
+
+  @Inject
+  @ConfigProperty(name = "corant.ddd.message.outbox.table", defaultValue = "CT_DDD_MSG_OUTBOX")
+  protected String table;
+
+  @Inject
+  @ConfigProperty(name = "corant.ddd.message.outbox.relay-enable", defaultValue = "true")
+  protected boolean relayEnable;
+
+  @Inject
+  @ConfigProperty(name = "corant.ddd.message.outbox.relay-interval", defaultValue = "PT5S")
+  protected Duration relayInterval;
+
+  @Inject
+  @ConfigProperty(name = "corant.ddd.message.outbox.relay-batch-size", defaultValue = "128")
+  protected int relayBatchSize;
+
+  @Inject
+  @ConfigProperty(name = "corant.ddd.message.outbox.relay-lease", defaultValue = "PT1M")
+  protected Duration relayLease;
+
+  @Inject
+  @ConfigProperty(name = "corant.ddd.message.outbox.backoff-algorithm",
+      defaultValue = "EXPO_EQUAL_JITTER")
+  protected BackoffAlgorithm backoffAlgorithm;
+
+  @Inject
+  @ConfigProperty(name = "corant.ddd.message.outbox.backoff-base-duration", defaultValue = "PT1S")
+  protected Duration backoffBaseDuration;
+
+  @Inject
+  @ConfigProperty(name = "corant.ddd.message.outbox.backoff-max-duration", defaultValue = "PT5M")
+  protected Duration backoffMaxDuration;
+
+  protected DataSource dataSource;
+  protected BackoffStrategy backoffStrategy;
+  protected ScheduledExecutorService relayExecutor;
+  protected volatile boolean stopped;
+
+  protected String insertSql;
+  protected String selectSql;
+  protected String deleteSql;
+  protected String updateSql;
+  protected String claimSql;
+
+  /**
+   * Write the message into the outbox table with the connection of the current transaction,
+   * returns null since the message is published by the relay.
+   */
+  @Override
+  public Message apply(Message message) {
+    try (Connection conn = dataSource.getConnection();
+        PreparedStatement ps = conn.prepareStatement(insertSql)) {
+      ps.setLong(1, identifierGenerator.generate(message));
+      ps.setString(2, resolveGroupKey(message));
+      ps.setBytes(3, Serializations.serialize(message));
+      ps.setLong(4, System.currentTimeMillis());
+      ps.executeUpdate();
+    } catch (SQLException e) {
+      throw new CorantRuntimeException(e, "Can't store the message %s to the outbox.",
+          message.getClass());
+    }
+    return null;
+  }
+
+  @Override
+  public void complete(boolean success) {
+    if (success) {
+      trigger();
+    }
+  }
+
+  /**
+   * Trigger the relay to publish the outbox messages as soon as possible, the triggers are
+   * coalesced.
+   */
+  public void trigger() {
+    if (relayExecutor != null && !stopped && triggered.compareAndSet(false, true)) {
+      try {
+        relayExecutor.execute(() -> {
+          triggered.set(false);
+          relay();
+        });
+      } catch (RuntimeException e) {
+        triggered.set(false);
+        logger.log(Level.WARNING, e, () -> "Can't trigger the outbox message relay.");
+      }
+    }
+  }
+
+  protected void commitIfNecessary(Connection conn) throws SQLException {
+    if (!conn.getAutoCommit()) {
+      conn.commit();
+    }
+  }
+
+  protected void onPostContainerStarted(@Observes PostContainerStartedEvent e) {
+    if (relayEnable) {
+      relayExecutor = Executors.newSingleThreadScheduledExecutor(
+          Threads.daemonThreadFactory("corant-ddd-outbox-relay"));
+      long interval = Math.max(relayInterval.toMillis(), 100L);
+      relayExecutor.scheduleWithFixedDelay(this::relay, 0L, interval, TimeUnit.MILLISECONDS);
+      logger.info(() -> String.format("Started the outbox message relay, table %s, interval %s.",
+          table, relayInterval));
+    }
+  }
+
+  @PostConstruct
+  protected void onPostConstruct() {
+    dataSource = resolve(DataSourceService.class).resolve(dataSourceName);
+    backoffStrategy = new BackoffStrategyBuilder().algorithm(backoffAlgorithm)
+        .baseDuration(backoffBaseDuration).maxDuration(backoffMaxDuration).build();
+    insertSql = "INSERT INTO " + table
+        + " (ID, GROUP_KEY, PAYLOAD, CREATED_TIME, ATTEMPTS, NEXT_ATTEMPT_TIME)"
+        + " VALUES (?, ?, ?, ?, 0, 0)";
+    // a row is due only if no earlier row of the same group is waiting for retry or is claimed
+    selectSql = "SELECT T.ID, T.GROUP_KEY, T.PAYLOAD, T.ATTEMPTS, T.NEXT_ATTEMPT_TIME FROM "
+        + table + " T WHERE T.NEXT_ATTEMPT_TIME <= ? AND NOT EXISTS (SELECT 1 FROM " + table
+        + " W WHERE W.GROUP_KEY = T.GROUP_KEY AND W.ID < T.ID AND W.NEXT_ATTEMPT_TIME > ?)"
+        + " ORDER BY T.ID";
+    deleteSql = "DELETE FROM " + table + " WHERE ID = ?";
+    // the updates are conditional on the next attempt time that was read or claimed
+    updateSql = "UPDATE " + table
+        + " SET ATTEMPTS = ?, NEXT_ATTEMPT_TIME = ? WHERE ID = ? AND NEXT_ATTEMPT_TIME = ?";
+    claimSql =
+        "UPDATE " + table + " SET NEXT_ATTEMPT_TIME = ? WHERE ID = ? AND NEXT_ATTEMPT_TIME = ?";
+  }
+
+  @PreDestroy
+  protected void onPreDestroy() {
+    stopped = true;
+    if (relayExecutor != null) {
+      relayExecutor.shutdownNow();
+    }
+  }
+
+  /**
+   * Publish the due outbox rows batch by batch until there are no more due rows.
+   */
+  protected void relay() {
+    Optional<MessageDispatcher> dispatcher = find(MessageDispatcher.class);
+    if (dispatcher.isEmpty()) {
+      logger.warning(() -> "Can't find any message dispatcher, the outbox relay is skipped.");
+      return;
+    }
+    try {
+      while (!stopped && relayBatch(dispatcher.get()) >= relayBatchSize) {
+        logger.fine(() -> "Continue to relay the next batch of the outbox messages.");
+      }
+    } catch (Exception e) {
+      logger.log(Level.WARNING, e, () -> "Relay the outbox messages occurred error!");
+    }
+  }
+
+  /**
+   * Claim the given rows of a group in order, stops at the first row that has been claimed by
+   * another instance, returns the claimed rows.
+   */
+  protected List<OutboxRow> claim(PreparedStatement ps, List<OutboxRow> group, long leaseTime)
+      throws SQLException {
+    List<OutboxRow> claimed = new ArrayList<>(group.size());
+    for (OutboxRow row : group) {
+      ps.setLong(1, leaseTime);
+      ps.setLong(2, row.id);
+      ps.setLong(3, row.nextAttemptTime);
+      if (ps.executeUpdate() != 1) {
+        break;
+      }
+      claimed.add(row);
+    }
+    return claimed;
+  }
+
+  /**
+   * Read a batch of due rows, claim and publish them group by group, returns the number of the rows
+   * read.
+   */
+  protected int relayBatch(MessageDispatcher dispatcher) throws SQLException {
+    final long now = System.currentTimeMillis();
+    final long leaseTime = now + Math.max(relayLease.toMillis(), 1L);
+    final Map<String, List<OutboxRow>> groups = new LinkedHashMap<>();
+    int size = 0;
+    try (Connection conn = dataSource.getConnection()) {
+      try (PreparedStatement ps = conn.prepareStatement(selectSql)) {
+        ps.setMaxRows(relayBatchSize);
+        ps.setLong(1, now);
+        ps.setLong(2, now);
+        try (ResultSet rs = ps.executeQuery()) {
+          while (rs.next()) {
+            OutboxRow row = new OutboxRow(rs.getLong(1), rs.getString(2), rs.getBytes(3),
+                rs.getInt(4), rs.getLong(5));
+            groups.computeIfAbsent(row.groupKey, k -> new ArrayList<>()).add(row);
+            size++;
+          }
+        }
+      }
+      if (size > 0) {
+        try (PreparedStatement ps = conn.prepareStatement(claimSql)) {
+          for (Map.Entry<String, List<OutboxRow>> group : groups.entrySet()) {
+            group.setValue(claim(ps, group.getValue(), leaseTime));
+          }
+        }
+      }
+      commitIfNecessary(conn);
+    }
+    if (size == 0) {
+      return 0;
+    }
+    final List<OutboxRow> published = new ArrayList<>(size);
+    final List<OutboxRow> failed = new ArrayList<>();
+    final List<OutboxRow> released = new ArrayList<>();
+    for (List<OutboxRow> group : groups.values()) {
+      if (group.isEmpty()) {
+        continue;
+      }
+      try {
+        Message[] messages = new Message[group.size()];
+        for (int i = 0; i < messages.length; i++) {
+          messages[i] = forceCast(Serializations.deserialize(group.get(i).payload));
+        }
+        dispatcher.accept(messages);
+        published.addAll(group);
+      } catch (Exception e) {
+        OutboxRow head = group.get(0);
+        logger.log(Level.WARNING, e, () -> String.format(
+            "Publish the outbox messages of group %s occurred error, attempts %s.", head.groupKey,
+            head.attempts + 1));
+        failed.add(head);// hold back the whole group
+        released.addAll(group.subList(1, group.size()));
+      }
+    }
+    try (Connection conn = dataSource.getConnection()) {
+      if (!published.isEmpty()) {
+        try (PreparedStatement ps = conn.prepareStatement(deleteSql)) {
+          for (OutboxRow row : published) {
+            ps.setLong(1, row.id);
+            ps.addBatch();
+          }
+          ps.executeBatch();
+        }
+      }
+      if (!failed.isEmpty()) {
+        try (PreparedStatement ps = conn.prepareStatement(updateSql)) {
+          for (OutboxRow row : failed) {
+            int attempts = row.attempts + 1;
+            ps.setInt(1, attempts);
+            ps.setLong(2, now + Math.max(backoffStrategy.computeBackoffMillis(attempts), 1L));
+            ps.setLong(3, row.id);
+            ps.setLong(4, leaseTime);
+            ps.addBatch();
+          }
+          // the rows after the failed head are released, they wait behind the head
+          for (OutboxRow row : released) {
+            ps.setInt(1, row.attempts);
+            ps.setLong(2, row.nextAttemptTime);
+            ps.setLong(3, row.id);
+            ps.setLong(4, leaseTime);
+            ps.addBatch();
+          }
+          ps.executeBatch();
+        }
+      }
+      commitIfNecessary(conn);
+    }
+    logger.fine(() -> String.format("Relayed %s outbox messages, %s groups failed.",
+        published.size(), failed.size()));
+    return size;
+  }
+
+  /**
+   * Returns the ordering group key of the given message, the messages of the same aggregate are
+   * published in order.
+   */
+  protected String resolveGroupKey(Message message) {
+    if (message instanceof AbstractAggregateMessage
+        && ((AbstractAggregateMessage) message).getMetadata() != null) {
+      AggregateIdentifier source = ((AbstractAggregateMessage) message).getMetadata().getSource();
+      if (source != null) {
+        return source.getType() + "#" + source.getId();
+      }
+    }
+    return message.getClass().getName();
+  }
+
+  /**
+   * corant-modules-ddd-shared
+   *
+   * @author bingo 下午3:36:18
+   *
+   */
+  protected static class OutboxRow {
+    final long id;
+    final String groupKey;
+    final byte[] payload;
+    final int attempts;
+    final long nextAttemptTime;
+
+    protected OutboxRow(long id, String groupKey, byte[] payload, int attempts,
+        long nextAttemptTime) {
+      this.id = id;
+      this.groupKey = groupKey;
+      this.payload = payload;
+      this.attempts = attempts;
+      this.nextAttemptTime = nextAttemptTime;
+    }
+  }
+}
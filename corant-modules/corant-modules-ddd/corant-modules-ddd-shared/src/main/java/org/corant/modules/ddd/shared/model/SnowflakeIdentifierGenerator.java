@@ -22,6 +22,8 @@ import javax.enterprise.context.ApplicationScoped;
 import org.corant.config.Configs;
 import org.corant.shared.ubiquity.Sortable;
 import org.corant.shared.util.Identifiers.GeneralSnowflakeUUIDGenerator;
+import org.corant.shared.util.Identifiers.LockFreeSnowflakeUUIDGenerator;
+import org.corant.shared.util.Identifiers.LockFreeSnowflakeUUIDGenerator.ClockBackwardsPolicy;
 import org.corant.shared.util.Identifiers.SnowflakeD5W5S12UUIDGenerator;
 import org.corant.shared.util.Identifiers.SnowflakeIpv4HostUUIDGenerator;
 import org.corant.shared.util.Identifiers.SnowflakeW10S12UUIDGenerator;
@@ -29,6 +31,13 @@ import org.corant.shared.util.Identifiers.SnowflakeW10S12UUIDGenerator;
 /**
  * corant-modules-ddd-shared
  *
+ * <p>
+ * Note: If the lock-free generator is enabled ('corant.identifier.generator.snowflake.lock-free'),
+ * the delayed timing ('corant.identifier.generator.snowflake.delayed-timing') doesn't apply, the
+ * lock-free generator reads the time on each reservation and the clock going backwards is handled
+ * by the clock backwards policy and tolerance instead; an explicitly configured delayed timing is
+ * ignored with a warning.
+ *
  * @author bingo 下午7:59:56
  *
  */
@@ -39,6 +48,11 @@ public class SnowflakeIdentifierGenerator {
   public static final String IG_SF_WK_ID = "corant.identifier.generator.snowflake.worker-id";
   public static final String IG_SF_DC_ID = "corant.identifier.generator.snowflake.datacenter-id";
   public static final String IG_SF_DL_TM = "corant.identifier.generator.snowflake.delayed-timing";
+  public static final String IG_SF_LK_FR = "corant.identifier.generator.snowflake.lock-free";
+  public static final String IG_SF_CB_PL =
+      "corant.identifier.generator.snowflake.clock-backwards-policy";
+  public static final String IG_SF_CB_TL =
+      "corant.identifier.generator.snowflake.clock-backwards-tolerance";
   static Logger logger = Logger.getLogger(SnowflakeIdentifierGenerator.class.getName());
 
   TimeService specTimeGenerator;
@@ -49,6 +63,19 @@ public class SnowflakeIdentifierGenerator {
         .generate(() -> specTimeGenerator.get(object, generator.getUnit() == ChronoUnit.SECONDS));
   }
 
+  /**
+   * Generate the given number of ids for batch inserts, if the lock-free generator is enabled the
+   * ids are reserved in blocks.
+   *
+   * @param object the object that the ids generated for
+   * @param size the number of the ids
+   * @return the generated ids in ascending order
+   */
+  public long[] generate(Object object, int size) {
+    return generator.generate(
+        () -> specTimeGenerator.get(object, generator.getUnit() == ChronoUnit.SECONDS), size);
+  }
+
   @PostConstruct
   synchronized void initialize() {
     specTimeGenerator = findAnyway(TimeService.class)
@@ -68,6 +95,16 @@ public class SnowflakeIdentifierGenerator {
     } else {
       generator = new SnowflakeIpv4HostUUIDGenerator(delayedTiming);
     }
+    if (Configs.getValue(IG_SF_LK_FR, Boolean.class, Boolean.FALSE)) {
+      if (Configs.getValue(IG_SF_DL_TM, Long.class) != null) {
+        logger.warning(() -> String.format(
+            "The lock-free identifier generator doesn't support the delayed timing, the %s is ignored.",
+            IG_SF_DL_TM));
+      }
+      generator = LockFreeSnowflakeUUIDGenerator.of(generator,
+          Configs.getValue(IG_SF_CB_PL, ClockBackwardsPolicy.class, ClockBackwardsPolicy.WAIT),
+          Configs.getValue(IG_SF_CB_TL, Long.class, 1000L));
+    }
     logger.info(
         () -> String.format("Create global identifier generator %s.", generator.description()));
   }
@@ -20,8 +20,10 @@ import static org.corant.shared.util.Objects.forceCast;
 import static org.corant.shared.util.Sets.linkedHashSetOf;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import javax.persistence.Cache;
@@ -30,10 +32,12 @@ import javax.persistence.EntityManagerFactory;
 import javax.persistence.LockModeType;
 import javax.persistence.Query;
 import javax.persistence.criteria.CriteriaQuery;
+import org.corant.config.Configs;
 import org.corant.modules.ddd.Aggregate;
 import org.corant.modules.ddd.Aggregate.AggregateIdentifier;
 import org.corant.modules.ddd.Entity;
 import org.corant.modules.ddd.Repository;
+import org.corant.modules.jpa.shared.JPAMultiLoader;
 import org.corant.modules.jpa.shared.JPAQueries;
 import org.corant.modules.jpa.shared.JPAQueries.AdvancedJPAQuery;
 import org.corant.modules.jpa.shared.JPAQueries.JPAQuery;
@@ -43,6 +47,13 @@ import org.corant.shared.util.Objects;
 /**
  * corant-modules-ddd-shared
  *
+ * <p>
+ * Note: The bulk operations ({@link #persistAll(Iterable)}, {@link #mergeAll(Iterable)},
+ * {@link #removeAll(Iterable)}) flush and clear the persistence context every batch size entities
+ * so that the large imports run in bounded memory, the batch size is specified by
+ * 'corant.ddd.repository.batch-size' (default 50) and should be the same as the JDBC batch size of
+ * the JPA provider (such as 'hibernate.jdbc.batch_size'), otherwise the statements aren't batched.
+ *
  * @author bingo 下午9:39:59
  *
  */
@@ -50,6 +61,8 @@ public interface JPARepository extends Repository<Query> {
 
   Logger logger = Logger.getLogger(JPARepository.class.getName());
 
+  int DEFAULT_BATCH_SIZE = Configs.getValue("corant.ddd.repository.batch-size", Integer.class, 50);
+
   /**
    * {@link EntityManager#clear()}
    */
@@ -190,6 +203,31 @@ public interface JPARepository extends Repository<Query> {
     return forceCast(query.getSingleResult());
   }
 
+  /**
+   * Retrieves the entities by the given primary keys with as few round trips as possible, the
+   * result keeps the order of the given primary keys, the duplicated primary keys and the entities
+   * that don't exist are discarded.
+   *
+   * @param <T> the entity type
+   * @param entityClass the entity class
+   * @param ids the entity primary keys
+   * @return entity list
+   *
+   * @see JPAMultiLoader
+   */
+  default <T> List<T> getAll(Class<T> entityClass, Collection<? extends Serializable> ids) {
+    return JPAMultiLoader.multiLoad(getEntityManager(), entityClass, ids, getBatchSize());
+  }
+
+  /**
+   * Returns the number of the entities that are processed between two flushes in the bulk
+   * operations, the value less than 1 means that the persistence context is not flushed and
+   * cleared periodically.
+   */
+  default int getBatchSize() {
+    return DEFAULT_BATCH_SIZE;
+  }
+
   /**
    * Returns the JPA entity manager used for this repository
    */
@@ -232,6 +270,30 @@ public interface JPARepository extends Repository<Query> {
     return getEntityManager().merge(entity);
   }
 
+  /**
+   * Merge the given entities in batch, use {@link #getBatchSize()} as batch size.
+   *
+   * @see #mergeAll(Iterable, int)
+   */
+  default <T> int mergeAll(Iterable<T> entities) {
+    return mergeAll(entities, getBatchSize());
+  }
+
+  /**
+   * Merge the given entities, flush and clear the persistence context every batch size entities
+   * and at the end. Note: All the entities in the persistence context (include the merged entities
+   * and the entities that are loaded before this method is invoked) are detached.
+   *
+   * @param <T> the entity type
+   * @param entities the entities to be merged
+   * @param batchSize the number of the entities that are merged between two flushes, the value
+   *        less than 1 means that the persistence context is not flushed and cleared
+   * @return the number of the merged entities
+   */
+  default <T> int mergeAll(Iterable<T> entities, int batchSize) {
+    return batch(entities, batchSize, this::merge);
+  }
+
   /**
    * Create name query
    *
@@ -299,6 +361,30 @@ public interface JPARepository extends Repository<Query> {
     return true;
   }
 
+  /**
+   * Persist the given entities in batch, use {@link #getBatchSize()} as batch size.
+   *
+   * @see #persistAll(Iterable, int)
+   */
+  default <T> int persistAll(Iterable<T> entities) {
+    return persistAll(entities, getBatchSize());
+  }
+
+  /**
+   * Persist the given entities, flush and clear the persistence context every batch size entities
+   * and at the end. Note: All the entities in the persistence context (include the persisted
+   * entities and the entities that are loaded before this method is invoked) are detached.
+   *
+   * @param <T> the entity type
+   * @param entities the entities to be persisted
+   * @param batchSize the number of the entities that are persisted between two flushes, the value
+   *        less than 1 means that the persistence context is not flushed and cleared
+   * @return the number of the persisted entities
+   */
+  default <T> int persistAll(Iterable<T> entities, int batchSize) {
+    return batch(entities, batchSize, this::persist);
+  }
+
   /**
    * {@link JPAQueries#query(CriteriaQuery)}
    *
@@ -339,6 +425,34 @@ public interface JPARepository extends Repository<Query> {
     return false;
   }
 
+  /**
+   * Remove the given entities in batch, use {@link #getBatchSize()} as batch size.
+   *
+   * @see #removeAll(Iterable, int)
+   */
+  default <T> int removeAll(Iterable<T> entities) {
+    return removeAll(entities, getBatchSize());
+  }
+
+  /**
+   * Remove the given entities, flush and clear the persistence context every batch size entities
+   * and at the end, the detached entities are merged before removing. The entity lifecycle
+   * callbacks and the cascades are still applied, use the JPQL bulk delete query if they are not
+   * needed.
+   *
+   * @param <T> the entity type
+   * @param entities the entities to be removed
+   * @param batchSize the number of the entities that are removed between two flushes, the value
+   *        less than 1 means that the persistence context is not flushed and cleared
+   * @return the number of the removed entities
+   */
+  default <T> int removeAll(Iterable<T> entities, int batchSize) {
+    return batch(entities, batchSize, e -> {
+      EntityManager em = getEntityManager();
+      return remove(em.contains(e) ? e : em.merge(e));
+    });
+  }
+
   /**
    * Retrieves the entities by primary keys
    *
@@ -376,4 +490,27 @@ public interface JPARepository extends Repository<Query> {
     return JPAQueries.storedProcedureQuery(procedureName, resultSetMappings)
         .entityManager(this::getEntityManager);
   }
+
+  private <T> int batch(Iterable<T> entities, int batchSize, Function<T, Object> handler) {
+    if (entities == null) {
+      return 0;
+    }
+    int count = 0;
+    for (T entity : entities) {
+      if (entity == null) {
+        continue;
+      }
+      handler.apply(entity);
+      count++;
+      if (batchSize > 0 && count % batchSize == 0) {
+        flush();
+        clear();
+      }
+    }
+    if (batchSize > 0 && count % batchSize != 0) {
+      flush();
+      clear();
+    }
+    return count;
+  }
 }
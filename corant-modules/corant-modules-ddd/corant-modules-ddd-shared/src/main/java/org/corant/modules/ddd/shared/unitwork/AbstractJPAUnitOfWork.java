@@ -75,7 +75,7 @@ public abstract class AbstractJPAUnitOfWork implements UnitOfWork, EntityManager
   protected final Map<AggregateIdentifier, Lifecycle> registeredAggregates = new LinkedHashMap<>();
   protected final Map<AggregateIdentifier, Lifecycle> evolutiveAggregates = new LinkedHashMap<>();
   protected final Map<Object, Object> registeredVariables = new LinkedHashMap<>();
-  protected final LinkedList<WrappedMessage> registeredMessages = new LinkedList<>();
+  protected final MessageBuffer registeredMessages = new MessageBuffer();
 
   protected volatile boolean activated;
 
@@ -146,7 +146,7 @@ public abstract class AbstractJPAUnitOfWork implements UnitOfWork, EntityManager
    * @return the registered messsages
    */
   public List<WrappedMessage> getMessages() {
-    return Collections.unmodifiableList(registeredMessages);
+    return Collections.unmodifiableList(registeredMessages.toList());
   }
 
   @Override
@@ -194,11 +194,11 @@ public abstract class AbstractJPAUnitOfWork implements UnitOfWork, EntityManager
             evolutiveAggregates.put(ai, al);
           }
           for (Message message : aggregate.extractMessages(true)) {
-            WrappedMessage.mergeToQueue(registeredMessages, new WrappedMessage(message, ai));
+            registeredMessages.add(new WrappedMessage(message, ai));
           }
         }
       } else if (obj instanceof Message) {
-        WrappedMessage.mergeToQueue(registeredMessages, new WrappedMessage((Message) obj));
+        registeredMessages.add(new WrappedMessage((Message) obj));
       } else if (obj instanceof Map.Entry<?, ?>) {
         Map.Entry<?, ?> p = (Map.Entry<?, ?>) obj;
         registeredVariables.put(p.getKey(), p.getValue());
@@ -216,17 +216,14 @@ public abstract class AbstractJPAUnitOfWork implements UnitOfWork, EntityManager
     });
     evolutiveAggregates.clear();
     registeredAggregates.clear();
+    logger.fine(() -> String.format("Unit of work message buffer: %s.",
+        registeredMessages.statistics()));
     registeredMessages.clear();
     registeredVariables.clear();
   }
 
   protected boolean extractMessages(LinkedList<WrappedMessage> messages) {
-    if (!registeredMessages.isEmpty()) {
-      registeredMessages.stream().sorted().forEach(messages::offer);
-      registeredMessages.clear();
-      return true;
-    }
-    return false;
+    return registeredMessages.drainTo(messages);
   }
 
   protected UnitOfWorksManager getManager() {
@@ -45,6 +45,7 @@ public class JTARLJPAUnitOfWork extends AbstractJTAJPAUnitOfWork {
   protected final MessageStorage messageStorage;
   protected final SagaService sagaService; // FIXME Is it right to do so?
   protected final LinkedList<Message> storedMessages = new LinkedList<>();
+  protected boolean messagesStored;
 
   protected JTARLJPAUnitOfWork(JTARLJPAUnitOfWorksManager manager, Transaction transaction) {
     super(manager, transaction);
@@ -60,7 +61,12 @@ public class JTARLJPAUnitOfWork extends AbstractJTAJPAUnitOfWork {
   public void complete(boolean success) {
     if (success) {
       int messageSize = sizeOf(storedMessages);
-      messageDispatcher.accept(storedMessages.toArray(new Message[messageSize]));
+      if (messageSize > 0) {
+        messageDispatcher.accept(storedMessages.toArray(new Message[messageSize]));
+      }
+    }
+    if (messagesStored) {
+      messageStorage.complete(success);
     }
     super.complete(success);
   }
@@ -90,7 +96,11 @@ public class JTARLJPAUnitOfWork extends AbstractJTAJPAUnitOfWork {
     WrappedMessage wm;
     while ((wm = messages.poll()) != null) {
       final Message msg = wm.delegate;
-      storedMessages.add(messageStorage.apply(msg));
+      final Message stored = messageStorage.apply(msg);
+      if (stored != null) {
+        storedMessages.add(stored);// the storage doesn't take charge of the dispatching
+      }
+      messagesStored = true;
       sagaService.trigger(msg);// FIXME Is it right to do so?
       if (extractMessages(messages) && --cycles < 0) {
         throw new CorantRuntimeException("Can not handle messages!");
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.ddd.shared.unitwork;
+
+import static org.corant.shared.util.Objects.areEqual;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+import org.corant.modules.ddd.MergableMessage;
+
+/**
+ * corant-modules-ddd-shared
+ *
+ * <p>
+ * The indexed message buffer of the unit of work. The messages are kept in the registration order,
+ * and the mergeable messages are indexed by the message type and the source (the aggregate
+ * identifier), so that finding the correlated message to be merged with is O(1) instead of scanning
+ * the whole queue. The merging semantics is the same as before: the new mergeable message is merged
+ * with the earliest correlated message in the buffer, the older one is removed and the merged one
+ * is appended to the tail if it is still valid.
+ *
+ * <p>
+ * The buffer also records the number of registered, merged and discarded messages and the time
+ * spent on merging, use for diagnosing the large batch commands.
+ *
+ * @author bingo 下午2:50:41
+ *
+ */
+final class MessageBuffer implements Iterable<WrappedMessage> {
+
+  static final Logger logger = Logger.getLogger(MessageBuffer.class.getName());
+
+  final LinkedHashSet<WrappedMessage> messages = new LinkedHashSet<>();
+  final Map<MergeKey, ArrayDeque<WrappedMessage>> index = new HashMap<>();
+
+  long registeredCount;
+  long mergedCount;
+  long discardedCount;
+  long mergeNanos;
+
+  /**
+   * Add the given message to the tail of the buffer, if the message is mergeable and there is a
+   * correlated message in the buffer, merge them.
+   *
+   * @see WrappedMessage#isCorrelated(WrappedMessage, WrappedMessage)
+   */
+  public void add(WrappedMessage newMsg) {
+    registeredCount++;
+    if (newMsg.delegate instanceof MergableMessage) {
+      final long start = System.nanoTime();
+      final MergeKey key = new MergeKey(newMsg);
+      final ArrayDeque<WrappedMessage> correlated = index.get(key);
+      final WrappedMessage oldMgbMsg = correlated == null ? null : correlated.peekFirst();
+      final MergableMessage older = oldMgbMsg == null ? null : (MergableMessage) oldMgbMsg.delegate;
+      final MergableMessage newer = (MergableMessage) newMsg.delegate;
+      if (older == null || !newer.canMerge(older)) {
+        logger.fine(() -> String.format("Enqueue message %s.", newer));
+        append(key, newMsg);
+      } else {
+        logger.fine(() -> String.format("Remove message %s from queue.", older));
+        messages.remove(oldMgbMsg);
+        correlated.pollFirst();
+        mergedCount++;
+        if (newer.merge(older).isValid()) {
+          logger.fine(() -> String.format("Merge message %s to %s and enqueue it.", older, newer));
+          append(key, newMsg);
+        } else {
+          discardedCount++;
+          if (correlated.isEmpty()) {
+            index.remove(key);
+          }
+        }
+      }
+      mergeNanos += System.nanoTime() - start;
+    } else {
+      logger.fine(() -> String.format("Enqueue message %s.", newMsg.delegate));
+      messages.add(newMsg);
+    }
+  }
+
+  /**
+   * Remove all messages and the index, the statistics are retained.
+   */
+  public void clear() {
+    messages.clear();
+    index.clear();
+  }
+
+  /**
+   * Move all messages sorted by the wrapped time to the given collection, and clear this buffer.
+   *
+   * @param target the target collection
+   * @return true if any messages were moved
+   */
+  public boolean drainTo(Collection<WrappedMessage> target) {
+    if (messages.isEmpty()) {
+      return false;
+    }
+    List<WrappedMessage> sorted = new ArrayList<>(messages);
+    sorted.sort(null);// stable, the merged messages keep their relative order
+    target.addAll(sorted);
+    clear();
+    return true;
+  }
+
+  public boolean isEmpty() {
+    return messages.isEmpty();
+  }
+
+  @Override
+  public Iterator<WrappedMessage> iterator() {
+    return messages.iterator();
+  }
+
+  /**
+   * Remove the messages that matches the given predicate.
+   *
+   * @param predicate the predicate
+   */
+  public void removeIf(Predicate<WrappedMessage> predicate) {
+    if (messages.removeIf(predicate)) {
+      index.values().removeIf(correlated -> {
+        correlated.removeIf(predicate);
+        return correlated.isEmpty();
+      });
+    }
+  }
+
+  public int size() {
+    return messages.size();
+  }
+
+  /**
+   * Returns the statistics description of this buffer, include the number of the registered,
+   * merged, discarded and buffered messages and the merge time.
+   */
+  public String statistics() {
+    return String.format(
+        "registered messages %s, merged %s, discarded %s, buffered %s, merge time %.3f ms",
+        registeredCount, mergedCount, discardedCount, messages.size(), mergeNanos / 1000000.0);
+  }
+
+  List<WrappedMessage> toList() {
+    return new ArrayList<>(messages);
+  }
+
+  void append(MergeKey key, WrappedMessage message) {
+    messages.add(message);
+    index.computeIfAbsent(key, k -> new ArrayDeque<>(2)).addLast(message);
+  }
+
+  /**
+   * corant-modules-ddd-shared
+   *
+   * @author bingo 下午2:50:41
+   *
+   */
+  static final class MergeKey {
+    final Class<?> type;
+    final Object source;
+    final int hash;
+
+    MergeKey(WrappedMessage message) {
+      type = message.delegate.getClass();
+      source = message.getSource();
+      hash = Objects.hash(type, source);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj == null || getClass() != obj.getClass()) {
+        return false;
+      }
+      MergeKey other = (MergeKey) obj;
+      return type == other.type && areEqual(source, other.source);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.elastic.data.service;
+
+import static org.corant.shared.util.Assertions.shouldBeTrue;
+import static org.corant.shared.util.Assertions.shouldNotNull;
+import static org.corant.shared.util.Maps.getMapString;
+import static org.corant.shared.util.Objects.defaultObject;
+import static org.corant.shared.util.Strings.isNotBlank;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.corant.modules.elastic.data.Elastic6Constants;
+import org.corant.modules.elastic.data.metadata.ElasticIndexing;
+import org.corant.modules.elastic.data.metadata.ElasticMapping;
+import org.corant.modules.elastic.data.model.ElasticDocument;
+import org.corant.modules.elastic.data.model.ElasticVersionedDocument;
+import org.corant.shared.exception.CorantRuntimeException;
+import org.corant.shared.retry.BackoffStrategy;
+import org.corant.shared.retry.BackoffStrategy.BackoffAlgorithm;
+import org.corant.shared.retry.BackoffStrategy.BackoffStrategyBuilder;
+import org.elasticsearch.action.bulk.BackoffPolicy;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.VersionType;
+
+/**
+ * corant-modules-elastic-data
+ *
+ * <p>
+ * A backpressured bulk indexing processor on top of the transport client of the given document
+ * service, use for the large indexing or reindexing jobs. The added documents are buffered and
+ * sent as a bulk request when the number of the actions or the bytes of the buffered documents
+ * reaches the limit, or when the flush interval elapses. The number of the concurrent in-flight
+ * bulk requests is capped, when all the permits are in use, the producer thread that adds the
+ * documents is blocked until a bulk request is completed. The items that are rejected by the
+ * cluster (EsRejectedExecutionException) are retried per item with the given backoff, the other
+ * failures are counted and passed to the failure handler.
+ *
+ * <p>
+ * The documents are resolved with the index metadata of the document service (see
+ * {@link ElasticDocumentService#resolveIndexing(Class)} and
+ * {@link ElasticDocumentService#resolveMapping(Class)}), the versioned documents use the version
+ * type of the mapping.
+ *
+ * <pre>
+ * try (ElasticBulkIndexer indexer = ElasticBulkIndexer.builder(documentService).bulkActions(2000)
+ *     .concurrentRequests(2).flushInterval(Duration.ofSeconds(5)).build()) {
+ *   documents.forEach(indexer::add);
+ * }
+ * </pre>
+ *
+ * @author bingo 下午4:30:15
+ *
+ */
+public class ElasticBulkIndexer implements AutoCloseable {
+
+  static final Logger logger = Logger.getLogger(ElasticBulkIndexer.class.getName());
+
+  protected final ElasticDocumentService service;
+  protected final BulkProcessor processor;
+  protected final Duration closeTimeout;
+  protected final FailureHandler failureHandler;
+  protected final LongAdder succeeded = new LongAdder();
+  protected final LongAdder failed = new LongAdder();
+  protected final LongAdder bulks = new LongAdder();
+
+  protected ElasticBulkIndexer(Builder builder) {
+    service = builder.service;
+    closeTimeout = builder.closeTimeout;
+    failureHandler = builder.failureHandler;
+    BulkProcessor.Builder pb =
+        BulkProcessor.builder(service.getTransportClient()::bulk, new BulkListener())
+            .setBulkActions(builder.bulkActions)
+            .setBulkSize(new ByteSizeValue(builder.bulkBytes, ByteSizeUnit.BYTES))
+            .setConcurrentRequests(builder.concurrentRequests)
+            .setBackoffPolicy(
+                new BackoffStrategyPolicy(builder.backoffStrategy, builder.maxRetries));
+    if (builder.flushInterval != null) {
+      pb.setFlushInterval(TimeValue.timeValueMillis(builder.flushInterval.toMillis()));
+    }
+    processor = pb.build();
+  }
+
+  public static Builder builder(ElasticDocumentService service) {
+    return new Builder(service);
+  }
+
+  /**
+   * Add the document to index, the index name, the mapping and the version type are resolved from
+   * the document class. This method blocks if the concurrent in-flight bulk requests reach the
+   * limit.
+   *
+   * @param document the document to index
+   * @return this indexer
+   */
+  public ElasticBulkIndexer add(ElasticDocument document) {
+    Class<?> docCls = shouldNotNull(document).getClass();
+    ElasticIndexing indexing = shouldNotNull(service.resolveIndexing(docCls));
+    ElasticMapping mapping = shouldNotNull(service.resolveMapping(docCls));
+    if (document instanceof ElasticVersionedDocument) {
+      ElasticVersionedDocument verDoc = (ElasticVersionedDocument) document;
+      return add(indexing.getName(), document.getId(), document.getRId(), mapping.toMap(verDoc),
+          verDoc.getVn(), mapping.getVersionType());
+    }
+    return add(indexing.getName(), document.getId(), document.getRId(), mapping.toMap(document),
+        0L, null);
+  }
+
+  /**
+   * Add the document map to index, the document id is the value of the key 'id'.
+   *
+   * @param indexName the index name
+   * @param obj the document map
+   * @return this indexer
+   */
+  public ElasticBulkIndexer add(String indexName, Map<?, ?> obj) {
+    return add(indexName, getMapString(obj, "id"), null, obj, 0L, null);
+  }
+
+  /**
+   * Add the document map to index. This method blocks if the concurrent in-flight bulk requests
+   * reach the limit.
+   *
+   * @param indexName the index name
+   * @param id the document id
+   * @param routingId the routing id, can be null
+   * @param obj the document map
+   * @param version the document version, only used when the version type is not INTERNAL
+   * @param versionType the version type, null means INTERNAL
+   * @return this indexer
+   */
+  @SuppressWarnings("unchecked")
+  public ElasticBulkIndexer add(String indexName, String id, String routingId, Map<?, ?> obj,
+      long version, VersionType versionType) {
+    IndexRequest request = new IndexRequest(indexName, Elastic6Constants.TYP_NME, id)
+        .source((Map<String, ?>) obj, XContentType.SMILE);
+    if (isNotBlank(routingId)) {
+      request.routing(routingId);
+    }
+    VersionType useVersionType = defaultObject(versionType, VersionType.INTERNAL);
+    if (useVersionType != VersionType.INTERNAL) {
+      shouldBeTrue(version > 0);
+      request.version(version);
+      request.versionType(useVersionType);
+    }
+    processor.add(request);
+    return this;
+  }
+
+  /**
+   * Flush the buffered documents and wait for all the in-flight bulk requests to complete within
+   * the close timeout.
+   */
+  @Override
+  public void close() {
+    try {
+      if (!processor.awaitClose(closeTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+        logger.warning(() -> String.format(
+            "The bulk indexer can't complete the in-flight bulk requests within %s.",
+            closeTimeout));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CorantRuntimeException(e);
+    }
+    logger.fine(() -> String.format("Bulk indexer closed, bulks: %s, succeeded: %s, failed: %s.",
+        getBulkCount(), getSucceededCount(), getFailedCount()));
+  }
+
+  /**
+   * Send the buffered documents immediately.
+   */
+  public void flush() {
+    processor.flush();
+  }
+
+  public long getBulkCount() {
+    return bulks.sum();
+  }
+
+  public long getFailedCount() {
+    return failed.sum();
+  }
+
+  public long getSucceededCount() {
+    return succeeded.sum();
+  }
+
+  protected void onFailure(String indexName, String id, Throwable cause) {
+    failed.increment();
+    if (failureHandler != null) {
+      failureHandler.onFailure(indexName, id, cause);
+    } else {
+      logger.log(Level.WARNING, cause,
+          () -> String.format("Bulk index %s/%s failed.", indexName, id));
+    }
+  }
+
+  /**
+   * corant-modules-elastic-data
+   *
+   * <p>
+   * Adapts the corant backoff strategy to the elastic backoff policy, the elastic retry handler
+   * obtains a new iterator for each bulk request that has rejected items.
+   *
+   * @author bingo 下午4:30:15
+   *
+   */
+  static class BackoffStrategyPolicy extends BackoffPolicy {
+    final BackoffStrategy strategy;
+    final int maxRetries;
+
+    BackoffStrategyPolicy(BackoffStrategy strategy, int maxRetries) {
+      this.strategy = strategy;
+      this.maxRetries = maxRetries;
+    }
+
+    @Override
+    public Iterator<TimeValue> iterator() {
+      return new Iterator<>() {
+        int attempts = 0;
+
+        @Override
+        public boolean hasNext() {
+          return attempts < maxRetries;
+        }
+
+        @Override
+        public TimeValue next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          return TimeValue.timeValueMillis(strategy.computeBackoffMillis(++attempts));
+        }
+      };
+    }
+  }
+
+  /**
+   * corant-modules-elastic-data
+   *
+   * @author bingo 下午4:30:15
+   *
+   */
+  public static class Builder {
+    final ElasticDocumentService service;
+    int bulkActions = 1000;
+    long bulkBytes = 5L * 1024 * 1024;
+    Duration flushInterval;
+    int concurrentRequests = 1;
+    BackoffStrategy backoffStrategy = new BackoffStrategyBuilder()
+        .algorithm(BackoffAlgorithm.EXPO_EQUAL_JITTER).baseDuration(Duration.ofMillis(50))
+        .maxDuration(Duration.ofSeconds(5)).build();
+    int maxRetries = 8;
+    Duration closeTimeout = Duration.ofMinutes(1);
+    FailureHandler failureHandler;
+
+    protected Builder(ElasticDocumentService service) {
+      this.service = shouldNotNull(service);
+    }
+
+    /**
+     * The backoff of the retries of the rejected items, default exponential backoff with equal
+     * jitter, base 50ms, max 5s and 8 retries.
+     *
+     * @param backoffStrategy the backoff strategy
+     * @param maxRetries the maximum number of the retries, 0 means no retry
+     */
+    public Builder backoff(BackoffStrategy backoffStrategy, int maxRetries) {
+      shouldBeTrue(maxRetries >= 0);
+      this.backoffStrategy = shouldNotNull(backoffStrategy);
+      this.maxRetries = maxRetries;
+      return this;
+    }
+
+    public ElasticBulkIndexer build() {
+      return new ElasticBulkIndexer(this);
+    }
+
+    /**
+     * The number of the actions that triggers a bulk request, -1 means disable, default 1000.
+     */
+    public Builder bulkActions(int bulkActions) {
+      this.bulkActions = bulkActions;
+      return this;
+    }
+
+    /**
+     * The bytes of the buffered documents that triggers a bulk request, -1 means disable, default
+     * 5MB.
+     */
+    public Builder bulkBytes(long bulkBytes) {
+      this.bulkBytes = bulkBytes;
+      return this;
+    }
+
+    /**
+     * The maximum time to wait for the in-flight bulk requests when closing, default 1 minute.
+     */
+    public Builder closeTimeout(Duration closeTimeout) {
+      this.closeTimeout = shouldNotNull(closeTimeout);
+      return this;
+    }
+
+    /**
+     * The maximum number of the concurrent in-flight bulk requests, 0 means that the bulk request
+     * is executed synchronously on the producer thread, default 1.
+     */
+    public Builder concurrentRequests(int concurrentRequests) {
+      shouldBeTrue(concurrentRequests >= 0);
+      this.concurrentRequests = concurrentRequests;
+      return this;
+    }
+
+    /**
+     * The handler of the items that failed finally, default log the failure.
+     */
+    public Builder failureHandler(FailureHandler failureHandler) {
+      this.failureHandler = failureHandler;
+      return this;
+    }
+
+    /**
+     * The interval to send the buffered documents regardless of the number of the actions and the
+     * bytes, null means disable, default null.
+     */
+    public Builder flushInterval(Duration flushInterval) {
+      this.flushInterval = flushInterval;
+      return this;
+    }
+  }
+
+  /**
+   * corant-modules-elastic-data
+   *
+   * <p>
+   * The handler of the documents that failed to index finally.
+   *
+   * @author bingo 下午4:30:15
+   *
+   */
+  @FunctionalInterface
+  public interface FailureHandler {
+    void onFailure(String indexName, String id, Throwable cause);
+  }
+
+  /**
+   * corant-modules-elastic-data
+   *
+   * @author bingo 下午4:30:15
+   *
+   */
+  class BulkListener implements BulkProcessor.Listener {
+
+    @Override
+    public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+      bulks.increment();
+      // the items of the retried requests are merged, use the item itself to locate the document
+      for (BulkItemResponse item : response.getItems()) {
+        if (item.isFailed()) {
+          onFailure(item.getIndex(), item.getId(), item.getFailure().getCause());
+        } else {
+          succeeded.increment();
+        }
+      }
+    }
+
+    @Override
+    public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+      bulks.increment();
+      request.requests().forEach(r -> onFailure(r.index(), r.id(), failure));
+    }
+
+    @Override
+    public void beforeBulk(long executionId, BulkRequest request) {
+      logger.fine(() -> String.format("Execute bulk request %s with %s actions, %s bytes.",
+          executionId, request.numberOfActions(), request.estimatedSizeInBytes()));
+    }
+  }
+}
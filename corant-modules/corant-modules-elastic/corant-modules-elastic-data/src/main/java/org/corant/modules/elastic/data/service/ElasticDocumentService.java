@@ -69,6 +69,17 @@ public interface ElasticDocumentService {
    */
   int bulkIndex(String indexName, List<Map<?, ?>> objs, boolean flush);
 
+  /**
+   * Returns a new bulk indexer with the default settings, use for the large indexing jobs, the
+   * bulk indexer batches the documents by the number of actions and bytes, caps the concurrent
+   * bulk requests and retries the rejected items, the caller must close it after use.
+   *
+   * @see ElasticBulkIndexer#builder(ElasticDocumentService)
+   */
+  default ElasticBulkIndexer bulkIndexer() {
+    return ElasticBulkIndexer.builder(this).build();
+  }
+
   /**
    * Delete document indexing by index name and document id, no flush immediately.
    *
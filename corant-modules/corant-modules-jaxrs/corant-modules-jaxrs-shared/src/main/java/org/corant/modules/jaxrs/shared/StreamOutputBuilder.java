@@ -39,6 +39,7 @@ public class StreamOutputBuilder extends AbstractStreamOutputHandler<StreamOutpu
 
   protected Resource resource;
   protected File[] files = FileUtils.EMPTY_ARRAY;
+  protected StreamingOutput output;
 
   protected StreamOutputBuilder(File... files) {
     this.files = shouldNotEmpty(files);
@@ -48,6 +49,10 @@ public class StreamOutputBuilder extends AbstractStreamOutputHandler<StreamOutpu
     this.resource = shouldNotNull(resource, "The resource can not null!");
   }
 
+  protected StreamOutputBuilder(StreamingOutput output) {
+    this.output = shouldNotNull(output, "The output can not null!");
+  }
+
   public static StreamOutputBuilder of(File file) {
     return of(new FileSystemResource(file));
   }
@@ -62,6 +67,16 @@ public class StreamOutputBuilder extends AbstractStreamOutputHandler<StreamOutpu
         .contentType(getMapString(resource.getMetadata(), Resource.META_CONTENT_TYPE));
   }
 
+  /**
+   * Returns a stream output builder that writes the response body with the given streaming output,
+   * use for the contents that are generated while writing, such as the large query results.
+   *
+   * @param output the streaming output
+   */
+  public static StreamOutputBuilder of(StreamingOutput output) {
+    return new StreamOutputBuilder(output);
+  }
+
   public static StreamOutputBuilder zipFiles(File... files) {
     return new StreamOutputBuilder(files);
   }
@@ -72,7 +87,9 @@ public class StreamOutputBuilder extends AbstractStreamOutputHandler<StreamOutpu
 
   public Response build(boolean loose) {
     final StreamingOutput stm;
-    if (resource != null) {
+    if (output != null) {
+      stm = output;
+    } else if (resource != null) {
       stm = output -> {
         try (InputStream input = resource.openInputStream()) {
           Streams.copy(input, output);
@@ -57,6 +57,27 @@ public @interface MessageDriven {
    */
   String acknowledge() default "2";
 
+  /**
+   * The maximum number of messages delivered to the message receiving method in a single
+   * invocation, the batch delivery is only enabled if the value is greater than 1 and the first
+   * parameter type of the method is {@link java.util.List}, otherwise each invocation receives one
+   * message and a {@link java.util.List} parameter is the deserialized message payload. The
+   * messages of a batch are received by the same message consumer and share one message
+   * acknowledgement, which means that in JTA XA, the batch is processed in one transaction; in
+   * SESSION_TRANSACTED, the batch is committed once; in CLIENT_ACKNOWLEDGE, the batch is
+   * acknowledged once. Default value is 1.
+   *
+   * <p>
+   * <b>Note:</b> The final value type is <b>integer</b> type; in order to support configurability,
+   * the string is used as the value type of annotation property, and the value will eventually be
+   * converted to integer type. If the value of this property uses the <b>"${...}"</b> expression,
+   * the specific value can be obtained from the system property or configuration, and then convert
+   * it to integer value.
+   *
+   * @return batchSize
+   */
+  String batchSize() default "1";
+
   /**
    * Returns the Back-off Algorithm, default is {@link BackoffAlgorithm#FIXED}
    * <p>
@@ -116,6 +137,22 @@ public @interface MessageDriven {
    */
   String cacheLevel() default "3";
 
+  /**
+   * The number of concurrent message consumers of each destination, only works in
+   * {@link ReceiveMode#PUSH} mode, each consumer has its own session and thread. The multicast
+   * destination always uses one consumer. Default value is 1.
+   *
+   * <p>
+   * <b>Note:</b> The final value type is <b>integer</b> type; in order to support configurability,
+   * the string is used as the value type of annotation property, and the value will eventually be
+   * converted to integer type. If the value of this property uses the <b>"${...}"</b> expression,
+   * the specific value can be obtained from the system property or configuration, and then convert
+   * it to integer value.
+   *
+   * @return concurrency
+   */
+  String concurrency() default "1";
+
   /**
    * The failure threshold, if exceeds then start break mode.
    * <p>
@@ -155,6 +192,20 @@ public @interface MessageDriven {
    */
   String maxBrokenDuration() default "PT1H";
 
+  /**
+   * Returns the message receive mode, default is {@link ReceiveMode#POLL}.
+   *
+   * <p>
+   * <b>Note:</b> The final value type is <b>{@link ReceiveMode}</b> type; in order to support
+   * configurability, the string is used as the value type of annotation property, and the value
+   * will eventually be converted to {@link ReceiveMode} type. If the value of this property uses
+   * the <b>"${...}"</b> expression, the specific value can be obtained from the system property or
+   * configuration, and then convert it to {@link ReceiveMode} value.
+   *
+   * @see ReceiveMode
+   */
+  String receiveMode() default "POLL";
+
   /**
    * The number of messages received per execution, using the same message consumer. Each message
    * receipt has its own message acknowledgement, which means that in JTA XA, each message received
@@ -254,4 +305,25 @@ public @interface MessageDriven {
    * @return xa
    */
   String xa() default "true";
+
+  /**
+   * corant-modules-jms-api
+   *
+   * @author bingo 下午2:39:22
+   *
+   */
+  enum ReceiveMode {
+    /**
+     * The message consumer is polled by the scheduled receiving task with the fixed delay, each
+     * execution receives at most {@link MessageDriven#receiveThreshold()} times.
+     */
+    POLL,
+
+    /**
+     * The message consumers block on receiving continuously on the dedicated threads, the messages
+     * are delivered as soon as they arrive, the number of consumers is specified by
+     * {@link MessageDriven#concurrency()}.
+     */
+    PUSH
+  }
 }
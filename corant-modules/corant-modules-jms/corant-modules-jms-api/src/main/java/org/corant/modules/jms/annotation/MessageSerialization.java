@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.jms.annotation;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * corant-modules-jms-api
+ *
+ * <p>
+ * Declares the stable serialization registration id of a message payload type, the binary message
+ * marshallers (such as Kryo) register the annotated types at startup, so that the type is written
+ * as a small integer id instead of the full class name. The id must be unique and must not be
+ * changed once the messages are in flight, the sender and the receiver must use the same id.
+ *
+ * @author bingo 下午4:20:11
+ *
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface MessageSerialization {
+
+  /**
+   * The registration id, must be greater than or equal to 32, the ids less than 32 are reserved
+   * for the built-in registrations.
+   */
+  int id();
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.jms.marshaller;
+
+import static org.corant.shared.util.Assertions.shouldNotNull;
+import java.io.IOException;
+import java.io.InputStream;
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+
+/**
+ * corant-modules-jms-api
+ *
+ * <p>
+ * An input stream that reads the body of the bytes message chunk by chunk, the body is not copied
+ * into a byte array, use to read the large message body with constant heap.
+ *
+ * @author bingo 下午2:18:40
+ *
+ */
+public class BytesMessageInputStream extends InputStream {
+
+  protected final BytesMessage message;
+  protected byte[] buffer;
+
+  public BytesMessageInputStream(BytesMessage message) {
+    this.message = shouldNotNull(message);
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] single = new byte[1];
+    return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    try {
+      if (off == 0) {
+        return message.readBytes(b, len);
+      }
+      if (buffer == null) {
+        buffer = new byte[4096];
+      }
+      int n = message.readBytes(buffer, Math.min(len, buffer.length));
+      if (n > 0) {
+        System.arraycopy(buffer, 0, b, off, n);
+      }
+      return n;
+    } catch (JMSException e) {
+      throw new IOException(e);
+    }
+  }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.jms.marshaller;
+
+import static org.corant.shared.util.Assertions.shouldNotNull;
+import java.io.IOException;
+import java.io.OutputStream;
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+
+/**
+ * corant-modules-jms-api
+ *
+ * <p>
+ * An output stream that writes to the body of the bytes message directly, use to write the
+ * (compressed) stream into the message without the intermediate byte arrays. Closing this stream
+ * has no effect.
+ *
+ * @author bingo 下午2:18:40
+ *
+ */
+public class BytesMessageOutputStream extends OutputStream {
+
+  protected final BytesMessage message;
+
+  public BytesMessageOutputStream(BytesMessage message) {
+    this.message = shouldNotNull(message);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    try {
+      message.writeBytes(b, off, len);
+    } catch (JMSException e) {
+      throw new IOException(e);
+    }
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    try {
+      message.writeByte((byte) b);
+    } catch (JMSException e) {
+      throw new IOException(e);
+    }
+  }
+
+}
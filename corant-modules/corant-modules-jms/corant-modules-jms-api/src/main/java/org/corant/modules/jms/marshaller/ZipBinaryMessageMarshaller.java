@@ -16,16 +16,15 @@ package org.corant.modules.jms.marshaller;
 import static org.corant.modules.jms.JMSNames.MSG_MARSHAL_SCHEMA_ZIP_BINARY;
 import static org.corant.shared.util.Assertions.shouldBeTrue;
 import static org.corant.shared.util.Assertions.shouldInstanceOf;
-import static org.corant.shared.util.Compressors.compress;
 import static org.corant.shared.util.Compressors.decompress;
 import static org.corant.shared.util.Iterables.iterableOf;
 import static org.corant.shared.util.Streams.copy;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Named;
 import javax.jms.BytesMessage;
@@ -80,12 +79,13 @@ public class ZipBinaryMessageMarshaller implements MessageMarshaller {
   }
 
   protected Message doSerialize(BytesMessage message, Object object) {
-    try (ByteArrayOutputStream buffer = new ByteArrayOutputStream()) {
-      copy(shouldInstanceOf(object, InputStream.class), buffer);
-      byte[] bytes = compress(buffer.toByteArray());
-      message.writeBytes(bytes);
+    // compress into the message body directly
+    try (DeflaterOutputStream dos =
+        new DeflaterOutputStream(new BytesMessageOutputStream(message))) {
+      copy(shouldInstanceOf(object, InputStream.class), dos);
+      dos.finish();
       return resolveSchemaProperty(message, MSG_MARSHAL_SCHEMA_ZIP_BINARY);
-    } catch (JMSException | IOException e) {
+    } catch (IOException e) {
       throw new MessageFormatRuntimeException(e.getMessage());
     }
   }
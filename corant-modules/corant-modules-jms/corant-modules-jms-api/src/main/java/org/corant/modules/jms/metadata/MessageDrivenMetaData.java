@@ -24,6 +24,7 @@ import static org.corant.shared.util.Assertions.shouldNotNull;
 import static org.corant.shared.util.Empties.isNotEmpty;
 import static org.corant.shared.util.Lists.newArrayList;
 import static org.corant.shared.util.Maps.immutableMapOf;
+import static org.corant.shared.util.Objects.defaultObject;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.Arrays;
@@ -31,6 +32,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import org.corant.modules.jms.annotation.MessageDriven;
+import org.corant.modules.jms.annotation.MessageDriven.ReceiveMode;
 import org.corant.shared.retry.BackoffStrategy.BackoffAlgorithm;
 
 /**
@@ -49,6 +51,8 @@ public class MessageDrivenMetaData {
 
   private final int acknowledge;
 
+  private final int batchSize;
+
   private final BackoffAlgorithm brokenBackoffAlgo;
 
   private final double brokenBackoffFactor;
@@ -57,12 +61,16 @@ public class MessageDrivenMetaData {
 
   private final int cacheLevel;
 
+  private final int concurrency;
+
   private final int failureThreshold;
 
   private final long loopIntervalMs;
 
   private final String maxBrokenDuration;
 
+  private final ReceiveMode receiveMode;
+
   private final int receiveThreshold;
 
   private final long receiveTimeout;
@@ -85,18 +93,34 @@ public class MessageDrivenMetaData {
       String maxBrokenDuration, int receiveThreshold, long receiveTimeout,
       Collection<MessageReplyMetaData> reply, String selector, String[] specifiedSelectors,
       int tryThreshold, int txTimeout, boolean xa) {
+    this(beanClass, beanQualifiers, beanMethod, acknowledge, 1, brokenBackoffAlgo,
+        brokenBackoffFactor, brokenDuration, cacheLevel, 1, failureThreshold, loopIntervalMs,
+        maxBrokenDuration, ReceiveMode.POLL, receiveThreshold, receiveTimeout, reply, selector,
+        specifiedSelectors, tryThreshold, txTimeout, xa);
+  }
+
+  public MessageDrivenMetaData(Class<?> beanClass, Annotation[] beanQualifiers, Method beanMethod,
+      int acknowledge, int batchSize, BackoffAlgorithm brokenBackoffAlgo,
+      double brokenBackoffFactor, String brokenDuration, int cacheLevel, int concurrency,
+      int failureThreshold, long loopIntervalMs, String maxBrokenDuration,
+      ReceiveMode receiveMode, int receiveThreshold, long receiveTimeout,
+      Collection<MessageReplyMetaData> reply, String selector, String[] specifiedSelectors,
+      int tryThreshold, int txTimeout, boolean xa) {
     this.beanClass = beanClass;
     this.beanQualifiers =
         beanQualifiers == null ? EMPTY_ARRAY : Arrays.copyOf(beanQualifiers, beanQualifiers.length);
     this.beanMethod = beanMethod;
     this.acknowledge = acknowledge;
+    this.batchSize = batchSize;
     this.brokenBackoffAlgo = brokenBackoffAlgo;
     this.brokenBackoffFactor = brokenBackoffFactor;
     this.brokenDuration = MetaDataPropertyResolver.get(brokenDuration, String.class);
     this.cacheLevel = cacheLevel;
+    this.concurrency = concurrency;
     this.failureThreshold = failureThreshold;
     this.loopIntervalMs = loopIntervalMs;
     this.maxBrokenDuration = MetaDataPropertyResolver.get(maxBrokenDuration, String.class);
+    this.receiveMode = defaultObject(receiveMode, ReceiveMode.POLL);
     this.receiveThreshold = receiveThreshold;
     this.receiveTimeout = receiveTimeout;
     this.reply = Collections.unmodifiableList(newArrayList(reply));
@@ -115,12 +139,14 @@ public class MessageDrivenMetaData {
     Method beanMethod = shouldNotNull(method);
     MessageDriven annotation = shouldNotNull(method.getAnnotation(MessageDriven.class));
     return new MessageDrivenMetaData(beanMethod.getDeclaringClass(), qualifiers, beanMethod,
-        getInt(annotation.acknowledge()),
+        getInt(annotation.acknowledge()), getInt(annotation.batchSize()),
         get(annotation.brokenBackoffAlgo(), BackoffAlgorithm.class),
         getDouble(annotation.brokenBackoffFactor()), getString(annotation.brokenDuration()),
-        getInt(annotation.cacheLevel()), getInt(annotation.failureThreshold()),
-        getLong(annotation.loopIntervalMs()), getString(annotation.maxBrokenDuration()),
-        getInt(annotation.receiveThreshold()), getLong(annotation.receiveTimeout()),
+        getInt(annotation.cacheLevel()), getInt(annotation.concurrency()),
+        getInt(annotation.failureThreshold()), getLong(annotation.loopIntervalMs()),
+        getString(annotation.maxBrokenDuration()),
+        get(annotation.receiveMode(), ReceiveMode.class), getInt(annotation.receiveThreshold()),
+        getLong(annotation.receiveTimeout()),
         MessageReplyMetaData.of(annotation.reply()), getString(annotation.selector()),
         annotation.specifiedSelectors(), getInt(annotation.tryThreshold()),
         getInt(annotation.txTimeout()), getBoolean(annotation.xa()));
@@ -130,6 +156,10 @@ public class MessageDrivenMetaData {
     return acknowledge;
   }
 
+  public int getBatchSize() {
+    return batchSize;
+  }
+
   public Class<?> getBeanClass() {
     return beanClass;
   }
@@ -158,6 +188,10 @@ public class MessageDrivenMetaData {
     return cacheLevel;
   }
 
+  public int getConcurrency() {
+    return concurrency;
+  }
+
   public int getFailureThreshold() {
     return failureThreshold;
   }
@@ -170,6 +204,10 @@ public class MessageDrivenMetaData {
     return maxBrokenDuration;
   }
 
+  public ReceiveMode getReceiveMode() {
+    return receiveMode;
+  }
+
   public int getReceiveThreshold() {
     return receiveThreshold;
   }
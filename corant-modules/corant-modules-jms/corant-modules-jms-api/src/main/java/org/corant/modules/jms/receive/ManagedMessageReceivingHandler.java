@@ -13,7 +13,9 @@
  */
 package org.corant.modules.jms.receive;
 
+import java.util.List;
 import javax.jms.Message;
+import org.corant.shared.exception.NotSupportedException;
 
 /**
  * corant-modules-jms-api
@@ -25,4 +27,15 @@ public interface ManagedMessageReceivingHandler {
 
   Object onMessage(Message message);
 
+  /**
+   * Handle a batch of messages in a single invocation, the messages were received by the same
+   * message consumer in order.
+   *
+   * @param messages the messages to be handled
+   * @return the handling result
+   */
+  default Object onMessages(List<Message> messages) {
+    throw new NotSupportedException();
+  }
+
 }
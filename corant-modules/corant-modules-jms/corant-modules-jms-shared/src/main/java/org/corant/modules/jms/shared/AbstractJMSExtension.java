@@ -44,6 +44,7 @@ import org.corant.modules.jms.annotation.MessageDestination;
 import org.corant.modules.jms.annotation.MessageDriven;
 import org.corant.modules.jms.annotation.MessageReply;
 import org.corant.modules.jms.annotation.MessageSend;
+import org.corant.modules.jms.annotation.MessageSerialization;
 import org.corant.modules.jms.marshaller.MessageMarshaller;
 import org.corant.shared.exception.CorantRuntimeException;
 import org.corant.shared.normal.Priorities;
@@ -64,6 +65,7 @@ public abstract class AbstractJMSExtension implements Extension {
       new ConcurrentHashMap<>();
   protected final Set<ContextualMethodHandler> streamMethods =
       newSetFromMap(new ConcurrentHashMap<>());
+  protected final Set<Class<?>> serializationTypes = newSetFromMap(new ConcurrentHashMap<>());
   protected volatile NamedQualifierObjectManager<? extends AbstractJMSConfig> configManager =
       NamedQualifierObjectManager.empty();
 
@@ -82,6 +84,14 @@ public abstract class AbstractJMSExtension implements Extension {
     return Collections.unmodifiableSet(receiveMethods.keySet());
   }
 
+  /**
+   * Returns the message payload types that annotated with {@link MessageSerialization}, include the
+   * first parameter types of the message driven methods.
+   */
+  public Set<Class<?>> getSerializationTypes() {
+    return Collections.unmodifiableSet(serializationTypes);
+  }
+
   public Set<ContextualMethodHandler> getStreamMethods() {
     return Collections.unmodifiableSet(streamMethods);
   }
@@ -91,15 +101,20 @@ public abstract class AbstractJMSExtension implements Extension {
     configManager.destroy();
     receiveMethods.clear();
     streamMethods.clear();
+    serializationTypes.clear();
   }
 
   protected void onProcessAnnotatedType(
       @Observes @WithAnnotations({MessageSend.class, MessageContext.class, MessageDriven.class,
-          JMSConnectionFactory.class, MessageDestination.class}) ProcessAnnotatedType<?> pat) {
+          JMSConnectionFactory.class, MessageDestination.class,
+          MessageSerialization.class}) ProcessAnnotatedType<?> pat) {
     if (RequiredExt.INSTANCE.shouldVeto(pat.getAnnotatedType())) {
       return;
     }
     final Class<?> beanClass = pat.getAnnotatedType().getJavaClass();
+    if (beanClass.isAnnotationPresent(MessageSerialization.class)) {
+      serializationTypes.add(beanClass);
+    }
     MessageSend[] mss = beanClass.getAnnotationsByType(MessageSend.class);
     if (isNotEmpty(mss)) {
       for (MessageSend ms : mss) {
@@ -122,6 +137,9 @@ public abstract class AbstractJMSExtension implements Extension {
           Set<MessageDestination> pds =
               setOf(method.getParameterTypes()[0].getAnnotationsByType(MessageDestination.class));
           receiveMethods.put(cm, Pair.of(mds, pds));
+          if (method.getParameterTypes()[0].isAnnotationPresent(MessageSerialization.class)) {
+            serializationTypes.add(method.getParameterTypes()[0]);
+          }
         });
   }
 
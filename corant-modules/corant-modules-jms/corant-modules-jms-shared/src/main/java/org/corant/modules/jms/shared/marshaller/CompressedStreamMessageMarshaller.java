@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.jms.shared.marshaller;
+
+import static org.corant.context.Beans.findNamed;
+import static org.corant.modules.jms.JMSNames.MSG_COMPRESSION_CODEC;
+import static org.corant.modules.jms.JMSNames.MSG_MARSHAL_SCHEMA_COMPRESSED_STREAM;
+import static org.corant.shared.util.Assertions.shouldBeTrue;
+import static org.corant.shared.util.Assertions.shouldInstanceOf;
+import static org.corant.shared.util.Assertions.shouldNotNull;
+import static org.corant.shared.util.Iterables.iterableOf;
+import static org.corant.shared.util.Objects.defaultObject;
+import static org.corant.shared.util.Streams.copy;
+import static org.corant.shared.util.Strings.isBlank;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.jms.BytesMessage;
+import javax.jms.JMSContext;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+import org.corant.modules.jms.marshaller.BytesMessageInputStream;
+import org.corant.modules.jms.marshaller.BytesMessageOutputStream;
+import org.corant.modules.jms.marshaller.MessageMarshaller;
+import org.corant.shared.exception.CorantRuntimeException;
+import org.corant.shared.resource.InputStreamResource;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * corant-modules-jms-shared
+ *
+ * <p>
+ * The streaming compression message marshaller, use to send and receive the large payloads with
+ * constant heap. The payload is compressed while it is being sent and decompressed while it is
+ * being read, neither the original payload nor the compressed payload are held in memory.
+ *
+ * <p>
+ * On the sending side, if the provider supports the large message input stream property
+ * 'JMS_AMQ_InputStream' (Artemis), the compressed stream is pulled by the provider when the message
+ * is sent, otherwise the payload is compressed into the message body chunk by chunk. The codec name
+ * is written into the message property {@link org.corant.modules.jms.JMSNames#MSG_COMPRESSION_CODEC}
+ * so that the receiver can select the decompressor. The default codec is specified by
+ * 'corant.jms.compression.codec' (default DEFLATE), see {@link CompressionCodec}.
+ *
+ * <p>
+ * The payload to be serialized is an {@link InputStream} or a {@link CompressedPayload}, the
+ * payload stream is not closed by this marshaller. The deserialized result is an
+ * {@link InputStreamResource} which stream decompresses the message body lazily, the stream must be
+ * consumed before the message handling is completed.
+ *
+ * @author bingo 下午2:18:40
+ *
+ */
+@ApplicationScoped
+@Named(MSG_MARSHAL_SCHEMA_COMPRESSED_STREAM)
+public class CompressedStreamMessageMarshaller implements MessageMarshaller {
+
+  public static final String AMQ_INPUT_STREAM = "JMS_AMQ_InputStream";
+
+  static final Logger logger = Logger.getLogger(CompressedStreamMessageMarshaller.class.getName());
+
+  @Inject
+  @ConfigProperty(name = "corant.jms.compression.codec", defaultValue = CompressionCodec.DEFLATE)
+  protected String defaultCodec;
+
+  @Inject
+  @ConfigProperty(name = "corant.jms.compression.chunk-size", defaultValue = "8192")
+  protected int chunkSize;
+
+  @Inject
+  @ConfigProperty(name = "corant.jms.compression.use-provider-stream", defaultValue = "true")
+  protected boolean useProviderStream;
+
+  protected volatile boolean providerStreamSupported = true;
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> T deserialize(Message message, Class<T> clazz) {
+    shouldBeTrue(clazz.isAssignableFrom(InputStreamResource.class)
+        || clazz.isAssignableFrom(InputStream.class));
+    BytesMessage bmsg = shouldInstanceOf(message, BytesMessage.class);
+    try {
+      CompressionCodec codec =
+          resolveCodec(defaultObject(bmsg.getStringProperty(MSG_COMPRESSION_CODEC), defaultCodec));
+      InputStream stream = codec.decompress(new BytesMessageInputStream(bmsg));
+      if (!clazz.isAssignableFrom(InputStreamResource.class)) {
+        return (T) stream;
+      }
+      Map<String, Object> metas = new HashMap<>();
+      for (Object n : iterableOf(bmsg.getPropertyNames())) {
+        metas.put(n.toString(), bmsg.getObjectProperty(n.toString()));
+      }
+      return (T) new InputStreamResource(metas, stream);
+    } catch (JMSException | IOException e) {
+      throw new CorantRuntimeException(e);
+    }
+  }
+
+  @Override
+  public Message serialize(JMSContext jmsContext, Object object) {
+    return doSerialize(jmsContext.createBytesMessage(), object);
+  }
+
+  @Override
+  public Message serialize(Session session, Object object) {
+    try {
+      return doSerialize(session.createBytesMessage(), object);
+    } catch (JMSException e) {
+      throw new CorantRuntimeException(e);
+    }
+  }
+
+  protected Message doSerialize(BytesMessage message, Object object) {
+    final InputStream payload;
+    final String codecName;
+    if (object instanceof CompressedPayload) {
+      payload = ((CompressedPayload) object).getStream();
+      codecName = defaultObject(((CompressedPayload) object).getCodec(), defaultCodec);
+    } else {
+      payload = shouldInstanceOf(object, InputStream.class);
+      codecName = defaultCodec;
+    }
+    CompressionCodec codec = resolveCodec(codecName);
+    try {
+      message.setStringProperty(MSG_COMPRESSION_CODEC, codecName);
+      if (!useProviderStream || !providerStreamSupported
+          || !setProviderStream(message, new CompressingInputStream(payload, codec, chunkSize))) {
+        // compress into the message body directly
+        try (OutputStream os = codec.compress(new BytesMessageOutputStream(message))) {
+          copy(payload, os);
+        }
+      }
+      return resolveSchemaProperty(message, MSG_MARSHAL_SCHEMA_COMPRESSED_STREAM);
+    } catch (JMSException | IOException e) {
+      throw new CorantRuntimeException(e);
+    }
+  }
+
+  protected CompressionCodec resolveCodec(String name) {
+    if (isBlank(name)) {
+      return CompressionCodec.DeflateCodec.INST;
+    }
+    CompressionCodec codec = CompressionCodec.builtin(name);
+    if (codec == null) {
+      codec = findNamed(CompressionCodec.class, name).orElseThrow(
+          () -> new CorantRuntimeException("Can't find any compression codec named %s.", name));
+    }
+    return codec;
+  }
+
+  protected boolean setProviderStream(BytesMessage message, InputStream stream) {
+    try {
+      message.setObjectProperty(AMQ_INPUT_STREAM, stream);
+      return true;
+    } catch (JMSException | RuntimeException e) {
+      // the provider doesn't support the large message input stream, don't try it again
+      providerStreamSupported = false;
+      logger.fine(() -> String.format(
+          "The message provider doesn't support the %s property, use the message body instead.",
+          AMQ_INPUT_STREAM));
+      return false;
+    }
+  }
+
+  /**
+   * corant-modules-jms-shared
+   *
+   * <p>
+   * The payload stream with the compression codec name.
+   *
+   * @author bingo 下午2:18:40
+   *
+   */
+  public static class CompressedPayload {
+    protected final InputStream stream;
+    protected final String codec;
+
+    public CompressedPayload(InputStream stream, String codec) {
+      this.stream = shouldNotNull(stream);
+      this.codec = codec;
+    }
+
+    public String getCodec() {
+      return codec;
+    }
+
+    public InputStream getStream() {
+      return stream;
+    }
+  }
+}
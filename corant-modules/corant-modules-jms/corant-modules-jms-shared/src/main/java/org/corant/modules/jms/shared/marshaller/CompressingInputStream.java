@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.jms.shared.marshaller;
+
+import static org.corant.shared.util.Assertions.shouldNotNull;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * corant-modules-jms-shared
+ *
+ * <p>
+ * An input stream that reads the source stream chunk by chunk and returns the compressed data, the
+ * compression is driven by the reader, so that the compressed data can be pulled by the message
+ * provider (e.g. the large message input stream of Artemis) without compressing the whole source
+ * into memory. The heap used is bounded by the chunk size and the buffer of the codec. The source
+ * stream is not closed by this stream.
+ *
+ * @author bingo 下午2:18:40
+ *
+ */
+public class CompressingInputStream extends InputStream {
+
+  protected final InputStream source;
+  protected final byte[] chunk;
+  protected final DrainableBuffer compressed = new DrainableBuffer();
+  protected final OutputStream compressor;
+  protected boolean finished;
+
+  public CompressingInputStream(InputStream source, CompressionCodec codec, int chunkSize)
+      throws IOException {
+    this.source = shouldNotNull(source);
+    chunk = new byte[Math.max(chunkSize, 512)];
+    compressor = codec.compress(compressed);
+  }
+
+  @Override
+  public int available() throws IOException {
+    return compressed.remaining();
+  }
+
+  /**
+   * Releases the codec resources, the source stream is owned by the caller and is not closed.
+   */
+  @Override
+  public void close() throws IOException {
+    if (!finished) {
+      finished = true;
+      compressor.close();
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] single = new byte[1];
+    return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    while (compressed.remaining() == 0 && !finished) {
+      int n = source.read(chunk);
+      if (n < 0) {
+        finished = true;
+        compressor.close();// flush the remaining compressed data and the trailer
+      } else if (n > 0) {
+        compressor.write(chunk, 0, n);
+      }
+    }
+    return compressed.drain(b, off, len);
+  }
+
+  /**
+   * corant-modules-jms-shared
+   *
+   * @author bingo 下午2:18:40
+   *
+   */
+  protected static class DrainableBuffer extends ByteArrayOutputStream {
+    int pos;
+
+    int drain(byte[] b, int off, int len) {
+      int remaining = count - pos;
+      if (remaining <= 0) {
+        return -1;
+      }
+      int n = Math.min(remaining, len);
+      System.arraycopy(buf, pos, b, off, n);
+      pos += n;
+      if (pos == count) {
+        pos = 0;
+        reset();// reuse the buffer
+      }
+      return n;
+    }
+
+    int remaining() {
+      return count - pos;
+    }
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.jms.shared.marshaller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * corant-modules-jms-shared
+ *
+ * <p>
+ * The streaming compression codec, the built-in codecs are {@link #DEFLATE}, {@link #GZIP},
+ * {@link #LZ4} and {@link #ZSTD}, the LZ4 and the Zstd codecs require the optional 'lz4-java' and
+ * 'zstd-jni' libraries. The custom codec can be provided as a named CDI bean.
+ *
+ * @author bingo 下午2:18:40
+ *
+ */
+public interface CompressionCodec {
+
+  String DEFLATE = "DEFLATE";
+  String GZIP = "GZIP";
+  String LZ4 = "LZ4";
+  String ZSTD = "ZSTD";
+
+  /**
+   * Returns the built-in codec with the given name (case insensitive) or null if not found.
+   *
+   * @param name the codec name
+   */
+  static CompressionCodec builtin(String name) {
+    if (DEFLATE.equalsIgnoreCase(name)) {
+      return DeflateCodec.INST;
+    } else if (GZIP.equalsIgnoreCase(name)) {
+      return GzipCodec.INST;
+    } else if (LZ4.equalsIgnoreCase(name)) {
+      return new Lz4Codec();
+    } else if (ZSTD.equalsIgnoreCase(name)) {
+      return new ZstdCodec();
+    }
+    return null;
+  }
+
+  /**
+   * Returns an output stream that compresses the data written to it and writes the compressed data
+   * to the given output stream, closing the returned stream finishes the compression and closes
+   * the given output stream.
+   *
+   * @param os the output stream to write the compressed data
+   */
+  OutputStream compress(OutputStream os) throws IOException;
+
+  /**
+   * Returns an input stream that reads the compressed data from the given input stream and
+   * decompresses it.
+   *
+   * @param is the input stream to read the compressed data
+   */
+  InputStream decompress(InputStream is) throws IOException;
+
+  /**
+   * corant-modules-jms-shared
+   *
+   * @author bingo 下午2:18:40
+   *
+   */
+  class DeflateCodec implements CompressionCodec {
+    static final DeflateCodec INST = new DeflateCodec();
+
+    @Override
+    public OutputStream compress(OutputStream os) throws IOException {
+      return new DeflaterOutputStream(os);
+    }
+
+    @Override
+    public InputStream decompress(InputStream is) throws IOException {
+      return new InflaterInputStream(is);
+    }
+  }
+
+  /**
+   * corant-modules-jms-shared
+   *
+   * @author bingo 下午2:18:40
+   *
+   */
+  class GzipCodec implements CompressionCodec {
+    static final GzipCodec INST = new GzipCodec();
+
+    @Override
+    public OutputStream compress(OutputStream os) throws IOException {
+      return new GZIPOutputStream(os);
+    }
+
+    @Override
+    public InputStream decompress(InputStream is) throws IOException {
+      return new GZIPInputStream(is);
+    }
+  }
+
+  /**
+   * corant-modules-jms-shared
+   *
+   * <p>
+   * LZ4 frame format codec, requires 'org.lz4:lz4-java'.
+   *
+   * @author bingo 下午2:18:40
+   *
+   */
+  class Lz4Codec implements CompressionCodec {
+
+    @Override
+    public OutputStream compress(OutputStream os) throws IOException {
+      return new net.jpountz.lz4.LZ4FrameOutputStream(os);
+    }
+
+    @Override
+    public InputStream decompress(InputStream is) throws IOException {
+      return new net.jpountz.lz4.LZ4FrameInputStream(is);
+    }
+  }
+
+  /**
+   * corant-modules-jms-shared
+   *
+   * <p>
+   * Zstandard codec, requires 'com.github.luben:zstd-jni'.
+   *
+   * @author bingo 下午2:18:40
+   *
+   */
+  class ZstdCodec implements CompressionCodec {
+
+    @Override
+    public OutputStream compress(OutputStream os) throws IOException {
+      return new com.github.luben.zstd.ZstdOutputStream(os);
+    }
+
+    @Override
+    public InputStream decompress(InputStream is) throws IOException {
+      return new com.github.luben.zstd.ZstdInputStream(is);
+    }
+  }
+}
@@ -13,29 +13,87 @@
  */
 package org.corant.modules.jms.shared.marshaller;
 
+import static org.corant.shared.util.Assertions.shouldBeTrue;
 import static org.corant.shared.util.Assertions.shouldInstanceOf;
-import static org.corant.shared.util.Classes.getUserClass;
-import java.io.ByteArrayOutputStream;
+import static org.corant.shared.util.Classes.asClass;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.jms.BytesMessage;
 import javax.jms.JMSContext;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.Session;
+import org.corant.modules.jms.annotation.MessageSerialization;
 import org.corant.modules.jms.marshaller.MessageMarshaller;
+import org.corant.modules.jms.shared.AbstractJMSExtension;
 import org.corant.shared.exception.CorantRuntimeException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.Pool;
 
 /**
  * corant-modules-jms-shared
  *
+ * <p>
+ * The Kryo message marshaller, the Kryo instances and their input and output buffers are pooled.
+ * All Kryo instances share one registration catalog, the catalog is built at startup from the
+ * optional built-in types, the types annotated with {@link MessageSerialization} and the
+ * configuration, so that a registered type is written as a stable integer id instead of the full
+ * class name. The sender and the receiver must use the same catalog.
+ *
+ * <p>
+ * <b>Note:</b> The registration catalog is part of the wire format. A message written with a type
+ * registered can't be read by a receiver without the same registration and vice versa, so changing
+ * the catalog, including enabling the built-in registrations, isn't compatible with a rolling
+ * upgrade, the senders and the receivers of the destinations must be switched together. The
+ * built-in registrations are disabled by default, the built-in types are written by the class
+ * names as before.
+ *
+ * <p>
+ * Configuration:
+ * <ul>
+ * <li>corant.jms.kryo.builtin-registrations: whether to register the common JDK collection,
+ * number and time types with the ids 10-30, default false</li>
+ * <li>corant.jms.kryo.registrations: the additional registrations, each item is
+ * 'class-name:id'</li>
+ * <li>corant.jms.kryo.registration-required: whether only the registered types can be
+ * (de)serialized, the unregistered type fails fast instead of writing the class name, usually
+ * used together with the built-in registrations, default false</li>
+ * <li>corant.jms.kryo.pool-size: the maximum number of the idle pooled Kryo instances, default
+ * 32</li>
+ * </ul>
+ *
  * @author bingo 上午11:34:02
  *
  */
@@ -43,15 +101,40 @@ import com.esotericsoftware.kryo.io.Output;
 @Named("KRYO")
 public class KryoMessageMarshaller implements MessageMarshaller {
 
+  public static final int MIN_REGISTRATION_ID = 32;
+
+  protected static final Logger logger = Logger.getLogger(KryoMessageMarshaller.class.getName());
+
   protected static final Map<Class<?>, Serializer<?>> customSerializers = new ConcurrentHashMap<>();
 
-  protected static final ThreadLocal<Kryo> kryoCache = ThreadLocal.withInitial(() -> {
-    Kryo inst = new Kryo();
-    customSerializers.forEach(inst::addDefaultSerializer);
-    inst.setRegistrationRequired(false);// FIXME
-    inst.setReferences(false);
-    return inst;
-  });
+  protected static final int BUFFER_SIZE = 4096;
+
+  protected static final int MAX_RETAINED_BUFFER_SIZE = 1 << 20;
+
+  protected static final byte[] EMPTY_BUFFER = {};
+
+  @Inject
+  protected AbstractJMSExtension extension;
+
+  @Inject
+  @ConfigProperty(name = "corant.jms.kryo.builtin-registrations", defaultValue = "false")
+  protected boolean builtinRegistrations;
+
+  @Inject
+  @ConfigProperty(name = "corant.jms.kryo.registrations")
+  protected Optional<List<String>> registrations;
+
+  @Inject
+  @ConfigProperty(name = "corant.jms.kryo.registration-required", defaultValue = "false")
+  protected boolean registrationRequired;
+
+  @Inject
+  @ConfigProperty(name = "corant.jms.kryo.pool-size", defaultValue = "32")
+  protected int poolSize;
+
+  protected volatile Map<Class<?>, Integer> catalog = Collections.emptyMap();
+
+  protected volatile Pool<KryoBuffer> pool;
 
   public static Serializer<?> putCustomSerializer(Class<?> type, Serializer<?> serializer) {
     return customSerializers.put(type, serializer);
@@ -76,6 +159,14 @@ public class KryoMessageMarshaller implements MessageMarshaller {
     }
   }
 
+  /**
+   * Returns the registration catalog, the key is the registered type and the value is the
+   * registration id.
+   */
+  public Map<Class<?>, Integer> getCatalog() {
+    return Collections.unmodifiableMap(catalog);
+  }
+
   @Override
   public Message serialize(JMSContext jmsContext, Object object) {
     BytesMessage bytMsg = jmsContext.createBytesMessage();
@@ -102,25 +193,120 @@ public class KryoMessageMarshaller implements MessageMarshaller {
     }
   }
 
+  protected Map<Class<?>, Integer> buildCatalog() {
+    Map<Class<?>, Integer> map = new LinkedHashMap<>();
+    if (builtinRegistrations) {
+      // the built-in registrations, the ids 0-9 are used by Kryo for the primitives and String
+      Class<?>[] builtins = {ArrayList.class, LinkedList.class, HashMap.class,
+          LinkedHashMap.class, TreeMap.class, HashSet.class, LinkedHashSet.class, TreeSet.class,
+          BigDecimal.class, BigInteger.class, Date.class, Instant.class, LocalDate.class,
+          LocalDateTime.class, LocalTime.class, ZonedDateTime.class, OffsetDateTime.class,
+          Duration.class, UUID.class, byte[].class, Object[].class};
+      int id = 10;
+      for (Class<?> builtin : builtins) {
+        map.put(builtin, id++);
+      }
+    }
+    Map<Integer, Class<?>> ids = new HashMap<>();
+    if (extension != null) {
+      for (Class<?> type : extension.getSerializationTypes()) {
+        register(map, ids, type, type.getAnnotation(MessageSerialization.class).id());
+      }
+    }
+    if (registrations != null && registrations.isPresent()) {
+      for (String registration : registrations.get()) {
+        int pos = registration.lastIndexOf(':');
+        shouldBeTrue(pos > 0, "The Kryo registration %s is illegal, must be 'class-name:id'.",
+            registration);
+        register(map, ids, asClass(registration.substring(0, pos).trim()),
+            Integer.parseInt(registration.substring(pos + 1).trim()));
+      }
+    }
+    return map;
+  }
+
+  protected Kryo createKryo() {
+    Kryo inst = new Kryo();
+    customSerializers.forEach(inst::addDefaultSerializer);
+    inst.setRegistrationRequired(registrationRequired);
+    inst.setReferences(false);
+    catalog.forEach(inst::register);
+    return inst;
+  }
+
   protected <T> T fromBytes(byte[] bytes, Class<T> clazz) {
-    final Kryo kryo = kryoCache.get();
-    kryo.register(getUserClass(clazz));
-    try (Input in = new Input(bytes)) {
-      return kryo.readObject(in, clazz);
+    final KryoBuffer buffer = pool.obtain();
+    try {
+      buffer.input.setBuffer(bytes);
+      return buffer.kryo.readObject(buffer.input, clazz);
+    } finally {
+      buffer.input.setBuffer(EMPTY_BUFFER);
+      buffer.kryo.reset();
+      pool.free(buffer);
     }
   }
 
+  @PostConstruct
+  protected void onPostConstruct() {
+    catalog = buildCatalog();
+    pool = new Pool<>(true, false, Math.max(poolSize, 1)) {
+      @Override
+      protected KryoBuffer create() {
+        return new KryoBuffer(createKryo());
+      }
+    };
+    logger.fine(() -> String.format("Built Kryo registration catalog with %s types.",
+        catalog.size()));
+  }
+
   @PreDestroy
   protected void onPreDestroy() {
     customSerializers.clear();
+    if (pool != null) {
+      pool.clear();
+    }
   }
 
   protected byte[] toBytes(Object object) {
-    final Kryo kryo = kryoCache.get();
-    kryo.register(getUserClass(object));
-    try (Output output = new Output(new ByteArrayOutputStream())) {
-      kryo.writeObject(output, object);
-      return output.getBuffer();
+    final KryoBuffer buffer = pool.obtain();
+    try {
+      buffer.output.reset();
+      buffer.kryo.writeObject(buffer.output, object);
+      return buffer.output.toBytes();
+    } finally {
+      if (buffer.output.getBuffer().length > MAX_RETAINED_BUFFER_SIZE) {
+        buffer.output.setBuffer(new byte[BUFFER_SIZE], -1);
+      }
+      buffer.kryo.reset();
+      pool.free(buffer);
+    }
+  }
+
+  void register(Map<Class<?>, Integer> map, Map<Integer, Class<?>> ids, Class<?> type, int id) {
+    shouldBeTrue(id >= MIN_REGISTRATION_ID,
+        "The Kryo registration id %s of %s is illegal, must be greater than or equal to %s.", id,
+        type, MIN_REGISTRATION_ID);
+    Class<?> exists = ids.putIfAbsent(id, type);
+    shouldBeTrue(exists == null || exists.equals(type),
+        "The Kryo registration id %s is used by both %s and %s.", id, exists, type);
+    Integer existsId = map.putIfAbsent(type, id);
+    shouldBeTrue(existsId == null || existsId == id,
+        "The Kryo registration of %s has different ids %s and %s.", type, existsId, id);
+  }
+
+  /**
+   * corant-modules-jms-shared
+   *
+   * @author bingo 上午11:34:02
+   *
+   */
+  protected static class KryoBuffer {
+    final Kryo kryo;
+    final Input input = new Input();
+    final Output output = new Output(BUFFER_SIZE, -1);
+
+    KryoBuffer(Kryo kryo) {
+      this.kryo = kryo;
     }
   }
 }
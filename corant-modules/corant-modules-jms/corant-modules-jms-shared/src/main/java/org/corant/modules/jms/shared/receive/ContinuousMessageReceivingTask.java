@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.jms.shared.receive;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.corant.modules.jms.annotation.MessageDriven.ReceiveMode;
+import org.corant.modules.jms.receive.ManagedMessageReceivingTask;
+
+/**
+ * corant-modules-jms-shared
+ *
+ * <p>
+ * The {@link ReceiveMode#PUSH} mode message receiving task, runs the delegate receiving task on a
+ * dedicated thread repeatedly until cancelled, the delegate blocks on receiving so that the
+ * messages are handled as soon as they arrive instead of waiting for the next schedule, the retry
+ * and the circuit break are still handled by the delegate.
+ *
+ * <p>
+ * Note: The message listener isn't used, because in XA the transaction must be begun and the
+ * session enlisted before the message is received, and a batch must be acknowledged or committed
+ * on the session thread.
+ *
+ * @author bingo 下午3:12:36
+ *
+ */
+public class ContinuousMessageReceivingTask implements ManagedMessageReceivingTask {
+
+  protected static final Logger logger =
+      Logger.getLogger(ContinuousMessageReceivingTask.class.getName());
+
+  protected final MessageReceivingMetaData meta;
+  protected final ManagedMessageReceivingTask delegate;
+  protected volatile boolean stopped;
+
+  public ContinuousMessageReceivingTask(MessageReceivingMetaData meta,
+      ManagedMessageReceivingTask delegate) {
+    this.meta = meta;
+    this.delegate = delegate;
+  }
+
+  @Override
+  public boolean cancel() {
+    stopped = true;
+    boolean cancelled = delegate.cancel();
+    // the delegate was cancelled, run it once to release the session and the consumer
+    delegate.run();
+    return cancelled;
+  }
+
+  @Override
+  public void run() {
+    logger.fine(() -> String.format("Start continuous message receiving, %s.", meta));
+    while (!stopped && !Thread.currentThread().isInterrupted()) {
+      try {
+        delegate.run();
+      } catch (Throwable t) {
+        logger.log(Level.SEVERE, t,
+            () -> String.format("Continuous message receiving occurred error, %s.", meta));
+      }
+    }
+    logger.fine(() -> String.format("Stop continuous message receiving, %s.", meta));
+  }
+
+}
@@ -16,6 +16,10 @@ package org.corant.modules.jms.shared.receive;
 import static org.corant.context.Beans.find;
 import static org.corant.shared.util.Assertions.shouldNotBlank;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.jms.JMSException;
@@ -45,10 +49,26 @@ public class DefaultMessageHandler implements ManagedMessageReceivingHandler {
   protected DefaultMessageHandler(MessageReceivingMetaData meta,
       MessageReceivingMediator mediator) {
     method = meta.getMethod();
-    messageClass = method.getMethod().getParameterTypes()[0];
+    if (meta.isBatch()) {
+      messageClass = resolveElementClass(method.getMethod().getGenericParameterTypes()[0]);
+    } else {
+      messageClass = method.getMethod().getParameterTypes()[0];
+    }
     this.mediator = mediator;
   }
 
+  static Class<?> resolveElementClass(Type type) {
+    if (type instanceof ParameterizedType) {
+      Type elementType = ((ParameterizedType) type).getActualTypeArguments()[0];
+      if (elementType instanceof Class) {
+        return (Class<?>) elementType;
+      } else if (elementType instanceof ParameterizedType) {
+        return (Class<?>) ((ParameterizedType) elementType).getRawType();
+      }
+    }
+    return Object.class;
+  }
+
   @Override
   public Object onMessage(Message message) {
     try {
@@ -62,6 +82,23 @@ public class DefaultMessageHandler implements ManagedMessageReceivingHandler {
     }
   }
 
+  @Override
+  public Object onMessages(List<Message> messages) {
+    try {
+      resolveSecurityContext(messages.get(0));
+      List<Object> payloads = new ArrayList<>(messages.size());
+      for (Message message : messages) {
+        payloads.add(resolvePayload(message));
+      }
+      return method.invoke(payloads);
+    } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException
+        | JMSException e) {
+      throw new CorantRuntimeException(e);
+    } finally {
+      SecurityContexts.setCurrent(null);
+    }
+  }
+
   protected Object resolvePayload(Message message) throws JMSException {
     if (!Message.class.isAssignableFrom(messageClass)) {
       String marshallerName = shouldNotBlank(message.getStringProperty(JMSNames.MSG_MARSHAL_SCHEMA),
@@ -16,6 +16,8 @@ package org.corant.modules.jms.shared.receive;
 import static org.corant.context.Beans.resolve;
 import static org.corant.context.Beans.select;
 import static org.corant.shared.util.Strings.isNotBlank;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.jms.Connection;
@@ -198,12 +200,10 @@ public class DefaultMessageReceiver implements ManagedMessageReceiver {
   }
 
   protected Message consume() throws JMSException {
-    final Message message;
-    if (receiveTimeout <= 0) {
-      message = messageConsumer.receiveNoWait();
-    } else {
-      message = messageConsumer.receive(receiveTimeout);
+    if (meta.isBatch()) {
+      return consumeBatch();
     }
+    final Message message = receiveMessage();
     if (message != null) {
       logger.log(Level.FINE, () -> String.format("Received message start handling, [%s]", meta));
       Object result = messageHandler.onMessage(message);
@@ -213,6 +213,33 @@ public class DefaultMessageReceiver implements ManagedMessageReceiver {
     return message;
   }
 
+  /**
+   * Receive at most {@link MessageReceivingMetaData#getBatchSize()} messages and handle them in a
+   * single invocation, the first message is received with the receive timeout and the rest are
+   * received without wait, so a batch never waits for a full batch. Returns the last message of
+   * the batch or null if no message was received, since in CLIENT_ACKNOWLEDGE acknowledging the
+   * last message acknowledges all the messages consumed by the session.
+   *
+   * @throws JMSException if receive occurred error
+   */
+  protected Message consumeBatch() throws JMSException {
+    Message message = receiveMessage();
+    if (message == null) {
+      return null;
+    }
+    final int batchSize = meta.getBatchSize();
+    final List<Message> messages = new ArrayList<>(batchSize);
+    messages.add(message);
+    while (messages.size() < batchSize && (message = messageConsumer.receiveNoWait()) != null) {
+      messages.add(message);
+    }
+    logger.log(Level.FINE, () -> String.format("Received %s messages start handling, [%s]",
+        messages.size(), meta));
+    messageHandler.onMessages(messages);
+    logger.log(Level.FINE, () -> String.format("Finished messages handling, [%s]", meta));
+    return messages.get(messages.size() - 1);
+  }
+
   protected JMSException generateJMSException(Exception t) {
     if (t instanceof JMSException) {
       return (JMSException) t;
@@ -303,4 +330,12 @@ public class DefaultMessageReceiver implements ManagedMessageReceiver {
     }
   }
 
+  protected Message receiveMessage() throws JMSException {
+    if (receiveTimeout <= 0) {
+      return messageConsumer.receiveNoWait();
+    } else {
+      return messageConsumer.receive(receiveTimeout);
+    }
+  }
+
 }
@@ -15,6 +15,7 @@ package org.corant.modules.jms.shared.receive;
 
 import static org.corant.shared.util.Assertions.shouldBeTrue;
 import static org.corant.shared.util.Assertions.shouldNotNull;
+import static org.corant.shared.util.Lists.listOf;
 import static org.corant.shared.util.Strings.isBlank;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -24,6 +25,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -42,6 +45,7 @@ import javax.inject.Inject;
 import org.corant.config.Configs;
 import org.corant.context.ContainerEvents.PreContainerStopEvent;
 import org.corant.kernel.event.PostCorantReadyAsyncEvent;
+import org.corant.modules.jms.annotation.MessageDriven.ReceiveMode;
 import org.corant.modules.jms.receive.ManagedMessageReceivingExecutor;
 import org.corant.modules.jms.receive.ManagedMessageReceivingTask;
 import org.corant.modules.jms.shared.AbstractJMSConfig;
@@ -76,6 +80,8 @@ public class MessageReceivingExecutor implements ManagedMessageReceivingExecutor
 
   protected final Map<AbstractJMSConfig, ScheduledExecutorService> executors = new HashMap<>();
 
+  protected final Map<AbstractJMSConfig, ExecutorService> continuousExecutors = new HashMap<>();
+
   protected final List<MessageReceivingMetaData> metaDatas = new ArrayList<>();
 
   protected final List<MessageReceivingTaskExecution> receiveExecutions = new ArrayList<>();
@@ -95,8 +101,7 @@ public class MessageReceivingExecutor implements ManagedMessageReceivingExecutor
       }
       AbstractJMSConfig config = AbstractJMSExtension.getConfig(meta.getConnectionFactoryId());
       if (config != null && config.isEnable()) {
-        MessageReceivingTaskExecution execution = createExecution(config, meta);
-        receiveExecutions.add(execution);
+        receiveExecutions.addAll(createExecutions(config, meta));
         logger.fine(
             () -> String.format("Scheduled message receiving task. message receiver [%s].", meta));
       }
@@ -116,25 +121,8 @@ public class MessageReceivingExecutor implements ManagedMessageReceivingExecutor
     }
     logger.info(() -> "All message receiving tasks were stopped.");
     logger.info(() -> "Stopping the message receiving executor services.");
-    Iterator<Entry<AbstractJMSConfig, ScheduledExecutorService>> it =
-        executors.entrySet().iterator();
-    while (it.hasNext()) {
-      Entry<AbstractJMSConfig, ScheduledExecutorService> entry = it.next();
-      try {
-        entry.getValue().shutdown();
-        entry.getValue().awaitTermination(
-            getExecutorConfig(entry.getKey()).getAwaitTermination().toMillis(),
-            TimeUnit.MICROSECONDS);
-        logger.info(() -> String.format("The message receiving executor service %s was stopped.",
-            entry.getKey().getConnectionFactoryId()));
-      } catch (InterruptedException e) {
-        logger.log(Level.WARNING, e, () -> String.format("Can not await [%s] executor service.",
-            entry.getKey().getConnectionFactoryId()));
-        Thread.currentThread().interrupt();
-      } finally {
-        it.remove();
-      }
-    }
+    shutdownExecutors(executors);
+    shutdownExecutors(continuousExecutors);
     logger.info(() -> "All message receiving executor services were stopped.");
     connections.shutdown();
     logger.info(() -> "All message receiving connections were released.");
@@ -158,12 +146,47 @@ public class MessageReceivingExecutor implements ManagedMessageReceivingExecutor
     initialize();
   }
 
-  MessageReceivingTaskExecution createExecution(AbstractJMSConfig config,
+  protected void shutdownExecutors(Map<AbstractJMSConfig, ? extends ExecutorService> services) {
+    Iterator<? extends Entry<AbstractJMSConfig, ? extends ExecutorService>> it =
+        services.entrySet().iterator();
+    while (it.hasNext()) {
+      Entry<AbstractJMSConfig, ? extends ExecutorService> entry = it.next();
+      try {
+        entry.getValue().shutdown();
+        entry.getValue().awaitTermination(
+            getExecutorConfig(entry.getKey()).getAwaitTermination().toMillis(),
+            TimeUnit.MICROSECONDS);
+        logger.info(() -> String.format("The message receiving executor service %s was stopped.",
+            entry.getKey().getConnectionFactoryId()));
+      } catch (InterruptedException e) {
+        logger.log(Level.WARNING, e, () -> String.format("Can not await [%s] executor service.",
+            entry.getKey().getConnectionFactoryId()));
+        Thread.currentThread().interrupt();
+      } finally {
+        it.remove();
+      }
+    }
+  }
+
+  List<MessageReceivingTaskExecution> createExecutions(AbstractJMSConfig config,
       MessageReceivingMetaData meta) {
     if (meta.isXa()) {
       shouldBeTrue(config.isXa(),
           "The connection factory doesn't support xa! message receiver [%s].", meta);
     }
+    if (meta.getReceiveMode() == ReceiveMode.PUSH) {
+      // each consumer has its own task, session and dedicated thread
+      ExecutorService service = continuousExecutors.computeIfAbsent(config,
+          cfg -> Executors.newCachedThreadPool(
+              new MessageReceivingThreadFactory(cfg.getConnectionFactoryId())));
+      List<MessageReceivingTaskExecution> executions = new ArrayList<>(meta.getConcurrency());
+      for (int i = 0; i < meta.getConcurrency(); i++) {
+        final ContinuousMessageReceivingTask task =
+            new ContinuousMessageReceivingTask(meta, taskFactory.create(meta));
+        executions.add(new MessageReceivingTaskExecution(service.submit(task), task));
+      }
+      return executions;
+    }
     ScheduledExecutorService service = shouldNotNull(executors.get(config),
         "Can't find any scheduled executore service! message receiver [%s].", meta);
     final MessageReceivingExecutorConfig executorConfig = getExecutorConfig(config);
@@ -171,7 +194,7 @@ public class MessageReceivingExecutor implements ManagedMessageReceivingExecutor
     final ScheduledFuture<?> future =
         service.scheduleWithFixedDelay(task, executorConfig.getInitialDelay().toMillis(),
             executorConfig.getDelay().toMillis(), TimeUnit.MICROSECONDS);
-    return new MessageReceivingTaskExecution(future, task);
+    return listOf(new MessageReceivingTaskExecution(future, task));
   }
 
   void initialize() {
@@ -24,6 +24,7 @@ import static org.corant.shared.util.Strings.isBlank;
 import java.time.Duration;
 import java.util.Collection;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
@@ -31,6 +32,7 @@ import org.corant.context.proxy.ContextualMethodHandler;
 import org.corant.context.qualifier.Qualifiers;
 import org.corant.modules.jms.annotation.MessageDestination;
 import org.corant.modules.jms.annotation.MessageDriven;
+import org.corant.modules.jms.annotation.MessageDriven.ReceiveMode;
 import org.corant.modules.jms.metadata.MessageDestinationMetaData;
 import org.corant.modules.jms.metadata.MessageDrivenMetaData;
 import org.corant.modules.jms.metadata.MessageReplyMetaData;
@@ -50,6 +52,10 @@ public class MessageReceivingMetaData {
 
   private final ContextualMethodHandler method;
   private final int acknowledge;
+  private final ReceiveMode receiveMode;
+  private final int concurrency;
+  private final boolean batch;
+  private final int batchSize;
   private final String connectionFactoryId;
   private final String destination;
   private final boolean multicast;
@@ -75,10 +81,28 @@ public class MessageReceivingMetaData {
     multicast = dest.isMulticast();
     // the driven
     acknowledge = driven.getAcknowledge();
+    receiveMode = driven.getReceiveMode();
+    if (multicast && driven.getConcurrency() > 1) {
+      logger.warning(() -> String.format(
+          "The multicast message receiver only supports one consumer, the concurrency %s is ignored. message receiver method %s.",
+          driven.getConcurrency(), method.getMethod()));
+      concurrency = 1;
+    } else {
+      concurrency = max(1, driven.getConcurrency());
+    }
+    // the batch mode is opt-in, a List parameter alone still receives one message as its payload
+    batch = driven.getBatchSize() > 1
+        && method.getMethod().getParameterTypes()[0].equals(List.class);
+    batchSize = batch ? driven.getBatchSize() : 1;
     selector = driven.getSelector();
     specifiedSelectors = driven.getSpecifiedSelectors();
     cacheLevel = driven.getCacheLevel();
-    receiveTimeout = driven.getReceiveTimeout();
+    if (receiveMode == ReceiveMode.PUSH && driven.getReceiveTimeout() <= 0) {
+      // the push mode consumers block on receiving, a receiveNoWait loop would spin
+      receiveTimeout = 1000L;
+    } else {
+      receiveTimeout = driven.getReceiveTimeout();
+    }
     receiveThreshold = max(1, driven.getReceiveThreshold());
     failureThreshold = max(2, driven.getFailureThreshold());
     tryThreshold = max(1, driven.getTryThreshold());
@@ -104,6 +128,9 @@ public class MessageReceivingMetaData {
       }
     }
     if (isNotEmpty(replies)) {
+      shouldBeFalse(batch,
+          "The batch message receiving method %s doesn't support reply, the replies must be empty.",
+          method.getMethod());
       shouldBeFalse(method.getMethod().getReturnType().equals(Void.TYPE),
           "The message receiving method %s requires a return type because the method is configured with a reply.",
           method.getMethod());
@@ -187,6 +214,10 @@ public class MessageReceivingMetaData {
     return acknowledge;
   }
 
+  public int getBatchSize() {
+    return batchSize;
+  }
+
   public BackoffStrategy getBrokenBackoffStrategy() {
     return brokenBackoffStrategy;
   }
@@ -195,6 +226,10 @@ public class MessageReceivingMetaData {
     return cacheLevel;
   }
 
+  public int getConcurrency() {
+    return concurrency;
+  }
+
   public String getConnectionFactoryId() {
     return connectionFactoryId;
   }
@@ -215,6 +250,10 @@ public class MessageReceivingMetaData {
     return method;
   }
 
+  public ReceiveMode getReceiveMode() {
+    return receiveMode;
+  }
+
   public int getReceiveThreshold() {
     return receiveThreshold;
   }
@@ -253,6 +292,14 @@ public class MessageReceivingMetaData {
     return prime * result + (selector == null ? 0 : selector.hashCode());
   }
 
+  /**
+   * Returns whether the messages are delivered to the receiving method in batch, the batch size is
+   * greater than 1 and the first parameter type of the method is {@link List}.
+   */
+  public boolean isBatch() {
+    return batch;
+  }
+
   public boolean isMulticast() {
     return multicast;
   }
@@ -13,7 +13,7 @@
  */
 package org.corant.modules.jms.shared.receive;
 
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Future;
 import org.corant.modules.jms.receive.ManagedMessageReceivingTask;
 
 /**
@@ -24,18 +24,18 @@ import org.corant.modules.jms.receive.ManagedMessageReceivingTask;
  */
 public class MessageReceivingTaskExecution {
 
-  private final ScheduledFuture<?> future;
+  private final Future<?> future;
   private final ManagedMessageReceivingTask task;
   private final Runnable cancelledHook;
 
-  public MessageReceivingTaskExecution(ScheduledFuture<?> future,
+  public MessageReceivingTaskExecution(Future<?> future,
       ManagedMessageReceivingTask task) {
     this.future = future;
     this.task = task;
     cancelledHook = null;
   }
 
-  public MessageReceivingTaskExecution(ScheduledFuture<?> future, ManagedMessageReceivingTask task,
+  public MessageReceivingTaskExecution(Future<?> future, ManagedMessageReceivingTask task,
       Runnable cancelledHook) {
     this.future = future;
     this.task = task;
@@ -51,7 +51,7 @@ public class MessageReceivingTaskExecution {
     return cancelled;
   }
 
-  public ScheduledFuture<?> getFuture() {
+  public Future<?> getFuture() {
     return future;
   }
 }
@@ -14,12 +14,13 @@
 package org.corant.modules.jms.shared.send;
 
 import static org.corant.context.Beans.findNamed;
+import static org.corant.modules.jms.JMSNames.MSG_MARSHAL_SCHEMA_COMPRESSED_STREAM;
+import static org.corant.modules.jms.JMSNames.MSG_MARSHAL_SCHEMA_ZIP_BINARY;
 import static org.corant.shared.util.Assertions.shouldNotBlank;
 import static org.corant.shared.util.Empties.isEmpty;
 import static org.corant.shared.util.Empties.isNotEmpty;
 import static org.corant.shared.util.Strings.EMPTY;
 import static org.corant.shared.util.Strings.isNotBlank;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Map;
@@ -33,10 +34,12 @@ import javax.jms.JMSProducer;
 import javax.jms.XAConnectionFactory;
 import javax.jms.XAJMSContext;
 import javax.transaction.Transactional.TxType;
+import org.corant.modules.jms.shared.marshaller.CompressedStreamMessageMarshaller;
+import org.corant.modules.jms.shared.marshaller.CompressedStreamMessageMarshaller.CompressedPayload;
+import org.corant.modules.jms.shared.marshaller.CompressionCodec;
 import org.corant.modules.jta.shared.SynchronizationAdapter;
 import org.corant.modules.jta.shared.TransactionService;
 import org.corant.shared.exception.CorantRuntimeException;
-import org.corant.shared.util.Compressors;
 
 /**
  * corant-modules-jms-shared
@@ -195,12 +198,20 @@ public class MessageSenderTemplate extends DefaultMessageSender {
     return this;
   }
 
+  /**
+   * Compress the given stream while sending it, the compressed message body is not held in memory,
+   * use the {@link CompressedStreamMessageMarshaller} to receive it.
+   *
+   * @param message the payload stream, it is not closed
+   * @param codec the compression codec name, null means the default codec
+   * @see CompressionCodec
+   */
+  public void compressAndSend(InputStream message, String codec) {
+    doSend(MSG_MARSHAL_SCHEMA_COMPRESSED_STREAM, new CompressedPayload(message, codec));
+  }
+
   public void zippedAndSend(InputStream message) throws IOException {
-    try (ByteArrayOutputStream buffer = new ByteArrayOutputStream()) {
-      Compressors.compress(message, buffer);
-      byte[] bytes = buffer.toByteArray();
-      send(bytes);
-    }
+    doSend(MSG_MARSHAL_SCHEMA_ZIP_BINARY, message);
   }
 
   @Override
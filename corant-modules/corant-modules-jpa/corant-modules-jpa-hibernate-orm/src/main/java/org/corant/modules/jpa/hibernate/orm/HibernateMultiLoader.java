@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.jpa.hibernate.orm;
+
+import static org.corant.shared.util.Objects.forceCast;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import javax.inject.Singleton;
+import javax.persistence.EntityManager;
+import org.corant.modules.jpa.shared.JPAMultiLoader;
+import org.hibernate.Session;
+
+/**
+ * corant-modules-jpa-hibernate-orm
+ *
+ * <p>
+ * Loads multiple entities through {@link Session#byMultipleIds(Class)}, the entities that are
+ * already contained in the persistence context are not queried again.
+ *
+ * @author bingo 下午2:40:12
+ *
+ */
+@Singleton
+public class HibernateMultiLoader implements JPAMultiLoader {
+
+  @Override
+  public boolean accept(EntityManager em) {
+    try {
+      return em.unwrap(Session.class) != null;
+    } catch (RuntimeException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public <T> List<T> load(EntityManager em, Class<T> entityClass, List<Object> ids,
+      int batchSize) {
+    List<Serializable> useIds = forceCast(ids);
+    List<T> entities = em.unwrap(Session.class).byMultipleIds(entityClass).withBatchSize(batchSize)
+        .enableSessionCheck(true).enableOrderedReturn(true).multiLoad(useIds);
+    List<T> results = new ArrayList<>(entities.size());
+    for (T entity : entities) {
+      if (entity != null) {
+        results.add(entity);
+      }
+    }
+    return results;
+  }
+
+}
@@ -41,6 +41,8 @@ import org.corant.modules.jpa.shared.metadata.PersistenceUnitInfoMetaData;
 import org.corant.shared.exception.CorantRuntimeException;
 import org.corant.shared.normal.Names;
 import org.corant.shared.util.Identifiers.GeneralSnowflakeUUIDGenerator;
+import org.corant.shared.util.Identifiers.LockFreeSnowflakeUUIDGenerator;
+import org.corant.shared.util.Identifiers.LockFreeSnowflakeUUIDGenerator.ClockBackwardsPolicy;
 import org.corant.shared.util.Identifiers.SnowflakeD5W5S12UUIDGenerator;
 import org.corant.shared.util.Identifiers.SnowflakeIpv4HostUUIDGenerator;
 import org.corant.shared.util.Identifiers.SnowflakeW10S12UUIDGenerator;
@@ -63,11 +65,18 @@ public class HibernateSnowflakeIdGenerator implements IdentifierGenerator {
   public static final String IG_SF_DC_ID = "identifier.generator.snowflake.datacenter-id";
   public static final String IG_SF_DL_TM = "identifier.generator.snowflake.delayed-timing";
   public static final String IG_SF_UP_TM = "identifier.generator.snowflake.use-persistence-timer";
+  public static final String IG_SF_LK_FR = "identifier.generator.snowflake.lock-free";
+  public static final String IG_SF_CB_PL = "identifier.generator.snowflake.clock-backwards-policy";
+  public static final String IG_SF_CB_TL =
+      "identifier.generator.snowflake.clock-backwards-tolerance";
   public static final String GL_IG_SF_WK_IP = Names.CORANT_PREFIX + IG_SF_WK_IP;
   public static final String GL_IG_SF_WK_ID = Names.CORANT_PREFIX + IG_SF_WK_ID;
   public static final String GL_IG_SF_DC_ID = Names.CORANT_PREFIX + IG_SF_DC_ID;
   public static final String GL_IG_SF_DL_TM = Names.CORANT_PREFIX + IG_SF_DL_TM;
   public static final String GL_IG_SF_UP_TM = Names.CORANT_PREFIX + IG_SF_UP_TM;
+  public static final String GL_IG_SF_LK_FR = Names.CORANT_PREFIX + IG_SF_LK_FR;
+  public static final String GL_IG_SF_CB_PL = Names.CORANT_PREFIX + IG_SF_CB_PL;
+  public static final String GL_IG_SF_CB_TL = Names.CORANT_PREFIX + IG_SF_CB_TL;
 
   static Logger logger = Logger.getLogger(HibernateSnowflakeIdGenerator.class.getName());
 
@@ -96,6 +105,27 @@ public class HibernateSnowflakeIdGenerator implements IdentifierGenerator {
     }
   }
 
+  /**
+   * Returns the given number of generated long type ids manually, use for batch inserts, if the
+   * lock-free generator is enabled the ids are reserved in blocks.
+   *
+   * @param ptu the persistence unit name, use to identify the generator configuration.
+   * @param size the number of the ids
+   * @return the generated ids in ascending order
+   */
+  public static long[] generateManually(String ptu, int size) {
+    String usePtu = Qualifiers.resolveName(ptu);
+    final Generator generator = getGenerator(usePtu);
+    if (generator.usePersistenceTimer) {
+      return generator.generate(
+          shouldNotNull(resolve(PersistenceService.class).getEntityManagerFactory(usePtu))
+              .unwrap(SessionFactoryImplementor.class),
+          null, size);
+    } else {
+      return generator.generate(null, null, size);
+    }
+  }
+
   /**
    * Parse instant from given id and persistence unit name
    *
@@ -143,7 +173,7 @@ public class HibernateSnowflakeIdGenerator implements IdentifierGenerator {
                 () -> new CorantRuntimeException("Can't find persistence unit %s for id generator!",
                     ptu));
 
-    final GeneralSnowflakeUUIDGenerator generator;
+    GeneralSnowflakeUUIDGenerator generator;
 
     int dataCenterId = toInteger(metaData.getProperties().getOrDefault(IG_SF_DC_ID,
         Configs.getValue(GL_IG_SF_DC_ID, Integer.class, -1)));
@@ -167,10 +197,33 @@ public class HibernateSnowflakeIdGenerator implements IdentifierGenerator {
     } else {
       generator = new SnowflakeIpv4HostUUIDGenerator(delayedTiming);
     }
+    boolean lockFree = toBoolean(metaData.getProperties().getOrDefault(IG_SF_LK_FR,
+        Configs.getValue(GL_IG_SF_LK_FR, String.class, FALSE)));
+    if (lockFree && usePst) {
+      // the lock-free generator reads the time in each generation
+      logger.warning(() -> String.format(
+          "The lock-free identifier generator can't be used with the persistence timer, persistence unit [%s].",
+          ptu));
+    } else if (lockFree) {
+      if (metaData.getProperties().containsKey(IG_SF_DL_TM)
+          || Configs.getValue(GL_IG_SF_DL_TM, Long.class) != null) {
+        // the lock-free generator reads the time in each reservation
+        logger.warning(() -> String.format(
+            "The lock-free identifier generator doesn't support the delayed timing, the delayed timing is ignored, persistence unit [%s].",
+            ptu));
+      }
+      generator = LockFreeSnowflakeUUIDGenerator.of(generator,
+          ClockBackwardsPolicy.valueOf(asString(metaData.getProperties().get(IG_SF_CB_PL),
+              Configs.getValue(GL_IG_SF_CB_PL, String.class, ClockBackwardsPolicy.WAIT.name()))),
+          toLong(metaData.getProperties().getOrDefault(IG_SF_CB_TL,
+              Configs.getValue(GL_IG_SF_CB_TL, Long.class, 1000L))));
+    }
+    final GeneralSnowflakeUUIDGenerator useGenerator = generator;
     logger.info(() -> String.format(
         "Create identifier generator for persistence unit[%s], the generator is %s.", ptu,
-        generator.description()));
-    return new Generator(tryAsClass(metaData.getPersistenceProviderClassName()), generator, usePst);
+        useGenerator.description()));
+    return new Generator(tryAsClass(metaData.getPersistenceProviderClassName()), useGenerator,
+        usePst);
   }
 
   static Generator getGenerator(String ptu) {
@@ -216,6 +269,11 @@ public class HibernateSnowflakeIdGenerator implements IdentifierGenerator {
       return snowflakeGenerator.generate(() -> timeService.get(useSecond, sessionFactory, object));
     }
 
+    public long[] generate(SessionFactoryImplementor sessionFactory, Object object, int size) {
+      return snowflakeGenerator.generate(() -> timeService.get(useSecond, sessionFactory, object),
+          size);
+    }
+
   }
 
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.jpa.shared;
+
+import static org.corant.context.Beans.select;
+import static org.corant.shared.util.Empties.isEmpty;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import org.corant.shared.ubiquity.Sortable;
+
+/**
+ * corant-modules-jpa-shared
+ *
+ * <p>
+ * Loads multiple entities of the same type by their identifiers in as few round trips as possible.
+ * The JPA provider module may supply an implementation that uses the native multi-load mechanism
+ * (such as Hibernate {@code Session#byMultipleIds}); if no implementation accepts the entity
+ * manager, the identifiers are loaded in chunks with the JPQL 'IN' predicate.
+ *
+ * @author bingo 下午2:16:35
+ *
+ */
+public interface JPAMultiLoader extends Sortable {
+
+  /**
+   * Returns the entities of the given identifiers, the result keeps the order of the given
+   * identifiers, the duplicated identifiers and the entities that don't exist are discarded.
+   *
+   * @param <T> the entity type
+   * @param em the entity manager
+   * @param entityClass the entity class
+   * @param ids the entity identifiers
+   * @param batchSize the maximum number of the identifiers loaded per statement
+   * @return the loaded entity list
+   */
+  static <T> List<T> multiLoad(EntityManager em, Class<T> entityClass, Collection<?> ids,
+      int batchSize) {
+    if (isEmpty(ids)) {
+      return new ArrayList<>();
+    }
+    List<Object> useIds = new ArrayList<>(new LinkedHashSet<>(ids));
+    useIds.removeIf(Objects::isNull);
+    if (useIds.isEmpty()) {
+      return new ArrayList<>();
+    }
+    int useBatchSize = Math.max(batchSize, 1);
+    JPAMultiLoader loader = select(JPAMultiLoader.class).stream().filter(l -> l.accept(em))
+        .min(Sortable::compare).orElse(InClauseMultiLoader.INST);
+    return loader.load(em, entityClass, useIds, useBatchSize);
+  }
+
+  /**
+   * Returns whether this loader can be used on the given entity manager.
+   *
+   * @param em the entity manager
+   */
+  default boolean accept(EntityManager em) {
+    return true;
+  }
+
+  /**
+   * Load the entities of the given identifiers, the given identifiers are distinct and not null.
+   * The result must keep the order of the given identifiers and must not contain null.
+   *
+   * @param <T> the entity type
+   * @param em the entity manager
+   * @param entityClass the entity class
+   * @param ids the distinct entity identifiers
+   * @param batchSize the maximum number of the identifiers loaded per statement
+   * @return the loaded entity list
+   */
+  <T> List<T> load(EntityManager em, Class<T> entityClass, List<Object> ids, int batchSize);
+
+  /**
+   * corant-modules-jpa-shared
+   *
+   * <p>
+   * The fallback loader, loads the entities in chunks with the JPQL 'IN' predicate on the single
+   * identifier attribute, if the entity uses a composite identifier without single identifier
+   * attribute the entities are found one by one.
+   *
+   * @author bingo 下午2:16:35
+   *
+   */
+  class InClauseMultiLoader implements JPAMultiLoader {
+
+    public static final InClauseMultiLoader INST = new InClauseMultiLoader();
+
+    @Override
+    public <T> List<T> load(EntityManager em, Class<T> entityClass, List<Object> ids,
+        int batchSize) {
+      List<T> results = new ArrayList<>(ids.size());
+      EntityType<T> entityType = em.getMetamodel().entity(entityClass);
+      SingularAttribute<? super T, ?> idAttr = null;
+      if (entityType.hasSingleIdAttribute()) {
+        idAttr = entityType.getSingularAttributes().stream().filter(SingularAttribute::isId)
+            .findFirst().orElse(null);
+      }
+      if (idAttr == null) {
+        for (Object id : ids) {
+          T entity = em.find(entityClass, id);
+          if (entity != null) {
+            results.add(entity);
+          }
+        }
+        return results;
+      }
+      String ql = "SELECT e FROM " + entityType.getName() + " e WHERE e." + idAttr.getName()
+          + " IN :ids";
+      PersistenceUnitUtil puu = em.getEntityManagerFactory().getPersistenceUnitUtil();
+      Map<Object, T> loaded = new HashMap<>(ids.size() << 1);
+      for (int i = 0, s = ids.size(); i < s; i += batchSize) {
+        List<Object> chunk = ids.subList(i, Math.min(i + batchSize, s));
+        for (T entity : em.createQuery(ql, entityClass).setParameter("ids", chunk)
+            .getResultList()) {
+          loaded.put(puu.getIdentifier(entity), entity);
+        }
+      }
+      for (Object id : ids) {
+        T entity = loaded.get(id);
+        if (entity != null) {
+          results.add(entity);
+        }
+      }
+      return results;
+    }
+
+    @Override
+    public int getPriority() {
+      return Integer.MAX_VALUE;
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2013-2018, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.json.expression;
+
+/**
+ * corant-modules-json
+ *
+ * <p>
+ * A compiled expression, the compiled expression is immutable and thread safe, it only resolves
+ * the variable values through the given evaluation context.
+ *
+ * @author bingo 上午10:12:38
+ *
+ * @see SimpleCompiler
+ */
+@FunctionalInterface
+public interface CompiledExpression<T> {
+
+  T evaluate(EvaluationContext ctx);
+
+  /**
+   * corant-modules-json
+   *
+   * <p>
+   * A compiled predicate expression that returns primitive boolean.
+   *
+   * @author bingo 上午10:12:38
+   *
+   */
+  @FunctionalInterface
+  interface CompiledPredicate extends CompiledExpression<Boolean> {
+
+    @Override
+    default Boolean evaluate(EvaluationContext ctx) {
+      return test(ctx);
+    }
+
+    boolean test(EvaluationContext ctx);
+  }
+}
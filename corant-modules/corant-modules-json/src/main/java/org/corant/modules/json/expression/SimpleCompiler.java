@@ -0,0 +1,533 @@
+/*
+ * Copyright (c) 2013-2018, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.json.expression;
+
+import static java.util.stream.Collectors.toList;
+import static org.corant.modules.json.expression.ast.ASTComparisonNode.compareValue;
+import static org.corant.shared.util.Conversions.toObject;
+import static org.corant.shared.util.Objects.areEqual;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import org.corant.modules.json.expression.CompiledExpression.CompiledPredicate;
+import org.corant.modules.json.expression.ast.ASTComparisonNode.ASTBetweenNode;
+import org.corant.modules.json.expression.ast.ASTComparisonNode.ASTEqualNode;
+import org.corant.modules.json.expression.ast.ASTComparisonNode.ASTGreaterThanEqualNode;
+import org.corant.modules.json.expression.ast.ASTComparisonNode.ASTGreaterThanNode;
+import org.corant.modules.json.expression.ast.ASTComparisonNode.ASTInNode;
+import org.corant.modules.json.expression.ast.ASTComparisonNode.ASTLessThanEqualNode;
+import org.corant.modules.json.expression.ast.ASTComparisonNode.ASTLessThanNode;
+import org.corant.modules.json.expression.ast.ASTComparisonNode.ASTNoEqualNode;
+import org.corant.modules.json.expression.ast.ASTComparisonNode.ASTNoInNode;
+import org.corant.modules.json.expression.ast.ASTComparisonNode.ASTRegexNode;
+import org.corant.modules.json.expression.ast.ASTFunctionNode;
+import org.corant.modules.json.expression.ast.ASTFunctionNode.ASTDefaultFunctionNode;
+import org.corant.modules.json.expression.ast.ASTLogicNode.ASTLogicAndNode;
+import org.corant.modules.json.expression.ast.ASTLogicNode.ASTLogicNorNode;
+import org.corant.modules.json.expression.ast.ASTLogicNode.ASTLogicNotNode;
+import org.corant.modules.json.expression.ast.ASTLogicNode.ASTLogicOrNode;
+import org.corant.modules.json.expression.ast.ASTLogicNode.ASTLogicXorNode;
+import org.corant.modules.json.expression.ast.ASTNode;
+import org.corant.modules.json.expression.ast.ASTNodeType;
+import org.corant.modules.json.expression.ast.ASTValueNode;
+import org.corant.shared.exception.NotSupportedException;
+import org.corant.shared.ubiquity.Sortable;
+
+/**
+ * corant-modules-json
+ *
+ * <p>
+ * Compile the parsed expression node tree into a closed tree of specialized lambdas. The
+ * functions are bound once at compile time, the numeric constants are converted once, and the
+ * logic and comparison predicates return primitive boolean, so that a compiled expression can be
+ * evaluated repeatedly without tree walking and per call lookups. The compiled expression has the
+ * same semantics as {@link Node#getValue(EvaluationContext)}; the variable values are still
+ * resolved through {@link EvaluationContext#resolveVariableValue(Node)}, the
+ * {@link EvaluationContext#resolveFunction(Node)} is not used.
+ *
+ * <p>
+ * The nodes that are not built by the default {@link ASTNodeType}, except for the variable nodes,
+ * are evaluated through their own {@link Node#getValue(EvaluationContext)}.
+ *
+ * <pre>
+ * Node&lt;?&gt; node = SimpleParser.parse(json);
+ * CompiledPredicate predicate = SimpleCompiler.compilePredicate(node);
+ * boolean matched = predicate.test(ctx);
+ * </pre>
+ *
+ * @author bingo 上午10:12:38
+ *
+ */
+public class SimpleCompiler {
+
+  private SimpleCompiler() {}
+
+  /**
+   * Compile the given node with the function resolvers that loaded by
+   * {@link SimpleParser#resolveFunction()}.
+   *
+   * @param node the node to compile
+   * @return the compiled expression
+   */
+  public static CompiledExpression<?> compile(Node<?> node) {
+    return compile(node, resolveFunctionBinder());
+  }
+
+  /**
+   * Compile the given node with the given function binder.
+   *
+   * @param node the node to compile
+   * @param functionBinder the function binder, use to bind the function by name once
+   * @return the compiled expression
+   */
+  public static CompiledExpression<?> compile(Node<?> node,
+      Function<String, Function<Object[], Object>> functionBinder) {
+    if (node instanceof ASTNode && isPredicate(((ASTNode<?>) node).getType())) {
+      return compilePredicate(node, functionBinder);
+    }
+    return compileExpression(node, functionBinder);
+  }
+
+  /**
+   * Compile the given predicate node with the function resolvers that loaded by
+   * {@link SimpleParser#resolveFunction()}.
+   *
+   * @param node the predicate node to compile
+   * @return the compiled predicate
+   */
+  public static CompiledPredicate compilePredicate(Node<?> node) {
+    return compilePredicate(node, resolveFunctionBinder());
+  }
+
+  /**
+   * Compile the given predicate node with the given function binder.
+   *
+   * @param node the predicate node to compile
+   * @param functionBinder the function binder, use to bind the function by name once
+   * @return the compiled predicate
+   */
+  public static CompiledPredicate compilePredicate(Node<?> node,
+      Function<String, Function<Object[], Object>> functionBinder) {
+    if (!(node instanceof ASTNode)) {
+      return ctx -> (Boolean) node.getValue(ctx);
+    }
+    final ASTNode<?> ast = (ASTNode<?>) node;
+    final Class<?> cls = ast.getClass();
+    final List<? extends Node<?>> children;
+    switch (ast.getType()) {
+      case LG_AND:
+        if (cls == ASTLogicAndNode.class) {
+          final CompiledPredicate[] ps = compilePredicates(ast.getChildren(), functionBinder);
+          return ctx -> {
+            for (CompiledPredicate p : ps) {
+              if (!p.test(ctx)) {
+                return false;
+              }
+            }
+            return true;
+          };
+        }
+        break;
+      case LG_OR:
+        if (cls == ASTLogicOrNode.class) {
+          final CompiledPredicate[] ps = compilePredicates(ast.getChildren(), functionBinder);
+          return ctx -> {
+            for (CompiledPredicate p : ps) {
+              if (p.test(ctx)) {
+                return true;
+              }
+            }
+            return false;
+          };
+        }
+        break;
+      case LG_NOR:
+        if (cls == ASTLogicNorNode.class) {
+          final CompiledPredicate[] ps = compilePredicates(ast.getChildren(), functionBinder);
+          return ctx -> {
+            for (CompiledPredicate p : ps) {
+              if (p.test(ctx)) {
+                return false;
+              }
+            }
+            return true;
+          };
+        }
+        break;
+      case LG_NOT:
+        if (cls == ASTLogicNotNode.class) {
+          final CompiledPredicate p = compilePredicate(ast.getChildren().get(0), functionBinder);
+          return ctx -> !p.test(ctx);
+        }
+        break;
+      case LG_XOR:
+        if (cls == ASTLogicXorNode.class) {
+          children = ast.getChildren();
+          final CompiledPredicate p0 = compilePredicate(children.get(0), functionBinder);
+          final CompiledPredicate p1 = compilePredicate(children.get(1), functionBinder);
+          return ctx -> p0.test(ctx) ^ p1.test(ctx);
+        }
+        break;
+      case CP_EQ:
+        if (cls == ASTEqualNode.class) {
+          return compileEqual(ast.getChildren(), functionBinder);
+        }
+        break;
+      case CP_NE:
+        if (cls == ASTNoEqualNode.class) {
+          final CompiledPredicate p = compileEqual(ast.getChildren(), functionBinder);
+          return ctx -> !p.test(ctx);
+        }
+        break;
+      case CP_GT:
+        if (cls == ASTGreaterThanNode.class) {
+          final Comparison c = compileComparison(ast.getChildren(), functionBinder);
+          return ctx -> c.compare(ctx) > 0;
+        }
+        break;
+      case CP_GTE:
+        if (cls == ASTGreaterThanEqualNode.class) {
+          final Comparison c = compileComparison(ast.getChildren(), functionBinder);
+          return ctx -> c.compare(ctx) >= 0;
+        }
+        break;
+      case CP_LT:
+        if (cls == ASTLessThanNode.class) {
+          final Comparison c = compileComparison(ast.getChildren(), functionBinder);
+          return ctx -> c.compare(ctx) < 0;
+        }
+        break;
+      case CP_LTE:
+        if (cls == ASTLessThanEqualNode.class) {
+          final Comparison c = compileComparison(ast.getChildren(), functionBinder);
+          return ctx -> c.compare(ctx) <= 0;
+        }
+        break;
+      case CP_BTW:
+        if (cls == ASTBetweenNode.class) {
+          return compileBetween(ast.getChildren(), functionBinder);
+        }
+        break;
+      case CP_IN:
+        if (cls == ASTInNode.class) {
+          children = ast.getChildren();
+          final CompiledExpression<?> l = compileExpression(children.get(0), functionBinder);
+          final CompiledExpression<?> r = compileExpression(children.get(1), functionBinder);
+          return ctx -> {
+            Object left = l.evaluate(ctx);
+            Object right = r.evaluate(ctx);
+            return right instanceof Collection && ((Collection<?>) right).contains(left);
+          };
+        }
+        break;
+      case CP_NIN:
+        if (cls == ASTNoInNode.class) {
+          children = ast.getChildren();
+          final CompiledExpression<?> l = compileExpression(children.get(0), functionBinder);
+          final CompiledExpression<?> r = compileExpression(children.get(1), functionBinder);
+          return ctx -> {
+            Object left = l.evaluate(ctx);
+            Object right = r.evaluate(ctx);
+            return !(right instanceof Collection) || !((Collection<?>) right).contains(left);
+          };
+        }
+        break;
+      case CP_REGEX:
+        if (cls == ASTRegexNode.class) {
+          children = ast.getChildren();
+          final CompiledExpression<?> l = compileExpression(children.get(0), functionBinder);
+          final Pattern pattern =
+              Pattern.compile(((ASTValueNode) children.get(1)).getValue(null).toString());
+          return ctx -> {
+            Object left = l.evaluate(ctx);
+            return left != null && pattern.matcher(left.toString()).matches();
+          };
+        }
+        break;
+      default:
+        break;
+    }
+    return ctx -> (Boolean) ast.getValue(ctx);
+  }
+
+  /**
+   * Returns a function binder that binds the function with the highest priority function resolver
+   * that supports the function name.
+   *
+   * @see SimpleParser#resolveFunction()
+   */
+  public static Function<String, Function<Object[], Object>> resolveFunctionBinder() {
+    final List<FunctionResolver> resolvers = SimpleParser.resolveFunction().collect(toList());
+    return name -> resolvers.stream().filter(r -> r.supports(name)).min(Sortable::compare)
+        .orElseThrow(NotSupportedException::new).resolve(name);
+  }
+
+  static CompiledPredicate compileBetween(List<? extends Node<?>> children,
+      Function<String, Function<Object[], Object>> functionBinder) {
+    final CompiledExpression<?> mid = compileExpression(children.get(0), functionBinder);
+    final CompiledExpression<?> min = compileExpression(children.get(1), functionBinder);
+    final CompiledExpression<?> max = compileExpression(children.get(2), functionBinder);
+    final NumberConstant minConst = NumberConstant.of(children.get(1));
+    final NumberConstant maxConst = NumberConstant.of(children.get(2));
+    if (minConst != null && maxConst != null) {
+      return ctx -> {
+        Object midValue = mid.evaluate(ctx);
+        return -minConst.compareFrom(midValue) <= 0 && maxConst.compareFrom(midValue) <= 0;
+      };
+    }
+    return ctx -> {
+      Object minValue = min.evaluate(ctx);
+      Object midValue = mid.evaluate(ctx);
+      Object maxValue = max.evaluate(ctx);
+      return compareValue(minValue, midValue) <= 0 && compareValue(midValue, maxValue) <= 0;
+    };
+  }
+
+  static Comparison compileComparison(List<? extends Node<?>> children,
+      Function<String, Function<Object[], Object>> functionBinder) {
+    final CompiledExpression<?> l = compileExpression(children.get(0), functionBinder);
+    final CompiledExpression<?> r = compileExpression(children.get(1), functionBinder);
+    final NumberConstant rc = NumberConstant.of(children.get(1));
+    if (rc != null) {
+      return ctx -> {
+        Object left = l.evaluate(ctx);
+        if (!(left instanceof Comparable)) {
+          throw new NotSupportedException();
+        }
+        return rc.compareFrom(left);
+      };
+    }
+    final NumberConstant lc = NumberConstant.of(children.get(0));
+    if (lc != null) {
+      return ctx -> {
+        Object right = r.evaluate(ctx);
+        if (!(right instanceof Comparable)) {
+          throw new NotSupportedException();
+        }
+        return -lc.compareFrom(right);
+      };
+    }
+    return ctx -> {
+      Object left = l.evaluate(ctx);
+      Object right = r.evaluate(ctx);
+      if (left instanceof Comparable && right instanceof Comparable) {
+        return compareValue(left, right);
+      }
+      throw new NotSupportedException();
+    };
+  }
+
+  static CompiledPredicate compileEqual(List<? extends Node<?>> children,
+      Function<String, Function<Object[], Object>> functionBinder) {
+    final CompiledExpression<?> l = compileExpression(children.get(0), functionBinder);
+    final CompiledExpression<?> r = compileExpression(children.get(1), functionBinder);
+    final NumberConstant rc = NumberConstant.of(children.get(1));
+    final NumberConstant lc = rc == null ? NumberConstant.of(children.get(0)) : null;
+    if (rc != null || lc != null) {
+      final NumberConstant c = rc != null ? rc : lc;
+      final CompiledExpression<?> v = rc != null ? l : r;
+      return ctx -> {
+        Object value = v.evaluate(ctx);
+        if (value instanceof Number) {
+          return c.compareFrom(value) == 0;
+        }
+        return rc != null ? areEqual(value, c.value) : areEqual(c.value, value);
+      };
+    }
+    return ctx -> {
+      Object left = l.evaluate(ctx);
+      Object right = r.evaluate(ctx);
+      if (left instanceof Number && right instanceof Number) {
+        return compareValue(left, right) == 0;
+      }
+      return areEqual(left, right);
+    };
+  }
+
+  static CompiledExpression<?> compileExpression(Node<?> node,
+      Function<String, Function<Object[], Object>> functionBinder) {
+    if (!(node instanceof ASTNode)) {
+      return node::getValue;
+    }
+    final ASTNode<?> ast = (ASTNode<?>) node;
+    final ASTNodeType type = ast.getType();
+    if (type == ASTNodeType.VAL && ast.getClass() == ASTValueNode.class) {
+      final Object value = ast.getValue(null);
+      return ctx -> value;
+    } else if (type == ASTNodeType.FUN && ast.getClass() == ASTDefaultFunctionNode.class) {
+      final Function<Object[], Object> function =
+          functionBinder.apply(((ASTFunctionNode) ast).getName());
+      final List<? extends Node<?>> children = ast.getChildren();
+      final int size = children.size();
+      final CompiledExpression<?>[] arguments = new CompiledExpression<?>[size];
+      for (int i = 0; i < size; i++) {
+        arguments[i] = compileExpression(children.get(i), functionBinder);
+      }
+      return ctx -> {
+        Object[] values = new Object[size];
+        for (int i = 0; i < size; i++) {
+          values[i] = arguments[i].evaluate(ctx);
+        }
+        return function.apply(values);
+      };
+    } else if (isPredicate(type)) {
+      return compilePredicate(ast, functionBinder);
+    }
+    return ast::getValue;
+  }
+
+  static CompiledPredicate[] compilePredicates(List<? extends Node<?>> children,
+      Function<String, Function<Object[], Object>> functionBinder) {
+    CompiledPredicate[] predicates = new CompiledPredicate[children.size()];
+    for (int i = 0; i < predicates.length; i++) {
+      predicates[i] = compilePredicate(children.get(i), functionBinder);
+    }
+    return predicates;
+  }
+
+  static boolean isPredicate(ASTNodeType type) {
+    return type != ASTNodeType.VAL && type != ASTNodeType.VAR && type != ASTNodeType.FUN;
+  }
+
+  /**
+   * corant-modules-json
+   *
+   * @author bingo 上午10:12:38
+   *
+   */
+  @FunctionalInterface
+  interface Comparison {
+    int compare(EvaluationContext ctx);
+  }
+
+  /**
+   * corant-modules-json
+   *
+   * <p>
+   * A numeric constant that keeps the converted values, use to compare with the other number
+   * without converting the constant repeatedly. The comparison follows
+   * {@link org.corant.modules.json.expression.ast.ASTComparisonNode#compareValue(Object, Object)}.
+   *
+   * @author bingo 上午10:12:38
+   *
+   */
+  static class NumberConstant {
+    static final int BIG_DECIMAL = 0;
+    static final int DOUBLE = 1;
+    static final int FLOAT = 2;
+    static final int BIG_INTEGER = 3;
+    static final int LONG = 4;
+    static final int INTEGER = 5;
+    static final int SHORT = 6;
+    static final int BYTE = 7;
+    static final int OTHER = 8;
+
+    final Number value;
+    final int rank;
+    final BigDecimal decimalValue;
+    final BigInteger integerValue;
+    final Double otherValue;
+    final double doubleValue;
+    final float floatValue;
+    final long longValue;
+    final int intValue;
+    final short shortValue;
+    final byte byteValue;
+
+    NumberConstant(Number value) {
+      this.value = value;
+      rank = rank(value);
+      decimalValue = toObject(value, BigDecimal.class);
+      integerValue = rank >= BIG_INTEGER ? toObject(value, BigInteger.class) : null;
+      otherValue = rank == OTHER ? toObject(value, Double.class) : null;
+      doubleValue = value.doubleValue();
+      floatValue = value.floatValue();
+      longValue = value.longValue();
+      intValue = value.intValue();
+      shortValue = value.shortValue();
+      byteValue = value.byteValue();
+    }
+
+    static NumberConstant of(Node<?> node) {
+      if (node instanceof ASTValueNode && node.getClass() == ASTValueNode.class) {
+        Object value = node.getValue(null);
+        if (value instanceof Number) {
+          try {
+            return new NumberConstant((Number) value);
+          } catch (RuntimeException e) {
+            // the constant can't be converted, use the general comparison
+            return null;
+          }
+        }
+      }
+      return null;
+    }
+
+    static int rank(Object number) {
+      if (number instanceof BigDecimal) {
+        return BIG_DECIMAL;
+      } else if (number instanceof Double) {
+        return DOUBLE;
+      } else if (number instanceof Float) {
+        return FLOAT;
+      } else if (number instanceof BigInteger) {
+        return BIG_INTEGER;
+      } else if (number instanceof Long) {
+        return LONG;
+      } else if (number instanceof Integer) {
+        return INTEGER;
+      } else if (number instanceof Short) {
+        return SHORT;
+      } else if (number instanceof Byte) {
+        return BYTE;
+      }
+      return OTHER;
+    }
+
+    /**
+     * Compare the given value with this constant, the given value is the left operand.
+     *
+     * @param other the value to compare
+     */
+    int compareFrom(Object other) {
+      if (!(other instanceof Number)) {
+        return compareValue(other, value);
+      }
+      Number number = (Number) other;
+      switch (Math.min(rank(number), rank)) {
+        case BIG_DECIMAL:
+          return toObject(number, BigDecimal.class).compareTo(decimalValue);
+        case DOUBLE:
+          return Double.compare(number.doubleValue(), doubleValue);
+        case FLOAT:
+          return Float.compare(number.floatValue(), floatValue);
+        case BIG_INTEGER:
+          return toObject(number, BigInteger.class).compareTo(integerValue);
+        case LONG:
+          return Long.compare(number.longValue(), longValue);
+        case INTEGER:
+          return Integer.compare(number.intValue(), intValue);
+        case SHORT:
+          return Short.compare(number.shortValue(), shortValue);
+        case BYTE:
+          return Byte.compare(number.byteValue(), byteValue);
+        default:
+          return toObject(number, Double.class).compareTo(otherValue);
+      }
+    }
+  }
+}
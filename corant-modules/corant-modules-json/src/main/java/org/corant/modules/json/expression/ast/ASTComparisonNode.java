@@ -53,6 +53,80 @@ public interface ASTComparisonNode extends ASTPredicateNode {
 
   ASTNode<?> getRight();
 
+  /**
+   * Compare the given values, the numbers are compared by the widest type of the two numbers, the
+   * temporal objects are compared if they are the same type.
+   *
+   * @param left the left value
+   * @param right the right value
+   * @return a negative integer, zero, or a positive integer as the left value is less than, equal
+   *         to, or greater than the right value
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  static int compareValue(Object left, Object right) {
+    if (left instanceof Number && right instanceof Number) {
+      Number numberLeft = (Number) left;
+      Number numberRight = (Number) right;
+      if (numberLeft instanceof BigDecimal || numberRight instanceof BigDecimal) {
+        return compareValue(numberLeft, numberRight, BigDecimal.class);
+      } else if (numberLeft instanceof Double || numberRight instanceof Double) {
+        return Double.compare(numberLeft.doubleValue(), numberRight.doubleValue());
+      } else if (numberLeft instanceof Float || numberRight instanceof Float) {
+        return Float.compare(numberLeft.floatValue(), numberRight.floatValue());
+      } else if (numberLeft instanceof BigInteger || numberRight instanceof BigInteger) {
+        return compareValue(numberLeft, numberRight, BigInteger.class);
+      } else if (numberLeft instanceof Long || numberRight instanceof Long) {
+        return Long.compare(numberLeft.longValue(), numberRight.longValue());
+      } else if (numberLeft instanceof Integer || numberRight instanceof Integer) {
+        return Integer.compare(numberLeft.intValue(), numberRight.intValue());
+      } else if (numberLeft instanceof Short || numberRight instanceof Short) {
+        return Short.compare(numberLeft.shortValue(), numberRight.shortValue());
+      } else if (numberLeft instanceof Byte || numberRight instanceof Byte) {
+        return Byte.compare(numberLeft.byteValue(), numberRight.byteValue());
+      } else {
+        return compareValue(left, right, Double.class);
+      }
+    } else if (left instanceof TemporalAccessor && right instanceof TemporalAccessor) {
+      if (left instanceof Date && right instanceof Date) {
+        return ((Date) left).compareTo((Date) right);
+      } else if (left instanceof Instant && right instanceof Instant) {
+        return ((Instant) left).compareTo((Instant) right);
+      } else if (left instanceof ZonedDateTime && right instanceof ZonedDateTime) {
+        return ((ZonedDateTime) left).compareTo((ZonedDateTime) right);
+      } else if (left instanceof LocalTime && right instanceof LocalTime) {
+        return ((LocalTime) left).compareTo((LocalTime) right);
+      } else if (left instanceof LocalDate && right instanceof LocalDate) {
+        return ((LocalDate) left).compareTo((LocalDate) right);
+      } else if (left instanceof LocalDateTime && right instanceof LocalDateTime) {
+        return ((LocalDateTime) left).compareTo((LocalDateTime) right);
+      } else if (left instanceof MonthDay && right instanceof MonthDay) {
+        return ((MonthDay) left).compareTo((MonthDay) right);
+      } else if (left instanceof OffsetDateTime && right instanceof OffsetDateTime) {
+        return ((OffsetDateTime) left).compareTo((OffsetDateTime) right);
+      } else if (left instanceof OffsetTime && right instanceof OffsetTime) {
+        return ((OffsetTime) left).compareTo((OffsetTime) right);
+      } else if (left instanceof Year && right instanceof Year) {
+        return ((Year) left).compareTo((Year) right);
+      } else if (left instanceof YearMonth && right instanceof YearMonth) {
+        return ((YearMonth) left).compareTo((YearMonth) right);
+      } else if (left instanceof ZoneOffset && right instanceof ZoneOffset) {
+        return ((ZoneOffset) left).compareTo((ZoneOffset) right);
+      }
+    } else if (left instanceof String && right instanceof String) {
+      return left.toString().compareTo(right.toString());
+    } else if (left instanceof Duration && right instanceof Duration) {
+      return ((Duration) left).compareTo((Duration) right);
+    } else if (areEqual(left.getClass(), right.getClass())) {
+      return ((Comparable) left).compareTo(right);
+    }
+    throw new NotSupportedException();
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  static int compareValue(Object left, Object right, Class<? extends Comparable> clazz) {
+    return toObject(left, clazz).compareTo(toObject(right, clazz));
+  }
+
   abstract class AbstractASTComparisonNode implements ASTComparisonNode {
 
     protected final List<ASTNode<?>> children = new ArrayList<>();
@@ -96,69 +170,13 @@ public interface ASTComparisonNode extends ASTPredicateNode {
       throw new NotSupportedException();
     }
 
-    @SuppressWarnings({"unchecked", "rawtypes"})
     protected int compare(Object left, Object right) {
-      if (left instanceof Number && right instanceof Number) {
-        Number numberLeft = (Number) left;
-        Number numberRight = (Number) right;
-        if (numberLeft instanceof BigDecimal || numberRight instanceof BigDecimal) {
-          return compare(numberLeft, numberRight, BigDecimal.class);
-        } else if (numberLeft instanceof Double || numberRight instanceof Double) {
-          return Double.compare(numberLeft.doubleValue(), numberRight.doubleValue());
-        } else if (numberLeft instanceof Float || numberRight instanceof Float) {
-          return Float.compare(numberLeft.floatValue(), numberRight.floatValue());
-        } else if (numberLeft instanceof BigInteger || numberRight instanceof BigInteger) {
-          return compare(numberLeft, numberRight, BigInteger.class);
-        } else if (numberLeft instanceof Long || numberRight instanceof Long) {
-          return Long.compare(numberLeft.longValue(), numberRight.longValue());
-        } else if (numberLeft instanceof Integer || numberRight instanceof Integer) {
-          return Integer.compare(numberLeft.intValue(), numberRight.intValue());
-        } else if (numberLeft instanceof Short || numberRight instanceof Short) {
-          return Short.compare(numberLeft.shortValue(), numberRight.shortValue());
-        } else if (numberLeft instanceof Byte || numberRight instanceof Byte) {
-          return Byte.compare(numberLeft.byteValue(), numberRight.byteValue());
-        } else {
-          return compare(left, right, Double.class);
-        }
-      } else if (left instanceof TemporalAccessor && right instanceof TemporalAccessor) {
-        if (left instanceof Date && right instanceof Date) {
-          return ((Date) left).compareTo((Date) right);
-        } else if (left instanceof Instant && right instanceof Instant) {
-          return ((Instant) left).compareTo((Instant) right);
-        } else if (left instanceof ZonedDateTime && right instanceof ZonedDateTime) {
-          return ((ZonedDateTime) left).compareTo((ZonedDateTime) right);
-        } else if (left instanceof LocalTime && right instanceof LocalTime) {
-          return ((LocalTime) left).compareTo((LocalTime) right);
-        } else if (left instanceof LocalDate && right instanceof LocalDate) {
-          return ((LocalDate) left).compareTo((LocalDate) right);
-        } else if (left instanceof LocalDateTime && right instanceof LocalDateTime) {
-          return ((LocalDateTime) left).compareTo((LocalDateTime) right);
-        } else if (left instanceof MonthDay && right instanceof MonthDay) {
-          return ((MonthDay) left).compareTo((MonthDay) right);
-        } else if (left instanceof OffsetDateTime && right instanceof OffsetDateTime) {
-          return ((OffsetDateTime) left).compareTo((OffsetDateTime) right);
-        } else if (left instanceof OffsetTime && right instanceof OffsetTime) {
-          return ((OffsetTime) left).compareTo((OffsetTime) right);
-        } else if (left instanceof Year && right instanceof Year) {
-          return ((Year) left).compareTo((Year) right);
-        } else if (left instanceof YearMonth && right instanceof YearMonth) {
-          return ((YearMonth) left).compareTo((YearMonth) right);
-        } else if (left instanceof ZoneOffset && right instanceof ZoneOffset) {
-          return ((ZoneOffset) left).compareTo((ZoneOffset) right);
-        }
-      } else if (left instanceof String && right instanceof String) {
-        return left.toString().compareTo(right.toString());
-      } else if (left instanceof Duration && right instanceof Duration) {
-        return ((Duration) left).compareTo((Duration) right);
-      } else if (areEqual(left.getClass(), right.getClass())) {
-        return ((Comparable) left).compareTo(right);
-      }
-      throw new NotSupportedException();
+      return compareValue(left, right);
     }
 
-    @SuppressWarnings({"unchecked", "rawtypes"})
+    @SuppressWarnings({"rawtypes"})
     protected int compare(Object left, Object right, Class<? extends Comparable> clazz) {
-      return toObject(left, clazz).compareTo(toObject(right, clazz));
+      return compareValue(left, right, clazz);
     }
 
     protected Object getLeftValue(EvaluationContext ctx) {
@@ -17,9 +17,11 @@ import static org.corant.shared.util.Maps.mapOf;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
+import org.corant.modules.json.expression.CompiledExpression.CompiledPredicate;
 import org.corant.modules.json.expression.EvaluationContext;
 import org.corant.modules.json.expression.FunctionResolver;
 import org.corant.modules.json.expression.Node;
+import org.corant.modules.json.expression.SimpleCompiler;
 import org.corant.modules.json.expression.SimpleParser;
 import org.corant.modules.json.expression.ast.ASTFunctionNode;
 import org.corant.modules.json.expression.ast.ASTVariableNode;
@@ -34,6 +36,48 @@ import junit.framework.TestCase;
  */
 public class PredicateTest extends TestCase {
 
+  @Test
+  public void testCompiled() {
+    Map<String, Object> r = mapOf("r.id", 123, "r.name", "bingo.chen", "r.a", 100, "r.b", "10",
+        "r.c", 12.5d, "r.d", null);
+    EvaluationContext ctx = new EvaluationContext() {
+      @Override
+      public Function<Object[], Object> resolveFunction(Node<?> node) {
+        throw new IllegalStateException();
+      }
+
+      @Override
+      public Object resolveVariableValue(Node<?> node) {
+        return r.get(((ASTVariableNode) node).getName());
+      }
+    };
+    String[] exps = {
+        "{\"$and\":[{\"$eq\":[{\"#add\":[\"@r.a\", {\"#convert\":[\"@r.b\",\"java.lang.Integer\"]},13]},123]},{\"$regex\":[\"@r.name\",\"bingo.*\"]}]}",
+        "{\"$or\":[{\"$gt\":{\"@r.a\":100}},{\"$lte\":[12.5,\"@r.c\"]}]}",
+        "{\"$nor\":[{\"$lt\":{\"@r.c\":12}},{\"$ne\":{\"@r.id\":123}}]}",
+        "{\"$btw\":[\"@r.c\", 12, 13]}", "{\"$btw\":[\"@r.a\", \"@r.id\", 200]}",
+        "{\"$not\":{\"$eq\":[\"@r.d\", \"x\"]}}", "{\"$eq\":[100, \"@r.a\"]}",
+        "{\"$xor\":[{\"$gte\":{\"@r.id\":123}},{\"$eq\":{\"@r.b\":\"10\"}}]}"};
+    for (String exp : exps) {
+      Node<?> node = SimpleParser.parse(exp);
+      CompiledPredicate predicate = SimpleCompiler.compilePredicate(node);
+      Boolean expected = (Boolean) node.getValue(new EvaluationContext() {
+        @Override
+        public Function<Object[], Object> resolveFunction(Node<?> node) {
+          ASTFunctionNode fn = (ASTFunctionNode) node;
+          return SimpleParser.resolveFunction().filter(p -> p.supports(fn.getName())).findFirst()
+              .get().resolve(fn.getName());
+        }
+
+        @Override
+        public Object resolveVariableValue(Node<?> node) {
+          return ctx.resolveVariableValue(node);
+        }
+      });
+      assertEquals(exp, expected.booleanValue(), predicate.test(ctx));
+    }
+  }
+
   @Test
   public void testMixed() {
     Map<String, Object> r = mapOf("r.id", 123, "r.name", "bingo.chen", "r.a", 100, "r.b", "10");
@@ -16,6 +16,7 @@ package org.corant.modules.jta.narayana.objectstore;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import org.corant.modules.jta.narayana.objectstore.driver.AbstractDomainJDBCDriver;
 import com.arjuna.ats.arjuna.common.ObjectStoreEnvironmentBean;
 import com.arjuna.ats.arjuna.common.Uid;
 import com.arjuna.ats.arjuna.exceptions.ObjectStoreException;
@@ -148,7 +149,11 @@ public class AbstractDomainObjectStore implements ObjectStoreAPI {
   public void start() {}
 
   @Override
-  public void stop() {}
+  public void stop() {
+    if (_theImple instanceof AbstractDomainJDBCDriver) {
+      ((AbstractDomainJDBCDriver) _theImple).shutdown();
+    }
+  }
 
   /**
    * Some object store implementations may be running with automatic sync disabled. Calling this
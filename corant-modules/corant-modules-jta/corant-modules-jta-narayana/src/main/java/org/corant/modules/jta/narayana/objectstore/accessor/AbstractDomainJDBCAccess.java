@@ -13,6 +13,8 @@
  */
 package org.corant.modules.jta.narayana.objectstore.accessor;
 
+import static org.corant.shared.util.Maps.getMapInteger;
+import static org.corant.shared.util.Maps.getMapLong;
 import static org.corant.shared.util.Strings.isNoneBlank;
 import static org.corant.shared.util.Strings.split;
 import java.util.HashMap;
@@ -23,11 +25,25 @@ import com.arjuna.ats.arjuna.objectstore.jdbc.JDBCAccess;
 /**
  * corant-modules-jta-narayana
  *
+ * <p>
+ * The group commit control configs can be appended to the control configs of the jdbc access,
+ * such as 'group-commit-max-size=64;group-commit-max-wait-micros=500':
+ * <ul>
+ * <li>group-commit-max-size: the maximum number of the state writes and removes that are committed
+ * together, the value less than 2 means disable the group commit, default 0</li>
+ * <li>group-commit-max-wait-micros: the maximum microseconds that the first write or remove of a
+ * group waits for the others, 0 means that only the requests that arrived while the previous group
+ * was committing are grouped, default 0</li>
+ * </ul>
+ *
  * @author bingo 15:30:49
  *
  */
 public abstract class AbstractDomainJDBCAccess implements JDBCAccess {
 
+  protected volatile int groupCommitMaxSize = 0;
+  protected volatile long groupCommitMaxWaitMicros = 0;
+
   public static Map<String, String> resolveConfig(String str) {
     Map<String, String> configuration = new HashMap<>();
     for (String s : split(str, ";", true, true)) {
@@ -47,4 +63,17 @@ public abstract class AbstractDomainJDBCAccess implements JDBCAccess {
 
   public abstract AbstractDomainJDBCDriver getDriver();
 
+  public int getGroupCommitMaxSize() {
+    return groupCommitMaxSize;
+  }
+
+  public long getGroupCommitMaxWaitMicros() {
+    return groupCommitMaxWaitMicros;
+  }
+
+  protected void resolveGroupCommitConfig(Map<String, String> controlConfigs) {
+    groupCommitMaxSize = getMapInteger(controlConfigs, "group-commit-max-size", 0);
+    groupCommitMaxWaitMicros = getMapLong(controlConfigs, "group-commit-max-wait-micros", 0L);
+  }
+
 }
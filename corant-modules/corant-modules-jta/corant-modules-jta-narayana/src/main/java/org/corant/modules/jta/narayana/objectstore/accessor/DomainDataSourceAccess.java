@@ -101,6 +101,7 @@ public class DomainDataSourceAccess extends AbstractDomainJDBCAccess {
     domain = shouldNotBlank(controlConfigs.remove("domain"));
     dataSourceName = NamedLiteral.of(controlConfigs.remove("non-xa-datasource"));
     database = shouldNotBlank(controlConfigs.remove("database"));
+    resolveGroupCommitConfig(controlConfigs);
   }
 
 }
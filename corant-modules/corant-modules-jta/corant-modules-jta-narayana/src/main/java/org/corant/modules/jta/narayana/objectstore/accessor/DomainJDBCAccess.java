@@ -148,6 +148,7 @@ public class DomainJDBCAccess extends AbstractDomainJDBCAccess {
     domain = shouldNotBlank(controlConfigs.remove("domain-name"));
     maxHoldedSize = getMapInteger(controlConfigs, "max-connection-size", -1);
     validateConnectionTimeout = getMapInteger(controlConfigs, "validate-connection-timeout", 8);
+    resolveGroupCommitConfig(controlConfigs);
     if (maxHoldedSize > 0) {
       cachedConnections = new LinkedBlockingQueue<>(maxHoldedSize);
       holdedConnections = new LinkedBlockingQueue<>(maxHoldedSize);
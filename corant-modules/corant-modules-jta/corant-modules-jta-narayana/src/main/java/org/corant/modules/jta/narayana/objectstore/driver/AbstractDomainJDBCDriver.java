@@ -38,6 +38,12 @@ import com.arjuna.ats.internal.arjuna.common.UidHelper;
 /**
  * corant-modules-jta-narayana
  *
+ * <p>
+ * If the group commit is enabled (see {@link AbstractDomainJDBCAccess#getGroupCommitMaxSize()}),
+ * the {@link #write_state(Uid, String, OutputObjectState, int)} and
+ * {@link #remove_state(Uid, String, int)} of the concurrent transactions are coalesced by the
+ * {@link GroupCommitWriter} into batched statements with one JDBC commit.
+ *
  * @author bingo 上午11:00:15
  *
  */
@@ -49,6 +55,7 @@ public abstract class AbstractDomainJDBCDriver
   protected volatile boolean ready = false;
   protected volatile boolean createTable;
   protected volatile boolean dropTable;
+  protected volatile GroupCommitWriter groupCommitWriter;
 
   /**
    * allObjUids - Given a type name, return an ObjectState that contains all of the uids of objects
@@ -299,12 +306,18 @@ public abstract class AbstractDomainJDBCDriver
   public void initialise(final JDBCAccess jdbcAccess, String tableName,
       ObjectStoreEnvironmentBean jdbcStoreEnvironmentBean) throws SQLException, NamingException {
     shouldBeTrue(jdbcAccess instanceof AbstractDomainJDBCAccess);
+    AbstractDomainJDBCAccess domainJdbcAccess = (AbstractDomainJDBCAccess) jdbcAccess;
     this.jdbcAccess = jdbcAccess;
     this.tableName = tableName;
-    domain = shouldNotBlank(((AbstractDomainJDBCAccess) jdbcAccess).getDomain());
+    domain = shouldNotBlank(domainJdbcAccess.getDomain());
     dropTable = jdbcStoreEnvironmentBean.getDropTable();
     createTable = jdbcStoreEnvironmentBean.getCreateTable();
     prepare();
+    shutdown();
+    if (domainJdbcAccess.getGroupCommitMaxSize() > 1) {
+      groupCommitWriter = new GroupCommitWriter(this, jdbcAccess, tableName, domain,
+          domainJdbcAccess.getGroupCommitMaxSize(), domainJdbcAccess.getGroupCommitMaxWaitMicros());
+    }
   }
 
   @Override
@@ -362,25 +375,11 @@ public abstract class AbstractDomainJDBCDriver
         typeName = typeName.substring(1);
       }
       if (stateType == StateStatus.OS_COMMITTED || stateType == StateStatus.OS_UNCOMMITTED) {
-        Connection connection = null;
-        PreparedStatement pstmt = null;
-        try {
-          connection = jdbcAccess.getConnection();
-          pstmt = connection.prepareStatement("DELETE FROM " + tableName
-              + " WHERE TypeName = ? AND UidString = ? AND StateType = ? AND Domain = ?");
-          pstmt.setString(1, typeName);
-          pstmt.setString(2, objUid.stringForm());
-          pstmt.setInt(3, stateType);
-          pstmt.setString(4, domain);
-          if (pstmt.executeUpdate() > 0) {
-            result = true;
-          }
-          connection.commit();
-        } catch (Exception e) {
-          result = false;
-          tsLogger.i18NLogger.warn_objectstore_JDBCImple_8(e);
-        } finally {
-          release(pstmt, connection);
+        final GroupCommitWriter writer = groupCommitWriter;
+        if (writer != null) {
+          result = writer.remove(typeName, objUid.stringForm(), stateType);
+        } else {
+          result = removeState(typeName, objUid.stringForm(), stateType);
         }
       } else {
         // can only remove (UN)COMMITTED objs
@@ -436,65 +435,11 @@ public abstract class AbstractDomainJDBCDriver
       tsLogger.i18NLogger.warn_objectstore_JDBCImple_over_max_image_size(imageSize,
           getMaxStateSize());
     } else if (imageSize > 0) {
-      byte[] b = state.buffer();
-      ResultSet rs = null;
-      Connection connection = null;
-      PreparedStatement pstmt = null;
-      try {
-        connection = jdbcAccess.getConnection();
-        pstmt = connection.prepareStatement(
-            "SELECT ObjectState, UidString, StateType, TypeName FROM " + tableName
-                + " WHERE TypeName = ? AND UidString = ? AND StateType = ? AND Domain = ?",
-            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_UPDATABLE);
-        pstmt.setString(1, typeName);
-        pstmt.setString(2, objUid.stringForm());
-        pstmt.setInt(3, stateType);
-        pstmt.setString(4, domain);
-        rs = pstmt.executeQuery();
-        if (rs.next()) {
-          PreparedStatement pstmt2 =
-              connection.prepareStatement("UPDATE " + tableName + " SET ObjectState = ?"
-                  + " WHERE TypeName=? AND UidString=? AND StateType=? AND Domain = ?");
-          try {
-            pstmt2.setBytes(1, b);
-            pstmt2.setString(2, typeName);
-            pstmt2.setString(3, objUid.stringForm());
-            pstmt2.setInt(4, stateType);
-            pstmt2.setString(5, domain);
-            int executeUpdate = pstmt2.executeUpdate();
-            if (executeUpdate != 0) {
-              result = true;
-            } else {
-              tsLogger.i18NLogger.warn_objectstore_JDBCImple_nothingtoupdate(objUid.toString());
-            }
-          } finally {
-            pstmt2.close();
-          }
-        } else {
-          // not in database, do insert:
-          PreparedStatement pstmt2 = connection.prepareStatement("INSERT INTO " + tableName
-              + " (TypeName,UidString,StateType,Hidden,ObjectState,Domain) VALUES (?,?,?,0,?,?)");
-          try {
-            pstmt2.setString(1, typeName);
-            pstmt2.setString(2, objUid.stringForm());
-            pstmt2.setInt(3, stateType);
-            pstmt2.setBytes(4, b);
-            pstmt2.setString(5, domain);
-            int executeUpdate = pstmt2.executeUpdate();
-            if (executeUpdate != 0) {
-              result = true;
-            } else {
-              tsLogger.i18NLogger.warn_objectstore_JDBCImple_nothingtoinsert(objUid.toString());
-            }
-          } finally {
-            pstmt2.close();
-          }
-        }
-        connection.commit();
-      } catch (Exception e) {
-        tsLogger.i18NLogger.warn_objectstore_JDBCImple_writefailed(e);
-      } finally {
-        release(rs, pstmt, connection);
+      final GroupCommitWriter writer = groupCommitWriter;
+      if (writer != null) {
+        result = writer.write(typeName, objUid.stringForm(), stateType, state.buffer());
+      } else {
+        result = writeState(typeName, objUid.stringForm(), stateType, state.buffer());
       }
     }
     return result;
@@ -544,6 +489,49 @@ public abstract class AbstractDomainJDBCDriver
     }
   }
 
+  /**
+   * Remove the state directly with a dedicated JDBC transaction.
+   *
+   * @param typeName the type name
+   * @param uid the string form of the object uid
+   * @param stateType the state type, must be OS_COMMITTED or OS_UNCOMMITTED
+   * @return true if the state was removed
+   */
+  protected boolean removeState(String typeName, String uid, int stateType) {
+    boolean result = false;
+    Connection connection = null;
+    PreparedStatement pstmt = null;
+    try {
+      connection = jdbcAccess.getConnection();
+      pstmt = connection.prepareStatement("DELETE FROM " + tableName
+          + " WHERE TypeName = ? AND UidString = ? AND StateType = ? AND Domain = ?");
+      pstmt.setString(1, typeName);
+      pstmt.setString(2, uid);
+      pstmt.setInt(3, stateType);
+      pstmt.setString(4, domain);
+      if (pstmt.executeUpdate() > 0) {
+        result = true;
+      }
+      connection.commit();
+    } catch (Exception e) {
+      result = false;
+      tsLogger.i18NLogger.warn_objectstore_JDBCImple_8(e);
+    } finally {
+      release(pstmt, connection);
+    }
+    return result;
+  }
+
+  /**
+   * Release the resources held by this driver, closes the group commit writer if it is enabled.
+   */
+  public synchronized void shutdown() {
+    if (groupCommitWriter != null) {
+      groupCommitWriter.close();
+      groupCommitWriter = null;
+    }
+  }
+
   protected void release(AutoCloseable... closeables) {
     for (AutoCloseable closeable : closeables) {
       if (closeable != null) {
@@ -555,4 +543,78 @@ public abstract class AbstractDomainJDBCDriver
       }
     }
   }
+
+  /**
+   * Write the state directly with a dedicated JDBC transaction, update the existing state or insert
+   * a new one.
+   *
+   * @param typeName the type name
+   * @param uid the string form of the object uid
+   * @param stateType the state type
+   * @param state the state bytes
+   * @return true if the state was written
+   */
+  protected boolean writeState(String typeName, String uid, int stateType, byte[] state) {
+    boolean result = false;
+    ResultSet rs = null;
+    Connection connection = null;
+    PreparedStatement pstmt = null;
+    try {
+      connection = jdbcAccess.getConnection();
+      pstmt = connection.prepareStatement(
+          "SELECT ObjectState, UidString, StateType, TypeName FROM " + tableName
+              + " WHERE TypeName = ? AND UidString = ? AND StateType = ? AND Domain = ?",
+          ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_UPDATABLE);
+      pstmt.setString(1, typeName);
+      pstmt.setString(2, uid);
+      pstmt.setInt(3, stateType);
+      pstmt.setString(4, domain);
+      rs = pstmt.executeQuery();
+      if (rs.next()) {
+        PreparedStatement pstmt2 =
+            connection.prepareStatement("UPDATE " + tableName + " SET ObjectState = ?"
+                + " WHERE TypeName=? AND UidString=? AND StateType=? AND Domain = ?");
+        try {
+          pstmt2.setBytes(1, state);
+          pstmt2.setString(2, typeName);
+          pstmt2.setString(3, uid);
+          pstmt2.setInt(4, stateType);
+          pstmt2.setString(5, domain);
+          int executeUpdate = pstmt2.executeUpdate();
+          if (executeUpdate != 0) {
+            result = true;
+          } else {
+            tsLogger.i18NLogger.warn_objectstore_JDBCImple_nothingtoupdate(uid);
+          }
+        } finally {
+          pstmt2.close();
+        }
+      } else {
+        // not in database, do insert:
+        PreparedStatement pstmt2 = connection.prepareStatement("INSERT INTO " + tableName
+            + " (TypeName,UidString,StateType,Hidden,ObjectState,Domain) VALUES (?,?,?,0,?,?)");
+        try {
+          pstmt2.setString(1, typeName);
+          pstmt2.setString(2, uid);
+          pstmt2.setInt(3, stateType);
+          pstmt2.setBytes(4, state);
+          pstmt2.setString(5, domain);
+          int executeUpdate = pstmt2.executeUpdate();
+          if (executeUpdate != 0) {
+            result = true;
+          } else {
+            tsLogger.i18NLogger.warn_objectstore_JDBCImple_nothingtoinsert(uid);
+          }
+        } finally {
+          pstmt2.close();
+        }
+      }
+      connection.commit();
+    } catch (Exception e) {
+      tsLogger.i18NLogger.warn_objectstore_JDBCImple_writefailed(e);
+    } finally {
+      release(rs, pstmt, connection);
+    }
+    return result;
+  }
 }
@@ -0,0 +1,472 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.jta.narayana.objectstore.driver;
+
+import static org.corant.shared.util.MBeans.deregisterFromMBean;
+import static org.corant.shared.util.MBeans.registerToMBean;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.ObjectName;
+import org.corant.shared.util.Threads;
+import com.arjuna.ats.arjuna.objectstore.jdbc.JDBCAccess;
+
+/**
+ * corant-modules-jta-narayana
+ *
+ * <p>
+ * Coalesces the concurrent state writes and removes of the transaction log into batched
+ * statements and one JDBC commit. The requests are queued and executed by a dedicated writer
+ * thread, a group is formed by the requests that are queued while the previous group is being
+ * committed, and if the max wait is greater than 0, by the requests that arrive within the max
+ * wait since the first request of the group was queued, the group size doesn't exceed the max
+ * size.
+ *
+ * <p>
+ * The durability contract is unchanged, the caller is blocked until the group that contains its
+ * request has been committed. The requests of the same state in a group are executed in the
+ * queued order. If the group fails, it is rolled back and each request of the group is executed
+ * again by its caller with a dedicated JDBC transaction, so that a bad request doesn't fail the
+ * others.
+ *
+ * <p>
+ * The group size and latency metrics are exposed through JMX with the object name
+ * 'org.corant:type=jta,name=GroupCommitWriter,domain=the-domain-name'. The writer must be closed
+ * when the driver is shut down or initialised again, see {@link #close()}.
+ *
+ * @author bingo 下午3:20:18
+ *
+ */
+public class GroupCommitWriter implements GroupCommitWriterMBean {
+
+  static final Logger logger = Logger.getLogger(GroupCommitWriter.class.getName());
+
+  protected final AbstractDomainJDBCDriver driver;
+  protected final JDBCAccess jdbcAccess;
+  protected final String domain;
+  protected final int maxGroupSize;
+  protected final long maxWaitNanos;
+  protected final String updateSql;
+  protected final String insertSql;
+  protected final String deleteSql;
+  protected final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+  protected final Thread writer;
+  protected final String mbeanName;
+  protected volatile boolean closed = false;
+
+  protected final LongAdder requests = new LongAdder();
+  protected final LongAdder groups = new LongAdder();
+  protected final LongAdder fallbacks = new LongAdder();
+  protected final LongAdder latencyNanos = new LongAdder();
+  protected final LongAdder commitNanos = new LongAdder();
+  protected final AtomicInteger largestGroupSize = new AtomicInteger();
+
+  public GroupCommitWriter(AbstractDomainJDBCDriver driver, JDBCAccess jdbcAccess,
+      String tableName, String domain, int maxGroupSize, long maxWaitMicros) {
+    this.driver = driver;
+    this.jdbcAccess = jdbcAccess;
+    this.domain = domain;
+    this.maxGroupSize = Math.max(maxGroupSize, 1);
+    maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(maxWaitMicros, 0));
+    updateSql = "UPDATE " + tableName + " SET ObjectState = ?"
+        + " WHERE TypeName = ? AND UidString = ? AND StateType = ? AND Domain = ?";
+    insertSql = "INSERT INTO " + tableName
+        + " (TypeName,UidString,StateType,Hidden,ObjectState,Domain) VALUES (?,?,?,0,?,?)";
+    deleteSql = "DELETE FROM " + tableName
+        + " WHERE TypeName = ? AND UidString = ? AND StateType = ? AND Domain = ?";
+    writer = Threads.daemonThreadFactory("corant-narayana-group-commit-" + domain)
+        .newThread(this::run);
+    writer.start();
+    mbeanName = "org.corant:type=jta,name=GroupCommitWriter,domain=" + ObjectName.quote(domain);
+    try {
+      registerToMBean(mbeanName, this);
+    } catch (Exception e) {
+      logger.log(Level.WARNING, e, () -> "Can't register the group commit writer MBean.");
+    }
+    logger.info(() -> String.format(
+        "Enable transaction object store group commit, domain: %s, max size: %s, max wait: %s us.",
+        domain, this.maxGroupSize, maxWaitMicros));
+  }
+
+  /**
+   * Stop the writer thread and unregister the MBean, the requests that haven't been committed are
+   * completed with null so that their callers execute them individually.
+   */
+  public void close() {
+    closed = true;
+    writer.interrupt();
+    try {
+      writer.join(TimeUnit.SECONDS.toMillis(5));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    Request request;
+    while ((request = queue.poll()) != null) {
+      request.complete(null);
+    }
+    try {
+      deregisterFromMBean(mbeanName);
+    } catch (Exception e) {
+      logger.log(Level.WARNING, e, () -> "Can't unregister the group commit writer MBean.");
+    }
+    logger.info(() -> String.format("Close transaction object store group commit, domain: %s.",
+        domain));
+  }
+
+  @Override
+  public double getAverageCommitMicros() {
+    long count = groups.sum();
+    return count == 0 ? 0 : commitNanos.sum() / 1000d / count;
+  }
+
+  @Override
+  public double getAverageGroupSize() {
+    long count = groups.sum();
+    return count == 0 ? 0 : (requests.sum() - fallbacks.sum()) / (double) count;
+  }
+
+  @Override
+  public double getAverageLatencyMicros() {
+    long count = requests.sum();
+    return count == 0 ? 0 : latencyNanos.sum() / 1000d / count;
+  }
+
+  @Override
+  public long getFallbackCount() {
+    return fallbacks.sum();
+  }
+
+  @Override
+  public long getGroupCount() {
+    return groups.sum();
+  }
+
+  @Override
+  public int getLargestGroupSize() {
+    return largestGroupSize.get();
+  }
+
+  @Override
+  public int getQueueSize() {
+    return queue.size();
+  }
+
+  @Override
+  public long getRequestCount() {
+    return requests.sum();
+  }
+
+  /**
+   * Remove the state, blocks until the group that contains the removal has been committed.
+   *
+   * @param typeName the type name
+   * @param uid the string form of the object uid
+   * @param stateType the state type
+   * @return true if the state was removed
+   */
+  public boolean remove(String typeName, String uid, int stateType) {
+    Boolean result = submit(new Request(typeName, uid, stateType, null));
+    if (result == null) {
+      return driver.removeState(typeName, uid, stateType);
+    }
+    return result;
+  }
+
+  /**
+   * Write the state, blocks until the group that contains the write has been committed.
+   *
+   * @param typeName the type name
+   * @param uid the string form of the object uid
+   * @param stateType the state type
+   * @param state the state bytes
+   * @return true if the state was written
+   */
+  public boolean write(String typeName, String uid, int stateType, byte[] state) {
+    Boolean result = submit(new Request(typeName, uid, stateType, state));
+    if (result == null) {
+      return driver.writeState(typeName, uid, stateType, state);
+    }
+    return result;
+  }
+
+  protected void execute(List<Request> group) {
+    final long begin = System.nanoTime();
+    boolean committed = false;
+    Connection connection = null;
+    try {
+      connection = jdbcAccess.getConnection();
+      try {
+        Set<Key> keys = new HashSet<>();
+        int from = 0;
+        for (int i = 0; i < group.size(); i++) {
+          if (!keys.add(group.get(i).key)) {
+            // the same state appears again, flush the previous segment to keep the order
+            executeSegment(connection, group.subList(from, i));
+            keys.clear();
+            keys.add(group.get(i).key);
+            from = i;
+          }
+        }
+        executeSegment(connection, group.subList(from, group.size()));
+        connection.commit();
+        committed = true;
+      } catch (Exception e) {
+        try {
+          connection.rollback();
+        } catch (SQLException re) {
+          e.addSuppressed(re);
+        }
+        throw e;
+      }
+    } catch (Exception e) {
+      logger.log(Level.WARNING, e, () -> String.format(
+          "Group commit of %s requests failed, they will be executed individually.",
+          group.size()));
+    } finally {
+      driver.release(connection);
+    }
+    final long end = System.nanoTime();
+    if (committed) {
+      groups.increment();
+      commitNanos.add(end - begin);
+      largestGroupSize.accumulateAndGet(group.size(), Math::max);
+    } else {
+      fallbacks.add(group.size());
+    }
+    for (Request request : group) {
+      latencyNanos.add(end - request.queuedNanos);
+      request.complete(committed ? request.result : null);
+    }
+  }
+
+  protected void executeSegment(Connection connection, List<Request> segment)
+      throws SQLException {
+    List<Request> writes = new ArrayList<>(segment.size());
+    List<Request> removes = new ArrayList<>(segment.size());
+    for (Request request : segment) {
+      (request.state != null ? writes : removes).add(request);
+    }
+    if (!writes.isEmpty()) {
+      List<Request> inserts = new ArrayList<>(writes.size());
+      try (PreparedStatement pstmt = connection.prepareStatement(updateSql)) {
+        for (Request request : writes) {
+          pstmt.setBytes(1, request.state);
+          pstmt.setString(2, request.key.typeName);
+          pstmt.setString(3, request.key.uid);
+          pstmt.setInt(4, request.key.stateType);
+          pstmt.setString(5, domain);
+          pstmt.addBatch();
+        }
+        int[] counts = pstmt.executeBatch();
+        for (int i = 0; i < counts.length; i++) {
+          Request request = writes.get(i);
+          if (counts[i] == Statement.SUCCESS_NO_INFO) {
+            // the driver doesn't report the update count, update it again to find out
+            pstmt.setBytes(1, request.state);
+            pstmt.setString(2, request.key.typeName);
+            pstmt.setString(3, request.key.uid);
+            pstmt.setInt(4, request.key.stateType);
+            pstmt.setString(5, domain);
+            counts[i] = pstmt.executeUpdate();
+          }
+          if (counts[i] > 0) {
+            request.result = true;
+          } else {
+            inserts.add(request);
+          }
+        }
+      }
+      if (!inserts.isEmpty()) {
+        try (PreparedStatement pstmt = connection.prepareStatement(insertSql)) {
+          for (Request request : inserts) {
+            pstmt.setString(1, request.key.typeName);
+            pstmt.setString(2, request.key.uid);
+            pstmt.setInt(3, request.key.stateType);
+            pstmt.setBytes(4, request.state);
+            pstmt.setString(5, domain);
+            pstmt.addBatch();
+          }
+          int[] counts = pstmt.executeBatch();
+          for (int i = 0; i < counts.length; i++) {
+            inserts.get(i).result = counts[i] != 0;
+          }
+        }
+      }
+    }
+    if (!removes.isEmpty()) {
+      try (PreparedStatement pstmt = connection.prepareStatement(deleteSql)) {
+        for (Request request : removes) {
+          pstmt.setString(1, request.key.typeName);
+          pstmt.setString(2, request.key.uid);
+          pstmt.setInt(3, request.key.stateType);
+          pstmt.setString(4, domain);
+          pstmt.addBatch();
+        }
+        int[] counts = pstmt.executeBatch();
+        for (int i = 0; i < counts.length; i++) {
+          removes.get(i).result = counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO;
+        }
+      }
+    }
+  }
+
+  protected void run() {
+    final List<Request> group = new ArrayList<>(maxGroupSize);
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        Request first = queue.take();
+        group.add(first);
+        queue.drainTo(group, maxGroupSize - 1);
+        if (maxWaitNanos > 0) {
+          final long deadline = first.queuedNanos + maxWaitNanos;
+          long remaining;
+          while (group.size() < maxGroupSize
+              && (remaining = deadline - System.nanoTime()) > 0) {
+            Request next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+              break;
+            }
+            group.add(next);
+            queue.drainTo(group, maxGroupSize - group.size());
+          }
+        }
+        execute(group);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        group.forEach(r -> r.complete(null));
+      } catch (Throwable t) {
+        logger.log(Level.SEVERE, t, () -> "Group commit writer occurred error!");
+        group.forEach(r -> r.complete(null));
+      } finally {
+        group.clear();
+      }
+    }
+    closed = true;
+    Request request;
+    while ((request = queue.poll()) != null) {
+      request.complete(null);
+    }
+  }
+
+  /**
+   * Queue the request and wait until it is completed, returns null if the request should be
+   * executed individually.
+   */
+  protected Boolean submit(Request request) {
+    if (closed) {
+      return null;
+    }
+    queue.add(request);
+    // the writer may be closed after the above check and have drained the queue already
+    if (closed && queue.remove(request)) {
+      return null;
+    }
+    requests.increment();
+    boolean interrupted = false;
+    try {
+      // must wait for the group commit, otherwise the caller can't know whether it is durable
+      while (true) {
+        try {
+          request.latch.await();
+          return request.completed;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * corant-modules-jta-narayana
+   *
+   * @author bingo 下午3:20:18
+   *
+   */
+  static class Key {
+    final String typeName;
+    final String uid;
+    final int stateType;
+    final int hash;
+
+    Key(String typeName, String uid, int stateType) {
+      this.typeName = typeName;
+      this.uid = uid;
+      this.stateType = stateType;
+      hash = Objects.hash(typeName, uid, stateType);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return stateType == other.stateType && uid.equals(other.uid)
+          && typeName.equals(other.typeName);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * corant-modules-jta-narayana
+   *
+   * @author bingo 下午3:20:18
+   *
+   */
+  static class Request {
+    final Key key;
+    final byte[] state;
+    final long queuedNanos = System.nanoTime();
+    final CountDownLatch latch = new CountDownLatch(1);
+    boolean result;
+    volatile Boolean completed;
+
+    Request(String typeName, String uid, int stateType, byte[] state) {
+      key = new Key(typeName, uid, stateType);
+      this.state = state;
+    }
+
+    void complete(Boolean completed) {
+      if (latch.getCount() > 0) {
+        this.completed = completed;
+        latch.countDown();
+      }
+    }
+  }
+}
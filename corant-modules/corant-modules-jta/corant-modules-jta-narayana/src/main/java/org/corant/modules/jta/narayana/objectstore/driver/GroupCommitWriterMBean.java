@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.jta.narayana.objectstore.driver;
+
+/**
+ * corant-modules-jta-narayana
+ *
+ * <p>
+ * The management interface of {@link GroupCommitWriter}.
+ *
+ * @author bingo 下午3:20:18
+ *
+ */
+public interface GroupCommitWriterMBean {
+
+  /**
+   * Returns the average microseconds that a group takes to execute and commit.
+   */
+  double getAverageCommitMicros();
+
+  /**
+   * Returns the average number of the requests of the committed groups.
+   */
+  double getAverageGroupSize();
+
+  /**
+   * Returns the average microseconds from a request is queued to it is completed, include the
+   * queued time and the commit time.
+   */
+  double getAverageLatencyMicros();
+
+  /**
+   * Returns the number of the requests that were executed individually since their groups failed.
+   */
+  long getFallbackCount();
+
+  long getGroupCount();
+
+  int getLargestGroupSize();
+
+  int getQueueSize();
+
+  long getRequestCount();
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.jta.narayana.objectstore.driver;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.StringTokenizer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.corant.modules.jta.narayana.objectstore.accessor.DomainJDBCAccess;
+import com.arjuna.ats.arjuna.common.ObjectStoreEnvironmentBean;
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.objectstore.StateStatus;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
+
+/**
+ * corant-modules-jta-narayana
+ *
+ * <p>
+ * The transaction log throughput benchmark of the domain JDBC object store driver with and without
+ * the group commit, it isn't a unit test and isn't run by the build, run the main method manually.
+ * Each transaction writes a committed state and removes it, which are the object store operations
+ * of a two-phase XA commit, the transactions are driven from 1 to 64 threads and each run lasts 5
+ * seconds.
+ *
+ * <p>
+ * The arguments are the JDBC URL, the user and the password, default use an in-memory H2 database,
+ * for example 'jdbc:postgresql://localhost:5432/test user password' use PostgreSQL.
+ *
+ * @author bingo 下午3:20:18
+ *
+ */
+public class GroupCommitWriterBenchmark {
+
+  static final long DURATION_MS = 5000;
+  static final int STATE_SIZE = 512;
+
+  public static void main(String... args) throws Exception {
+    String url = args.length > 0 ? args[0] : "jdbc:h2:mem:group-commit;DB_CLOSE_DELAY=-1";
+    String user = args.length > 1 ? args[1] : "sa";
+    String password = args.length > 2 ? args[2] : "sa";
+    // max group size, max wait micros
+    int[][] groupCommits = {{1, 0}, {64, 0}, {64, 200}};
+    for (int threads : new int[] {1, 4, 16, 64}) {
+      for (int[] groupCommit : groupCommits) {
+        AbstractDomainJDBCDriver driver =
+            initialise(url, user, password, threads, groupCommit[0], groupCommit[1]);
+        try {
+          double rate = measure(driver, threads);
+          GroupCommitWriterMBean mbean = driver.groupCommitWriter;
+          System.out.println(String.format(
+              "%s threads\tgroup size %s\tmax wait %s us\t%.0f tx/s\tavg group size %.2f"
+                  + "\tavg latency %.0f us\tavg commit %.0f us",
+              threads, groupCommit[0], groupCommit[1], rate,
+              mbean == null ? 1d : mbean.getAverageGroupSize(),
+              mbean == null ? 0d : mbean.getAverageLatencyMicros(),
+              mbean == null ? 0d : mbean.getAverageCommitMicros()));
+        } finally {
+          driver.shutdown();
+          ((DomainJDBCAccess) driver.jdbcAccess).finalize();
+        }
+      }
+    }
+  }
+
+  static AbstractDomainJDBCDriver initialise(String url, String user, String password, int threads,
+      int maxGroupSize, int maxWaitMicros) throws Exception {
+    final boolean h2 = url.startsWith("jdbc:h2:");
+    DomainJDBCAccess jdbcAccess = new DomainJDBCAccess() {
+      @Override
+      public AbstractDomainJDBCDriver getDriver() {
+        return h2 ? new H2Driver() : new PostgreDriver();
+      }
+    };
+    String controlConfigs = "domain-name=benchmark;max-connection-size=" + (threads + 1)
+        + ";group-commit-max-size=" + maxGroupSize + ";group-commit-max-wait-micros="
+        + maxWaitMicros;
+    String dataSourceConfigs = "ClassName="
+        + (h2 ? "org.h2.jdbcx.JdbcDataSource" : "org.postgresql.ds.PGSimpleDataSource") + ";URL="
+        + url.replace(";", "\\semi") + ";User=" + user + ";Password=" + password;
+    jdbcAccess.initialise(new StringTokenizer(controlConfigs + "|" + dataSourceConfigs, "|"));
+    ObjectStoreEnvironmentBean environmentBean = new ObjectStoreEnvironmentBean();
+    environmentBean.setCreateTable(true);
+    environmentBean.setDropTable(true);
+    AbstractDomainJDBCDriver driver = jdbcAccess.getDriver();
+    driver.initialise(jdbcAccess, "JBossTSTxTable", environmentBean);
+    return driver;
+  }
+
+  static double measure(AbstractDomainJDBCDriver driver, int threads) throws Exception {
+    final long[] transactions = new long[threads];
+    final AtomicReference<Exception> error = new AtomicReference<>();
+    final CountDownLatch latch = new CountDownLatch(threads);
+    final ExecutorService es = Executors.newFixedThreadPool(threads);
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MS);
+    for (int t = 0; t < threads; t++) {
+      final int idx = t;
+      es.submit(() -> {
+        try {
+          long count = 0;
+          OutputObjectState state = new OutputObjectState();
+          state.packBytes(new byte[STATE_SIZE]);
+          while (System.nanoTime() < deadline) {
+            Uid uid = new Uid();
+            if (!driver.write_state(uid, "/StateManager/BasicAction/TwoPhaseCoordinator", state,
+                StateStatus.OS_COMMITTED)
+                || !driver.remove_state(uid, "/StateManager/BasicAction/TwoPhaseCoordinator",
+                    StateStatus.OS_COMMITTED)) {
+              throw new IllegalStateException("Can't write or remove the state " + uid);
+            }
+            count++;
+          }
+          transactions[idx] = count;
+        } catch (Exception e) {
+          error.compareAndSet(null, e);
+        } finally {
+          latch.countDown();
+        }
+      });
+    }
+    latch.await();
+    es.shutdown();
+    if (error.get() != null) {
+      throw error.get();
+    }
+    long total = 0;
+    for (long c : transactions) {
+      total += c;
+    }
+    return total / (DURATION_MS / 1000.0);
+  }
+
+  /**
+   * corant-modules-jta-narayana
+   *
+   * @author bingo 下午3:20:18
+   *
+   */
+  static class H2Driver extends AbstractDomainJDBCDriver {
+
+    @Override
+    public int getMaxStateSize() {
+      return 1024 * 1024 * 10;
+    }
+
+    @Override
+    protected void checkCreateTableError(SQLException ex) throws SQLException {
+      if (!ex.getSQLState().equals("42S01")) {
+        throw ex;
+      }
+    }
+
+    @Override
+    protected void checkDropTableException(Connection connection, SQLException ex)
+        throws SQLException {
+      if (!ex.getSQLState().equals("42S02")) {
+        throw ex;
+      }
+    }
+
+    @Override
+    protected String getObjectStateSQLType() {
+      return "BLOB";
+    }
+  }
+
+  /**
+   * corant-modules-jta-narayana
+   *
+   * <p>
+   * PostgreSQL has no BLOB type, the state column is created as bytea.
+   *
+   * @author bingo 下午3:20:18
+   *
+   */
+  static class PostgreDriver extends DomainPostgreDriver {
+
+    @Override
+    protected String getObjectStateSQLType() {
+      return "BYTEA";
+    }
+  }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.jta.narayana.objectstore.driver;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.corant.modules.jta.narayana.objectstore.driver.GroupCommitWriter.Request;
+import org.junit.Test;
+import com.arjuna.ats.arjuna.objectstore.jdbc.JDBCAccess;
+import junit.framework.TestCase;
+
+/**
+ * corant-modules-jta-narayana
+ *
+ * <p>
+ * Tests the per-request results and the same state ordering of the group commit writer against an
+ * in-memory JDBC stub, the stub applies the statements of a connection on commit and discards them
+ * on rollback.
+ *
+ * @author bingo 下午3:20:18
+ *
+ */
+public class GroupCommitWriterTest extends TestCase {
+
+  @Test
+  public void testClose() {
+    StubDatabase database = new StubDatabase();
+    StubDriver driver = new StubDriver();
+    GroupCommitWriter writer = new GroupCommitWriter(driver, database, "T", "close", 8, 0);
+    assertTrue(writer.write("t", "u", 1, new byte[] {1}));
+    writer.close();
+    assertFalse(writer.writer.isAlive());
+    assertTrue(writer.write("t", "u", 1, new byte[] {2}));
+    assertTrue(writer.remove("t", "u", 1));
+    assertEquals(2, driver.individuals.get());
+    assertEquals(1, database.commits);
+  }
+
+  @Test
+  public void testConcurrentRequests() throws Exception {
+    StubDatabase database = new StubDatabase();
+    StubDriver driver = new StubDriver();
+    GroupCommitWriter writer = new GroupCommitWriter(driver, database, "T", "concurrent", 32, 200);
+    ExecutorService es = Executors.newFixedThreadPool(16);
+    try {
+      List<Future<boolean[]>> futures = new ArrayList<>();
+      for (int i = 0; i < 1000; i++) {
+        final String uid = "u" + i;
+        futures.add(es.submit(() -> new boolean[] {writer.write("t", uid, 1, new byte[] {1}),
+            writer.write("t", uid, 1, new byte[] {2}), writer.remove("t", uid, 1),
+            writer.remove("t", uid, 1)}));
+      }
+      for (Future<boolean[]> future : futures) {
+        assertTrue(Arrays.equals(new boolean[] {true, true, true, false}, future.get()));
+      }
+    } finally {
+      es.shutdown();
+      writer.close();
+    }
+    assertTrue(database.table.isEmpty());
+    assertEquals(0, driver.individuals.get());
+    assertEquals(4000, writer.getRequestCount());
+    assertEquals(database.commits, writer.getGroupCount());
+    assertTrue(writer.getGroupCount() < 4000);
+  }
+
+  @Test
+  public void testFailedGroup() {
+    StubDatabase database = new StubDatabase();
+    GroupCommitWriter writer =
+        new GroupCommitWriter(new StubDriver(), database, "T", "failed", 8, 0);
+    try {
+      writer.execute(group(write("a", 1)));
+      database.failNextCommit = true;
+      List<Request> group = group(write("a", 2), write("b", 1), remove("a"));
+      writer.execute(group);
+      for (Request request : group) {
+        assertEquals(0, request.latch.getCount());
+        assertNull(request.completed);
+      }
+      assertEquals(3, writer.getFallbackCount());
+      assertEquals(1, database.table.get("t|a|1")[0]);
+      assertFalse(database.table.containsKey("t|b|1"));
+    } finally {
+      writer.close();
+    }
+  }
+
+  @Test
+  public void testPerRequestResults() {
+    StubDatabase database = new StubDatabase();
+    GroupCommitWriter writer =
+        new GroupCommitWriter(new StubDriver(), database, "T", "results", 16, 0);
+    try {
+      writer.execute(group(write("a", 1)));
+      List<Request> group = group(write("a", 2), write("b", 1), remove("c"), remove("a"),
+          remove("a"), write("a", 3), write("b", 2), remove("b"));
+      writer.execute(group);
+      assertEquals(Arrays.asList(true, true, false, true, false, true, true, true),
+          completeds(group));
+      assertEquals(2, database.commits);
+      assertEquals(1, database.table.size());
+      assertEquals(3, database.table.get("t|a|1")[0]);
+    } finally {
+      writer.close();
+    }
+  }
+
+  @Test
+  public void testSameStateOrdering() {
+    StubDatabase database = new StubDatabase();
+    GroupCommitWriter writer =
+        new GroupCommitWriter(new StubDriver(), database, "T", "ordering", 16, 0);
+    try {
+      // without the segments the removes would run after all the writes of the group
+      List<Request> group =
+          group(write("a", 1), remove("a"), write("a", 2), write("b", 1), remove("a"));
+      writer.execute(group);
+      assertEquals(Arrays.asList(true, true, true, true, true), completeds(group));
+      assertFalse(database.table.containsKey("t|a|1"));
+      assertEquals(1, database.table.get("t|b|1")[0]);
+      // the segments are split at the second request of a state
+      assertEquals(Arrays.asList("UPDATE", "INSERT", "DELETE", "UPDATE", "INSERT", "DELETE"),
+          database.batches);
+    } finally {
+      writer.close();
+    }
+  }
+
+  List<Boolean> completeds(List<Request> group) {
+    List<Boolean> completeds = new ArrayList<>();
+    for (Request request : group) {
+      assertEquals(0, request.latch.getCount());
+      completeds.add(request.completed);
+    }
+    return completeds;
+  }
+
+  List<Request> group(Request... requests) {
+    return new ArrayList<>(Arrays.asList(requests));
+  }
+
+  Request remove(String uid) {
+    return new Request("t", uid, 1, null);
+  }
+
+  Request write(String uid, int state) {
+    return new Request("t", uid, 1, new byte[] {(byte) state});
+  }
+
+  /**
+   * corant-modules-jta-narayana
+   *
+   * @author bingo 下午3:20:18
+   *
+   */
+  static class StubDatabase implements JDBCAccess {
+    final Map<String, byte[]> table = new ConcurrentHashMap<>();
+    final List<String> batches = new ArrayList<>();
+    volatile boolean failNextCommit;
+    int commits;
+
+    @Override
+    public Connection getConnection() {
+      final Map<String, byte[]> pending = new HashMap<>();
+      final Set<String> deleted = new HashSet<>();
+      return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+          new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+              case "prepareStatement":
+                return statement((String) args[0], pending, deleted);
+              case "commit":
+                synchronized (this) {
+                  if (failNextCommit) {
+                    failNextCommit = false;
+                    throw new SQLException("Commit failed.");
+                  }
+                  deleted.forEach(table::remove);
+                  table.putAll(pending);
+                  commits++;
+                }
+                pending.clear();
+                deleted.clear();
+                return null;
+              case "rollback":
+                pending.clear();
+                deleted.clear();
+                return null;
+              case "close":
+                return null;
+              default:
+                throw new UnsupportedOperationException(method.getName());
+            }
+          });
+    }
+
+    int execute(String sql, Object[] params, Map<String, byte[]> pending, Set<String> deleted)
+        throws SQLException {
+      if (sql.startsWith("UPDATE")) {
+        String key = params[2] + "|" + params[3] + "|" + params[4];
+        if (!exists(key, pending, deleted)) {
+          return 0;
+        }
+        pending.put(key, (byte[]) params[1]);
+        return 1;
+      } else if (sql.startsWith("INSERT")) {
+        String key = params[1] + "|" + params[2] + "|" + params[3];
+        if (exists(key, pending, deleted)) {
+          throw new SQLException("Duplicate key " + key);
+        }
+        pending.put(key, (byte[]) params[4]);
+        deleted.remove(key);
+        return 1;
+      } else {
+        String key = params[1] + "|" + params[2] + "|" + params[3];
+        if (!exists(key, pending, deleted)) {
+          return 0;
+        }
+        pending.remove(key);
+        deleted.add(key);
+        return 1;
+      }
+    }
+
+    @Override
+    public void initialise(StringTokenizer tokenizer) {}
+
+    boolean exists(String key, Map<String, byte[]> pending, Set<String> deleted) {
+      return pending.containsKey(key) || !deleted.contains(key) && table.containsKey(key);
+    }
+
+    PreparedStatement statement(String sql, Map<String, byte[]> pending, Set<String> deleted) {
+      final List<Object[]> batch = new ArrayList<>();
+      final Object[] params = new Object[6];
+      return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+          new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+              case "setBytes":
+              case "setString":
+              case "setInt":
+                params[(Integer) args[0]] = args[1];
+                return null;
+              case "addBatch":
+                batch.add(params.clone());
+                return null;
+              case "executeBatch":
+                synchronized (this) {
+                  batches.add(sql.substring(0, 6));
+                }
+                int[] counts = new int[batch.size()];
+                for (int i = 0; i < counts.length; i++) {
+                  counts[i] = execute(sql, batch.get(i), pending, deleted);
+                }
+                batch.clear();
+                return counts;
+              case "executeUpdate":
+                return execute(sql, params, pending, deleted);
+              case "close":
+                return null;
+              default:
+                throw new UnsupportedOperationException(method.getName());
+            }
+          });
+    }
+  }
+
+  /**
+   * corant-modules-jta-narayana
+   *
+   * @author bingo 下午3:20:18
+   *
+   */
+  static class StubDriver extends DomainPostgreDriver {
+    final AtomicInteger individuals = new AtomicInteger();
+
+    @Override
+    protected boolean removeState(String typeName, String uid, int stateType) {
+      individuals.incrementAndGet();
+      return true;
+    }
+
+    @Override
+    protected boolean writeState(String typeName, String uid, int stateType, byte[] state) {
+      individuals.incrementAndGet();
+      return true;
+    }
+  }
+}
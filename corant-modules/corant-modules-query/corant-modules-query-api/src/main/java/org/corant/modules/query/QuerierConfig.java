@@ -25,12 +25,21 @@ public interface QuerierConfig {
 
   // Use to cover the global 'corant.query.querier' configuration, they may be assigned in query xml
   String CTX_KEY_PARALLEL_FETCH = ".parallel-fetch";
+  String CTX_KEY_PARALLEL_FETCH_CONCURRENCY = ".parallel-fetch-concurrency";
+  String CTX_KEY_PARALLEL_FETCH_TIMEOUT = ".parallel-fetch-timeout";
+  // The stream prefetch is ignored if the stream parameter has an enhancer or a terminater
+  String CTX_KEY_STREAM_PREFETCH_BATCHES = ".stream-prefetch-batches";
   int UN_LIMIT_SELECT_SIZE = Integer.MAX_VALUE - 16;
   String PRO_KEY_MAX_SELECT_SIZE = ".max-select-size";
   String PRO_KEY_THROWN_ON_MAX_LIMIT_SIZE = ".thrown-on-max-select-size";
   String PRO_KEY_LIMIT = ".limit";
   String PRO_KEY_STREAM_LIMIT = ".stream-limit";
   String PRO_KEY_TIMEOUT = ".timeout";
+  String PRO_KEY_PAGINATION_COUNT_CONCURRENT = ".pagination-count-concurrent";
+  String PRO_KEY_PAGINATION_COUNT_CACHE_TTL = ".pagination-count-cache-ttl";
+  String PRO_KEY_PAGINATION_COUNT_APPROXIMATE = ".pagination-count-approximate";
+  String PRO_KEY_STATEMENT_CACHE_PARAMETERS = ".statement-cache-parameters";
+  String PRO_KEY_STATEMENT_CACHE_MAX_SIZE = ".statement-cache-max-size";
 
   int getDefaultLimit();
 
@@ -46,6 +46,9 @@ public interface QueryParameter extends Serializable {
   String CTX_QHH_EXCLUDE_RESULTHINT = "__QHH_EXCLUDE_RESULT_HINT";
   String CTX_QHH_DONT_CONVERT_RESULT = "__QHH_DONT_CONVERT_RESULT";
 
+  // Use to carry the keyset paging continuation token, can be set in the context
+  String CTX_KEYSET_CONTINUATION = "__KEYSET_CONTINUATION";
+
   /**
    * Return the query context that may be contain current user context or security context.
    *
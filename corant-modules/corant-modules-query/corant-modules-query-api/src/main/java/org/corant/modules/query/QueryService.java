@@ -107,6 +107,7 @@ public interface QueryService<Q, P> {
   class Forwarding<T> {
 
     private boolean hasNext;
+    private String continuation;
     private final List<T> results = new ArrayList<>();
 
     Forwarding() {}
@@ -120,6 +121,18 @@ public interface QueryService<Q, P> {
       return il.withResults(results).withHasNext(hasNext);
     }
 
+    /**
+     * Returns the opaque continuation token built from the last record of the results, only
+     * available when the underlying query uses keyset(seek) paging. The token can be passed to the
+     * next query through the query parameter context with key
+     * {@link QueryParameter#CTX_KEYSET_CONTINUATION}.
+     *
+     * @return the continuation token or null if not available
+     */
+    public String getContinuation() {
+      return continuation;
+    }
+
     /**
      * The result list
      */
@@ -150,14 +163,21 @@ public interface QueryService<Q, P> {
     public Forwarding<T> with(Forwarding<T> other) {
       if (other != null) {
         withHasNext(other.hasNext());
+        withContinuation(other.getContinuation());
         withResults(other.getResults());
       } else {
         withHasNext(false);
+        withContinuation(null);
         withResults(new ArrayList<>());
       }
       return this;
     }
 
+    public Forwarding<T> withContinuation(String continuation) {
+      this.continuation = continuation;
+      return this;
+    }
+
     public Forwarding<T> withHasNext(boolean hasNext) {
       this.hasNext = hasNext;
       return this;
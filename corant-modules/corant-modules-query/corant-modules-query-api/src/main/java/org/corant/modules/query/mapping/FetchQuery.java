@@ -44,6 +44,8 @@ public class FetchQuery implements Serializable {
   private Script predicateScript = new Script();
   private Script injectionScript = new Script();
   private boolean eagerInject = true;
+  private int batchSize = -1;
+  private List<FetchQueryJoinKey> batchJoinKeys = new ArrayList<>();
   private final String id = UUID.randomUUID().toString();
 
   public FetchQuery() {}
@@ -98,6 +100,27 @@ public class FetchQuery implements Serializable {
     }
   }
 
+  /**
+   * Returns the join keys use to stitch the batch fetched results back to the parent query
+   * results, if not empty the eager inject fetch query is executed once for a batch of parent
+   * query results instead of once for each parent query result.
+   *
+   * @return the batch join keys
+   */
+  public List<FetchQueryJoinKey> getBatchJoinKeys() {
+    return batchJoinKeys;
+  }
+
+  /**
+   * Returns the maximum number of parent query results of each batch fetch query, less than 1
+   * indicate unlimited.
+   *
+   * @return the batch size
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
   /**
    *
    * @return the id
@@ -168,6 +191,16 @@ public class FetchQuery implements Serializable {
     return prime * result + (id == null ? 0 : id.hashCode());
   }
 
+  /**
+   * Returns whether the fetch query results are joined to the parent query results through the
+   * batch join keys.
+   *
+   * @see #getBatchJoinKeys()
+   */
+  public boolean isBatchJoin() {
+    return !batchJoinKeys.isEmpty();
+  }
+
   /**
    *
    * @return the eagerInject
@@ -194,6 +227,31 @@ public class FetchQuery implements Serializable {
   protected void postConstuct() {
     parameters =
         parameters == null ? Collections.emptyList() : Collections.unmodifiableList(parameters);
+    batchJoinKeys = batchJoinKeys == null ? Collections.emptyList()
+        : Collections.unmodifiableList(batchJoinKeys);
+  }
+
+  /**
+   * Set the batch join keys, the join keys are separated by comma, each join key consists of the
+   * parent query result property name and the fetch query result property name separated by colon,
+   * if the fetch query result property name is omitted it is the same as the parent query result
+   * property name, for example 'id:orderId,tenantId'.
+   *
+   * @param batchJoinKeys the batch join keys to set
+   */
+  protected void setBatchJoinKeys(String batchJoinKeys) {
+    this.batchJoinKeys.clear();
+    for (String joinKey : split(batchJoinKeys, ",", true, true)) {
+      String[] names = split(joinKey, ":", true, true);
+      if (names.length > 0) {
+        this.batchJoinKeys
+            .add(new FetchQueryJoinKey(names[0], names.length > 1 ? names[1] : names[0]));
+      }
+    }
+  }
+
+  protected void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
   }
 
   /**
@@ -391,6 +449,55 @@ public class FetchQuery implements Serializable {
 
   }
 
+  /**
+   * corant-modules-query-api
+   *
+   * <p>
+   * The join key use to stitch the batch fetched results back to the parent query results.
+   *
+   * @author bingo 下午4:27:11
+   *
+   */
+  public static class FetchQueryJoinKey implements Serializable {
+
+    private static final long serialVersionUID = -2383744207385113236L;
+
+    private final String parentName;
+    private final String[] parentNamePath;
+    private final String fetchName;
+    private final String[] fetchNamePath;
+
+    public FetchQueryJoinKey(String parentName, String fetchName) {
+      this.parentName = parentName;
+      parentNamePath = split(parentName, Names.NAME_SPACE_SEPARATORS, true, false);
+      this.fetchName = fetchName;
+      fetchNamePath = split(fetchName, Names.NAME_SPACE_SEPARATORS, true, false);
+    }
+
+    /**
+     * The fetch query result property name
+     */
+    public String getFetchName() {
+      return fetchName;
+    }
+
+    public String[] getFetchNamePath() {
+      return fetchNamePath;
+    }
+
+    /**
+     * The parent query result property name
+     */
+    public String getParentName() {
+      return parentName;
+    }
+
+    public String[] getParentNamePath() {
+      return parentNamePath;
+    }
+
+  }
+
   public enum FetchQueryParameterSource {
     P, R, C, S
   }
@@ -212,6 +212,10 @@ public class QueryParseHandler extends DefaultHandler {
             fq.setResultClass(isBlank(atv) ? java.util.Map.class : asClass(atv));
           } else if (SchemaNames.FQE_ATT_MULT_RECORDS.equalsIgnoreCase(aqn)) {
             fq.setMultiRecords(isBlank(atv) ? true : toBoolean(atv));
+          } else if (SchemaNames.FQE_ATT_BATCH_JOIN_KEYS.equalsIgnoreCase(aqn)) {
+            fq.setBatchJoinKeys(atv);
+          } else if (SchemaNames.FQE_ATT_BATCH_SIZE.equalsIgnoreCase(aqn)) {
+            fq.setBatchSize(isBlank(atv) ? -1 : toInteger(atv));
           }
         }
       }
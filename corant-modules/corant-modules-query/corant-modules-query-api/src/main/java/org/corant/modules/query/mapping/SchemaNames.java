@@ -61,6 +61,8 @@ public class SchemaNames {
   public static final String FQE_ATT_MAX_SIZE = "max-fetch-size";
   public static final String FQE_ATT_VER = "reference-query-version";
   public static final String FQE_ATT_MULT_RECORDS = "multi-records";
+  public static final String FQE_ATT_BATCH_JOIN_KEYS = "batch-join-keys";
+  public static final String FQE_ATT_BATCH_SIZE = "batch-size";
 
   private SchemaNames() {}
 
@@ -34,6 +34,7 @@ import org.corant.modules.query.Querier;
 import org.corant.modules.query.mapping.FetchQuery;
 import org.corant.modules.query.shared.AbstractNamedQuerierResolver;
 import org.corant.modules.query.shared.AbstractNamedQueryService;
+import org.corant.modules.query.shared.PagingCountHandler.Counting;
 import org.corant.shared.exception.NotSupportedException;
 
 /**
@@ -179,24 +180,33 @@ public abstract class AbstractJpqlNamedQueryService extends AbstractNamedQuerySe
     int limit = querier.resolveLimit();
     Duration timeout = querier.resolveTimeout();
     log(queryName, scriptParameter, ql);
+    Counting counting =
+        getPagingCountHandler().start(querier, new Object[] {ql, scriptParameter}, () -> {
+          String totalSql = getTotalQL(ql);
+          log("total-> " + queryName, scriptParameter, totalSql);
+          EntityManager cem = getEntityManager();
+          try {
+            return ((Number) createQuery(cem, totalSql, properties, resultClass, timeout,
+                scriptParameter).getSingleResult()).intValue();
+          } finally {
+            if (cem.isOpen()) {
+              cem.close();
+            }
+          }
+        });
     EntityManager em = getEntityManager();
     try {
       Query query = createQuery(em, ql, properties, resultClass, timeout, scriptParameter);
       query.setFirstResult(offset).setMaxResults(limit);
-      List<T> list = defaultObject(query.getResultList(), ArrayList::new);
-      Paging<T> result = Paging.of(offset, limit);
-      int size = list.size();
-      if (size > 0) {
-        if (size < limit) {
-          result.withTotal(offset + size);
-        } else {
-          String totalSql = getTotalQL(ql);
-          log("total-> " + queryName, scriptParameter, totalSql);
-          result.withTotal(
-              ((Number) createQuery(em, totalSql, properties, resultClass, timeout, scriptParameter)
-                  .getSingleResult()).intValue());
-        }
+      List<T> list;
+      try {
+        list = defaultObject(query.getResultList(), ArrayList::new);
+      } catch (RuntimeException e) {
+        counting.cancel();
+        throw e;
       }
+      Paging<T> result = Paging.of(offset, limit);
+      result.withTotal(counting.resolve(offset, list.size(), limit, timeout));
       return result.withResults(list);
     } finally {
       if (em.isOpen()) {
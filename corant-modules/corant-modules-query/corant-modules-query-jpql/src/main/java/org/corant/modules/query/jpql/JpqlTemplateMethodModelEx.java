@@ -56,6 +56,11 @@ public class JpqlTemplateMethodModelEx extends AbstractTemplateMethodModelEx<Obj
     return arguments;
   }
 
+  @Override
+  public boolean isPlaceholderOutput() {
+    return true;
+  }
+
   @Override
   public Object[] getParameters() {
     return parameters.toArray(new Object[parameters.size()]);
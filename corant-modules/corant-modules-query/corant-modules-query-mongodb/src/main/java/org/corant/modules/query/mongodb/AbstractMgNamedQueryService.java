@@ -18,19 +18,14 @@ import static org.corant.shared.util.Conversions.toEnum;
 import static org.corant.shared.util.Lists.listOf;
 import static org.corant.shared.util.Maps.getMapEnum;
 import static org.corant.shared.util.Maps.getOptMapObject;
-import static org.corant.shared.util.Objects.defaultObject;
 import static org.corant.shared.util.Objects.forceCast;
 import static org.corant.shared.util.Objects.max;
 import static org.corant.shared.util.Objects.min;
-import static org.corant.shared.util.Streams.streamOf;
 import static org.corant.shared.util.Strings.isNotBlank;
-import java.lang.ref.Cleaner;
 import java.util.ArrayList;
 import java.util.EnumMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
@@ -44,6 +39,8 @@ import org.corant.modules.query.mapping.FetchQuery;
 import org.corant.modules.query.mongodb.MgNamedQuerier.MgOperator;
 import org.corant.modules.query.shared.AbstractNamedQuerierResolver;
 import org.corant.modules.query.shared.AbstractNamedQueryService;
+import org.corant.modules.query.shared.ForwardingIterator;
+import org.corant.modules.query.shared.PagingCountHandler.Counting;
 import org.corant.shared.util.Conversions;
 import com.mongodb.BasicDBObject;
 import com.mongodb.CursorType;
@@ -228,21 +225,27 @@ public abstract class AbstractMgNamedQueryService extends AbstractNamedQueryServ
     int limit = querier.resolveLimit();
     Paging<T> result = Paging.of(offset, limit);
     log(queryName, querier.getQueryParameter(), querier.getOriginalScript());
+    Counting counting = getPagingCountHandler().start(querier,
+        new Object[] {resolveCollectionName(querier), querier.getOriginalScript()},
+        () -> (int) queryCount(querier));
     FindIterable<Document> fi = query(querier).batchSize(limit).skip(offset).limit(limit);
-    List<Document> docList = collect(fi);
+    List<Document> docList;
+    try {
+      docList = collect(fi);
+    } catch (RuntimeException e) {
+      counting.cancel();
+      throw e;
+    }
     List<Map<String, Object>> list = new ArrayList<>();
     if (docList != null) {
       final boolean setId = isAutoSetIdField(querier);
       list = docList.stream().map(r -> convertDocument(r, querier, setId)).collect(toList());
       docList.clear();
-      if (list.size() > 0) {
-        if (list.size() < limit) {
-          result.withTotal(offset + list.size());
-        } else {
-          result.withTotal((int) queryCount(querier));
-        }
-        this.fetch(list, querier);
-      }
+    }
+    int size = list.size();
+    result.withTotal(counting.resolve(offset, size, limit, querier.resolveTimeout()));
+    if (size > 0) {
+      this.fetch(list, querier);
     }
     return result.withResults(querier.handleResults(list));
   }
@@ -276,73 +279,28 @@ public abstract class AbstractMgNamedQueryService extends AbstractNamedQueryServ
    * @see #PRO_KEY_NO_CURSOR_TIMEOUT
    */
   @Override
-  protected <T> Stream<T> doStream(String queryName, StreamQueryParameter parameter) {
+  protected <T> Stream<T> doStream(String queryName, StreamQueryParameter parameter,
+      int prefetchBatches) {
     if (parameter.getEnhancer() != null) {
-      return super.doStream(queryName, parameter);
+      return super.doStream(queryName, parameter, prefetchBatches);
     }
     final MgNamedQuerier querier = getQuerierResolver().resolve(queryName, parameter);
     log("stream->" + queryName, querier.getQueryParameter(), querier.getOriginalScript());
     final MongoCursor<Document> cursor = query(querier).batchSize(parameter.getLimit()).iterator();
-    final Iterator<T> iterator = new Iterator<>() {
-      int counter = 0;
-      Forwarding<T> buffer = null;
-      T next = null;
-
-      @Override
-      public boolean hasNext() {
-        initialize();
-        boolean more = false;
-        if (!parameter.terminateIf(counter, next)) {
-          if (!buffer.hasResults()) {
-            if (buffer.hasNext()) {
-              buffer.with(doForward(cursor));
-              more = buffer.hasResults();
-            }
-          } else {
-            more = true;
-          }
-        }
-        if (!more && cursor != null) {
-          cursor.close();
-        }
-        return more;
-      }
-
-      @Override
-      public T next() {
-        initialize();
-        if (!buffer.hasResults()) {
-          throw new NoSuchElementException();
-        }
-        counter++;
-        next = buffer.getResults().remove(0);
-        return next;
-      }
-
-      private Forwarding<T> doForward(MongoCursor<Document> it) {
-        int size = parameter.getLimit();
-        List<Object> list = new ArrayList<>(size);
-        while (it.hasNext() && --size >= 0) {
-          list.add(it.next());
-        }
-        fetch(list, querier);
-        return Forwarding.of(querier.handleResults(list), it.hasNext());
-      }
+    return new ForwardingIterator<T>(queryName, parameter, prefetchBatches,
+        () -> doForward(querier, parameter, cursor), prev -> doForward(querier, parameter, cursor),
+        cursor::close).stream();
+  }
 
-      private void initialize() {
-        if (buffer == null) {
-          buffer = defaultObject(doForward(cursor), Forwarding::inst);
-          counter = buffer.hasResults() ? 1 : 0;
-        }
-      }
-    };
-    Stream<T> stream = streamOf(iterator).onClose(cursor::close);
-    Cleaner.create().register(iterator, () -> {
-      if (cursor != null) {
-        cursor.close();
-      }
-    });// JDK9+
-    return stream;
+  protected <T> Forwarding<T> doForward(MgNamedQuerier querier, StreamQueryParameter parameter,
+      MongoCursor<Document> it) {
+    int size = parameter.getLimit();
+    List<Object> list = new ArrayList<>(size);
+    while (it.hasNext() && --size >= 0) {
+      list.add(it.next());
+    }
+    fetch(list, querier);
+    return Forwarding.of(querier.handleResults(list), it.hasNext());
   }
 
   protected abstract MongoDatabase getDataBase();
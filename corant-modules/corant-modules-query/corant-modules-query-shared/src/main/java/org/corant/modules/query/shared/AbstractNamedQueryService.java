@@ -18,20 +18,16 @@ import static org.corant.context.Beans.resolve;
 import static org.corant.shared.util.Assertions.shouldNotNull;
 import static org.corant.shared.util.Empties.isEmpty;
 import static org.corant.shared.util.Empties.isNotEmpty;
-import static org.corant.shared.util.Objects.areEqual;
+import static org.corant.shared.util.Lists.partition;
 import static org.corant.shared.util.Objects.asStrings;
-import static org.corant.shared.util.Objects.defaultObject;
 import static org.corant.shared.util.Objects.max;
-import static org.corant.shared.util.Streams.streamOf;
 import static org.corant.shared.util.Strings.isBlank;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
 import javax.annotation.PreDestroy;
@@ -39,6 +35,7 @@ import org.corant.Corant;
 import org.corant.modules.query.NamedQuerier;
 import org.corant.modules.query.NamedQueryService;
 import org.corant.modules.query.Querier;
+import org.corant.modules.query.QuerierConfig;
 import org.corant.modules.query.QueryObjectMapper;
 import org.corant.modules.query.QueryParameter;
 import org.corant.modules.query.QueryParameter.StreamQueryParameter;
@@ -123,7 +120,7 @@ public abstract class AbstractNamedQueryService implements NamedQueryService {
    * This method use {@link #forward(String, Object)} to fetch next data records.
    * </p>
    *
-   * @see AbstractNamedQueryService#doStream(String, StreamQueryParameter)
+   * @see AbstractNamedQueryService#doStream(String, StreamQueryParameter, int)
    */
   @Override
   public <T> Stream<T> stream(String queryName, Object parameter) {
@@ -136,7 +133,8 @@ public abstract class AbstractNamedQueryService implements NamedQueryService {
       useQueryParam = new StreamQueryParameter(queryParam);
     }
     useQueryParam.limit(max(querier.resolveStreamLimit(), 1));
-    return doStream(queryName, useQueryParam);
+    return doStream(queryName, useQueryParam, querier
+        .resolveProperty(QuerierConfig.CTX_KEY_STREAM_PREFETCH_BATCHES, Integer.class, 0));
   }
 
   protected abstract <T> Forwarding<T> doForward(String q, Object p) throws Exception;
@@ -148,66 +146,39 @@ public abstract class AbstractNamedQueryService implements NamedQueryService {
   protected abstract <T> List<T> doSelect(String q, Object p) throws Exception;
 
   /**
-   * Actual execution method for {@link #stream(String, Object)}
+   * Actual execution method for {@link #stream(String, Object)}, use {@link ForwardingIterator}
+   * to iterate the forwarding batches.
    *
    * @param <T> the result record type
    * @param queryName the query name
    * @param param the query parameter
+   * @param prefetchBatches the maximum number of the batches that are read ahead
    * @return stream the query result stream
    */
-  protected <T> Stream<T> doStream(String queryName, StreamQueryParameter param) {
-    return streamOf(new Iterator<T>() {
-      Forwarding<T> buffer = null;
-      int counter = 0;
-      T next = null;
-
-      @Override
-      public boolean hasNext() {
-        initialize();
-        if (!param.terminateIf(counter, next)) {
-          if (!buffer.hasResults()) {
-            if (buffer.hasNext()) {
-              buffer.with(doForward(queryName, param.forward(next)));
-              return buffer.hasResults();
-            }
-          } else {
-            return true;
+  protected <T> Stream<T> doStream(String queryName, StreamQueryParameter param,
+      int prefetchBatches) {
+    return new ForwardingIterator<T>(queryName, param, prefetchBatches,
+        () -> retryForward(queryName, param), prev -> {
+          if (prev.getContinuation() != null) {
+            param.getContext().put(QueryParameter.CTX_KEYSET_CONTINUATION,
+                prev.getContinuation());
           }
-        }
-        return false;
-      }
-
-      @Override
-      public T next() {
-        initialize();
-        if (!buffer.hasResults()) {
-          throw new NoSuchElementException();
-        }
-        counter++;
-        next = buffer.getResults().remove(0);
-        return next;
-      }
-
-      private Forwarding<T> doForward(String queryName, StreamQueryParameter parameter) {
-        if (parameter.needRetry()) {
-          return Retry.synchronousRetryer()
-              .retryStrategy(
-                  new MaxAttemptsRetryStrategy(parameter.getRetryTimes() + 1))
-              .backoffStrategy(parameter.getRetryBackoffStrategy())
-              .retryPrecondition(c -> Corant.current() != null && Corant.current().isRunning())
-              .execute(() -> forward(queryName, parameter));
-        } else {
-          return forward(queryName, parameter);
-        }
-      }
+          List<T> results = prev.getResults();
+          return retryForward(queryName,
+              param.forward(results.isEmpty() ? null : results.get(results.size() - 1)));
+        }, null).stream();
+  }
 
-      private void initialize() {
-        if (buffer == null) {
-          buffer = defaultObject(doForward(queryName, param), Forwarding::inst);
-          counter = buffer.hasResults() ? 1 : 0;
-        }
-      }
-    });
+  private <T> Forwarding<T> retryForward(String queryName, StreamQueryParameter parameter) {
+    if (parameter.needRetry()) {
+      return Retry.synchronousRetryer()
+          .retryStrategy(new MaxAttemptsRetryStrategy(parameter.getRetryTimes() + 1))
+          .backoffStrategy(parameter.getRetryBackoffStrategy())
+          .retryPrecondition(c -> Corant.current() != null && Corant.current().isRunning())
+          .execute(() -> forward(queryName, parameter));
+    } else {
+      return forward(queryName, parameter);
+    }
   }
 
   protected <T> void fetch(List<T> results, Querier parentQuerier) {
@@ -235,6 +206,14 @@ public abstract class AbstractNamedQueryService implements NamedQueryService {
 
   protected abstract AbstractNamedQuerierResolver<? extends NamedQuerier> getQuerierResolver();
 
+  protected PagingCountHandler getPagingCountHandler() {
+    return resolve(PagingCountHandler.class);
+  }
+
+  protected ParallelFetchHandler getParallelFetchHandler() {
+    return resolve(ParallelFetchHandler.class);
+  }
+
   protected void log(String name, Object param, String... script) {
     logger.fine(() -> String.format(
         "%n[QueryService name]: %s; %n[QueryService parameters]: %s; %n[QueryService script]: %s.",
@@ -249,67 +228,69 @@ public abstract class AbstractNamedQueryService implements NamedQueryService {
         name, String.join(",", asStrings(param)), String.join(";\n", script)));
   }
 
+  /**
+   * Parallel fetch, each eager injection fetch query launches a fetch task for each parent query
+   * result, otherwise a fetch task is launched for each batch of the parent query results. The fetch
+   * tasks are executed by {@link ParallelFetchHandler} on a bounded executor and the fetched results
+   * are handled serially in the order of the fetch queries.
+   *
+   * @param <T> the parent query result type
+   * @param results the parent query results
+   * @param parentQuerier the parent querier
+   */
   protected <T> void parallelFetch(List<T> results, Querier parentQuerier) {
-    // parallel fetch, experimental features for proof of concept.
-    List<FetchQuery> fetchQueries = new ArrayList<>(parentQuerier.getQuery().getFetchQueries());
-    final Collection<Pair<FetchResult, Object>> workResults = new LinkedBlockingQueue<>();
-    fetchQueries.parallelStream().forEach(fq -> {
+    final List<Callable<Pair<FetchResult, Object>>> tasks = new ArrayList<>();
+    for (FetchQuery fq : parentQuerier.getQuery().getFetchQueries()) {
       final NamedQueryService fqs = resolveFetchQueryService(fq);
-      if (fq.isEagerInject()) {
+      if (fq.isEagerInject() && !fq.isBatchJoin()) {
         for (T result : results) {
           if (parentQuerier.decideFetch(result, fq)) {
-            FetchResult fr = fqs.fetch(result, fq, parentQuerier);
-            workResults.add(Pair.of(fr, result));
+            tasks.add(() -> Pair.of(fqs.fetch(result, fq, parentQuerier), result));
           }
         }
       } else {
-        List<T> decideResults =
-            results.stream().filter(r -> parentQuerier.decideFetch(r, fq)).collect(toList());
-        boolean fetch = true;
-        if (isEmpty(decideResults) && isNotEmpty(fq.getParameters())
-            && fq.getParameters().stream()
-                .noneMatch(fp -> fp.getSource() == FetchQueryParameterSource.C
-                    || fp.getSource() == FetchQueryParameterSource.P)) {
-          fetch = false;
-        }
-        if (fetch) {
-          FetchResult fr = fqs.fetch(decideResults, fq, parentQuerier);
-          workResults.add(Pair.of(fr, decideResults));
-        }
-      }
-    });
-
-    for (FetchQuery fq : fetchQueries) {
-      Iterator<Pair<FetchResult, Object>> it = workResults.iterator();
-      while (it.hasNext()) {
-        Pair<FetchResult, Object> pair = it.next();
-        if (areEqual(pair.key().fetchQuery, fq)) {
-          postFetch(pair.key(), parentQuerier, pair.value());
-          it.remove();
+        for (List<T> decideResults : resolveBatchFetchResults(results, fq, parentQuerier)) {
+          tasks.add(() -> Pair.of(fqs.fetch(decideResults, fq, parentQuerier), decideResults));
         }
       }
     }
+    handleParallelFetch(tasks, parentQuerier);
   }
 
+  /**
+   * Parallel fetch, each fetch query launches a fetch task for the parent query result.
+   *
+   * @param <T> the parent query result type
+   * @param result the parent query result
+   * @param parentQuerier the parent querier
+   * @see #parallelFetch(List, Querier)
+   */
   protected <T> void parallelFetch(T result, Querier parentQuerier) {
-    // parallel fetch, experimental functions for proof of concept.
-    List<FetchQuery> fetchQueries = new ArrayList<>(parentQuerier.getQuery().getFetchQueries());
-    Collection<FetchResult> workResults = new LinkedBlockingQueue<>();
-    fetchQueries.parallelStream().forEach(fq -> {
-      NamedQueryService fetchQueryService = resolveFetchQueryService(fq);
+    final List<Callable<Pair<FetchResult, Object>>> tasks = new ArrayList<>();
+    for (FetchQuery fq : parentQuerier.getQuery().getFetchQueries()) {
+      final NamedQueryService fqs = resolveFetchQueryService(fq);
       if (parentQuerier.decideFetch(result, fq)) {
-        FetchResult fr = fetchQueryService.fetch(result, fq, parentQuerier);
-        workResults.add(fr);
+        tasks.add(() -> Pair.of(fqs.fetch(result, fq, parentQuerier), result));
       }
-    });
-    for (FetchQuery fq : fetchQueries) {
-      Iterator<FetchResult> it = workResults.iterator();
-      while (it.hasNext()) {
-        FetchResult fr = it.next();
-        if (areEqual(fr.fetchQuery, fq)) {
-          postFetch(fr, parentQuerier, result);
-          it.remove();
-        }
+    }
+    handleParallelFetch(tasks, parentQuerier);
+  }
+
+  protected void handleParallelFetch(List<Callable<Pair<FetchResult, Object>>> tasks,
+      Querier parentQuerier) {
+    if (tasks.size() == 1) {
+      try {
+        Pair<FetchResult, Object> pair = tasks.get(0).call();
+        postFetch(pair.key(), parentQuerier, pair.value());
+      } catch (QueryRuntimeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new QueryRuntimeException(e);
+      }
+    } else if (!tasks.isEmpty()) {
+      for (Pair<FetchResult, Object> pair : getParallelFetchHandler().execute(this,
+          parentQuerier, tasks)) {
+        postFetch(pair.key(), parentQuerier, pair.value());
       }
     }
   }
@@ -327,6 +308,35 @@ public abstract class AbstractNamedQueryService implements NamedQueryService {
     }
   }
 
+  /**
+   * Resolve the parent query results that need to be fetched in batches, if the fetch query is
+   * joined through the batch join keys and the batch size is greater than 0, the parent query
+   * results are partitioned by the batch size.
+   *
+   * @param <T> the parent query result type
+   * @param results the parent query results
+   * @param fq the fetch query
+   * @param parentQuerier the parent querier
+   * @return the batches of the parent query results, each batch launch a fetch query.
+   */
+  protected <T> List<List<T>> resolveBatchFetchResults(List<T> results, FetchQuery fq,
+      Querier parentQuerier) {
+    List<T> decideResults =
+        results.stream().filter(r -> parentQuerier.decideFetch(r, fq)).collect(toList());
+    if (isEmpty(decideResults)) {
+      if (isNotEmpty(fq.getParameters()) && fq.getParameters().stream()
+          .noneMatch(fp -> fp.getSource() == FetchQueryParameterSource.C
+              || fp.getSource() == FetchQueryParameterSource.P)) {
+        return Collections.emptyList();
+      }
+      return Collections.singletonList(decideResults);
+    }
+    if (fq.isBatchJoin() && fq.getBatchSize() > 0 && decideResults.size() > fq.getBatchSize()) {
+      return partition(decideResults, fq.getBatchSize());
+    }
+    return Collections.singletonList(decideResults);
+  }
+
   protected NamedQueryService resolveFetchQueryService(final FetchQuery fq) {
     return fetchQueryServices.computeIfAbsent(fq.getId(), id -> {
       final QueryType type = fq.getReferenceQuery().getType();
@@ -343,7 +353,7 @@ public abstract class AbstractNamedQueryService implements NamedQueryService {
   protected <T> void serialFetch(List<T> results, Querier parentQuerier) {
     for (FetchQuery fq : parentQuerier.getQuery().getFetchQueries()) {
       NamedQueryService fetchQueryService = resolveFetchQueryService(fq);
-      if (fq.isEagerInject()) {
+      if (fq.isEagerInject() && !fq.isBatchJoin()) {
         for (T result : results) {
           if (parentQuerier.decideFetch(result, fq)) {
             FetchResult fr = fetchQueryService.fetch(result, fq, parentQuerier);
@@ -351,16 +361,10 @@ public abstract class AbstractNamedQueryService implements NamedQueryService {
           }
         }
       } else {
-        List<T> decideResults =
-            results.stream().filter(r -> parentQuerier.decideFetch(r, fq)).collect(toList());
-        if (isEmpty(decideResults) && isNotEmpty(fq.getParameters())
-            && fq.getParameters().stream()
-                .noneMatch(fp -> fp.getSource() == FetchQueryParameterSource.C
-                    || fp.getSource() == FetchQueryParameterSource.P)) {
-          continue;
+        for (List<T> decideResults : resolveBatchFetchResults(results, fq, parentQuerier)) {
+          FetchResult fr = fetchQueryService.fetch(decideResults, fq, parentQuerier);
+          postFetch(fr, parentQuerier, decideResults);
         }
-        FetchResult fr = fetchQueryService.fetch(decideResults, fq, parentQuerier);
-        postFetch(fr, parentQuerier, decideResults);
       }
     }
   }
@@ -29,6 +29,7 @@ import static org.corant.shared.util.Strings.asDefaultString;
 import static org.corant.shared.util.Strings.isNotBlank;
 import static org.corant.shared.util.Strings.matchWildcard;
 import static org.corant.shared.util.Strings.split;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -48,6 +49,7 @@ import org.corant.modules.query.QueryParameter;
 import org.corant.modules.query.QueryParameter.DefaultQueryParameter;
 import org.corant.modules.query.QueryRuntimeException;
 import org.corant.modules.query.mapping.FetchQuery;
+import org.corant.modules.query.mapping.FetchQuery.FetchQueryJoinKey;
 import org.corant.modules.query.mapping.FetchQuery.FetchQueryParameter;
 import org.corant.modules.query.mapping.FetchQuery.FetchQueryParameterSource;
 import org.corant.modules.query.shared.ScriptProcessor.ParameterAndResult;
@@ -109,6 +111,8 @@ public class DefaultFetchQueryHandler implements FetchQueryHandler {
     Function<ParameterAndResultPair, Object> fun = scriptEngines.resolveFetchInjections(fetchQuery);
     if (fun != null) {
       fun.apply(new ParameterAndResultPair(parameter, listOf(result), fetchedResults));
+    } else if (fetchQuery.isBatchJoin()) {
+      handleBatchJoinFetchedResults(listOf(result), fetchedResults, fetchQuery);
     } else {
       String[] injectProNamePath = shouldNotEmpty(fetchQuery.getInjectPropertyNamePath());
       if (isEmpty(fetchedResults)) {
@@ -131,6 +135,8 @@ public class DefaultFetchQueryHandler implements FetchQueryHandler {
     if (fun != null) {
       fun.apply(new ParameterAndResultPair(parameter, results,
           defaultObject(fetchedResults, ArrayList::new)));
+    } else if (fetchQuery.isBatchJoin()) {
+      handleBatchJoinFetchedResults(results, fetchedResults, fetchQuery);
     } else {
       String[] injectProNamePath = shouldNotEmpty(fetchQuery.getInjectPropertyNamePath());
       if (isEmpty(fetchedResults)) {
@@ -181,6 +187,40 @@ public class DefaultFetchQueryHandler implements FetchQueryHandler {
     return map;
   }
 
+  /**
+   * Inject the fetched results into the matched parent query results through a hash join on the
+   * batch join keys of the fetch query.
+   *
+   * @param results the parent query results
+   * @param fetchedResults the fetched results
+   * @param fetchQuery the fetch query
+   */
+  protected void handleBatchJoinFetchedResults(List<?> results, List<?> fetchedResults,
+      FetchQuery fetchQuery) {
+    String[] injectProNamePath = shouldNotEmpty(fetchQuery.getInjectPropertyNamePath());
+    List<FetchQueryJoinKey> joinKeys = fetchQuery.getBatchJoinKeys();
+    Map<Object, List<Object>> fetchedMap = new HashMap<>();
+    if (fetchedResults != null) {
+      for (Object fetchedResult : fetchedResults) {
+        Object key = resolveBatchJoinKey(fetchedResult, joinKeys, false);
+        if (key != null) {
+          fetchedMap.computeIfAbsent(key, k -> new ArrayList<>()).add(fetchedResult);
+        }
+      }
+    }
+    for (Object result : results) {
+      Object key = resolveBatchJoinKey(result, joinKeys, true);
+      List<Object> matched = key == null ? null : fetchedMap.get(key);
+      if (isEmpty(matched)) {
+        objectMapper.putMappedValue(result, injectProNamePath, null);
+      } else if (fetchQuery.isMultiRecords()) {
+        objectMapper.putMappedValue(result, injectProNamePath, new ArrayList<>(matched));
+      } else {
+        objectMapper.putMappedValue(result, injectProNamePath, matched.get(0));
+      }
+    }
+  }
+
   @PreDestroy
   protected synchronized void onPreDestroy() {
     logger.fine(() -> "Clear default fetch query handler caches.");
@@ -239,6 +279,48 @@ public class DefaultFetchQueryHandler implements FetchQueryHandler {
     return fetchCriteria;
   }
 
+  /**
+   * Resolve the batch join key value of the given result, if there are multiple join keys returns
+   * a list of the values. The numeric values are normalized so that the values of different numeric
+   * types can be matched, returns null if any join key value is null.
+   *
+   * @param result the parent query result or fetched result
+   * @param joinKeys the batch join keys
+   * @param parent whether the result is parent query result
+   */
+  protected Object resolveBatchJoinKey(Object result, List<FetchQueryJoinKey> joinKeys,
+      boolean parent) {
+    if (result == null) {
+      return null;
+    }
+    if (joinKeys.size() == 1) {
+      return resolveBatchJoinKeyValue(result, joinKeys.get(0), parent);
+    }
+    List<Object> keys = new ArrayList<>(joinKeys.size());
+    for (FetchQueryJoinKey joinKey : joinKeys) {
+      Object key = resolveBatchJoinKeyValue(result, joinKey, parent);
+      if (key == null) {
+        return null;
+      }
+      keys.add(key);
+    }
+    return keys;
+  }
+
+  protected Object resolveBatchJoinKeyValue(Object result, FetchQueryJoinKey joinKey,
+      boolean parent) {
+    Object value = objectMapper.getMappedValue(result,
+        parent ? joinKey.getParentNamePath() : joinKey.getFetchNamePath());
+    if (value instanceof Number) {
+      try {
+        return new BigDecimal(value.toString()).stripTrailingZeros();
+      } catch (NumberFormatException e) {
+        return value;
+      }
+    }
+    return value;
+  }
+
   protected Object resolveFetchQueryCriteriaValueResult(Object resultValue, boolean distinct,
       boolean singleAsList) {
     Object theValue = resultValue;
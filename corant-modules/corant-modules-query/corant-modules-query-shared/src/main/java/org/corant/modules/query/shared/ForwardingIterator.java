@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2013-2018, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.query.shared;
+
+import static org.corant.shared.util.Objects.defaultObject;
+import static org.corant.shared.util.Streams.streamOf;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import org.corant.config.Configs;
+import org.corant.modules.query.QueryParameter.StreamQueryParameter;
+import org.corant.modules.query.QueryRuntimeException;
+import org.corant.modules.query.QueryService.Forwarding;
+import org.corant.modules.query.shared.QueryStreamResources.StreamHandle;
+import org.corant.shared.exception.CorantRuntimeException;
+import org.corant.shared.util.Threads;
+
+/**
+ * corant-modules-query-shared
+ *
+ * <p>
+ * The streaming engine of the named query streams, iterates the forwarding batches with an index
+ * cursor, the results of the batches are not modified. If the prefetch batches > 0, the subsequent
+ * batches are read ahead on a background thread while the current batch is being consumed, the
+ * number of the batches that have been read but not consumed doesn't exceed the prefetch batches.
+ *
+ * <p>
+ * Note: The prefetch batches are read on a shared daemon thread pool, which size is specified by
+ * 'corant.query.stream.prefetch-threads' (default 16), the queries that rely on the caller's
+ * context (such as the request context or the transaction) should not use prefetch. If the pool is
+ * saturated, the stream reads the batches serially. The prefetch is disabled if the stream query
+ * parameter has an enhancer or a terminater, since the enhancer must be invoked with the last
+ * consumed record on the consumer thread and the terminater may end the stream before the next
+ * batch is needed.
+ *
+ * @author bingo 上午10:48:15
+ *
+ */
+public class ForwardingIterator<T> implements Iterator<T> {
+
+  protected final StreamQueryParameter parameter;
+  protected final int prefetchBatches;
+  protected final Supplier<Forwarding<T>> first;
+  protected final UnaryOperator<Forwarding<T>> follower;
+  protected final Releaser releaser;
+  protected final StreamHandle handle;
+  protected Prefetcher<T> prefetcher;
+  protected Forwarding<T> current;
+  protected List<T> results;
+  protected int index;
+  protected int counter;
+  protected T next;
+  protected boolean ended;
+
+  /**
+   * Create a forwarding iterator
+   *
+   * @param description the stream description, use for tracking
+   * @param parameter the stream query parameter, use to test the termination
+   * @param prefetchBatches the maximum number of the batches that are read ahead, 0 means no read
+   *        ahead, ignored if the parameter has an enhancer or a terminater
+   * @param first the first batch supplier
+   * @param follower the function to read the next batch of the given batch
+   * @param resourceReleaser the underlying resource releaser that invoked when the stream is
+   *        exhausted, terminated or closed, can be null
+   */
+  public ForwardingIterator(String description, StreamQueryParameter parameter,
+      int prefetchBatches, Supplier<Forwarding<T>> first, UnaryOperator<Forwarding<T>> follower,
+      Runnable resourceReleaser) {
+    this.parameter = parameter;
+    this.prefetchBatches =
+        parameter.getEnhancer() == null && parameter.getTerminater() == null ? prefetchBatches : 0;
+    this.first = first;
+    this.follower = follower;
+    releaser = new Releaser(resourceReleaser);
+    handle = QueryStreamResources.INST.open(description, releaser);
+  }
+
+  @Override
+  public boolean hasNext() {
+    initialize();
+    if (!ended) {
+      if (!parameter.terminateIf(counter, next)) {
+        if (index < results.size()) {
+          return true;
+        }
+        if (current.hasNext()) {
+          current = nextBatch();
+          results = current.getResults();
+          index = 0;
+          if (!results.isEmpty()) {
+            return true;
+          }
+        }
+      }
+      end();
+    }
+    return false;
+  }
+
+  @Override
+  public T next() {
+    initialize();
+    if (index >= results.size()) {
+      throw new NoSuchElementException();
+    }
+    handle.touch();
+    counter++;
+    next = results.get(index++);
+    return next;
+  }
+
+  /**
+   * Returns a stream of this iterator, the stream is tracked by {@link QueryStreamResources} and
+   * the resource is released when the stream is closed, exhausted or unreachable.
+   */
+  public Stream<T> stream() {
+    return handle.bind(streamOf(this).onClose(handle::release));
+  }
+
+  protected void end() {
+    ended = true;
+    handle.release();
+  }
+
+  protected void initialize() {
+    if (current == null) {
+      try {
+        current = defaultObject(first.get(), Forwarding::inst);
+      } catch (RuntimeException e) {
+        end();
+        throw e;
+      }
+      results = current.getResults();
+      counter = current.hasResults() ? 1 : 0;
+      if (prefetchBatches > 0 && current.hasNext() && current.hasResults()) {
+        Prefetcher<T> usePrefetcher = new Prefetcher<>(current, follower, prefetchBatches);
+        releaser.prefetcher = usePrefetcher;
+        try {
+          PrefetchExecutor.INST.execute(usePrefetcher);
+          prefetcher = usePrefetcher;
+        } catch (RejectedExecutionException e) {
+          releaser.prefetcher = null;// the pool is saturated, read serially
+        }
+      }
+    }
+  }
+
+  protected Forwarding<T> nextBatch() {
+    try {
+      if (prefetcher != null) {
+        return prefetcher.take();
+      }
+      return defaultObject(follower.apply(current), Forwarding::inst);
+    } catch (RuntimeException e) {
+      end();
+      throw e;
+    }
+  }
+
+  /**
+   * corant-modules-query-shared
+   *
+   * @author bingo 上午10:48:15
+   *
+   */
+  static class PrefetchExecutor {
+    static final ExecutorService INST;
+    static {
+      int threads = Configs.getValue("corant.query.stream.prefetch-threads", Integer.class, 16);
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(0, Math.max(threads, 1), 60L,
+          TimeUnit.SECONDS, new SynchronousQueue<>(),
+          Threads.daemonThreadFactory("corant-query-stream-prefetch"));
+      INST = executor;
+    }
+  }
+
+  /**
+   * corant-modules-query-shared
+   *
+   * <p>
+   * Reads the subsequent batches into a bounded queue, each batch is read after the previous one
+   * since the next query may depend on the last record of the previous batch.
+   *
+   * @author bingo 上午10:48:15
+   *
+   */
+  static class Prefetcher<T> implements Runnable {
+    final BlockingQueue<Object> queue;
+    final UnaryOperator<Forwarding<T>> follower;
+    Forwarding<T> last;
+    volatile boolean cancelled;
+
+    Prefetcher(Forwarding<T> last, UnaryOperator<Forwarding<T>> follower, int capacity) {
+      this.last = last;
+      this.follower = follower;
+      queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void run() {
+      try {
+        Forwarding<T> prev = last;
+        while (!cancelled && prev.hasNext() && prev.hasResults()) {
+          Forwarding<T> batch = defaultObject(follower.apply(prev), Forwarding::inst);
+          put(batch);
+          prev = batch;
+        }
+      } catch (Throwable t) {
+        put(t);
+      } finally {
+        last = null;
+      }
+    }
+
+    void cancel() {
+      cancelled = true;
+      queue.clear();
+    }
+
+    void put(Object object) {
+      try {
+        while (!cancelled) {
+          if (queue.offer(object, 100, TimeUnit.MILLISECONDS)) {
+            return;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        cancelled = true;
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    Forwarding<T> take() {
+      Object object;
+      try {
+        while ((object = queue.poll(100, TimeUnit.MILLISECONDS)) == null) {
+          if (cancelled) {
+            throw new QueryRuntimeException("The query stream has been released.");
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new QueryRuntimeException(e);
+      }
+      if (object instanceof RuntimeException) {
+        throw (RuntimeException) object;
+      } else if (object instanceof Throwable) {
+        throw new CorantRuntimeException((Throwable) object);
+      }
+      return (Forwarding<T>) object;
+    }
+  }
+
+  /**
+   * corant-modules-query-shared
+   *
+   * <p>
+   * Cancels the prefetcher and releases the underlying resource, doesn't refer to the iterator.
+   *
+   * @author bingo 上午10:48:15
+   *
+   */
+  static class Releaser implements Runnable {
+    final Runnable resourceReleaser;
+    volatile Prefetcher<?> prefetcher;
+
+    Releaser(Runnable resourceReleaser) {
+      this.resourceReleaser = resourceReleaser;
+    }
+
+    @Override
+    public void run() {
+      Prefetcher<?> usePrefetcher = prefetcher;
+      if (usePrefetcher != null) {
+        usePrefetcher.cancel();
+      }
+      if (resourceReleaser != null) {
+        resourceReleaser.run();
+      }
+    }
+  }
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2013-2018, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.query.shared;
+
+import static org.corant.shared.util.Objects.max;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.corant.modules.query.QuerierConfig;
+import org.corant.modules.query.QueryRuntimeException;
+import org.corant.modules.query.shared.dynamic.DynamicQuerier;
+import org.corant.shared.util.Threads;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * corant-modules-query-shared
+ *
+ * <p>
+ * The paging total count handler, use to execute the total count query of the paging query. By
+ * default, the total count query is executed after the data query in the caller thread, the query
+ * can adjust the execution through the following properties:
+ * <ul>
+ * <li>{@link QuerierConfig#PRO_KEY_PAGINATION_COUNT_CONCURRENT}: Whether to execute the count query
+ * concurrently with the data query on a bounded executor, if the executor is saturated the count
+ * query is executed in the caller thread. Note: The concurrent count query doesn't participate in
+ * the caller's transaction.</li>
+ * <li>{@link QuerierConfig#PRO_KEY_PAGINATION_COUNT_CACHE_TTL}: The time to live of the cached
+ * total count, the cache key is the query name and the normalized query parameters (such as the
+ * resolved script and the script parameters).</li>
+ * <li>{@link QuerierConfig#PRO_KEY_PAGINATION_COUNT_APPROXIMATE}: Whether the expired cached total
+ * count can be used, if true the expired cached total count is returned directly and refreshed in
+ * background.</li>
+ * </ul>
+ *
+ * @author bingo 下午2:16:07
+ *
+ */
+@ApplicationScoped
+public class PagingCountHandler {
+
+  @Inject
+  protected Logger logger;
+
+  @Inject
+  @ConfigProperty(name = "corant.query.paging-count.threads", defaultValue = "4")
+  protected Integer threads;
+
+  @Inject
+  @ConfigProperty(name = "corant.query.paging-count.queue-capacity", defaultValue = "128")
+  protected Integer queueCapacity;
+
+  @Inject
+  @ConfigProperty(name = "corant.query.paging-count.cache-max-size", defaultValue = "1024")
+  protected Integer cacheMaxSize;
+
+  protected final Map<CountKey, CountEntry> caches = new ConcurrentHashMap<>();
+
+  protected volatile ThreadPoolExecutor executor;
+
+  /**
+   * Start counting for the given paging querier.
+   *
+   * @param querier the paging querier
+   * @param normalizedParameters the normalized query parameters that determine the count result,
+   *        such as the resolved script and the script parameters, use to build cache key.
+   * @param counter the count query execution
+   * @return a counting handle use to resolve the total
+   */
+  public Counting start(DynamicQuerier<?, ?> querier, Object[] normalizedParameters,
+      Callable<Integer> counter) {
+    Duration ttl = querier.resolveProperty(QuerierConfig.PRO_KEY_PAGINATION_COUNT_CACHE_TTL,
+        Duration.class, null);
+    boolean concurrent = querier.resolveProperty(
+        QuerierConfig.PRO_KEY_PAGINATION_COUNT_CONCURRENT, Boolean.class, Boolean.FALSE);
+    CountKey key = null;
+    if (ttl != null && !ttl.isZero() && !ttl.isNegative()) {
+      key = new CountKey(querier.getQuery().getVersionedName(), normalizedParameters);
+      CountEntry entry = caches.get(key);
+      if (entry != null) {
+        if (!entry.isExpired()) {
+          return new Counting(key, ttl, entry.total, null, counter);
+        } else if (querier.resolveProperty(QuerierConfig.PRO_KEY_PAGINATION_COUNT_APPROXIMATE,
+            Boolean.class, Boolean.FALSE)) {
+          refresh(key, ttl, entry, counter);
+          return new Counting(key, ttl, entry.total, null, counter);
+        }
+      }
+    }
+    return new Counting(key, ttl, null, concurrent ? submit(counter) : null, counter);
+  }
+
+  protected void cache(CountKey key, Duration ttl, int total) {
+    if (key != null) {
+      if (caches.size() >= cacheMaxSize) {
+        evict();
+      }
+      caches.put(key, new CountEntry(total, System.currentTimeMillis() + ttl.toMillis()));
+    }
+  }
+
+  protected void evict() {
+    caches.values().removeIf(CountEntry::isExpired);
+    Iterator<CountKey> it = caches.keySet().iterator();
+    while (caches.size() >= cacheMaxSize && it.hasNext()) {
+      it.next();
+      it.remove();
+    }
+  }
+
+  protected ThreadPoolExecutor getExecutor() {
+    if (executor == null) {
+      synchronized (this) {
+        if (executor == null) {
+          int size = max(threads, 1);
+          executor = new ThreadPoolExecutor(size, size, 60L, TimeUnit.SECONDS,
+              new ArrayBlockingQueue<>(max(queueCapacity, 1)),
+              Threads.daemonThreadFactory("corant-query-paging-count"),
+              new ThreadPoolExecutor.AbortPolicy());
+          executor.allowCoreThreadTimeOut(true);
+        }
+      }
+    }
+    return executor;
+  }
+
+  @PreDestroy
+  protected synchronized void onPreDestroy() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+    caches.clear();
+    logger.fine(() -> "Shutdown paging count handler and clear cached counts.");
+  }
+
+  protected void refresh(CountKey key, Duration ttl, CountEntry entry, Callable<Integer> counter) {
+    if (entry.refreshing.compareAndSet(false, true)) {
+      try {
+        getExecutor().execute(() -> {
+          try {
+            cache(key, ttl, counter.call());
+          } catch (Exception e) {
+            entry.refreshing.set(false);
+            logger.log(Level.WARNING, e, () -> "Refresh the cached paging count occurred error!");
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        entry.refreshing.set(false);
+      }
+    }
+  }
+
+  protected Future<Integer> submit(Callable<Integer> counter) {
+    try {
+      return getExecutor().submit(counter);
+    } catch (RejectedExecutionException e) {
+      logger.fine(() -> "The paging count executor is saturated, count in caller thread.");
+      return null;
+    }
+  }
+
+  /**
+   * corant-modules-query-shared
+   *
+   * @author bingo 下午2:16:07
+   *
+   */
+  protected static class CountEntry {
+    final int total;
+    final long expiredTime;
+    final AtomicBoolean refreshing = new AtomicBoolean();
+
+    CountEntry(int total, long expiredTime) {
+      this.total = total;
+      this.expiredTime = expiredTime;
+    }
+
+    boolean isExpired() {
+      return System.currentTimeMillis() > expiredTime;
+    }
+  }
+
+  /**
+   * corant-modules-query-shared
+   *
+   * @author bingo 下午2:16:07
+   *
+   */
+  protected static class CountKey {
+    final String queryName;
+    final Object[] parameters;
+    final int hash;
+
+    CountKey(String queryName, Object[] parameters) {
+      this.queryName = queryName;
+      this.parameters = parameters == null ? new Object[0] : parameters;
+      hash = Objects.hash(queryName, Arrays.deepHashCode(this.parameters));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj == null || getClass() != obj.getClass()) {
+        return false;
+      }
+      CountKey other = (CountKey) obj;
+      return hash == other.hash && Objects.equals(queryName, other.queryName)
+          && Arrays.deepEquals(parameters, other.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * corant-modules-query-shared
+   *
+   * <p>
+   * The paging total count handle, use to resolve the total after the data query was executed.
+   *
+   * @author bingo 下午2:16:07
+   *
+   */
+  public class Counting {
+    final CountKey key;
+    final Duration ttl;
+    final Integer cached;
+    final Future<Integer> future;
+    final Callable<Integer> counter;
+
+    Counting(CountKey key, Duration ttl, Integer cached, Future<Integer> future,
+        Callable<Integer> counter) {
+      this.key = key;
+      this.ttl = ttl;
+      this.cached = cached;
+      this.future = future;
+      this.counter = counter;
+    }
+
+    /**
+     * Cancel the counting if the count query was submitted.
+     */
+    public void cancel() {
+      if (future != null) {
+        future.cancel(true);
+      }
+    }
+
+    /**
+     * Resolve the total with the data query result, if the data query result size less than the
+     * limit the total is calculated directly and the submitted count query will be cancelled.
+     *
+     * @param offset the paging offset
+     * @param size the data query result size
+     * @param limit the paging limit
+     * @param timeout the timeout of waiting the concurrent count query, null means no timeout
+     * @return the total
+     */
+    public int resolve(int offset, int size, int limit, Duration timeout) {
+      if (size <= 0) {
+        cancel();
+        return 0;
+      }
+      if (size < limit) {
+        cancel();
+        int total = offset + size;
+        cache(key, ttl, total);
+        return total;
+      }
+      if (cached != null) {
+        return cached;
+      }
+      try {
+        Integer total;
+        if (future != null) {
+          total = timeout == null ? future.get()
+              : future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+          total = counter.call();
+        }
+        int useTotal = total == null ? 0 : total;
+        cache(key, ttl, useTotal);
+        return useTotal;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new QueryRuntimeException(e);
+      } catch (ExecutionException e) {
+        throw new QueryRuntimeException(e.getCause());
+      } catch (TimeoutException e) {
+        cancel();
+        throw new QueryRuntimeException(e);
+      } catch (Exception e) {
+        throw new QueryRuntimeException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2013-2018, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.query.shared;
+
+import static org.corant.context.Beans.findNamed;
+import static org.corant.shared.util.Objects.max;
+import static org.corant.shared.util.Objects.min;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.corant.modules.query.NamedQueryService;
+import org.corant.modules.query.Querier;
+import org.corant.modules.query.QuerierConfig;
+import org.corant.modules.query.QueryRuntimeException;
+import org.corant.modules.query.shared.dynamic.DynamicQuerier;
+import org.corant.shared.util.Threads;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * corant-modules-query-shared
+ *
+ * <p>
+ * The parallel fetch query handler, use to execute the fetch queries of a parent query in
+ * parallel. Each named query service uses its own bounded executor or the named managed executor
+ * service specified by 'corant.query.parallel-fetch.executor-name', the fetch queries of a parent
+ * query are submitted to the executor no more than the concurrency at a time, if any fetch query
+ * fails or the timeout elapses, the sibling fetch queries are cancelled.
+ *
+ * <p>
+ * The concurrency and timeout can be specified in query parameter context or query properties
+ * through {@link QuerierConfig#CTX_KEY_PARALLEL_FETCH_CONCURRENCY} and
+ * {@link QuerierConfig#CTX_KEY_PARALLEL_FETCH_TIMEOUT}.
+ *
+ * @author bingo 下午3:47:12
+ *
+ */
+@ApplicationScoped
+public class ParallelFetchHandler {
+
+  @Inject
+  protected Logger logger;
+
+  @Inject
+  @ConfigProperty(name = "corant.query.parallel-fetch.threads", defaultValue = "8")
+  protected Integer threads;
+
+  @Inject
+  @ConfigProperty(name = "corant.query.parallel-fetch.queue-capacity", defaultValue = "256")
+  protected Integer queueCapacity;
+
+  @Inject
+  @ConfigProperty(name = "corant.query.parallel-fetch.concurrency", defaultValue = "4")
+  protected Integer concurrency;
+
+  @Inject
+  @ConfigProperty(name = "corant.query.parallel-fetch.timeout")
+  protected Optional<Duration> timeout;
+
+  @Inject
+  @ConfigProperty(name = "corant.query.parallel-fetch.executor-name")
+  protected Optional<String> executorName;
+
+  protected final Map<NamedQueryService, ExecutorService> executors = new ConcurrentHashMap<>();
+
+  protected final Metrics metrics = new Metrics();
+
+  /**
+   * Execute the given fetch tasks in parallel and returns the results in the order of the given
+   * tasks.
+   *
+   * @param <T> the fetch result type
+   * @param service the named query service that launches the fetch queries
+   * @param querier the parent querier
+   * @param tasks the fetch tasks
+   * @return the fetch results
+   */
+  public <T> List<T> execute(NamedQueryService service, Querier querier,
+      List<Callable<T>> tasks) {
+    final int size = tasks.size();
+    final int useConcurrency;
+    final Duration useTimeout;
+    if (querier instanceof DynamicQuerier) {
+      DynamicQuerier<?, ?> dq = (DynamicQuerier<?, ?>) querier;
+      useConcurrency = max(min(dq.resolveProperty(QuerierConfig.CTX_KEY_PARALLEL_FETCH_CONCURRENCY,
+          Integer.class, concurrency), size), 1);
+      useTimeout = dq.resolveProperty(QuerierConfig.CTX_KEY_PARALLEL_FETCH_TIMEOUT, Duration.class,
+          timeout.orElse(null));
+    } else {
+      useConcurrency = max(min(concurrency, size), 1);
+      useTimeout = timeout.orElse(null);
+    }
+    final long deadline = useTimeout == null ? Long.MAX_VALUE
+        : System.nanoTime() + useTimeout.toNanos();
+    final ExecutorService executor = resolveExecutor(service);
+    final LinkedBlockingQueue<Integer> completions = new LinkedBlockingQueue<>();
+    final List<FetchTask<T>> submitted = new ArrayList<>(size);
+    final List<T> results = new ArrayList<>(size);
+    int completed = 0;
+    try {
+      while (submitted.size() < useConcurrency) {
+        submit(executor, tasks, submitted, completions);
+      }
+      while (completed < size) {
+        Integer index = useTimeout == null ? completions.take()
+            : completions.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        if (index == null) {
+          metrics.timeouts.increment();
+          throw new QueryRuntimeException(
+              "Parallel fetch queries of query [%s] timed out, the timeout is %s.",
+              querier.getQuery().getVersionedName(), useTimeout);
+        }
+        submitted.get(index).get();// check failure
+        completed++;
+        if (submitted.size() < size) {
+          submit(executor, tasks, submitted, completions);
+        }
+      }
+      for (FetchTask<T> task : submitted) {
+        results.add(task.get());
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new QueryRuntimeException(e);
+    } catch (ExecutionException e) {
+      metrics.failures.increment();
+      throw new QueryRuntimeException(e.getCause(),
+          "An error occurred while executing the parallel fetch queries of query [%s].",
+          querier.getQuery().getVersionedName());
+    } finally {
+      if (completed < size) {
+        for (FetchTask<T> task : submitted) {
+          if (task.cancel(true)) {
+            metrics.cancellations.increment();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the parallel fetch metrics.
+   */
+  public Metrics getMetrics() {
+    return metrics;
+  }
+
+  @PreDestroy
+  protected synchronized void onPreDestroy() {
+    if (!executorName.isPresent()) {
+      executors.values().forEach(ExecutorService::shutdownNow);
+    }
+    executors.clear();
+    logger.fine(() -> "Shutdown parallel fetch query executors.");
+  }
+
+  protected ExecutorService resolveExecutor(NamedQueryService service) {
+    return executors.computeIfAbsent(service, s -> {
+      if (executorName.isPresent()) {
+        return findNamed(ExecutorService.class, executorName.get())
+            .orElseThrow(() -> new QueryRuntimeException(
+                "Can't find the parallel fetch query executor service named [%s].",
+                executorName.get()));
+      }
+      int size = max(threads, 1);
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60L, TimeUnit.SECONDS,
+          new ArrayBlockingQueue<>(max(queueCapacity, 1)),
+          Threads.daemonThreadFactory("corant-query-parallel-fetch"),
+          new ThreadPoolExecutor.AbortPolicy());
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+    });
+  }
+
+  protected <T> void submit(ExecutorService executor, List<Callable<T>> tasks,
+      List<FetchTask<T>> submitted, LinkedBlockingQueue<Integer> completions) {
+    int index = submitted.size();
+    FetchTask<T> task = new FetchTask<>(tasks.get(index), index, completions, metrics);
+    submitted.add(task);
+    metrics.submissions.increment();
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      // the executor is saturated, run in caller thread
+      metrics.rejections.increment();
+      task.run();
+    }
+  }
+
+  /**
+   * corant-modules-query-shared
+   *
+   * <p>
+   * The parallel fetch query metrics, the queue time is the time that the fetch task waits in the
+   * executor queue, the execution time is the time that the fetch query executes.
+   *
+   * @author bingo 下午3:47:12
+   *
+   */
+  public static class Metrics {
+    final LongAdder submissions = new LongAdder();
+    final LongAdder rejections = new LongAdder();
+    final LongAdder failures = new LongAdder();
+    final LongAdder timeouts = new LongAdder();
+    final LongAdder cancellations = new LongAdder();
+    final LongAdder executions = new LongAdder();
+    final LongAdder queueNanos = new LongAdder();
+    final LongAdder executionNanos = new LongAdder();
+    final LongAccumulator maxQueueNanos = new LongAccumulator(Long::max, 0);
+    final LongAccumulator maxExecutionNanos = new LongAccumulator(Long::max, 0);
+
+    public long getCancellations() {
+      return cancellations.sum();
+    }
+
+    public long getExecutions() {
+      return executions.sum();
+    }
+
+    public long getFailures() {
+      return failures.sum();
+    }
+
+    public Duration getMaxExecutionTime() {
+      return Duration.ofNanos(maxExecutionNanos.get());
+    }
+
+    public Duration getMaxQueueTime() {
+      return Duration.ofNanos(maxQueueNanos.get());
+    }
+
+    public Duration getMeanExecutionTime() {
+      long count = executions.sum();
+      return count == 0 ? Duration.ZERO : Duration.ofNanos(executionNanos.sum() / count);
+    }
+
+    public Duration getMeanQueueTime() {
+      long count = executions.sum();
+      return count == 0 ? Duration.ZERO : Duration.ofNanos(queueNanos.sum() / count);
+    }
+
+    public long getRejections() {
+      return rejections.sum();
+    }
+
+    public long getSubmissions() {
+      return submissions.sum();
+    }
+
+    public long getTimeouts() {
+      return timeouts.sum();
+    }
+
+    @Override
+    public String toString() {
+      return "ParallelFetchMetrics [submissions=" + getSubmissions() + ", executions="
+          + getExecutions() + ", rejections=" + getRejections() + ", failures=" + getFailures()
+          + ", timeouts=" + getTimeouts() + ", cancellations=" + getCancellations()
+          + ", meanQueueTime=" + getMeanQueueTime() + ", maxQueueTime=" + getMaxQueueTime()
+          + ", meanExecutionTime=" + getMeanExecutionTime() + ", maxExecutionTime="
+          + getMaxExecutionTime() + "]";
+    }
+
+    void record(long queueNanos, long executionNanos) {
+      executions.increment();
+      this.queueNanos.add(queueNanos);
+      this.executionNanos.add(executionNanos);
+      maxQueueNanos.accumulate(queueNanos);
+      maxExecutionNanos.accumulate(executionNanos);
+    }
+  }
+
+  /**
+   * corant-modules-query-shared
+   *
+   * @author bingo 下午3:47:12
+   *
+   */
+  protected static class FetchTask<T> extends FutureTask<T> {
+    final int index;
+    final LinkedBlockingQueue<Integer> completions;
+    final Metrics metrics;
+    final long submittedTime = System.nanoTime();
+
+    FetchTask(Callable<T> callable, int index, LinkedBlockingQueue<Integer> completions,
+        Metrics metrics) {
+      super(callable);
+      this.index = index;
+      this.completions = completions;
+      this.metrics = metrics;
+    }
+
+    @Override
+    public void run() {
+      long startTime = System.nanoTime();
+      try {
+        super.run();
+      } finally {
+        metrics.record(startTime - submittedTime, System.nanoTime() - startTime);
+      }
+    }
+
+    @Override
+    protected void done() {
+      if (!isCancelled()) {
+        completions.add(index);
+      }
+    }
+  }
+}
@@ -13,18 +13,27 @@
  */
 package org.corant.modules.query.shared;
 
+import static org.corant.context.Beans.resolve;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.function.Function;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.enterprise.event.Observes;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import org.corant.context.ContainerEvents.PostContainerStartedEvent;
 import org.corant.modules.query.mapping.FetchQuery;
 import org.corant.modules.query.mapping.FetchQuery.FetchQueryParameter;
+import org.corant.modules.query.mapping.Query;
 import org.corant.modules.query.mapping.QueryHint;
 import org.corant.modules.query.mapping.Script;
 import org.corant.modules.query.shared.ScriptProcessor.ParameterAndResult;
 import org.corant.modules.query.shared.ScriptProcessor.ParameterAndResultPair;
 import org.corant.shared.ubiquity.Sortable;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 /**
  * corant-modules-query-shared
@@ -40,9 +49,52 @@ public class QueryScriptEngines {
   @Inject
   protected Instance<ScriptProcessor> processors;
 
+  @Inject
+  @ConfigProperty(name = "corant.query.script.precompile", defaultValue = "true")
+  protected Boolean precompile;
+
   /**
-   * NOTE: Don't share the complied function in multi threads.
+   * Compile all the query scripts of the given queries in advance.
    *
+   * @param queries the queries
+   */
+  public void precompile(Collection<Query> queries) {
+    final List<Script> scripts = new ArrayList<>();
+    for (Query query : queries) {
+      if (query.getHints() != null) {
+        for (QueryHint qh : query.getHints()) {
+          scripts.add(qh.getScript());
+        }
+      }
+      if (query.getFetchQueries() != null) {
+        for (FetchQuery fq : query.getFetchQueries()) {
+          scripts.add(fq.getPredicateScript());
+          scripts.add(fq.getInjectionScript());
+          if (fq.getParameters() != null) {
+            for (FetchQueryParameter fp : fq.getParameters()) {
+              scripts.add(fp.getScript());
+            }
+          }
+        }
+      }
+    }
+    scripts.removeIf(s -> s == null || !s.isValid());
+    if (!scripts.isEmpty()) {
+      long start = System.currentTimeMillis();
+      processors.forEach(p -> {
+        try {
+          p.precompile(scripts);
+        } catch (Exception e) {
+          logger.log(Level.WARNING, e,
+              () -> String.format("Precompile query scripts with %s occurred error!", p));
+        }
+      });
+      logger.fine(() -> String.format("Precompiled %s query scripts in %s ms.", scripts.size(),
+          System.currentTimeMillis() - start));
+    }
+  }
+
+  /**
    * @see ScriptProcessor#resolveFetchInjections(FetchQuery)
    */
   public Function<ParameterAndResultPair, Object> resolveFetchInjections(FetchQuery fetchQuery) {
@@ -53,8 +105,6 @@ public class QueryScriptEngines {
   }
 
   /**
-   * NOTE: Don't share the complied function in multi threads.
-   *
    * @see ScriptProcessor#resolveFetchParameter(FetchQueryParameter)
    */
   public Function<ParameterAndResult, Object> resolveFetchParameter(FetchQueryParameter parameter) {
@@ -64,8 +114,6 @@ public class QueryScriptEngines {
   }
 
   /**
-   * NOTE: Don't share the complied function in multi threads.
-   *
    * @see ScriptProcessor#resolveFetchPredicates(FetchQuery)
    */
   public Function<ParameterAndResult, Object> resolveFetchPredicates(FetchQuery fetchQuery) {
@@ -76,8 +124,6 @@ public class QueryScriptEngines {
   }
 
   /**
-   * NOTE: Don't share the complied function in multi threads.
-   *
    * @see ScriptProcessor#resolveQueryHintResultScriptMappers(QueryHint)
    */
   public Function<ParameterAndResult, Object> resolveQueryHintResultScriptMappers(
@@ -91,4 +137,10 @@ public class QueryScriptEngines {
     }
   }
 
+  protected void onPostContainerStarted(@Observes PostContainerStartedEvent event) {
+    if (precompile != null && precompile) {
+      precompile(resolve(QueryMappingService.class).getQueries());
+    }
+  }
+
 }
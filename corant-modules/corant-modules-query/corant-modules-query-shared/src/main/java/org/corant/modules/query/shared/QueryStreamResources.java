@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2013-2018, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.query.shared;
+
+import static org.corant.shared.util.MBeans.registerToMBean;
+import static org.corant.shared.util.Objects.max;
+import static org.corant.shared.util.Objects.min;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.ref.Cleaner;
+import java.lang.ref.Cleaner.Cleanable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.corant.config.Configs;
+import org.corant.shared.util.Threads;
+
+/**
+ * corant-modules-query-shared
+ *
+ * <p>
+ * The process wide resource release facility of the streamed query results. All query streams
+ * share one {@link Cleaner} thread, each open stream is registered with its owner thread, the
+ * query description and optional open stack, and released exactly once either explicitly (stream
+ * closed or exhausted), by the cleaner when the stream becomes unreachable, by the idle or
+ * absolute timeout, or forcibly through JMX.
+ *
+ * <p>
+ * Configuration:
+ * <ul>
+ * <li>corant.query.stream.idle-timeout: the maximum duration that an open stream is not accessed,
+ * default unlimited</li>
+ * <li>corant.query.stream.absolute-timeout: the maximum duration that a stream stays open, default
+ * unlimited</li>
+ * <li>corant.query.stream.track-stack: whether to record the open stack of the streams, default
+ * false</li>
+ * </ul>
+ *
+ * <pre>
+ * StreamHandle handle = QueryStreamResources.INST.open(queryName, releaser);
+ * Stream&lt;T&gt; stream = handle.bind(streamOf(iterator).onClose(handle::release));
+ * </pre>
+ *
+ * @author bingo 上午11:20:43
+ *
+ */
+public class QueryStreamResources implements QueryStreamResourcesMBean {
+
+  public static final String MBEAN_NAME = "org.corant:type=query,name=QueryStreamResources";
+
+  public static final QueryStreamResources INST = new QueryStreamResources(
+      Configs.getValue("corant.query.stream.idle-timeout", Duration.class, null),
+      Configs.getValue("corant.query.stream.absolute-timeout", Duration.class, null),
+      Configs.getValue("corant.query.stream.track-stack", Boolean.class, Boolean.FALSE));
+
+  static final Logger logger = Logger.getLogger(QueryStreamResources.class.getName());
+  static final Cleaner cleaner =
+      Cleaner.create(Threads.daemonThreadFactory("corant-query-stream-cleaner"));
+
+  static final int CAUSE_GC = 0;
+  static final int CAUSE_EXPLICIT = 1;
+  static final int CAUSE_IDLE_TIMEOUT = 2;
+  static final int CAUSE_ABSOLUTE_TIMEOUT = 3;
+  static final int CAUSE_FORCE = 4;
+
+  protected final Duration idleTimeout;
+  protected final Duration absoluteTimeout;
+  protected final boolean trackStack;
+  protected final Map<Long, StreamHandle> opens = new ConcurrentHashMap<>();
+  protected final AtomicLong ids = new AtomicLong();
+  protected final LongAdder opened = new LongAdder();
+  protected final LongAdder[] released = {new LongAdder(), new LongAdder(), new LongAdder(),
+      new LongAdder(), new LongAdder()};
+  protected final ScheduledExecutorService reaper;
+
+  protected QueryStreamResources(Duration idleTimeout, Duration absoluteTimeout,
+      boolean trackStack) {
+    this.idleTimeout = idleTimeout;
+    this.absoluteTimeout = absoluteTimeout;
+    this.trackStack = trackStack;
+    if (idleTimeout != null || absoluteTimeout != null) {
+      long interval = Long.MAX_VALUE;
+      if (idleTimeout != null) {
+        interval = idleTimeout.toMillis();
+      }
+      if (absoluteTimeout != null) {
+        interval = min(interval, absoluteTimeout.toMillis());
+      }
+      interval = max(min(interval >> 1, 60000L), 1000L);
+      reaper = Executors.newSingleThreadScheduledExecutor(
+          Threads.daemonThreadFactory("corant-query-stream-reaper"));
+      reaper.scheduleWithFixedDelay(this::reap, interval, interval, TimeUnit.MILLISECONDS);
+    } else {
+      reaper = null;
+    }
+    try {
+      registerToMBean(MBEAN_NAME, this);
+    } catch (Exception e) {
+      logger.log(Level.WARNING, e, () -> "Can't register the query stream resources MBean.");
+    }
+  }
+
+  @Override
+  public boolean forceClose(long id) {
+    StreamHandle handle = opens.get(id);
+    return handle != null && handle.release(CAUSE_FORCE);
+  }
+
+  @Override
+  public int forceCloseIdle(long idleMillis) {
+    long now = System.currentTimeMillis();
+    int closed = 0;
+    for (StreamHandle handle : opens.values()) {
+      if (now - handle.accessedTime >= idleMillis && handle.release(CAUSE_FORCE)) {
+        closed++;
+      }
+    }
+    return closed;
+  }
+
+  @Override
+  public long getAbsoluteTimeoutReleasedCount() {
+    return released[CAUSE_ABSOLUTE_TIMEOUT].sum();
+  }
+
+  @Override
+  public long getExplicitReleasedCount() {
+    return released[CAUSE_EXPLICIT].sum();
+  }
+
+  @Override
+  public long getForceReleasedCount() {
+    return released[CAUSE_FORCE].sum();
+  }
+
+  @Override
+  public long getGcReleasedCount() {
+    return released[CAUSE_GC].sum();
+  }
+
+  @Override
+  public long getIdleTimeoutReleasedCount() {
+    return released[CAUSE_IDLE_TIMEOUT].sum();
+  }
+
+  @Override
+  public int getOpenCount() {
+    return opens.size();
+  }
+
+  @Override
+  public long getOpenedCount() {
+    return opened.sum();
+  }
+
+  @Override
+  public String[] listOpenStreams() {
+    List<String> list = new ArrayList<>(opens.size());
+    opens.values().forEach(h -> list.add(h.toString()));
+    return list.toArray(new String[list.size()]);
+  }
+
+  /**
+   * Register an open stream resource, the returned handle must be bound to the stream that holds
+   * the resource through {@link StreamHandle#bind(Object)}, and should be touched when the stream
+   * is accessed and released when the stream is closed or exhausted.
+   *
+   * @param description the stream description, such as the query name
+   * @param releaser the resource releaser, it is invoked exactly once
+   * @return the stream handle
+   */
+  public StreamHandle open(String description, Runnable releaser) {
+    StreamHandle handle = new StreamHandle(ids.incrementAndGet(), description, releaser,
+        trackStack ? new Exception("Query stream opened here") : null);
+    opens.put(handle.id, handle);
+    opened.increment();
+    return handle;
+  }
+
+  protected void reap() {
+    try {
+      long now = System.currentTimeMillis();
+      for (StreamHandle handle : opens.values()) {
+        if (absoluteTimeout != null && now - handle.openedTime >= absoluteTimeout.toMillis()) {
+          if (handle.release(CAUSE_ABSOLUTE_TIMEOUT)) {
+            logger.warning(() -> "Release the query stream that exceeded the absolute timeout, "
+                + handle);
+          }
+        } else if (idleTimeout != null && now - handle.accessedTime >= idleTimeout.toMillis()
+            && handle.release(CAUSE_IDLE_TIMEOUT)) {
+          logger.warning(() -> "Release the query stream that exceeded the idle timeout, " + handle);
+        }
+      }
+    } catch (Exception e) {
+      logger.log(Level.WARNING, e, () -> "Reap query streams error!");
+    }
+  }
+
+  /**
+   * corant-modules-query-shared
+   *
+   * <p>
+   * The handle of an open stream resource. The handle doesn't refer to the stream, so that the
+   * stream can be phantom reachable and cleaned by the shared cleaner.
+   *
+   * @author bingo 上午11:20:43
+   *
+   */
+  public final class StreamHandle implements Runnable {
+    final long id;
+    final String description;
+    final String owner = Thread.currentThread().getName();
+    final long openedTime = System.currentTimeMillis();
+    final Exception openStack;
+    final AtomicBoolean released = new AtomicBoolean();
+    final Runnable releaser;
+    volatile long accessedTime = openedTime;
+    volatile Cleanable cleanable;
+
+    StreamHandle(long id, String description, Runnable releaser, Exception openStack) {
+      this.id = id;
+      this.description = description;
+      this.releaser = releaser;
+      this.openStack = openStack;
+    }
+
+    /**
+     * Register the given stream to the shared cleaner, if the stream becomes phantom reachable
+     * before it is released the resource is released by the cleaner.
+     *
+     * @param <T> the stream type
+     * @param stream the stream that holds the resource
+     * @return the given stream
+     */
+    public <T> T bind(T stream) {
+      if (!released.get()) {
+        cleanable = cleaner.register(stream, this);
+      }
+      return stream;
+    }
+
+    public long getId() {
+      return id;
+    }
+
+    public boolean isReleased() {
+      return released.get();
+    }
+
+    /**
+     * Release the resource explicitly, this method can be invoked multiple times, the releaser is
+     * only invoked once.
+     */
+    public void release() {
+      release(CAUSE_EXPLICIT);
+    }
+
+    /**
+     * Invoked by the shared cleaner.
+     */
+    @Override
+    public void run() {
+      if (release0(CAUSE_GC)) {
+        logger.warning(() -> "Release the unreachable query stream that was not closed, " + this);
+      }
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("QueryStream [id=").append(id).append(", owner=")
+          .append(owner).append(", description=").append(description).append(", opened=")
+          .append(Instant.ofEpochMilli(openedTime)).append(", accessed=")
+          .append(Instant.ofEpochMilli(accessedTime)).append("]");
+      if (openStack != null) {
+        StringWriter sw = new StringWriter();
+        openStack.printStackTrace(new PrintWriter(sw));
+        sb.append(System.lineSeparator()).append(sw);
+      }
+      return sb.toString();
+    }
+
+    /**
+     * Record the access time of the stream, use for idle timeout.
+     */
+    public void touch() {
+      accessedTime = System.currentTimeMillis();
+    }
+
+    boolean release(int cause) {
+      boolean result = release0(cause);
+      Cleanable useCleanable = cleanable;
+      if (useCleanable != null) {
+        useCleanable.clean();// deregister, the run() is noop now
+      }
+      return result;
+    }
+
+    boolean release0(int cause) {
+      if (released.compareAndSet(false, true)) {
+        opens.remove(id);
+        QueryStreamResources.this.released[cause].increment();
+        try {
+          releaser.run();
+        } catch (Exception e) {
+          logger.log(Level.WARNING, e, () -> "Release query stream error, " + this);
+        }
+        return true;
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2013-2018, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.query.shared;
+
+/**
+ * corant-modules-query-shared
+ *
+ * <p>
+ * The management interface of {@link QueryStreamResources}.
+ *
+ * @author bingo 上午11:20:43
+ *
+ */
+public interface QueryStreamResourcesMBean {
+
+  /**
+   * Force close the open stream with the given id.
+   *
+   * @param id the stream id
+   * @return true if the stream was open and has been closed
+   */
+  boolean forceClose(long id);
+
+  /**
+   * Force close the open streams that have not been accessed for the given milliseconds.
+   *
+   * @param idleMillis the idle milliseconds
+   * @return the number of the closed streams
+   */
+  int forceCloseIdle(long idleMillis);
+
+  long getAbsoluteTimeoutReleasedCount();
+
+  long getExplicitReleasedCount();
+
+  long getGcReleasedCount();
+
+  long getForceReleasedCount();
+
+  long getIdleTimeoutReleasedCount();
+
+  int getOpenCount();
+
+  long getOpenedCount();
+
+  /**
+   * Returns the descriptions of the open streams, include the id, the owner thread, the query, the
+   * open time, the last access time and the open stack if stack tracking is enabled.
+   */
+  String[] listOpenStreams();
+}
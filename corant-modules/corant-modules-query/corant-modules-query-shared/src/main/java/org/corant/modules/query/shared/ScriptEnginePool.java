@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2013-2018, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.query.shared;
+
+import static org.corant.shared.util.Assertions.shouldNotBlank;
+import static org.corant.shared.util.Objects.max;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptException;
+import org.corant.modules.query.mapping.Script;
+import org.corant.shared.exception.CorantRuntimeException;
+
+/**
+ * corant-modules-query-shared
+ *
+ * <p>
+ * A bounded script engine pool, each pooled engine keeps its own compiled scripts and is used by
+ * only one thread at a time, so that the engines that are not thread safe (such as Nashorn and
+ * Kotlin script engine) can be shared among threads. The number of the engines doesn't grow with
+ * the number of the working threads, if all engines are in use the caller waits for an idle one.
+ *
+ * @author bingo 下午3:12:05
+ *
+ */
+public class ScriptEnginePool {
+
+  static final Logger logger = Logger.getLogger(ScriptEnginePool.class.getName());
+
+  protected final String name;
+  protected final Supplier<Compilable> engineFactory;
+  protected final int size;
+  protected final LinkedBlockingQueue<Slot> idles = new LinkedBlockingQueue<>();
+  protected final AtomicInteger created = new AtomicInteger();
+  protected final LongAdder compilations = new LongAdder();
+  protected final LongAdder compileNanos = new LongAdder();
+  protected final LongAdder evaluations = new LongAdder();
+  protected final LongAdder evaluateNanos = new LongAdder();
+  protected final LongAdder waitNanos = new LongAdder();
+
+  /**
+   * Create a script engine pool
+   *
+   * @param name the pool name, use for logging
+   * @param engineFactory the script engine factory
+   * @param size the maximum number of the pooled engines
+   */
+  public ScriptEnginePool(String name, Supplier<Compilable> engineFactory, int size) {
+    this.name = name;
+    this.engineFactory = engineFactory;
+    this.size = max(size, 1);
+  }
+
+  /**
+   * Compile the given script on an idle engine, use to check the script and warm up.
+   *
+   * @param script the script to compile
+   */
+  public void compile(Script script) {
+    Slot slot = borrow();
+    try {
+      slot.resolve(script);
+    } finally {
+      idles.offer(slot);
+    }
+  }
+
+  /**
+   * Evaluate the given script with the given bindings on an idle engine, if the script has not
+   * been compiled on the engine then compile it first.
+   *
+   * @param script the script to evaluate
+   * @param bindings the bindings
+   * @return the evaluation result
+   */
+  public Object eval(Script script, Bindings bindings) {
+    Slot slot = borrow();
+    try {
+      CompiledScript cs = slot.resolve(script);
+      long start = System.nanoTime();
+      try {
+        return cs.eval(bindings);
+      } finally {
+        evaluations.increment();
+        evaluateNanos.add(System.nanoTime() - start);
+      }
+    } catch (ScriptException e) {
+      throw new CorantRuntimeException(e);
+    } finally {
+      idles.offer(slot);
+    }
+  }
+
+  public long getCompilations() {
+    return compilations.sum();
+  }
+
+  public Duration getCompileTime() {
+    return Duration.ofNanos(compileNanos.sum());
+  }
+
+  public long getEvaluations() {
+    return evaluations.sum();
+  }
+
+  public Duration getEvaluateTime() {
+    return Duration.ofNanos(evaluateNanos.sum());
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public Duration getWaitTime() {
+    return Duration.ofNanos(waitNanos.sum());
+  }
+
+  /**
+   * Compile the given scripts on all engines of this pool, the missing engines are created. This
+   * method is used at startup, the engines in use are skipped and compile the scripts lazily.
+   *
+   * @param scripts the scripts to compile
+   */
+  public void precompile(List<Script> scripts) {
+    while (created.get() < size) {
+      if (created.incrementAndGet() <= size) {
+        idles.offer(new Slot(engineFactory.get()));
+      } else {
+        created.decrementAndGet();
+      }
+    }
+    List<Slot> slots = new ArrayList<>(size);
+    idles.drainTo(slots);
+    try {
+      for (Slot slot : slots) {
+        for (Script script : scripts) {
+          slot.resolve(script);
+        }
+      }
+    } finally {
+      idles.addAll(slots);
+    }
+  }
+
+  /**
+   * Release all pooled engines and the compiled scripts.
+   */
+  public void release() {
+    List<Slot> slots = new ArrayList<>(size);
+    idles.drainTo(slots);
+    slots.forEach(s -> s.compiledScripts.clear());
+    created.addAndGet(-slots.size());
+  }
+
+  @Override
+  public String toString() {
+    return "ScriptEnginePool [name=" + name + ", size=" + size + ", created=" + created.get()
+        + ", compilations=" + getCompilations() + ", compileTime=" + getCompileTime()
+        + ", evaluations=" + getEvaluations() + ", evaluateTime=" + getEvaluateTime()
+        + ", waitTime=" + getWaitTime() + "]";
+  }
+
+  protected Slot borrow() {
+    Slot slot = idles.poll();
+    if (slot != null) {
+      return slot;
+    }
+    if (created.incrementAndGet() <= size) {
+      return new Slot(engineFactory.get());
+    }
+    created.decrementAndGet();
+    long start = System.nanoTime();
+    try {
+      return idles.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CorantRuntimeException(e);
+    } finally {
+      waitNanos.add(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * corant-modules-query-shared
+   *
+   * <p>
+   * A pooled engine and its compiled scripts, only accessed by the borrower thread.
+   *
+   * @author bingo 下午3:12:05
+   *
+   */
+  protected class Slot {
+    final Compilable engine;
+    final Map<String, CompiledScript> compiledScripts = new HashMap<>();
+
+    Slot(Compilable engine) {
+      this.engine = engine;
+    }
+
+    CompiledScript resolve(Script script) {
+      CompiledScript cs = compiledScripts.get(script.getId());
+      if (cs == null) {
+        long start = System.nanoTime();
+        try {
+          cs = engine.compile(shouldNotBlank(script.getCode()));
+        } catch (ScriptException e) {
+          throw new CorantRuntimeException(e);
+        }
+        long used = System.nanoTime() - start;
+        compilations.increment();
+        compileNanos.add(used);
+        compiledScripts.put(script.getId(), cs);
+        logger.fine(() -> String.format("Compile the query script %s in %s ms on pool %s.",
+            script.getId(), used / 1000000, name));
+      }
+      return cs;
+    }
+  }
+}
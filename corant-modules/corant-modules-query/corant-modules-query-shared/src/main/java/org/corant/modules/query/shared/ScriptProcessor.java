@@ -14,15 +14,19 @@
 package org.corant.modules.query.shared;
 
 import static org.corant.shared.util.Assertions.shouldBeTrue;
-import static org.corant.shared.util.Assertions.shouldNotBlank;
-import java.util.HashMap;
+import static org.corant.shared.util.Objects.defaultObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.logging.Logger;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
 import javax.script.Bindings;
 import javax.script.Compilable;
-import javax.script.CompiledScript;
-import javax.script.ScriptException;
 import javax.script.SimpleBindings;
 import org.corant.modules.query.FetchQueryHandler;
 import org.corant.modules.query.QueryParameter;
@@ -32,9 +36,9 @@ import org.corant.modules.query.mapping.QueryHint;
 import org.corant.modules.query.mapping.Script;
 import org.corant.modules.query.mapping.Script.ScriptType;
 import org.corant.modules.query.shared.spi.ResultScriptMapperHintHandler;
-import org.corant.shared.exception.CorantRuntimeException;
 import org.corant.shared.exception.NotSupportedException;
 import org.corant.shared.ubiquity.Sortable;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 /**
  * corant-modules-query-shared
@@ -93,6 +97,14 @@ public interface ScriptProcessor extends Sortable {
     throw new NotSupportedException();
   }
 
+  /**
+   * Compile the given scripts in advance, use to reduce the first call latency. The scripts that
+   * are not supported by this processor are ignored.
+   *
+   * @param scripts the scripts to compile
+   */
+  default void precompile(List<Script> scripts) {}
+
   /**
    * Returns whether the processor can support the given script.
    *
@@ -111,11 +123,41 @@ public interface ScriptProcessor extends Sortable {
 
     static final Logger logger = Logger.getLogger(CompilableScriptProcessor.class.getName());
 
-    protected static final ThreadLocal<Map<Object, Function<ParameterAndResult, Object>>> PARAM_RESULT_FUNCTIONS =
-        ThreadLocal.withInitial(HashMap::new);
+    protected final Map<Object, Function<ParameterAndResult, Object>> paramResultFunctions =
+        new ConcurrentHashMap<>();
+
+    protected final Map<Object, Function<ParameterAndResultPair, Object>> paramResultPairFunctions =
+        new ConcurrentHashMap<>();
 
-    protected static final ThreadLocal<Map<Object, Function<ParameterAndResultPair, Object>>> PARAM_RESULT_PAIR_FUNCTIONS =
-        ThreadLocal.withInitial(HashMap::new);
+    protected final Map<ScriptType, ScriptEnginePool> enginePools = new ConcurrentHashMap<>();
+
+    @Inject
+    @ConfigProperty(name = "corant.query.script.engine-pool-size", defaultValue = "4")
+    protected Integer enginePoolSize;
+
+    /**
+     * Returns the script engine pools of this processor, use to obtain the compile and evaluate
+     * timings.
+     */
+    public Map<ScriptType, ScriptEnginePool> getEnginePools() {
+      return Collections.unmodifiableMap(enginePools);
+    }
+
+    @Override
+    public void precompile(List<Script> scripts) {
+      Map<ScriptType, List<Script>> typedScripts = new EnumMap<>(ScriptType.class);
+      for (Script script : scripts) {
+        if (script != null && script.isValid() && supports(script)) {
+          typedScripts.computeIfAbsent(script.getType(), k -> new ArrayList<>()).add(script);
+        }
+      }
+      typedScripts.forEach((type, typeScripts) -> {
+        ScriptEnginePool pool = resolveEnginePool(type);
+        pool.precompile(typeScripts);
+        logger.fine(() -> String.format("Precompiled %s %s query scripts, %s.", typeScripts.size(),
+            type, pool));
+      });
+    }
 
     @Override
     public Function<ParameterAndResultPair, Object> resolveFetchInjections(FetchQuery fetchQuery) {
@@ -163,62 +205,50 @@ public interface ScriptProcessor extends Sortable {
 
     protected Function<ParameterAndResult, Object> compileFunction(Script script,
         String parameterPName, String resultPName) {
-      return PARAM_RESULT_FUNCTIONS.get().computeIfAbsent(script.getId(), k -> {
-        try {
-          logger.fine(() -> String.format(
-              "Compile the query consumer script, id is %s, the thread name is %s id is %s",
-              script.getId(), Thread.currentThread().getName(), Thread.currentThread().getId()));
-          final Compilable se = getCompilable(script.getType());
-          final CompiledScript cs = se.compile(shouldNotBlank(script.getCode()));
-          return pns -> {
-            Bindings bindings = new SimpleBindings();
-            try {
-              bindings.put(parameterPName, pns.parameter);
-              bindings.put(resultPName, pns.result);
-              return cs.eval(bindings);
-            } catch (ScriptException e) {
-              throw new CorantRuntimeException(e);
-            } finally {
-              bindings.clear();
-            }
-          };
-        } catch (ScriptException e) {
-          throw new CorantRuntimeException(e);
-        }
+      return paramResultFunctions.computeIfAbsent(script.getId(), k -> {
+        final ScriptEnginePool pool = resolveEnginePool(script.getType());
+        pool.compile(script);
+        return pns -> {
+          Bindings bindings = new SimpleBindings();
+          bindings.put(parameterPName, pns.parameter);
+          bindings.put(resultPName, pns.result);
+          return pool.eval(script, bindings);
+        };
       });
     }
 
     protected Function<ParameterAndResultPair, Object> compileFunction(Script script,
         String parameterPName, String parentResultPName, String fetchResultPName) {
-      return PARAM_RESULT_PAIR_FUNCTIONS.get().computeIfAbsent(script.getId(), k -> {
-        try {
-          logger.fine(() -> String.format(
-              "Compile the query consumer script, id is %s, the thread name is %s id is %s",
-              script.getId(), Thread.currentThread().getName(), Thread.currentThread().getId()));
-          final Compilable se = getCompilable(script.getType());
-          final CompiledScript cs = se.compile(shouldNotBlank(script.getCode()));
-          return pns -> {
-            Bindings bindings = new SimpleBindings();
-            try {
-              if (parameterPName != null) {
-                bindings.put(parameterPName, pns.parameter);
-              }
-              bindings.put(parentResultPName, pns.parentResult);
-              bindings.put(fetchResultPName, pns.fetchedResult);
-              return cs.eval(bindings);
-            } catch (ScriptException e) {
-              throw new CorantRuntimeException(e);
-            } finally {
-              bindings.clear();
-            }
-          };
-        } catch (ScriptException e) {
-          throw new CorantRuntimeException(e);
-        }
+      return paramResultPairFunctions.computeIfAbsent(script.getId(), k -> {
+        final ScriptEnginePool pool = resolveEnginePool(script.getType());
+        pool.compile(script);
+        return pns -> {
+          Bindings bindings = new SimpleBindings();
+          if (parameterPName != null) {
+            bindings.put(parameterPName, pns.parameter);
+          }
+          bindings.put(parentResultPName, pns.parentResult);
+          bindings.put(fetchResultPName, pns.fetchedResult);
+          return pool.eval(script, bindings);
+        };
       });
     }
 
     protected abstract Compilable getCompilable(ScriptType type);
+
+    @PreDestroy
+    protected void onPreDestroy() {
+      paramResultFunctions.clear();
+      paramResultPairFunctions.clear();
+      enginePools.values().forEach(ScriptEnginePool::release);
+      enginePools.clear();
+    }
+
+    protected ScriptEnginePool resolveEnginePool(ScriptType type) {
+      return enginePools.computeIfAbsent(type,
+          t -> new ScriptEnginePool(getClass().getSimpleName() + "-" + t,
+              () -> getCompilable(t), defaultObject(enginePoolSize, 4)));
+    }
   }
 
   /**
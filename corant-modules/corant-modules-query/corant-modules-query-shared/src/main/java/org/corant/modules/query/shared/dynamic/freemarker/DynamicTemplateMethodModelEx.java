@@ -41,4 +41,16 @@ public interface DynamicTemplateMethodModelEx<P> extends TemplateMethodModelEx {
     return TYPE;
   }
 
+  /**
+   * Returns whether this template method model only outputs placeholders and collects the
+   * parameter values, the rendered statement of such template method model does not depend on the
+   * parameter values and can be cached.
+   *
+   * @return isPlaceholderOutput
+   * @see FreemarkerStatementCache
+   */
+  default boolean isPlaceholderOutput() {
+    return false;
+  }
+
 }
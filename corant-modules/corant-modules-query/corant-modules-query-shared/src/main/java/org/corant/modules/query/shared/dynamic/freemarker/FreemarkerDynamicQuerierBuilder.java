@@ -51,6 +51,8 @@ public abstract class FreemarkerDynamicQuerierBuilder<P, S, Q extends DynamicQue
 
   protected final Template execution;
 
+  protected final FreemarkerStatementCache statementCache;
+
   protected final Logger logger = Logger.getLogger(this.getClass().getName());
 
   /**
@@ -67,6 +69,7 @@ public abstract class FreemarkerDynamicQuerierBuilder<P, S, Q extends DynamicQue
       String scriptSource =
           defaultString(query.getMacroScript()).concat(query.getScript().getCode());// FIXME
       execution = new Template(query.getName(), scriptSource, FreemarkerConfigurations.FM_CFG);
+      statementCache = FreemarkerStatementCache.of(query);
     } catch (IOException e) {
       throw new QueryRuntimeException(e,
           "An error occurred while executing the query template [%s].", query.getName());
@@ -78,18 +81,36 @@ public abstract class FreemarkerDynamicQuerierBuilder<P, S, Q extends DynamicQue
     return build(execute(resolveParameter(param)));
   }
 
+  /**
+   * Returns the rendered statement cache or null if the query doesn't declare the shape
+   * parameters.
+   *
+   * @see FreemarkerStatementCache
+   */
+  public FreemarkerStatementCache getStatementCache() {
+    return statementCache;
+  }
+
   protected abstract Q build(Triple<QueryParameter, P, String> processed);
 
   protected Triple<QueryParameter, P, String> execute(QueryParameter param) {
+    DynamicTemplateMethodModelEx<P> tmm = getTemplateMethodModelEx();
+    if (statementCache != null && tmm.isPlaceholderOutput() && statementCache.isCacheable(param)) {
+      return executeWithCache(param, tmm);
+    }
+    return execute(param, param.getCriteria(), tmm, null);
+  }
+
+  protected Triple<QueryParameter, P, String> execute(QueryParameter param, Object criteria,
+      DynamicTemplateMethodModelEx<P> tmm, FreemarkerStatementCache.Recorder recorder) {
     try (StringWriter sw = new StringWriter()) {
       // Inject query criteria
-      Environment e = execution.createProcessingEnvironment(param.getCriteria(), sw);
+      Environment e = execution.createProcessingEnvironment(criteria, sw);
 
       // Inject template method model
-      DynamicTemplateMethodModelEx<P> tmm = getTemplateMethodModelEx();
       String tmmTyp = tmm.getType();
       checkVarNames(e, tmmTyp);
-      e.setVariable(tmmTyp, tmm);
+      e.setVariable(tmmTyp, recorder == null ? tmm : recorder.record(tmm));
 
       // Inject query limit & offset
 
@@ -101,7 +122,11 @@ public abstract class FreemarkerDynamicQuerierBuilder<P, S, Q extends DynamicQue
       if (param.getLimit() != null
           && !e.getKnownVariableNames().contains(QueryParameter.LIMIT_PARAM_NME)) {
         // For compatibility issues, temporarily use this
-        e.setVariable(QueryParameter.LIMIT_PARAM_NME, new SimpleNumber(param.getLimit()));
+        SimpleNumber limit = new SimpleNumber(param.getLimit());
+        if (recorder != null) {
+          recorder.register(limit, FreemarkerStatementCache.Source.LIMIT, null);
+        }
+        e.setVariable(QueryParameter.LIMIT_PARAM_NME, limit);
       }
 
       // if (param.getOffset() != null) {
@@ -112,7 +137,11 @@ public abstract class FreemarkerDynamicQuerierBuilder<P, S, Q extends DynamicQue
       if (param.getOffset() != null
           && !e.getKnownVariableNames().contains(QueryParameter.OFFSET_PARAM_NME)) {
         // For compatibility issues, temporarily use this
-        e.setVariable(QueryParameter.OFFSET_PARAM_NME, new SimpleNumber(param.getOffset()));
+        SimpleNumber offset = new SimpleNumber(param.getOffset());
+        if (recorder != null) {
+          recorder.register(offset, FreemarkerStatementCache.Source.OFFSET, null);
+        }
+        e.setVariable(QueryParameter.OFFSET_PARAM_NME, offset);
       }
 
       // Inject query context
@@ -121,6 +150,9 @@ public abstract class FreemarkerDynamicQuerierBuilder<P, S, Q extends DynamicQue
         for (Entry<String, Object> ctx : param.getContext().entrySet()) {
           checkVarNames(e, ctx.getKey());
           TemplateModel val = ctx.getValue() == null ? new SimpleHash(ow) : ow.wrap(ctx.getValue());
+          if (recorder != null) {
+            recorder.register(val, FreemarkerStatementCache.Source.CONTEXT, ctx.getKey());
+          }
           e.setVariable(ctx.getKey(), val);
         }
       }
@@ -135,6 +167,37 @@ public abstract class FreemarkerDynamicQuerierBuilder<P, S, Q extends DynamicQue
     }
   }
 
+  /**
+   * Execute with the rendered statement cache, if the statement of the parameter shape was cached
+   * then skip the rendering and only bind the parameter values.
+   *
+   * @param param the query parameter
+   * @param tmm the template method model
+   * @return the query parameter, the statement parameters and the statement
+   */
+  protected Triple<QueryParameter, P, String> executeWithCache(QueryParameter param,
+      DynamicTemplateMethodModelEx<P> tmm) {
+    Map<String, Object> criteria = statementCache.resolveCriteria(param);
+    String signature = statementCache.resolveSignature(param, criteria);
+    FreemarkerStatementCache.Statement statement = statementCache.get(signature);
+    if (statement != null) {
+      try {
+        statement.bind(tmm, param, criteria, execution.getObjectWrapper());
+        return Triple.of(param, tmm.getParameters(), statement.script);
+      } catch (TemplateModelException e) {
+        throw new QueryRuntimeException(e,
+            "Freemarker dynamic querier builder [%s] bind cached statement occurred error!",
+            getQuery().getName());
+      }
+    }
+    FreemarkerStatementCache.Recorder recorder =
+        statementCache.recorder(criteria, execution.getObjectWrapper());
+    Triple<QueryParameter, P, String> processed =
+        execute(param, recorder.getDataModel(), tmm, recorder);
+    statementCache.put(signature, recorder, processed.getRight());
+    return processed;
+  }
+
   /**
    * Returns a template method model use for variables handling. The "extended method" template
    * language data type: Objects that act like functions.
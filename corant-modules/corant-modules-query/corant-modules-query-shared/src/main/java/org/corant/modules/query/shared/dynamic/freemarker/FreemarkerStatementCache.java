@@ -0,0 +1,443 @@
+/*
+ * Copyright (c) 2013-2018, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.query.shared.dynamic.freemarker;
+
+import static org.corant.shared.util.Objects.max;
+import static org.corant.shared.util.Primitives.wrapArray;
+import static org.corant.shared.util.Strings.isBlank;
+import static org.corant.shared.util.Strings.split;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import org.corant.modules.query.QuerierConfig;
+import org.corant.modules.query.QueryParameter;
+import org.corant.modules.query.mapping.Query;
+import freemarker.template.ObjectWrapper;
+import freemarker.template.SimpleHash;
+import freemarker.template.SimpleNumber;
+import freemarker.template.TemplateMethodModelEx;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+
+/**
+ * corant-modules-query-shared
+ *
+ * <p>
+ * The rendered statement cache of the freemarker dynamic querier builder. The query template
+ * declares its shape parameters through the query property
+ * {@link QuerierConfig#PRO_KEY_STATEMENT_CACHE_PARAMETERS}, which means the rendered statement
+ * only depends on whether these criteria parameters are present (not null) and on the size bucket
+ * of the collection parameters. The shape signature is built from these facts and the presence of
+ * the limit, offset and query context entries.
+ *
+ * <p>
+ * On a cache miss, the template is rendered with a recording data model. The recording records
+ * which top level parameter model is passed to each template method model invocation. If all
+ * invocations can be traced back to a top level parameter and the template reads no undeclared
+ * criteria parameter, the rendered statement and the invocations are cached. On a cache hit, the
+ * render is skipped and the invocations are replayed with the current parameter values to bind
+ * the statement parameters.
+ *
+ * <p>
+ * Note: The cache only applies to the template method models that output placeholders (see
+ * {@link DynamicTemplateMethodModelEx#isPlaceholderOutput()}). The collection shape parameters
+ * are padded to the size bucket (the next power of two) by repeating the last element, this is
+ * suitable for 'IN' predicates.
+ *
+ * @author bingo 下午4:20:31
+ *
+ */
+public class FreemarkerStatementCache {
+
+  public static final int DEFAULT_MAX_SIZE = 64;
+
+  protected static final Logger logger = Logger.getLogger(FreemarkerStatementCache.class.getName());
+
+  protected final String queryName;
+  protected final Set<String> shapeParameters;
+  protected final int maxSize;
+  protected final Map<String, Statement> statements = new ConcurrentHashMap<>();
+  protected final LongAdder hits = new LongAdder();
+  protected final LongAdder misses = new LongAdder();
+
+  protected FreemarkerStatementCache(String queryName, Set<String> shapeParameters, int maxSize) {
+    this.queryName = queryName;
+    this.shapeParameters = Collections.unmodifiableSet(shapeParameters);
+    this.maxSize = max(maxSize, 1);
+  }
+
+  /**
+   * Returns a statement cache if the given query declares the shape parameters, otherwise returns
+   * null.
+   *
+   * @param query the query
+   */
+  public static FreemarkerStatementCache of(Query query) {
+    String parameters =
+        query.getProperty(QuerierConfig.PRO_KEY_STATEMENT_CACHE_PARAMETERS, String.class);
+    if (isBlank(parameters)) {
+      return null;
+    }
+    return new FreemarkerStatementCache(query.getVersionedName(),
+        new LinkedHashSet<>(Arrays.asList(split(parameters, ",", true, true))),
+        query.getProperty(QuerierConfig.PRO_KEY_STATEMENT_CACHE_MAX_SIZE, Integer.class,
+            DEFAULT_MAX_SIZE));
+  }
+
+  static int bucket(int size) {
+    return size <= 1 ? size : Integer.highestOneBit(size - 1) << 1;
+  }
+
+  /**
+   * Clear the cached statements and the statistics.
+   */
+  public void clear() {
+    statements.clear();
+    hits.reset();
+    misses.reset();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public Set<String> getShapeParameters() {
+    return shapeParameters;
+  }
+
+  public int getSize() {
+    return statements.size();
+  }
+
+  @Override
+  public String toString() {
+    return "FreemarkerStatementCache [query=" + queryName + ", size=" + getSize() + ", hits="
+        + getHits() + ", misses=" + getMisses() + "]";
+  }
+
+  /**
+   * Returns the cached statement of the given shape signature or null if not found.
+   *
+   * @param signature the shape signature
+   */
+  protected Statement get(String signature) {
+    Statement statement = statements.get(signature);
+    if (statement != null) {
+      hits.increment();
+    } else {
+      misses.increment();
+    }
+    return statement;
+  }
+
+  /**
+   * Returns whether the given query parameter can use the cache, the query criteria must be a map
+   * or null.
+   *
+   * @param param the query parameter
+   */
+  protected boolean isCacheable(QueryParameter param) {
+    return param.getCriteria() == null || param.getCriteria() instanceof Map;
+  }
+
+  /**
+   * Cache the rendered statement if the recording is replayable.
+   *
+   * @param signature the shape signature
+   * @param recorder the recorder used in rendering
+   * @param script the rendered statement
+   */
+  protected void put(String signature, Recorder recorder, String script) {
+    if (!recorder.replayable) {
+      return;
+    }
+    Set<String> undeclared = new HashSet<>(recorder.dataModel.reads);
+    undeclared.removeAll(shapeParameters);
+    if (!undeclared.isEmpty()) {
+      logger.warning(() -> String.format(
+          "The query [%s] template reads the undeclared shape parameters %s, the rendered statement can't be cached.",
+          queryName, undeclared));
+      return;
+    }
+    if (statements.size() >= maxSize) {
+      Iterator<String> it = statements.keySet().iterator();
+      while (statements.size() >= maxSize && it.hasNext()) {
+        it.next();
+        it.remove();
+      }
+    }
+    statements.put(signature, new Statement(script, recorder.invocations));
+  }
+
+  protected Recorder recorder(Map<String, Object> criteria, ObjectWrapper wrapper) {
+    return new Recorder(criteria, wrapper);
+  }
+
+  /**
+   * Resolve the criteria use to render or bind the statement, the collection shape parameters are
+   * padded to the size bucket.
+   *
+   * @param param the query parameter
+   */
+  @SuppressWarnings("unchecked")
+  protected Map<String, Object> resolveCriteria(QueryParameter param) {
+    Map<String, Object> criteria = new LinkedHashMap<>();
+    if (param.getCriteria() != null) {
+      criteria.putAll((Map<String, Object>) param.getCriteria());
+    }
+    for (String name : shapeParameters) {
+      Object value = criteria.get(name);
+      List<Object> values = null;
+      if (value instanceof Collection) {
+        values = new ArrayList<>((Collection<?>) value);
+      } else if (value != null && value.getClass().isArray()) {
+        values = new ArrayList<>(Arrays.asList(wrapArray(value)));
+      }
+      if (values != null && !values.isEmpty()) {
+        Object last = values.get(values.size() - 1);
+        for (int i = values.size(), n = bucket(values.size()); i < n; i++) {
+          values.add(last);
+        }
+        criteria.put(name, values);
+      }
+    }
+    return criteria;
+  }
+
+  /**
+   * Resolve the shape signature, the signature consists of the state of each shape parameter, the
+   * presence of limit and offset and the query context entries.
+   *
+   * @param param the query parameter
+   * @param criteria the resolved criteria
+   */
+  protected String resolveSignature(QueryParameter param, Map<String, Object> criteria) {
+    StringBuilder sb = new StringBuilder();
+    for (String name : shapeParameters) {
+      Object value = criteria.get(name);
+      if (value == null) {
+        sb.append('n');
+      } else if (value instanceof Collection) {
+        sb.append('c').append(((Collection<?>) value).size());
+      } else if (value.getClass().isArray()) {
+        sb.append('c').append(0);
+      } else {
+        sb.append('v');
+      }
+      sb.append(',');
+    }
+    sb.append(param.getLimit() == null ? 'n' : 'v').append(',');
+    sb.append(param.getOffset() == null ? 'n' : 'v');
+    if (param.getContext() != null) {
+      for (Entry<String, Object> ctx : new TreeMap<>(param.getContext()).entrySet()) {
+        sb.append(',').append(ctx.getKey()).append(ctx.getValue() == null ? ":n" : ":v");
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * corant-modules-query-shared
+   *
+   * <p>
+   * A template method model invocation, the first argument is traced back to a parameter.
+   *
+   * @author bingo 下午4:20:31
+   *
+   */
+  protected static class Invocation {
+    final Source source;
+    final String name;
+    final List<?> arguments;
+
+    Invocation(Source source, String name, List<?> arguments) {
+      this.source = source;
+      this.name = name;
+      this.arguments = arguments;
+    }
+
+    TemplateModel resolve(QueryParameter param, Map<String, Object> criteria, ObjectWrapper wrapper)
+        throws TemplateModelException {
+      switch (source) {
+        case LIMIT:
+          return new SimpleNumber(param.getLimit());
+        case OFFSET:
+          return new SimpleNumber(param.getOffset());
+        case CONTEXT:
+          Object value = param.getContext().get(name);
+          return value == null ? new SimpleHash(wrapper) : wrapper.wrap(value);
+        default:
+          return wrapper.wrap(criteria.get(name));
+      }
+    }
+  }
+
+  /**
+   * corant-modules-query-shared
+   *
+   * <p>
+   * The rendering recorder, use to trace the template method model invocations.
+   *
+   * @author bingo 下午4:20:31
+   *
+   */
+  public static class Recorder {
+    final RecordingHash dataModel;
+    final Map<TemplateModel, Invocation> sources = new IdentityHashMap<>();
+    final List<Invocation> invocations = new ArrayList<>();
+    boolean replayable = true;
+
+    Recorder(Map<String, Object> criteria, ObjectWrapper wrapper) {
+      dataModel = new RecordingHash(criteria, wrapper, this);
+    }
+
+    public SimpleHash getDataModel() {
+      return dataModel;
+    }
+
+    /**
+     * Returns a template method model that records the invocations and delegates to the given
+     * template method model.
+     *
+     * @param tmm the actual template method model
+     */
+    @SuppressWarnings("rawtypes")
+    public TemplateMethodModelEx record(TemplateMethodModelEx tmm) {
+      return arguments -> {
+        if (arguments != null && !arguments.isEmpty()) {
+          Invocation source = sources.get(arguments.get(0));
+          if (source == null) {
+            replayable = false;
+          } else if (replayable) {
+            invocations.add(new Invocation(source.source, source.name,
+                new ArrayList<>((List) arguments.subList(1, arguments.size()))));
+          }
+        }
+        return tmm.exec(arguments);
+      };
+    }
+
+    /**
+     * Register a variable model that injected into the environment.
+     *
+     * @param model the variable model
+     * @param source the variable source
+     * @param name the variable name
+     */
+    public void register(TemplateModel model, Source source, String name) {
+      sources.putIfAbsent(model, new Invocation(source, name, null));
+    }
+  }
+
+  /**
+   * corant-modules-query-shared
+   *
+   * <p>
+   * The recording data model, records the read criteria parameter names and models.
+   *
+   * @author bingo 下午4:20:31
+   *
+   */
+  protected static class RecordingHash extends SimpleHash {
+    private static final long serialVersionUID = -5014573513127536385L;
+
+    final transient Recorder recorder;
+    final Set<String> reads = new HashSet<>();
+
+    RecordingHash(Map<String, Object> criteria, ObjectWrapper wrapper, Recorder recorder) {
+      super(criteria, wrapper);
+      this.recorder = recorder;
+    }
+
+    @Override
+    public TemplateModel get(String key) throws TemplateModelException {
+      TemplateModel model = super.get(key);
+      reads.add(key);
+      if (model != null) {
+        recorder.register(model, Source.CRITERIA, key);
+      }
+      return model;
+    }
+  }
+
+  /**
+   * corant-modules-query-shared
+   *
+   * @author bingo 下午4:20:31
+   *
+   */
+  public enum Source {
+    CRITERIA, CONTEXT, LIMIT, OFFSET
+  }
+
+  /**
+   * corant-modules-query-shared
+   *
+   * <p>
+   * The cached rendered statement.
+   *
+   * @author bingo 下午4:20:31
+   *
+   */
+  protected static class Statement {
+    final String script;
+    final List<Invocation> invocations;
+
+    Statement(String script, List<Invocation> invocations) {
+      this.script = script;
+      this.invocations = invocations;
+    }
+
+    /**
+     * Replay the recorded invocations with the current parameter values.
+     *
+     * @param tmm the template method model use to collect the statement parameters
+     * @param param the query parameter
+     * @param criteria the resolved criteria
+     * @param wrapper the object wrapper
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    void bind(TemplateMethodModelEx tmm, QueryParameter param, Map<String, Object> criteria,
+        ObjectWrapper wrapper) throws TemplateModelException {
+      for (Invocation invocation : invocations) {
+        List arguments = new ArrayList<>(invocation.arguments.size() + 1);
+        arguments.add(invocation.resolve(param, criteria, wrapper));
+        arguments.addAll(invocation.arguments);
+        tmm.exec(arguments);
+      }
+    }
+  }
+}
@@ -39,9 +39,11 @@ import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.corant.modules.json.Jsons;
+import org.corant.modules.json.expression.CompiledExpression.CompiledPredicate;
 import org.corant.modules.json.expression.EvaluationContext;
 import org.corant.modules.json.expression.FunctionResolver;
 import org.corant.modules.json.expression.Node;
+import org.corant.modules.json.expression.SimpleCompiler;
 import org.corant.modules.json.expression.SimpleParser;
 import org.corant.modules.json.expression.ast.ASTFunctionNode;
 import org.corant.modules.json.expression.ast.ASTNode;
@@ -62,6 +64,10 @@ import org.corant.shared.ubiquity.Tuple.Pair;
 /**
  * corant-modules-query-shared
  *
+ * <p>
+ * The JSON expression script processor, the filter and predicate expressions are parsed and
+ * compiled once per script by {@link SimpleCompiler}, the functions are bound at compile time.
+ *
  * @author bingo 下午3:00:31
  *
  */
@@ -89,6 +95,9 @@ public class JsonExpressionScriptProcessor implements ScriptProcessor {
       new ConcurrentHashMap<>();
   static final List<FunctionResolver> functionResolvers =
       SimpleParser.resolveFunction().collect(Collectors.toList());
+  static final Function<String, Function<Object[], Object>> functionBinder =
+      name -> functionResolvers.stream().filter(fr -> fr.supports(name)).min(Sortable::compare)
+          .orElseThrow(NotSupportedException::new).resolve(name);
 
   @Inject
   protected QueryObjectMapper mapper;
@@ -121,8 +130,8 @@ public class JsonExpressionScriptProcessor implements ScriptProcessor {
   protected Function<ParameterAndResultPair, Object> createInjectFuns(FetchQuery fetchQuery,
       Script script) {
     final String code = script.getCode();
-    final Pair<Node<Boolean>, Projector> eval = resolveInjectScript(code);
-    final Node<Boolean> filter = eval.left();
+    final Pair<CompiledPredicate, Projector> eval = resolveInjectScript(code);
+    final CompiledPredicate filter = eval.left();
     final Projector projector = eval.right();
     return p -> {
       List<Map<Object, Object>> parentResults = forceCast(p.parentResult);
@@ -138,7 +147,7 @@ public class JsonExpressionScriptProcessor implements ScriptProcessor {
           }
         } else {
           for (Map<Object, Object> fr : fetchResults) {
-            if (filter.getValue(evalCtx.link(r, fr))) {
+            if (filter.test(evalCtx.link(r, fr))) {
               injectResults.add(fr);
               if (!fetchQuery.isMultiRecords()) {
                 break;
@@ -172,15 +181,15 @@ public class JsonExpressionScriptProcessor implements ScriptProcessor {
     };
   }
 
-  @SuppressWarnings("unchecked")
   protected Function<ParameterAndResult, Object> createPreFetchFuns(FetchQuery fetchQuery,
       Script script) {
     final String code = script.getCode();
-    final Node<Boolean> ast = (Node<Boolean>) SimpleParser.parse(code, MyASTNodeBuilder.INST);
+    final CompiledPredicate predicate = SimpleCompiler
+        .compilePredicate(SimpleParser.parse(code, MyASTNodeBuilder.INST), functionBinder);
     return p -> {
-      Map<Object, Object> r = (Map<Object, Object>) p.result;
+      Map<Object, Object> r = forceCast(p.result);
       MyEvaluationContext evalCtx = new MyEvaluationContext(mapper, p.parameter, functionResolvers);
-      return ast.getValue(evalCtx.link(r, null));
+      return predicate.test(evalCtx.link(r, null));
     };
   }
 
@@ -210,20 +219,22 @@ public class JsonExpressionScriptProcessor implements ScriptProcessor {
     return new Projector(mappings);
   }
 
-  protected Pair<Node<Boolean>, Projector> resolveInjectScript(String code) {
+  protected Pair<CompiledPredicate, Projector> resolveInjectScript(String code) {
     final Map<String, Object> root = Jsons.fromString(code);
     Map<String, Object> filterMap = getMapMap(root, FILTER_KEY);
     Map<String, Object> projectionMap = getMapMap(root, PROJECTION_KEY);
-    Node<Boolean> filter = null;
+    CompiledPredicate filter = null;
     Projector projector = null;
     if (filterMap != null) {
-      filter = forceCast(SimpleParser.parse(filterMap, MyASTNodeBuilder.INST));
+      filter = SimpleCompiler.compilePredicate(SimpleParser.parse(filterMap, MyASTNodeBuilder.INST),
+          functionBinder);
     }
     if (projectionMap != null) {
       projector = resolveInjectProjector(projectionMap);
     }
     if (filter == null && projector == null) {
-      filter = forceCast(SimpleParser.parse(root, MyASTNodeBuilder.INST));
+      filter = SimpleCompiler.compilePredicate(SimpleParser.parse(root, MyASTNodeBuilder.INST),
+          functionBinder);
     }
     return Pair.of(filter, projector);
   }
@@ -350,8 +361,7 @@ public class JsonExpressionScriptProcessor implements ScriptProcessor {
     @Override
     public Function<Object[], Object> resolveFunction(Node<?> node) {
       ASTFunctionNode myNode = (ASTFunctionNode) node;
-      return functionResolvers.stream().filter(fr -> fr.supports(myNode.getName()))
-          .min(Sortable::compare).orElseThrow(NotSupportedException::new).resolve(myNode.getName());
+      return functionBinder.apply(myNode.getName());
     }
 
     @Override
@@ -364,6 +374,7 @@ public class JsonExpressionScriptProcessor implements ScriptProcessor {
       } else {
         if (!queryParamMapResolved) {
           queryParameterMap = objectMapper.toObject(queryParameter, Map.class);
+          queryParamMapResolved = true;
         }
         return objectMapper.getMappedValue(queryParameterMap, myNode.getNamePath());
       }
@@ -15,6 +15,7 @@ package org.corant.modules.query.sql;
 
 import static org.corant.shared.util.Empties.sizeOf;
 import static org.corant.shared.util.Maps.getMapInteger;
+import static org.corant.shared.util.Maps.getMapString;
 import static org.corant.shared.util.Objects.max;
 import static org.corant.shared.util.Streams.batchStream;
 import java.sql.SQLException;
@@ -22,13 +23,16 @@ import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
+import org.apache.commons.dbutils.ResultSetHandler;
 import org.corant.modules.query.Querier;
+import org.corant.modules.query.QuerierConfig;
 import org.corant.modules.query.QueryParameter;
 import org.corant.modules.query.QueryParameter.StreamQueryParameter;
 import org.corant.modules.query.QueryRuntimeException;
 import org.corant.modules.query.mapping.FetchQuery;
 import org.corant.modules.query.shared.AbstractNamedQuerierResolver;
 import org.corant.modules.query.shared.AbstractNamedQueryService;
+import org.corant.modules.query.shared.PagingCountHandler.Counting;
 import org.corant.modules.query.sql.dialect.Dialect;
 
 /**
@@ -59,6 +63,32 @@ public abstract class AbstractSqlNamedQueryService extends AbstractNamedQuerySer
     }
   }
 
+  /**
+   * Execute the named query and handle the result set with the given handler directly, the rows are
+   * not materialized as maps, the fetch queries and the result hints of the query are not applied.
+   * Use for the large exports such as the columnar (Apache Arrow) results.
+   *
+   * @param <R> the handle result type
+   * @param queryName the query name
+   * @param parameter the query parameter
+   * @param handler the result set handler
+   * @return the handle result
+   */
+  public <R> R query(String queryName, Object parameter, ResultSetHandler<R> handler) {
+    SqlNamedQuerier querier = getQuerierResolver().resolve(queryName, parameter);
+    Object[] scriptParameter = querier.getScriptParameter();
+    String sql = querier.getScript();
+    Duration timeout = querier.resolveTimeout();
+    log("handle-> " + queryName, scriptParameter, sql);
+    try {
+      return getExecutor().select(sql, handler, 0, timeout, scriptParameter);
+    } catch (SQLException e) {
+      throw new QueryRuntimeException(e,
+          "An error occurred while executing the query [%s], exception [%s].", queryName,
+          e.getMessage());
+    }
+  }
+
   /**
    * {@inheritDoc}
    * <p>
@@ -68,7 +98,7 @@ public abstract class AbstractSqlNamedQueryService extends AbstractNamedQuerySer
    * query.
    * </p>
    *
-   * @see AbstractNamedQueryService#doStream(String, StreamQueryParameter)
+   * @see AbstractNamedQueryService#doStream(String, StreamQueryParameter, int)
    */
   @Override
   public <T> Stream<T> stream(String queryName, Object parameter) {
@@ -83,7 +113,8 @@ public abstract class AbstractSqlNamedQueryService extends AbstractNamedQuerySer
     useQueryParam.limit(max(querier.resolveStreamLimit(), 1));
     if (useQueryParam.getOffset() > 0 || useQueryParam.needRetry()
         || useQueryParam.getEnhancer() != null) {
-      return doStream(queryName, useQueryParam);
+      return doStream(queryName, useQueryParam, querier
+          .resolveProperty(QuerierConfig.CTX_KEY_STREAM_PREFETCH_BATCHES, Integer.class, 0));
     } else {
       Object[] scriptParameter = querier.getScriptParameter();
       String sql = querier.getScript();
@@ -99,9 +130,24 @@ public abstract class AbstractSqlNamedQueryService extends AbstractNamedQuerySer
     }
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * If the query declares the keyset ordering columns, this method use keyset(seek) paging instead
+   * of offset paging, the returned forwarding result carries a continuation token which can be
+   * passed to next query through the query parameter context.
+   * </p>
+   *
+   * @see SqlNamedQuerier#resolveKeysetColumns()
+   * @see QueryParameter#CTX_KEYSET_CONTINUATION
+   */
   @Override
   protected <T> Forwarding<T> doForward(String queryName, Object parameter) throws Exception {
     SqlNamedQuerier querier = getQuerierResolver().resolve(queryName, parameter);
+    String[] keysetColumns = querier.resolveKeysetColumns();
+    if (keysetColumns.length > 0) {
+      return doKeysetForward(queryName, querier, keysetColumns);
+    }
     Object[] scriptParameter = querier.getScriptParameter();
     String sql = querier.getScript();
     int offset = querier.resolveOffset();
@@ -124,6 +170,37 @@ public abstract class AbstractSqlNamedQueryService extends AbstractNamedQuerySer
 
   }
 
+  protected <T> Forwarding<T> doKeysetForward(String queryName, SqlNamedQuerier querier,
+      String[] keysetColumns) throws Exception {
+    Object[] scriptParameter = querier.getScriptParameter();
+    String sql = querier.getScript();
+    int limit = querier.resolveLimit();
+    Duration timeout = querier.resolveTimeout();
+    boolean descending = querier.resolveKeysetDescending();
+    Map<String, String> properties = querier.getQuery().getProperties();
+    Object[] keysetValues = KeysetContinuation.decode(getMapString(
+        querier.getQueryParameter().getContext(), QueryParameter.CTX_KEYSET_CONTINUATION),
+        keysetColumns.length);
+    String keysetSql = getDialect().getKeysetSql(sql, keysetColumns, descending,
+        keysetValues != null, limit + 1, properties);
+    Object[] keysetParameter = keysetValues != null
+        ? getDialect().getKeysetParameters(scriptParameter, keysetValues)
+        : scriptParameter;
+    log(queryName, keysetParameter, sql, "Keyset: " + keysetSql);
+    Forwarding<T> result = Forwarding.inst();
+    List<Map<String, Object>> list = getExecutor().select(keysetSql, timeout, keysetParameter);
+    int size = sizeOf(list);
+    if (size > 0) {
+      if (size > limit) {
+        list.remove(limit);
+        result.withHasNext(true);
+      }
+      result.withContinuation(KeysetContinuation.encode(list.get(list.size() - 1), keysetColumns));
+      this.fetch(list, querier);
+    }
+    return result.withResults(querier.handleResults(list));
+  }
+
   @Override
   protected <T> T doGet(String queryName, Object parameter) throws Exception {
     SqlNamedQuerier querier = getQuerierResolver().resolve(queryName, parameter);
@@ -148,18 +225,24 @@ public abstract class AbstractSqlNamedQueryService extends AbstractNamedQuerySer
     Map<String, String> properties = querier.getQuery().getProperties();
     String limitSql = getDialect().getLimitSql(sql, offset, limit, properties);
     log(queryName, scriptParameter, sql, "Limit: " + limitSql);
-    List<Map<String, Object>> list = getExecutor().select(limitSql, timeout, scriptParameter);
+    Counting counting =
+        getPagingCountHandler().start(querier, new Object[] {sql, scriptParameter}, () -> {
+          String totalSql = getDialect().getCountSql(sql, properties);
+          log("total-> " + queryName, scriptParameter, totalSql);
+          return getMapInteger(getExecutor().get(totalSql, timeout, scriptParameter),
+              Dialect.COUNT_FIELD_NAME);
+        });
+    List<Map<String, Object>> list;
+    try {
+      list = getExecutor().select(limitSql, timeout, scriptParameter);
+    } catch (SQLException | RuntimeException e) {
+      counting.cancel();
+      throw e;
+    }
     Paging<T> result = Paging.of(offset, limit);
     int size = sizeOf(list);
+    result.withTotal(counting.resolve(offset, size, limit, timeout));
     if (size > 0) {
-      if (size < limit) {
-        result.withTotal(offset + size);
-      } else {
-        String totalSql = getDialect().getCountSql(sql, properties);
-        log("total-> " + queryName, scriptParameter, totalSql);
-        result.withTotal(getMapInteger(getExecutor().get(totalSql, timeout, scriptParameter),
-            Dialect.COUNT_FIELD_NAME));
-      }
       this.fetch(list, querier);
     }
     return result.withResults(querier.handleResults(list));
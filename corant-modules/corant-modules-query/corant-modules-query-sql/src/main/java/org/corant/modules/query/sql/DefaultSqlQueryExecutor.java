@@ -24,6 +24,7 @@ import java.util.stream.Stream;
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
 import javax.sql.DataSource;
+import org.apache.commons.dbutils.ResultSetHandler;
 import org.apache.commons.dbutils.StatementConfiguration;
 import org.apache.commons.dbutils.handlers.MapHandler;
 import org.apache.commons.dbutils.handlers.MapListHandler;
@@ -103,6 +104,16 @@ public class DefaultSqlQueryExecutor implements SqlQueryExecutor {
     return forceCast(result);
   }
 
+  @Override
+  public <T> T select(String sql, ResultSetHandler<T> handler, int expectRows, Duration timeout,
+      Object... args) throws SQLException {
+    if (args.length > 0) {
+      return getRunner().select(sql, handler, expectRows, timeout, args);
+    } else {
+      return getRunner().select(sql, handler, expectRows, timeout);
+    }
+  }
+
   @Override
   public Stream<Map<String, Object>> stream(String sql, BiPredicate<Integer, Object> terminater,
       Duration timeout, Object... args) {
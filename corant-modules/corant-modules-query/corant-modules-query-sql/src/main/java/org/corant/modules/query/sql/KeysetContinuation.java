@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2013-2018, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.query.sql;
+
+import static org.corant.shared.util.Strings.isBlank;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.Map;
+import org.corant.modules.query.QueryRuntimeException;
+
+/**
+ * corant-modules-query-sql
+ *
+ * <p>
+ * The keyset(seek) paging continuation token codec, the token is built from the ordering column
+ * values of the last record of a page, the values types are kept so that they can be bound to the
+ * next keyset paging SQL statement directly. The token is opaque to the client, it only contains
+ * the ordering column values and does not use java serialization.
+ *
+ * @author bingo 下午3:02:16
+ *
+ */
+public class KeysetContinuation {
+
+  static final char SEPARATOR = ',';
+
+  private KeysetContinuation() {}
+
+  /**
+   * Decode the continuation token to the ordering column values.
+   *
+   * @param token the continuation token
+   * @param columns the number of the ordering columns
+   * @return the ordering column values or null if the given token is blank
+   */
+  public static Object[] decode(String token, int columns) {
+    if (isBlank(token)) {
+      return null;
+    }
+    String[] entries;
+    try {
+      entries = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+          .split(String.valueOf(SEPARATOR), -1);
+    } catch (IllegalArgumentException e) {
+      throw new QueryRuntimeException(e, "The keyset continuation token [%s] is illegal.", token);
+    }
+    if (entries.length != columns) {
+      throw new QueryRuntimeException(
+          "The keyset continuation token [%s] does not match the ordering columns.", token);
+    }
+    Object[] values = new Object[columns];
+    for (int i = 0; i < columns; i++) {
+      values[i] = decodeValue(entries[i], token);
+    }
+    return values;
+  }
+
+  /**
+   * Encode the ordering column values of the given record to continuation token.
+   *
+   * @param record the last record of a page
+   * @param columns the ordering columns
+   * @return the continuation token
+   */
+  public static String encode(Map<?, ?> record, String[] columns) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < columns.length; i++) {
+      if (!record.containsKey(columns[i])) {
+        throw new QueryRuntimeException(
+            "The keyset ordering column [%s] can't be found in the query result.", columns[i]);
+      }
+      if (i > 0) {
+        sb.append(SEPARATOR);
+      }
+      sb.append(encodeValue(record.get(columns[i]), columns[i]));
+    }
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  static Object decodeValue(String entry, String token) {
+    if (entry.isEmpty()) {
+      throw new QueryRuntimeException("The keyset continuation token [%s] is illegal.", token);
+    }
+    String value = URLDecoder.decode(entry.substring(1), StandardCharsets.UTF_8);
+    try {
+      switch (entry.charAt(0)) {
+        case 'S':
+          return value;
+        case 'I':
+          return Integer.valueOf(value);
+        case 'L':
+          return Long.valueOf(value);
+        case 'G':
+          return new BigInteger(value);
+        case 'M':
+          return new BigDecimal(value);
+        case 'F':
+          return Double.valueOf(value);
+        case 'B':
+          return Boolean.valueOf(value);
+        case 'T':
+          return Timestamp.from(Instant.parse(value));
+        case 'D':
+          return java.sql.Date.valueOf(LocalDate.parse(value));
+        case 'H':
+          return Time.valueOf(LocalTime.parse(value));
+        case 'i':
+          return Instant.parse(value);
+        case 'd':
+          return LocalDate.parse(value);
+        case 't':
+          return LocalDateTime.parse(value);
+        case 'o':
+          return OffsetDateTime.parse(value);
+        default:
+          throw new QueryRuntimeException("The keyset continuation token [%s] is illegal.", token);
+      }
+    } catch (RuntimeException e) {
+      if (e instanceof QueryRuntimeException) {
+        throw e;
+      }
+      throw new QueryRuntimeException(e, "The keyset continuation token [%s] is illegal.", token);
+    }
+  }
+
+  static String encodeValue(Object value, String column) {
+    final char type;
+    final String text;
+    if (value instanceof String) {
+      type = 'S';
+      text = (String) value;
+    } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      type = 'I';
+      text = value.toString();
+    } else if (value instanceof Long) {
+      type = 'L';
+      text = value.toString();
+    } else if (value instanceof BigInteger) {
+      type = 'G';
+      text = value.toString();
+    } else if (value instanceof BigDecimal) {
+      type = 'M';
+      text = ((BigDecimal) value).toPlainString();
+    } else if (value instanceof Double || value instanceof Float) {
+      type = 'F';
+      text = value.toString();
+    } else if (value instanceof Boolean) {
+      type = 'B';
+      text = value.toString();
+    } else if (value instanceof Timestamp) {
+      type = 'T';
+      text = ((Timestamp) value).toInstant().toString();
+    } else if (value instanceof java.sql.Date) {
+      type = 'D';
+      text = ((java.sql.Date) value).toLocalDate().toString();
+    } else if (value instanceof Time) {
+      type = 'H';
+      text = ((Time) value).toLocalTime().toString();
+    } else if (value instanceof java.util.Date) {
+      type = 'T';
+      text = ((java.util.Date) value).toInstant().toString();
+    } else if (value instanceof Instant) {
+      type = 'i';
+      text = value.toString();
+    } else if (value instanceof LocalDate) {
+      type = 'd';
+      text = value.toString();
+    } else if (value instanceof LocalDateTime) {
+      type = 't';
+      text = value.toString();
+    } else if (value instanceof OffsetDateTime) {
+      type = 'o';
+      text = value.toString();
+    } else if (value == null) {
+      throw new QueryRuntimeException(
+          "The keyset ordering column [%s] value can't be null in the query result.", column);
+    } else {
+      type = 'S';
+      text = value.toString();
+    }
+    return type + URLEncoder.encode(text, StandardCharsets.UTF_8);
+  }
+}
@@ -13,6 +13,8 @@
  */
 package org.corant.modules.query.sql;
 
+import static org.corant.shared.util.Strings.isBlank;
+import static org.corant.shared.util.Strings.split;
 import org.corant.modules.query.shared.dynamic.DynamicQuerier;
 
 /**
@@ -25,6 +27,29 @@ public interface SqlNamedQuerier extends DynamicQuerier<Object[], String> {
 
   String PRO_KEY_PAGINATION_PROCESS_PATTERN = ".pagination-process-pattern";
   String PRO_KEY_PAGINATION_COUNT_QUERY = ".pagination-count-query";
+  String PRO_KEY_KEYSET_COLUMNS = ".keyset-columns";
+  String PRO_KEY_KEYSET_DESCENDING = ".keyset-descending";
+
+  /**
+   * Returns the keyset(seek) paging ordering columns declared by the query, the columns are the
+   * result column labels separated by comma, the combination of the column values must be unique
+   * and non-null, for example 'created_time,id'. If returns an empty array means that the query
+   * doesn't use keyset paging.
+   */
+  default String[] resolveKeysetColumns() {
+    String columns = resolveProperty(PRO_KEY_KEYSET_COLUMNS, String.class, null);
+    if (isBlank(columns)) {
+      return new String[0];
+    }
+    return split(columns, ",", true, true);
+  }
+
+  /**
+   * Returns whether the keyset(seek) paging ordering is descending, default is false.
+   */
+  default boolean resolveKeysetDescending() {
+    return resolveProperty(PRO_KEY_KEYSET_DESCENDING, Boolean.class, Boolean.FALSE);
+  }
 
   default PaginationProcessPattern resolvePaginationProcessPattern() {
     return resolveProperty(PRO_KEY_PAGINATION_PROCESS_PATTERN, PaginationProcessPattern.class,
@@ -19,7 +19,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.BiPredicate;
 import java.util.stream.Stream;
+import org.apache.commons.dbutils.ResultSetHandler;
 import org.corant.modules.query.sql.dialect.Dialect;
+import org.corant.shared.exception.NotSupportedException;
 
 /**
  * corant-modules-query-sql
@@ -41,6 +43,25 @@ public interface SqlQueryExecutor {
   List<Map<String, Object>> select(String sql, int expectRows, Duration timeout, Object... args)
       throws SQLException;
 
+  /**
+   * Execute the given query and handle the result set with the given handler, the result set is
+   * closed after the handler returns. Use for the handlers that consume the rows directly without
+   * materializing them as maps, such as the columnar exports.
+   *
+   * @param <T> the handle result type
+   * @param sql the query sql
+   * @param handler the result set handler
+   * @param expectRows the maximum rows, 0 means no limit
+   * @param timeout the query timeout
+   * @param args the query script parameters
+   * @return the handle result
+   * @throws SQLException if a database access error occurs
+   */
+  default <T> T select(String sql, ResultSetHandler<T> handler, int expectRows, Duration timeout,
+      Object... args) throws SQLException {
+    throw new NotSupportedException();
+  }
+
   Stream<Map<String, Object>> stream(String sql, BiPredicate<Integer, Object> terminater,
       Duration timeout, Object... args);
 
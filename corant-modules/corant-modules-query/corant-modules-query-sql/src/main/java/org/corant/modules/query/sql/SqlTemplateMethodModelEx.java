@@ -79,6 +79,11 @@ public class SqlTemplateMethodModelEx extends AbstractTemplateMethodModelEx<Obje
     return arguments;
   }
 
+  @Override
+  public boolean isPlaceholderOutput() {
+    return true;
+  }
+
   @Override
   public Object[] getParameters() {
     return parameters.toArray(new Object[parameters.size()]);
@@ -14,7 +14,6 @@
 package org.corant.modules.query.sql;
 
 import static org.corant.shared.util.Objects.max;
-import java.lang.ref.Cleaner;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -30,6 +29,8 @@ import org.apache.commons.dbutils.DbUtils;
 import org.apache.commons.dbutils.QueryRunner;
 import org.apache.commons.dbutils.ResultSetHandler;
 import org.apache.commons.dbutils.StatementConfiguration;
+import org.corant.modules.query.shared.QueryStreamResources;
+import org.corant.modules.query.shared.QueryStreamResources.StreamHandle;
 import org.corant.shared.exception.CorantRuntimeException;
 import org.corant.shared.ubiquity.Mutable.MutableInteger;
 
@@ -59,20 +60,19 @@ public class StreamableQueryRunner extends QueryRunner {
       ResultSetHandler<T> resultSetHandler, BiPredicate<Integer, Object> terminater,
       Object... params) throws SQLException {
     preCondition(conn, closeConn, sql, resultSetHandler);
-    Releaser releaser = null;
+    PreparedStatement statement = null;
+    ResultSet resultSet = null;
     try {
-      PreparedStatement statement = completeStatement(prepareStatement(conn, sql), params);
-      ResultSet resultSet = wrap(statement.executeQuery());
-      releaser = new Releaser(conn, statement, resultSet, closeConn);
-      Stream<T> stream = StreamSupport
-          .stream(new ResultSetSpliterator<>(releaser, resultSetHandler, terminater), false)
-          .onClose(releaser);
-      Cleaner.create().register(resultSet, releaser::run);// JDK9+
-      return stream;
+      statement = completeStatement(prepareStatement(conn, sql), params);
+      resultSet = wrap(statement.executeQuery());
+      StreamHandle handle = QueryStreamResources.INST.open(sql,
+          new Releaser(conn, statement, resultSet, closeConn));
+      return handle.bind(StreamSupport
+          .stream(new ResultSetSpliterator<>(resultSet, resultSetHandler, terminater, handle),
+              false)
+          .onClose(handle::release));
     } catch (Exception e) {
-      if (releaser != null) {
-        releaser.run();
-      }
+      Releaser.release(resultSet, statement, conn, closeConn);
       rethrow(e, sql, params);
     }
     return Stream.empty();
@@ -153,29 +153,25 @@ public class StreamableQueryRunner extends QueryRunner {
 
   static class ResultSetSpliterator<T> extends AbstractSpliterator<T> {
     static final int CHARACTERISTICS = Spliterator.NONNULL | Spliterator.IMMUTABLE;
-    private final Runnable releaser;
+    private final StreamHandle handle;
     private final ResultSet resultSet;
     private final ResultSetHandler<T> resultSetHandler;
     private final BiPredicate<Integer, Object> terminater;
     private final MutableInteger counter = MutableInteger.of(0);
 
     public ResultSetSpliterator(ResultSet resultSet, ResultSetHandler<T> resultSetHandler,
-        BiPredicate<Integer, Object> terminater, Runnable releaser) {
+        BiPredicate<Integer, Object> terminater, StreamHandle handle) {
       super(Long.MAX_VALUE, CHARACTERISTICS);
       this.terminater = terminater;
-      this.releaser = releaser;
+      this.handle = handle;
       this.resultSet = resultSet;
       this.resultSetHandler = resultSetHandler;
     }
 
-    ResultSetSpliterator(Releaser obj, ResultSetHandler<T> resultSetHandler,
-        BiPredicate<Integer, Object> terminater) {
-      this(obj.resultSet, resultSetHandler, terminater, obj);
-    }
-
     @Override
     public boolean tryAdvance(Consumer<? super T> action) {
       try {
+        handle.touch();
         T object = resultSetHandler.handle(resultSet);
         boolean hasMore = object != null;
         if (hasMore) {
@@ -184,11 +180,11 @@ public class StreamableQueryRunner extends QueryRunner {
         if (hasMore) {
           action.accept(object);
         } else {
-          releaser.run();
+          handle.release();
         }
         return hasMore;
       } catch (Exception e) {
-        releaser.run();
+        handle.release();
         throw new CorantRuntimeException(e);
       }
     }
@@ -78,4 +78,8 @@ public class DB2Dialect implements Dialect {
     return rownumber.toString();
   }
 
+  @Override
+  public boolean supportsRowValueComparison() {
+    return true;
+  }
 }
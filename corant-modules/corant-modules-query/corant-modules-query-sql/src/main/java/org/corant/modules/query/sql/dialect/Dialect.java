@@ -13,6 +13,9 @@
  */
 package org.corant.modules.query.sql.dialect;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import org.corant.modules.query.shared.dynamic.SqlHelper;
 
@@ -75,6 +78,93 @@ public interface Dialect {
     return getLimitSql(sql, 0, limit, hints);
   }
 
+  /**
+   * Convert SQL statement to keyset(seek) paging SQL statement, the given SQL statement is wrapped
+   * as a derived table and the ordering columns must be the result column labels of the given SQL
+   * statement, the original ORDER BY part of the given SQL statement is dropped and replaced by
+   * the ordering columns. If the continued is true, a comparison predicate of the ordering columns
+   * is appended, the predicate parameters can be obtained through
+   * {@link #getKeysetParameters(Object[], Object[])}.
+   *
+   * <pre>
+   * dialect.getKeysetSql("SELECT id, name FROM t", new String[]{"id"}, false, true, 10, hints)
+   * will return
+   * SELECT * FROM ( SELECT id, name FROM t ) tmp_keyset_ WHERE id > ? ORDER BY id ASC LIMIT 10
+   * </pre>
+   *
+   * @param sql to convert SQL
+   * @param columns the ordering columns
+   * @param descending whether the ordering is descending
+   * @param continued whether the query continues from a previous page
+   * @param limit the fetched size
+   * @param hints the hints use to improve the execution process
+   * @return keyset paging SQL statement
+   */
+  default String getKeysetSql(String sql, String[] columns, boolean descending, boolean continued,
+      int limit, Map<String, ?> hints) {
+    StringBuilder keysetSql = new StringBuilder(sql.length() + 64 + columns.length * 32);
+    keysetSql.append("SELECT * FROM ( ").append(getNonOrderByPart(sql)).append(" ) tmp_keyset_");
+    if (continued) {
+      String operator = descending ? " < " : " > ";
+      keysetSql.append(" WHERE ");
+      if (columns.length == 1) {
+        keysetSql.append(columns[0]).append(operator).append("?");
+      } else if (supportsRowValueComparison()) {
+        keysetSql.append("(").append(String.join(", ", columns)).append(")").append(operator)
+            .append("(").append(String.join(", ", Collections.nCopies(columns.length, "?")))
+            .append(")");
+      } else {
+        keysetSql.append("(");
+        for (int i = 0; i < columns.length; i++) {
+          if (i > 0) {
+            keysetSql.append(" OR ");
+          }
+          keysetSql.append("(");
+          for (int j = 0; j < i; j++) {
+            keysetSql.append(columns[j]).append(" = ? AND ");
+          }
+          keysetSql.append(columns[i]).append(operator).append("?)");
+        }
+        keysetSql.append(")");
+      }
+    }
+    String direction = descending ? " DESC" : " ASC";
+    keysetSql.append(" ORDER BY ");
+    for (int i = 0; i < columns.length; i++) {
+      if (i > 0) {
+        keysetSql.append(", ");
+      }
+      keysetSql.append(columns[i]).append(direction);
+    }
+    return getLimitSql(keysetSql.toString(), 0, limit, hints);
+  }
+
+  /**
+   * Returns the parameters of the keyset(seek) paging SQL statement that is built by
+   * {@link #getKeysetSql(String, String[], boolean, boolean, int, Map)}, the keyset values are
+   * appended to the original SQL parameters in the order of their place holders.
+   *
+   * @param parameters the original SQL parameters
+   * @param keysetValues the ordering column values of the last record of the previous page
+   * @return the keyset paging SQL parameters
+   */
+  default Object[] getKeysetParameters(Object[] parameters, Object[] keysetValues) {
+    List<Object> keysetParameters = new ArrayList<>();
+    if (parameters != null) {
+      Collections.addAll(keysetParameters, parameters);
+    }
+    if (keysetValues.length == 1 || supportsRowValueComparison()) {
+      Collections.addAll(keysetParameters, keysetValues);
+    } else {
+      for (int i = 0; i < keysetValues.length; i++) {
+        for (int j = 0; j <= i; j++) {
+          keysetParameters.add(keysetValues[j]);
+        }
+      }
+    }
+    return keysetParameters.toArray();
+  }
+
   default String getNonOrderByPart(String sql) {
     return SqlHelper.removeOrderBy(sql);
   }
@@ -85,6 +175,16 @@ public interface Dialect {
    */
   boolean supportsLimit();
 
+  /**
+   * Returns whether the database supports row value comparison, for example (a, b) > (?, ?), if
+   * not the keyset(seek) paging predicate is expanded to (a > ?) OR (a = ? AND b > ?).
+   *
+   * @return supportsRowValueComparison
+   */
+  default boolean supportsRowValueComparison() {
+    return false;
+  }
+
   enum DBMS {
 
     MYSQL() {
@@ -66,4 +66,8 @@ public class H2Dialect implements Dialect {
     }
   }
 
+  @Override
+  public boolean supportsRowValueComparison() {
+    return true;
+  }
 }
@@ -64,4 +64,8 @@ public class HSQLDialect implements Dialect {
     return true;
   }
 
+  @Override
+  public boolean supportsRowValueComparison() {
+    return true;
+  }
 }
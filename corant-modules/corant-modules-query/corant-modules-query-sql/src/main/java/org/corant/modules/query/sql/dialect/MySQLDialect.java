@@ -98,4 +98,9 @@ public class MySQLDialect implements Dialect {
   public boolean supportsLimit() {
     return true;
   }
+
+  @Override
+  public boolean supportsRowValueComparison() {
+    return true;
+  }
 }
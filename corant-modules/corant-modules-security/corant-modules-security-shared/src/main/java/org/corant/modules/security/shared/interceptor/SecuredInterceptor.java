@@ -14,7 +14,6 @@
 package org.corant.modules.security.shared.interceptor;
 
 import static org.corant.shared.util.Empties.isEmpty;
-import java.util.function.Function;
 import javax.enterprise.inject.Any;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
@@ -23,6 +22,7 @@ import javax.interceptor.AroundInvoke;
 import javax.interceptor.Interceptor;
 import javax.interceptor.InvocationContext;
 import org.corant.context.AbstractInterceptor;
+import org.corant.context.InterceptorMetadatas;
 import org.corant.context.security.SecurityContexts;
 import org.corant.modules.security.AuthorizationException;
 import org.corant.modules.security.SecurityManager;
@@ -37,6 +37,10 @@ import org.corant.modules.security.shared.SimpleRoles;
 /**
  * corant-modules-security-shared
  *
+ * <p>
+ * The resolved {@link Secured} annotation and the allowed roles or permissions are computed once
+ * per intercepted bean class and member, the invocations only look them up.
+ *
  * @author bingo 下午12:35:07
  *
  */
@@ -44,6 +48,8 @@ import org.corant.modules.security.shared.SimpleRoles;
 @Secured
 public class SecuredInterceptor extends AbstractInterceptor {
 
+  static final InterceptorMetadatas<SecuredMetadata> METADATAS = new InterceptorMetadatas<>();
+
   @Inject
   @Any
   protected Instance<SecurityManager> securityManagers;
@@ -56,8 +62,9 @@ public class SecuredInterceptor extends AbstractInterceptor {
   }
 
   protected void check(InvocationContext invocationContext) throws Exception {
-    Secured secured = SecuredLiteral.of(getInterceptorAnnotation(invocationContext, Secured.class));
-    if (secured != null) {
+    SecuredMetadata metadata = getInterceptorMetadata(invocationContext, Secured.class, METADATAS,
+        SecuredMetadata::of);
+    if (metadata != null) {
       if (securityManagers.isUnsatisfied()) {
         if (SecurityExtension.DENY_ALL_NO_SECURITY_MANAGER) {
           throw new AuthorizationException(SecurityMessageCodes.UNAUTHZ_ACCESS);
@@ -65,27 +72,24 @@ public class SecuredInterceptor extends AbstractInterceptor {
           return;
         }
       }
-      if (isEmpty(secured.allowed())) {
+      if (metadata.allowed == null) {
         checkAuthenticated();
-      } else if (SecuredType.valueOf(secured.type()) == SecuredType.ROLE) {
-        checkAccess(secured, SimpleRoles::of);
       } else {
-        checkAccess(secured, SimplePermissions::of);
+        checkAccess(metadata.allowed);
       }
     }
   }
 
-  protected void checkAccess(Secured secured, Function<String[], Object> predicate) {
+  protected void checkAccess(Object allowed) {
     if (securityManagers.isResolvable()) {
-      securityManagers.get().checkAccess(SecurityContexts.getCurrent(),
-          predicate.apply(secured.allowed()));
+      securityManagers.get().checkAccess(SecurityContexts.getCurrent(), allowed);
     } else if (SecurityExtension.FIT_ANY_SECURITY_MANAGER) {
-      if (securityManagers.stream().noneMatch(
-          sm -> sm.testAccess(SecurityContexts.getCurrent(), predicate.apply(secured.allowed())))) {
+      if (securityManagers.stream()
+          .noneMatch(sm -> sm.testAccess(SecurityContexts.getCurrent(), allowed))) {
         throw new AuthorizationException(SecurityMessageCodes.UNAUTHZ_ACCESS);
       }
-    } else if (!securityManagers.stream().allMatch(
-        sm -> sm.testAccess(SecurityContexts.getCurrent(), predicate.apply(secured.allowed())))) {
+    } else if (!securityManagers.stream()
+        .allMatch(sm -> sm.testAccess(SecurityContexts.getCurrent(), allowed))) {
       throw new AuthorizationException(SecurityMessageCodes.UNAUTHZ_ACCESS);
     }
   }
@@ -104,4 +108,41 @@ public class SecuredInterceptor extends AbstractInterceptor {
     }
   }
 
+  /**
+   * corant-modules-security-shared
+   *
+   * <p>
+   * The resolved secured metadata of an intercepted member, if the allowed is null means that only
+   * the authentication is required.
+   *
+   * @author bingo 下午12:35:07
+   *
+   */
+  protected static class SecuredMetadata {
+    protected final Secured secured;
+    protected final Object allowed;
+
+    protected SecuredMetadata(Secured secured) {
+      this.secured = secured;
+      if (isEmpty(secured.allowed())) {
+        allowed = null;
+      } else if (SecuredType.valueOf(secured.type()) == SecuredType.ROLE) {
+        allowed = SimpleRoles.of(secured.allowed());
+      } else {
+        allowed = SimplePermissions.of(secured.allowed());
+      }
+    }
+
+    static SecuredMetadata of(Secured annotation) {
+      return annotation == null ? null : new SecuredMetadata(SecuredLiteral.of(annotation));
+    }
+
+    public Object getAllowed() {
+      return allowed;
+    }
+
+    public Secured getSecured() {
+      return secured;
+    }
+  }
 }
@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.modules.security.shared.interceptor;
+
+import static org.corant.context.Beans.resolve;
+import static org.corant.context.concurrent.ConcurrentExtension.ENABLE_CONCURRENT_THROTTLE_INTERCEPTOR_CFG;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import javax.enterprise.context.ApplicationScoped;
+import javax.interceptor.InvocationContext;
+import org.corant.Corant;
+import org.corant.context.AbstractInterceptor;
+import org.corant.context.Contexts;
+import org.corant.context.InterceptorMetadatas;
+import org.corant.context.concurrent.annotation.ConcurrencyThrottle;
+import org.corant.modules.security.AuthenticationData;
+import org.corant.modules.security.SecurityManager;
+import org.corant.modules.security.Subject;
+import org.corant.modules.security.Token;
+import org.corant.modules.security.annotation.Secured;
+import org.corant.modules.security.annotation.Secured.SecuredLiteral;
+import org.corant.modules.security.annotation.SecuredType;
+import org.corant.modules.security.shared.SimplePermissions;
+import org.corant.modules.security.shared.SimpleRoles;
+import org.corant.modules.security.shared.interceptor.SecuredInterceptor.SecuredMetadata;
+import org.corant.shared.util.Methods.MethodSignature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * corant-modules-security-shared
+ *
+ * <p>
+ * Compares a plain bean method call with the same call intercepted by the {@link Secured} or the
+ * {@link ConcurrencyThrottle} interceptor, and compares the cached interceptor metadata lookup with
+ * the previous per-invocation path that resolved the {@link Secured} annotation, built the allowed
+ * roles and created a {@link MethodSignature} on each call. This isn't a unit test and isn't run by
+ * the build, run the main method manually.
+ *
+ * @author bingo 下午12:35:07
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecuredInterceptorBenchmark {
+
+  public static void main(String... args) throws RunnerException {
+    new Runner(
+        new OptionsBuilder().include(SecuredInterceptorBenchmark.class.getSimpleName()).build())
+            .run();
+  }
+
+  @Benchmark
+  public int plainCall(ContainerState state) {
+    return state.plain.work(1);
+  }
+
+  @Benchmark
+  public int securedCall(ContainerState state) {
+    return state.secured.work(1);
+  }
+
+  @Benchmark
+  public Object securedMetadataCached(MetadataState state) {
+    return state.interceptor.securedCached(state.invocation);
+  }
+
+  @Benchmark
+  public Object securedMetadataPerCall(MetadataState state) {
+    return state.interceptor.securedPerCall(state.invocation);
+  }
+
+  @Benchmark
+  public int throttledCall(ContainerState state) {
+    return state.throttled.work(1);
+  }
+
+  @Benchmark
+  public Object throttleMetadataCached(MetadataState state) {
+    return state.interceptor.throttleCached(state.invocation);
+  }
+
+  @Benchmark
+  public Object throttleMetadataPerCall(MetadataState state) {
+    return state.interceptor.throttlePerCall(state.invocation);
+  }
+
+  /**
+   * corant-modules-security-shared
+   *
+   * @author bingo 下午12:35:07
+   *
+   */
+  @State(Scope.Benchmark)
+  public static class ContainerState {
+    PlainBean plain;
+    SecuredBean secured;
+    ThrottledBean throttled;
+
+    @Setup
+    public void setup() {
+      System.setProperty("corant.security.interceptor.enable", "true");
+      System.setProperty(ENABLE_CONCURRENT_THROTTLE_INTERCEPTOR_CFG, "true");
+      Corant.startup(PlainBean.class, SecuredBean.class, ThrottledBean.class,
+          PermitAllSecurityManager.class);
+      plain = resolve(PlainBean.class);
+      secured = resolve(SecuredBean.class);
+      throttled = resolve(ThrottledBean.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+      Corant.shutdown();
+    }
+  }
+
+  /**
+   * corant-modules-security-shared
+   *
+   * <p>
+   * The interceptor bindings of both beans are passed through the invocation context data like Weld
+   * does, so both paths share the same annotation lookup and only differ in what is computed per
+   * invocation.
+   *
+   * @author bingo 下午12:35:07
+   *
+   */
+  @State(Scope.Benchmark)
+  public static class MetadataState {
+    MetadataInterceptor interceptor;
+    StubInvocationContext invocation;
+
+    @Setup
+    public void setup() throws Exception {
+      Method method = SecuredBean.class.getMethod("work", int.class);
+      Set<Annotation> bindings = new HashSet<>(Arrays.asList(method.getAnnotations()));
+      bindings.addAll(
+          Arrays.asList(ThrottledBean.class.getMethod("work", int.class).getAnnotations()));
+      Map<String, Object> contextData = new HashMap<>();
+      contextData.put(Contexts.WELD_INTERCEPTOR_BINDINGS_KEY, bindings);
+      interceptor = new MetadataInterceptor();
+      invocation = new StubInvocationContext(new SecuredBean(), method, contextData);
+    }
+  }
+
+  /**
+   * corant-modules-security-shared
+   *
+   * @author bingo 下午12:35:07
+   *
+   */
+  public static class MetadataInterceptor extends AbstractInterceptor {
+
+    static final InterceptorMetadatas<Semaphore> THROTTLES = new InterceptorMetadatas<>();
+    static final Map<MethodSignature, Semaphore> SIGNATURE_THROTTLES = new ConcurrentHashMap<>();
+
+    static Semaphore createThrottle(ConcurrencyThrottle ann) {
+      return new Semaphore(Integer.max(ann.max(), ConcurrencyThrottle.DFLT_THRON), ann.fair());
+    }
+
+    Object securedCached(InvocationContext ic) {
+      return getInterceptorMetadata(ic, Secured.class, SecuredInterceptor.METADATAS,
+          SecuredMetadata::of).getAllowed();
+    }
+
+    Object securedPerCall(InvocationContext ic) {
+      Secured secured = SecuredLiteral.of(getInterceptorAnnotation(ic, Secured.class));
+      return SecuredType.valueOf(secured.type()) == SecuredType.ROLE
+          ? SimpleRoles.of(secured.allowed())
+          : SimplePermissions.of(secured.allowed());
+    }
+
+    Semaphore throttleCached(InvocationContext ic) {
+      return getInterceptorMetadata(ic, ConcurrencyThrottle.class, THROTTLES,
+          MetadataInterceptor::createThrottle);
+    }
+
+    Semaphore throttlePerCall(InvocationContext ic) {
+      ConcurrencyThrottle ann = getInterceptorAnnotation(ic, ConcurrencyThrottle.class);
+      return SIGNATURE_THROTTLES.computeIfAbsent(new MethodSignature(ic.getMethod()),
+          k -> createThrottle(ann));
+    }
+  }
+
+  /**
+   * corant-modules-security-shared
+   *
+   * @author bingo 下午12:35:07
+   *
+   */
+  @ApplicationScoped
+  public static class PermitAllSecurityManager implements SecurityManager {
+
+    @Override
+    public AuthenticationData authenticate(Token token) {
+      return null;
+    }
+
+    @Override
+    public Subject login(Token token) {
+      return null;
+    }
+
+    @Override
+    public void logout(Subject subject) {}
+
+    @Override
+    public boolean testAccess(Object context, Object roleOrPermit) {
+      return true;
+    }
+  }
+
+  /**
+   * corant-modules-security-shared
+   *
+   * @author bingo 下午12:35:07
+   *
+   */
+  @ApplicationScoped
+  public static class PlainBean {
+
+    public int work(int i) {
+      return i + 1;
+    }
+  }
+
+  /**
+   * corant-modules-security-shared
+   *
+   * @author bingo 下午12:35:07
+   *
+   */
+  @ApplicationScoped
+  public static class SecuredBean {
+
+    @Secured(allowed = "admin")
+    public int work(int i) {
+      return i + 1;
+    }
+  }
+
+  /**
+   * corant-modules-security-shared
+   *
+   * @author bingo 下午12:35:07
+   *
+   */
+  public static class StubInvocationContext implements InvocationContext {
+    final Object target;
+    final Method method;
+    final Map<String, Object> contextData;
+
+    StubInvocationContext(Object target, Method method, Map<String, Object> contextData) {
+      this.target = target;
+      this.method = method;
+      this.contextData = contextData;
+    }
+
+    @Override
+    public Constructor<?> getConstructor() {
+      return null;
+    }
+
+    @Override
+    public Map<String, Object> getContextData() {
+      return contextData;
+    }
+
+    @Override
+    public Method getMethod() {
+      return method;
+    }
+
+    @Override
+    public Object[] getParameters() {
+      return new Object[] {1};
+    }
+
+    @Override
+    public Object getTarget() {
+      return target;
+    }
+
+    @Override
+    public Object getTimer() {
+      return null;
+    }
+
+    @Override
+    public Object proceed() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setParameters(Object[] params) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * corant-modules-security-shared
+   *
+   * @author bingo 下午12:35:07
+   *
+   */
+  @ApplicationScoped
+  public static class ThrottledBean {
+
+    @ConcurrencyThrottle(max = 64)
+    public int work(int i) {
+      return i + 1;
+    }
+  }
+}
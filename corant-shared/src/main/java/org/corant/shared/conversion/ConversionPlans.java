@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2013-2021, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.shared.conversion;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * corant-shared
+ *
+ * <p>
+ * The conversion plan cache of {@link Converters#lookup(Class, Class)}, resolves each source and
+ * target class pair to the final lookup result once. The plans are keyed by the source class
+ * through a {@link ClassValue} and then by the target class, so the hit path doesn't allocate any
+ * key object. The negative results are remembered as well without cap. All the plans are
+ * invalidated when the converters or the converter factories are registered or deregistered.
+ *
+ * @author bingo 下午5:06:41
+ *
+ */
+class ConversionPlans {
+
+  static final ConversionPlans INST = new ConversionPlans();
+
+  final ClassValue<Plans> plans = new ClassValue<>() {
+    @Override
+    protected Plans computeValue(Class<?> type) {
+      return new Plans();
+    }
+  };
+  final LongAdder hits = new LongAdder();
+  final LongAdder misses = new LongAdder();
+  volatile int generation;
+
+  private ConversionPlans() {}
+
+  /**
+   * Returns the cached lookup result of the given classes or null if not resolved yet.
+   */
+  Optional<Converter<?, ?>> get(Class<?> sourceClass, Class<?> targetClass) {
+    Optional<Converter<?, ?>> plan = plans(sourceClass).get(targetClass);
+    if (plan != null) {
+      hits.increment();
+    } else {
+      misses.increment();
+    }
+    return plan;
+  }
+
+  int getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Invalidate all the plans, invoked when the converter registry changed.
+   */
+  synchronized void invalidate() {
+    generation++;
+  }
+
+  /**
+   * Cache the lookup result of the given classes, the result is discarded if the plans were
+   * invalidated since the given generation, that is the registry changed during the resolving.
+   * The check and the put are done under the monitor of the source plans which is also used to
+   * clear the plans, so a stale plan is either rejected or cleared by the next retrieval.
+   */
+  void put(Class<?> sourceClass, Class<?> targetClass, Optional<Converter<?, ?>> plan,
+      int resolvedGeneration) {
+    Plans sourcePlans = plans(sourceClass);
+    synchronized (sourcePlans) {
+      if (resolvedGeneration == generation && sourcePlans.generation == resolvedGeneration) {
+        sourcePlans.put(targetClass, plan);
+      }
+    }
+  }
+
+  Map<String, Object> statistics() {
+    long hitCount = hits.sum();
+    long missCount = misses.sum();
+    long total = hitCount + missCount;
+    return Map.of("hits", hitCount, "misses", missCount, "hitRate",
+        total == 0 ? 0d : hitCount / (double) total);
+  }
+
+  Plans plans(Class<?> sourceClass) {
+    Plans sourcePlans = plans.get(sourceClass);
+    int useGeneration = generation;
+    if (sourcePlans.generation != useGeneration) {
+      synchronized (sourcePlans) {
+        if (sourcePlans.generation != useGeneration) {
+          sourcePlans.clear();
+          sourcePlans.generation = useGeneration;
+        }
+      }
+    }
+    return sourcePlans;
+  }
+
+  /**
+   * corant-shared
+   *
+   * @author bingo 下午5:06:41
+   *
+   */
+  static class Plans extends ConcurrentHashMap<Class<?>, Optional<Converter<?, ?>>> {
+    private static final long serialVersionUID = -2391417203937045651L;
+    volatile int generation;
+  }
+}
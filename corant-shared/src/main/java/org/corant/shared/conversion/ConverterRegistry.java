@@ -81,6 +81,7 @@ public class ConverterRegistry {
   public static synchronized <S, T> void deregister(Converter<S, T> converter) {
     Class[] type = resolveTypes(converter);
     deregister(ConverterType.of(type[0], type[1])); // FIXME consider other ways
+    ConversionPlans.INST.invalidate();
   }
 
   /**
@@ -99,6 +100,7 @@ public class ConverterRegistry {
     SUPPORT_CONVERTER_FACTORIES.entrySet().stream()
         .filter(e -> areEqual(e.getValue(), converterFactory)).map(Entry::getKey)
         .forEach(ConverterRegistry::deregister);
+    ConversionPlans.INST.invalidate();
   }
 
   /**
@@ -134,6 +136,7 @@ public class ConverterRegistry {
   public static synchronized <S, T> void register(Converter<S, T> converter) {
     Class[] types = resolveTypes(converter);
     register(types[0], types[1], converter);
+    ConversionPlans.INST.invalidate();
   }
 
   /**
@@ -147,6 +150,7 @@ public class ConverterRegistry {
     if (converterFactory != null && !CONVERTER_FACTORIES.contains(converterFactory)) {
       CONVERTER_FACTORIES.add(converterFactory);
       CONVERTER_FACTORIES.sort(Sortable::compare);
+      ConversionPlans.INST.invalidate();
     }
   }
 
@@ -186,6 +190,7 @@ public class ConverterRegistry {
     SUPPORT_CONVERTER_PIPE_TYPES.clear();
     NOT_SUPPORT_TYPES.clear();
     load();
+    ConversionPlans.INST.invalidate();
   }
 
   static synchronized void deregister(ConverterType<?, ?> converterType) {
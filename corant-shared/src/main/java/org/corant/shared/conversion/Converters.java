@@ -16,6 +16,7 @@ package org.corant.shared.conversion;
 import static org.corant.shared.util.Functions.optional;
 import static org.corant.shared.util.Objects.forceCast;
 import static org.corant.shared.util.Streams.streamOf;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import org.corant.shared.conversion.converter.IdentityConverter;
@@ -39,8 +40,64 @@ import org.corant.shared.ubiquity.Tuple.Pair;
 @SuppressWarnings({"unchecked", "rawtypes"})
 public class Converters {
 
+  /**
+   * Returns the lookup statistics of the conversion plan cache, include the hit count, the miss
+   * count and the hit rate.
+   */
+  public static Map<String, Object> getLookupStatistics() {
+    return ConversionPlans.INST.statistics();
+  }
+
+  /**
+   * Lookup the converter of the given source class and target class, the result (include the
+   * negative result) is cached until the converter registry changes.
+   *
+   * @param <S> the source type
+   * @param <T> the target type
+   * @param sourceClass the source class
+   * @param targetClass the target class
+   * @return the converter or empty if not supported
+   */
   public static <S, T> Optional<Converter<S, T>> lookup(Class<S> sourceClass,
       Class<T> targetClass) {
+    Optional plan = ConversionPlans.INST.get(sourceClass, targetClass);
+    if (plan == null) {
+      int generation = ConversionPlans.INST.getGeneration();
+      plan = resolve(sourceClass, targetClass);
+      ConversionPlans.INST.put(sourceClass, targetClass, plan, generation);
+    }
+    return plan;
+  }
+
+  static synchronized Converter getMatchedConverter(Class<?> sourceClass, Class<?> targetClass) {
+    return streamOf(ConverterRegistry.getConverters())
+        .filter(e -> match(e.getKey(), sourceClass, targetClass)).map(Entry::getValue).findFirst()
+        .orElse(null);
+  }
+
+  static Pair<Converter, ConverterFactory> getMatchedConverterFromFactory(Class<?> sourceClass,
+      Class<?> targetClass) {
+    ConverterFactory factory = ConverterRegistry.getConverterFactories().stream()
+        .filter(f -> f.isSupports(sourceClass, targetClass)).min(Sortable::compare).orElse(null);
+    if (factory != null) {
+      // FIXME initialize parameter
+      return Pair.of(factory.create(targetClass, null, true), factory);
+    } else {
+      return null;
+    }
+  }
+
+  static boolean match(Class<?> a, Class<?> b) {
+    return a.isAssignableFrom(b);
+  }
+
+  static boolean match(ConverterType<?, ?> converterType, Class<?> sourceClass,
+      Class<?> targetClass) {
+    return targetClass.isAssignableFrom(converterType.getTargetClass())
+        && converterType.getSourceClass().isAssignableFrom(sourceClass);
+  }
+
+  static <S, T> Optional<Converter<S, T>> resolve(Class<S> sourceClass, Class<T> targetClass) {
     if (targetClass.isAssignableFrom(sourceClass)) {
       return optional((Converter<S, T>) IdentityConverter.INSTANCE);
     } else if (ConverterRegistry.isSupportType(sourceClass, targetClass)) {
@@ -80,32 +137,4 @@ public class Converters {
     }
   }
 
-  static synchronized Converter getMatchedConverter(Class<?> sourceClass, Class<?> targetClass) {
-    return streamOf(ConverterRegistry.getConverters())
-        .filter(e -> match(e.getKey(), sourceClass, targetClass)).map(Entry::getValue).findFirst()
-        .orElse(null);
-  }
-
-  static Pair<Converter, ConverterFactory> getMatchedConverterFromFactory(Class<?> sourceClass,
-      Class<?> targetClass) {
-    ConverterFactory factory = ConverterRegistry.getConverterFactories().stream()
-        .filter(f -> f.isSupports(sourceClass, targetClass)).min(Sortable::compare).orElse(null);
-    if (factory != null) {
-      // FIXME initialize parameter
-      return Pair.of(factory.create(targetClass, null, true), factory);
-    } else {
-      return null;
-    }
-  }
-
-  static boolean match(Class<?> a, Class<?> b) {
-    return a.isAssignableFrom(b);
-  }
-
-  static boolean match(ConverterType<?, ?> converterType, Class<?> sourceClass,
-      Class<?> targetClass) {
-    return targetClass.isAssignableFrom(converterType.getTargetClass())
-        && converterType.getSourceClass().isAssignableFrom(sourceClass);
-  }
-
 }
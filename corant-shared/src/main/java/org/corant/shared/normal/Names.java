@@ -56,6 +56,8 @@ public interface Names {
     String CFG_ADJUST_PREFIX = CFG_ADJUST_KEY + NAME_SPACE_SEPARATORS;
     String CFG_LOCATION_EXCLUDE_PATTERN =
         CORANT_CFG_PREFIX + NAME_SPACE_SEPARATORS + "location.exclude.pattern";
+    String CFG_SNAPSHOT_ENABLE = CORANT_CFG_PREFIX + NAME_SPACE_SEPARATORS + "snapshot.enable";
+    String CFG_DYNAMIC_SOURCES = CORANT_CFG_PREFIX + NAME_SPACE_SEPARATORS + "dynamic-sources";
   }
 
   interface JndiNames {
@@ -33,6 +33,7 @@ import java.util.Locale;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
 import org.corant.shared.exception.CorantRuntimeException;
 import org.corant.shared.ubiquity.Tuple.Pair;
@@ -229,6 +230,21 @@ public class Identifiers {
       }
     }
 
+    /**
+     * Generate the given number of ids, the generated ids are in ascending order.
+     *
+     * @param timeGener the time supplier
+     * @param size the number of the ids to be generated
+     * @return the generated ids
+     */
+    public long[] generate(Supplier<?> timeGener, int size) {
+      long[] ids = new long[size];
+      for (int i = 0; i < size; i++) {
+        ids[i] = generate(timeGener);
+      }
+      return ids;
+    }
+
     /**
      * Returns the expiration time of the generator, we use time increment as the prefix, and return
      * an unsigned long integer (64 bits), so there is a time point of failure.
@@ -396,6 +412,205 @@ public class Identifiers {
     }
   }
 
+  /**
+   * The lock-free snowflake UUID generator, has the same id layout as the
+   * {@link GeneralSnowflakeUUIDGenerator}, but the last timestamp and the sequence are packed into
+   * one long and updated with CAS instead of the monitor, and supports reserving a block of
+   * consecutive ids in one call for batch inserts.
+   *
+   * <p>
+   * The clock moving backwards is handled by the {@link ClockBackwardsPolicy}, the tolerance is the
+   * maximum milliseconds that the policy may wait for or borrow from the clock:
+   * <ul>
+   * <li>WAIT: wait until the clock catches up with the last timestamp if the clock moved backwards
+   * not more than the tolerance, otherwise fail.</li>
+   * <li>BORROW: keep generating on the last timestamp, and move to the next timestamp without
+   * waiting when the sequence is exhausted, as long as the last timestamp doesn't lead the clock
+   * more than the tolerance, otherwise fail.</li>
+   * <li>FAIL: fail immediately.</li>
+   * </ul>
+   *
+   * <p>
+   * Note: The time supplier is invoked in each generation, the delayed timing is not supported.
+   *
+   * corant-shared
+   *
+   * @author bingo 下午3:05:27
+   *
+   */
+  public static class LockFreeSnowflakeUUIDGenerator extends GeneralSnowflakeUUIDGenerator {
+
+    protected final AtomicLong state = new AtomicLong();
+    protected final ClockBackwardsPolicy clockBackwardsPolicy;
+    protected final long toleranceMs;
+    protected final long tolerance;
+
+    /**
+     * Construct a lock-free generator
+     *
+     * @param unit The prefix segment epoch time unit, current we only support MILLIS and SECOND
+     * @param workers The infix segments, use an ordered pairs, every pair contains two values, one
+     *        is the worker bits the other is the worker id
+     * @param sequenceBits The last suffix segment bits
+     * @param clockBackwardsPolicy The clock backwards policy, default is WAIT
+     * @param toleranceMs The maximum milliseconds that the clock backwards policy may wait for or
+     *        borrow from the clock
+     */
+    public LockFreeSnowflakeUUIDGenerator(ChronoUnit unit, List<Pair<Long, Long>> workers,
+        long sequenceBits, ClockBackwardsPolicy clockBackwardsPolicy, long toleranceMs) {
+      super(unit, -1, workers, sequenceBits);
+      this.clockBackwardsPolicy = defaultObject(clockBackwardsPolicy, ClockBackwardsPolicy.WAIT);
+      this.toleranceMs = Math.max(toleranceMs, 0L);
+      tolerance = this.unit == ChronoUnit.SECONDS ? this.toleranceMs / 1000L : this.toleranceMs;
+    }
+
+    /**
+     * Returns a lock-free generator with the same id layout as the given generator.
+     *
+     * @param layout the generator that provides the time unit, the workers and the sequence bits
+     * @param clockBackwardsPolicy the clock backwards policy
+     * @param toleranceMs the clock backwards tolerance milliseconds
+     */
+    public static LockFreeSnowflakeUUIDGenerator of(GeneralSnowflakeUUIDGenerator layout,
+        ClockBackwardsPolicy clockBackwardsPolicy, long toleranceMs) {
+      return new LockFreeSnowflakeUUIDGenerator(layout.getUnit(), layout.getWorkers(),
+          layout.sequenceBits, clockBackwardsPolicy, toleranceMs);
+    }
+
+    @Override
+    public String description() {
+      return super.description() + ", lock-free, clock backwards " + clockBackwardsPolicy + " "
+          + toleranceMs + "ms";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!super.equals(obj)) {
+        return false;
+      }
+      LockFreeSnowflakeUUIDGenerator other = (LockFreeSnowflakeUUIDGenerator) obj;
+      return clockBackwardsPolicy == other.clockBackwardsPolicy && toleranceMs == other.toleranceMs;
+    }
+
+    @Override
+    public Long generate(Supplier<?> timeGener) {
+      return reserve(timeGener, 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The ids are reserved in blocks, each block contains the consecutive ids of one timestamp.
+     */
+    @Override
+    public long[] generate(Supplier<?> timeGener, int size) {
+      long[] ids = new long[size];
+      int i = 0;
+      while (i < size) {
+        long first = reserve(timeGener, size - (long) i);
+        long granted = Math.min(size - (long) i, sequenceMask - (first & sequenceMask) + 1);
+        for (long j = 0; j < granted; j++) {
+          ids[i++] = first + j;
+        }
+      }
+      return ids;
+    }
+
+    public ClockBackwardsPolicy getClockBackwardsPolicy() {
+      return clockBackwardsPolicy;
+    }
+
+    public long getToleranceMs() {
+      return toleranceMs;
+    }
+
+    @Override
+    public int hashCode() {
+      final int prime = 31;
+      int result = super.hashCode();
+      result = prime * result + clockBackwardsPolicy.hashCode();
+      return prime * result + (int) (toleranceMs ^ toleranceMs >>> 32);
+    }
+
+    /**
+     * Reserve a block of consecutive ids on one timestamp and returns the first id of the block,
+     * the size of the block is the minimum of the given size and the remaining sequences of the
+     * timestamp. The sequence is the lowest segment, so the ids of the block are consecutive.
+     *
+     * @param timeGener the time supplier
+     * @param size the expected block size
+     * @return the first id of the block
+     */
+    protected long reserve(Supplier<?> timeGener, long size) {
+      for (;;) {
+        final long current = state.get();
+        final long lastTs = current >>> sequenceBits;
+        final long now = toLong(timeGener.get()) - epoch;
+        long ts = lastTs;
+        long seq = (current & sequenceMask) + 1;
+        if (now > lastTs) {
+          ts = now;
+          seq = 0;
+        } else if (now < lastTs && !tolerateBackwards(lastTs - now)) {
+          continue;
+        }
+        if (seq > sequenceMask) {
+          // the sequences of the last timestamp are exhausted
+          if (clockBackwardsPolicy == ClockBackwardsPolicy.BORROW
+              && lastTs + 1 - now <= tolerance) {
+            ts = lastTs + 1;
+            seq = 0;
+          } else {
+            waitNextTick();
+            continue;
+          }
+        }
+        long granted = Math.min(size, sequenceMask - seq + 1);
+        if (state.compareAndSet(current, ts << sequenceBits | seq + granted - 1)) {
+          return nextId(ts + epoch, seq);
+        }
+      }
+    }
+
+    /**
+     * Returns true if the generation can continue on the last timestamp, false if it should retry
+     * after waiting, or throws exception if the clock backwards is intolerable.
+     */
+    protected boolean tolerateBackwards(long backwards) {
+      if (clockBackwardsPolicy == ClockBackwardsPolicy.FAIL || backwards > tolerance) {
+        throw new CorantRuntimeException(
+            "The clock moved backwards %s %s, refusing to generate id, the policy is %s.",
+            backwards, unit.name().toLowerCase(Locale.ROOT), clockBackwardsPolicy);
+      }
+      if (clockBackwardsPolicy == ClockBackwardsPolicy.WAIT) {
+        waitNextTick();
+        return false;
+      }
+      return true;
+    }
+
+    protected void waitNextTick() {
+      if (unit == ChronoUnit.SECONDS) {
+        LockSupport.parkNanos(1_000_000L);
+      } else {
+        Thread.onSpinWait();
+      }
+    }
+
+    /**
+     * corant-shared
+     *
+     * @author bingo 下午3:05:27
+     *
+     */
+    public enum ClockBackwardsPolicy {
+      WAIT, BORROW, FAIL
+    }
+  }
+
   /**
    * <pre>
    * 根据Twitter的算法实现的id生成器，同一个应用实例内只能单例使用。 当前的实现假设，
@@ -53,7 +53,11 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TimeZone;
+import org.corant.shared.conversion.Converter;
 import org.corant.shared.conversion.ConverterHints;
+import org.corant.shared.conversion.ConverterRegistry;
+import org.corant.shared.conversion.Converters;
+import org.corant.shared.conversion.converter.AbstractConverter;
 import org.corant.shared.conversion.converter.AbstractTemporalConverter;
 import org.corant.shared.conversion.converter.AbstractTemporalConverter.TemporalFormatter;
 import org.corant.shared.resource.SourceType;
@@ -129,6 +133,29 @@ public class ConversionsTest extends TestCase {
     assertEquals(toObject(ldt, Timestamp.class), tt);
   }
 
+  @Test
+  public void testLookupPlanCache() {
+    Optional<Converter<String, Integer>> converter = Converters.lookup(String.class, Integer.class);
+    assertTrue(converter.isPresent());
+    assertSame(converter, Converters.lookup(String.class, Integer.class));
+    Optional<Converter<Thread, Locale>> notSupport = Converters.lookup(Thread.class, Locale.class);
+    assertFalse(notSupport.isPresent());
+    assertSame(notSupport, Converters.lookup(Thread.class, Locale.class));
+    assertTrue((Long) Converters.getLookupStatistics().get("hits") >= 2);
+    Converter<Thread, Locale> threadLocale = new AbstractConverter<Thread, Locale>() {
+      @Override
+      protected Locale convert(Thread value, Map<String, ?> hints) throws Exception {
+        return Locale.CHINA;
+      }
+    };
+    ConverterRegistry.register(threadLocale);
+    try {
+      assertEquals(toObject(Thread.currentThread(), Locale.class), Locale.CHINA);
+    } finally {
+      ConverterRegistry.deregister(threadLocale);
+    }
+  }
+
   @Test
   public void testNumberToNumber() {
     double d = 123.123d;
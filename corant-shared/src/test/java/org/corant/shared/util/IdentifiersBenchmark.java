@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2013-2018, Bingo.Chen (finesoft@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.corant.shared.util;
+
+import static org.corant.shared.util.Lists.listOf;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import org.corant.shared.ubiquity.Tuple.Pair;
+import org.corant.shared.util.Identifiers.GeneralSnowflakeUUIDGenerator;
+import org.corant.shared.util.Identifiers.LockFreeSnowflakeUUIDGenerator;
+import org.corant.shared.util.Identifiers.LockFreeSnowflakeUUIDGenerator.ClockBackwardsPolicy;
+
+/**
+ * corant-shared
+ *
+ * <p>
+ * The contention benchmark of the synchronized and the lock-free snowflake generators, it isn't a
+ * unit test and isn't run by the build, run the main method manually. The generators use 22
+ * sequence bits, so the throughput is bounded by the generators rather than by the per
+ * millisecond sequence cap. Two cases are measured: one id per call, which measures the monitor
+ * versus the CAS cost, and 256 ids per call, which measures the block reservation.
+ *
+ * @author bingo 上午11:02:41
+ *
+ */
+public class IdentifiersBenchmark {
+
+  static final long SEQUENCE_BITS = 22;
+  static final long DURATION_MS = 2000;
+
+  public static void main(String... args) throws InterruptedException {
+    final Supplier<?> timer = System::currentTimeMillis;
+    for (int batch : new int[] {1, 256}) {
+      for (int threads : new int[] {1, 2, 4, 8, 16}) {
+        GeneralSnowflakeUUIDGenerator synced = new GeneralSnowflakeUUIDGenerator(ChronoUnit.MILLIS,
+            -1, listOf(Pair.of(1L, 1L)), SEQUENCE_BITS);
+        LockFreeSnowflakeUUIDGenerator lockFree =
+            LockFreeSnowflakeUUIDGenerator.of(synced, ClockBackwardsPolicy.WAIT, 1000L);
+        for (GeneralSnowflakeUUIDGenerator generator : listOf(synced, lockFree)) {
+          ToLongFunction<GeneralSnowflakeUUIDGenerator> call = batch == 1 ? g -> g.generate(timer)
+              : g -> g.generate(timer, batch)[batch - 1];
+          double rate = measure(generator, call, threads) * batch;
+          System.out.println(String.format("batch %s\t%s threads\t%s\t%.0f ids/s", batch,
+              threads, generator.getClass().getSimpleName(), rate));
+        }
+      }
+    }
+  }
+
+  static double measure(GeneralSnowflakeUUIDGenerator generator,
+      ToLongFunction<GeneralSnowflakeUUIDGenerator> call, int threads)
+      throws InterruptedException {
+    final long[] calls = new long[threads];
+    final long[] sinks = new long[threads];
+    final CountDownLatch latch = new CountDownLatch(threads);
+    final ExecutorService es = Executors.newFixedThreadPool(threads);
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MS);
+    for (int t = 0; t < threads; t++) {
+      final int idx = t;
+      es.submit(() -> {
+        long count = 0;
+        long sink = 0;
+        while ((count & 1023) != 0 || System.nanoTime() < deadline) {
+          sink ^= call.applyAsLong(generator);
+          count++;
+        }
+        calls[idx] = count;
+        sinks[idx] = sink;
+        latch.countDown();
+      });
+    }
+    latch.await();
+    es.shutdown();
+    long total = 0;
+    for (long c : calls) {
+      total += c;
+    }
+    return total / (DURATION_MS / 1000.0);
+  }
+}
@@ -24,9 +24,13 @@ import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import org.corant.shared.exception.CorantRuntimeException;
 import org.corant.shared.ubiquity.Tuple.Pair;
 import org.corant.shared.util.Identifiers.GeneralSnowflakeUUIDGenerator;
+import org.corant.shared.util.Identifiers.LockFreeSnowflakeUUIDGenerator;
+import org.corant.shared.util.Identifiers.LockFreeSnowflakeUUIDGenerator.ClockBackwardsPolicy;
 import org.corant.shared.util.Identifiers.SnowflakeIpv4HostUUIDGenerator;
+import org.corant.shared.util.Identifiers.SnowflakeW10S12UUIDGenerator;
 import org.junit.Test;
 import junit.framework.TestCase;
 
@@ -96,4 +100,32 @@ public class IdentifiersTest extends TestCase {
     System.out.println("FINISHED: " + set.size());
 
   }
+
+  @Test
+  public void testLockFreeReserveBlock() {
+    LockFreeSnowflakeUUIDGenerator generator = LockFreeSnowflakeUUIDGenerator
+        .of(new SnowflakeW10S12UUIDGenerator(3L), ClockBackwardsPolicy.WAIT, 1000L);
+    long[] ids = generator.generate(System::currentTimeMillis, 10000);
+    for (int i = 1; i < ids.length; i++) {
+      assertTrue(ids[i] > ids[i - 1]);
+      assertEquals(3L, generator.parseGeneratedWorkersId(ids[i]));
+    }
+    final long[] clock = {System.currentTimeMillis()};
+    LockFreeSnowflakeUUIDGenerator borrowing = LockFreeSnowflakeUUIDGenerator
+        .of(new SnowflakeW10S12UUIDGenerator(3L), ClockBackwardsPolicy.BORROW, 10L);
+    long id = borrowing.generate(() -> clock[0]);
+    clock[0] -= 5;
+    assertTrue(borrowing.generate(() -> clock[0]) > id);
+    LockFreeSnowflakeUUIDGenerator failing = LockFreeSnowflakeUUIDGenerator
+        .of(new SnowflakeW10S12UUIDGenerator(3L), ClockBackwardsPolicy.FAIL, 10L);
+    clock[0] += 5;
+    failing.generate(() -> clock[0]);
+    clock[0] -= 5;
+    try {
+      failing.generate(() -> clock[0]);
+      fail();
+    } catch (CorantRuntimeException e) {
+      // expected
+    }
+  }
 }